@@ -0,0 +1,118 @@
+package benchmarks;
+
+import binary.BinaryCSPReader;
+import main.SolvingAlgorithm;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Provides a main method to run the benchmarks with the GC profiler.
+ * The arguments are the usual JMH command line options,
+ * such as a regular expression selecting the benchmarks.
+ * After the run, the allocated bytes per search tree node
+ * are printed for every search benchmark.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * The system property with the directory that contains
+     * the problems/ and eproblems/ directories.
+     */
+    private static final String HOME_PROPERTY = "solver.home";
+
+    /** The default solver directory, when running from benchmarks/. */
+    private static final String DEFAULT_HOME = "..";
+
+    /** The secondary result of the {@link GCProfiler} with bytes per operation. */
+    private static final String ALLOCATION_RESULT = "gc.alloc.rate.norm";
+
+    /**
+     * Resolves the given problem file against the solver directory.
+     *
+     * @param problem the problem file, relative to the solver directory
+     *
+     * @return the path to the problem file
+     */
+    static String resolve(String problem) {
+        File home = new File(System.getProperty(HOME_PROPERTY, DEFAULT_HOME));
+        return new File(home, problem).getPath();
+    }
+
+    /**
+     * Runs the selected benchmarks with the {@link GCProfiler}
+     * and prints the allocations per node of the search benchmarks.
+     *
+     * @param args the JMH command line options
+     *
+     * @throws CommandLineOptionException if the options cannot be parsed
+     * @throws RunnerException            if a benchmark fails
+     * @throws IOException                if a problem cannot be read
+     */
+    public static void main(String[] args)
+            throws CommandLineOptionException, RunnerException, IOException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("-D" + HOME_PROPERTY + "=" + System.getProperty(HOME_PROPERTY, DEFAULT_HOME));
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        System.out.println();
+        System.out.println("benchmark,problem,algorithm,nodes,bytes per solve,bytes per node");
+        for (RunResult result : results) {
+            printAllocationsPerNode(result);
+        }
+    }
+
+    /**
+     * Prints the allocated bytes per node of the given search benchmark.
+     * The node count is taken from one more search in this JVM,
+     * since the searches are deterministic.
+     * Other benchmarks are skipped.
+     *
+     * @param result the result of one benchmark with one set of parameters
+     *
+     * @throws IOException if the problem cannot be read
+     */
+    private static void printAllocationsPerNode(RunResult result) throws IOException {
+        String benchmark = result.getParams().getBenchmark();
+        String problem = result.getParams().getParam("problem");
+        String algorithm = result.getParams().getParam("algorithm");
+        SolvingAlgorithm solver;
+        if (benchmark.startsWith(SearchBenchmark.class.getName())) {
+            solver = SearchBenchmark.create(algorithm,
+                    BinaryCSPReader.readBinaryCSP(resolve(problem)));
+        } else if (benchmark.startsWith(NarySearchBenchmark.class.getName())) {
+            solver = NarySearchBenchmark.create(algorithm, resolve(problem));
+        } else {
+            return;
+        }
+        solver.solve(0, true);
+        long nodes = solver.getNumberOfNodes();
+
+        double bytes = Double.NaN;
+        for (Map.Entry<String, Result> secondary : result.getSecondaryResults().entrySet()) {
+            if (secondary.getKey().endsWith(ALLOCATION_RESULT)) {
+                bytes = secondary.getValue().getScore();
+            }
+        }
+        String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+        System.out.println(name + "," + problem + "," + algorithm + "," + nodes + ","
+                + bytes + "," + (bytes / Math.max(nodes, 1)));
+    }
+
+}
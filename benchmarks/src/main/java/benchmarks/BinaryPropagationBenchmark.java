@@ -0,0 +1,115 @@
+package benchmarks;
+
+import binary.BinaryCSP;
+import binary.BinaryCSPReader;
+import binary.algorithms.Arc;
+import binary.algorithms.Prune;
+import binary.types.BinaryConstraint;
+import binary.types.Variable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the binary propagation primitives that run at every search node:
+ * revising an {@link Arc}, finding the supported values of a constraint
+ * and retaining values in a domain.
+ * Each operation is undone, so the state is the same for every invocation.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BinaryPropagationBenchmark {
+
+    /** The problem whose first constraint is revised. */
+    @Param({"problems/FinnishSudoku.csp", "problems/L3_9.csp", "problems/8Queens.csp"})
+    private String problem;
+
+    /** The {@link BinaryCSP} read from the {@link #problem} file. */
+    private BinaryCSP csp;
+
+    /** The first constraint of the {@link #csp}. */
+    private BinaryConstraint constraint;
+
+    /** The first {@link Variable} of the {@link #constraint}. */
+    private Variable first;
+
+    /** The {@link Arc} from the first to the second {@link Variable}. */
+    private Arc arc;
+
+    /** The domain of the second {@link Variable}, with only its first value. */
+    private LinkedHashSet<Integer> assigned;
+
+    /**
+     * Reads the {@link #problem} and assigns the second {@link Variable}
+     * of its first constraint, so that revisions remove values.
+     *
+     * @throws IOException if the {@link #problem} cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        csp = BinaryCSPReader.readBinaryCSP(BenchmarkRunner.resolve(problem));
+        constraint = csp.getConstraints().getFirst();
+        first = csp.getVariable(constraint.getVar1());
+        Variable second = csp.getVariable(constraint.getVar2());
+        int value = second.getDomain().iterator().next();
+        second.assign(value);
+        assigned = second.getDomain();
+        arc = new Arc(first, second);
+    }
+
+    /**
+     * Revises the {@link #arc} and undoes the removals.
+     *
+     * @return the performed {@link Prune}
+     */
+    @Benchmark
+    public Prune arcPrune() {
+        Prune prune = arc.prune(csp);
+        prune.undo();
+        return prune;
+    }
+
+    /**
+     * Finds the values of the first {@link Variable}
+     * that are supported by the assigned value.
+     *
+     * @return the supported values
+     */
+    @Benchmark
+    public LinkedHashSet<Integer> getFirstSupported() {
+        return constraint.getFirstSupported(assigned);
+    }
+
+    /**
+     * Retains the supported values of the first {@link Variable}
+     * and restores the removed ones.
+     *
+     * @return the removed values
+     */
+    @Benchmark
+    public LinkedHashSet<Integer> retainValues() {
+        LinkedHashSet<Integer> removed = first.retainValues(constraint.getFirstSupported(assigned));
+        removed.forEach(first::addToDomain);
+        return removed;
+    }
+
+}
@@ -0,0 +1,98 @@
+package benchmarks;
+
+import nary.ECSPReader;
+import nary.ECSProblem;
+import nary.constraints.Assignment;
+import nary.constraints.NaryConstraint;
+import nary.types.BaseVariable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the N-ary propagation primitives:
+ * finding the supported values of a {@link NaryConstraint}
+ * and checking whether two {@link Assignment}s are compatible.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NaryPropagationBenchmark {
+
+    /** The problem whose first shared constraint is used. */
+    @Param({"eproblems/L2_4.ecsp", "eproblems/allInterval.ecsp"})
+    private String problem;
+
+    /** The constraint shared by the first two variables of the problem. */
+    private NaryConstraint constraint;
+
+    /** The name of the variable whose supported values are found. */
+    private String pruned;
+
+    /** The assignment of the other variable to its first value. */
+    private Assignment current;
+
+    /** A valid assignment of the {@link #constraint}. */
+    private Assignment tuple;
+
+    /** Reads and prepares the {@link #problem} and picks a shared constraint. */
+    @Setup
+    public void setUp() {
+        ECSProblem ecsp = ECSPReader.parse(BenchmarkRunner.resolve(problem));
+        ecsp.prepare();
+        ArrayList<BaseVariable> vars = new ArrayList<>();
+        ecsp.forEachVariable((name, var) -> vars.add(var));
+        for (BaseVariable var : vars) {
+            for (BaseVariable other : vars) {
+                LinkedHashSet<NaryConstraint> common = var.getCommonConstraints(other);
+                if (var != other && constraint == null && !common.isEmpty()) {
+                    constraint = common.iterator().next();
+                    pruned = var.getName();
+                    current = new Assignment();
+                    current.put(other.getName(), other.getDomain().iterator().next());
+                }
+            }
+        }
+        tuple = constraint.getValue(0);
+    }
+
+    /**
+     * Finds the supported values of one variable,
+     * given the assignment of the other.
+     *
+     * @return the supported values
+     */
+    @Benchmark
+    public LinkedHashSet<Integer> getSupported() {
+        return constraint.getSupported(current, pruned);
+    }
+
+    /**
+     * Checks a valid assignment of the constraint against the current one.
+     *
+     * @return true iff the assignments are compatible
+     */
+    @Benchmark
+    public boolean isCompatibleWith() {
+        return tuple.isCompatibleWith(current);
+    }
+
+}
@@ -0,0 +1,86 @@
+package benchmarks;
+
+import main.SolvingAlgorithm;
+import nary.ECSPReader;
+import nary.ECSProblem;
+import nary.algorithms.NaryForwardChecking;
+import nary.algorithms.NaryMaintainingArcConsistency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete searches for all solutions
+ * of the bundled N-ary problems.
+ * The problem is read and prepared again before every search,
+ * outside of the measurement, because the search changes the domains.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class NarySearchBenchmark {
+
+    /** The problem to solve. */
+    @Param({"eproblems/simple.ecsp", "eproblems/L2_4.ecsp", "eproblems/allInterval.ecsp"})
+    private String problem;
+
+    /** The algorithm to solve with, either FC or MAC3. */
+    @Param({"FC", "MAC3"})
+    private String algorithm;
+
+    /** The solver for the freshly read {@link #problem}. */
+    private SolvingAlgorithm solver;
+
+    /** Reads and prepares the {@link #problem} and creates the {@link #solver}. */
+    @Setup(Level.Invocation)
+    public void setUp() {
+        solver = create(algorithm, BenchmarkRunner.resolve(problem));
+    }
+
+    /**
+     * Finds all solutions of the {@link #problem}.
+     *
+     * @return the found solutions
+     */
+    @Benchmark
+    public Set<? extends Map> solve() {
+        return solver.solve(0, true);
+    }
+
+    /**
+     * Reads and prepares the given problem and creates the named algorithm.
+     *
+     * @param algorithm either FC or MAC3
+     * @param filename  the .ecsp file to read
+     *
+     * @return the created {@link SolvingAlgorithm}
+     */
+    static SolvingAlgorithm create(String algorithm, String filename) {
+        ECSProblem problem = ECSPReader.parse(filename);
+        problem.prepare();
+        if (algorithm.equals("FC")) {
+            return new NaryForwardChecking(problem);
+        }
+        return new NaryMaintainingArcConsistency(problem);
+    }
+
+}
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import binary.BinaryCSP;
+import binary.BinaryCSPReader;
+import binary.algorithms.ForwardChecking;
+import binary.algorithms.MaintainingArcConsistency;
+import main.SolvingAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete searches for all solutions
+ * of the bundled binary problems.
+ * The problem is read again before every search, outside of the measurement,
+ * because the search changes the domains.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SearchBenchmark {
+
+    /** The problem to solve. */
+    @Param({"problems/8Queens.csp", "problems/10Queens.csp", "problems/L2_7.csp",
+            "problems/L3_9.csp", "problems/FinnishSudoku.csp"})
+    private String problem;
+
+    /** The algorithm to solve with, either FC or MAC3. */
+    @Param({"FC", "MAC3"})
+    private String algorithm;
+
+    /** The solver for the freshly read {@link #problem}. */
+    private SolvingAlgorithm solver;
+
+    /**
+     * Reads the {@link #problem} and creates the {@link #solver}.
+     *
+     * @throws IOException if the {@link #problem} cannot be read
+     */
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+        solver = create(algorithm, BinaryCSPReader.readBinaryCSP(BenchmarkRunner.resolve(problem)));
+    }
+
+    /**
+     * Finds all solutions of the {@link #problem}.
+     *
+     * @return the found solutions
+     */
+    @Benchmark
+    public Set<? extends Map> solve() {
+        return solver.solve(0, true);
+    }
+
+    /**
+     * Creates the named algorithm for the given {@link BinaryCSP}.
+     *
+     * @param algorithm either FC or MAC3
+     * @param csp       the {@link BinaryCSP} to solve
+     *
+     * @return the created {@link SolvingAlgorithm}
+     */
+    static SolvingAlgorithm create(String algorithm, BinaryCSP csp) {
+        if (algorithm.equals("FC")) {
+            return new ForwardChecking(csp);
+        }
+        return new MaintainingArcConsistency(csp);
+    }
+
+}
@@ -1,25 +1,44 @@
 package binary;
 
+import binary.algorithms.Solution;
+import binary.propagators.DeferredPropagator;
+import binary.propagators.TableRecognizer;
 import binary.types.AscendingVariable;
 import binary.types.BinaryConstraint;
 import binary.types.BinaryConstraintStorage;
+import binary.types.LazyRelation;
+import binary.types.Relation;
 import binary.types.Variable;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
  * Represents a binary constraint satisfaction problem.
+ * The {@link BinaryConstraint}s and their {@link Relation}s define the problem
+ * and are not changed by solving, while the {@link Variable}s hold the state
+ * of a search. A {@link #fork()} shares the definition and has its own state,
+ * so one loaded problem can be solved by several threads at once.
  *
- * @version 3.1
+ * @version 3.4
  */
 public final class BinaryCSP {
 
     /** The {@link Variable}s of this {@link BinaryCSP}. */
     private Variable[] variables;
 
+    /** The bounds of the domains of the {@link #variables}, as given. */
+    private int[][] bounds;
+
     /** The {@link BinaryConstraint}s between the variables. */
     private BinaryConstraintStorage binaryConstraints;
 
+    /** Whether each {@link Variable} has been detached from the search. */
+    private boolean[] detached;
+
     /**
      * Creates a {@link BinaryCSP} with
      * the given domain bounds and {@link BinaryConstraint}s.
@@ -31,10 +50,79 @@ public final class BinaryCSP {
      */
     public BinaryCSP(int[][] bounds, BinaryConstraintStorage constraints) {
         binaryConstraints = constraints;
+        this.bounds = bounds;
+        restore();
+    }
+
+    /**
+     * Creates a {@link BinaryCSP} with the bounds of this one
+     * and copies of its {@link Variable}s and {@link BinaryConstraint}s.
+     *
+     * @param definition the {@link BinaryCSP} to fork
+     */
+    private BinaryCSP(BinaryCSP definition) {
+        bounds = definition.bounds;
+        binaryConstraints = definition.binaryConstraints.copy();
+        variables = new Variable[definition.variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            variables[i] = definition.variables[i].copy();
+        }
+        detached = definition.detached.clone();
+    }
+
+    /**
+     * Creates a {@link BinaryCSP} to be solved independently of this one.
+     * It shares the tables of the {@link BinaryConstraint}s and their propagators,
+     * which are never changed in place, but has its own copies of the constraints
+     * and of the current domains. Restoring either problem specialises only its own
+     * constraints, and constraints can be added to or removed from either problem,
+     * for example by preprocessing, without affecting the other.
+     * This {@link BinaryCSP} should not be solved while its forks are used,
+     * as that changes the domains that later forks copy.
+     *
+     * @return the fork of this {@link BinaryCSP}
+     */
+    public BinaryCSP fork() {
+        return new BinaryCSP(this);
+    }
+
+    /**
+     * Gives every {@link Variable} its full domain again
+     * and attaches every detached {@link Variable}, so the problem can be solved again.
+     * The {@link Variable}s are replaced, and the {@link BinaryConstraint}s
+     * are specialised for the new ones.
+     * Constraints added or removed since creation are kept.
+     */
+    public void restore() {
         variables = new Variable[bounds.length];
         for (int i = 0; i < bounds.length; i++) {
             variables[i] = new AscendingVariable(i, bounds[i][0], bounds[i][1]);
         }
+        detached = new boolean[bounds.length];
+        for (BinaryConstraint c : binaryConstraints.getConstraints()) {
+            specialise(c);
+        }
+    }
+
+    /**
+     * Replaces the table of the given {@link BinaryConstraint}
+     * with a specialised {@link binary.types.Propagator}
+     * if the table is recognised.
+     * A table that is not loaded yet is recognised on its first revision.
+     *
+     * @param c the {@link BinaryConstraint} to specialise
+     *
+     * @see TableRecognizer
+     */
+    private void specialise(BinaryConstraint c) {
+        Variable first = variables[c.getVar1()];
+        Variable second = variables[c.getVar2()];
+        Relation relation = c.getRelation();
+        if (relation instanceof LazyRelation && !((LazyRelation) relation).isLoaded()) {
+            c.setPropagator(new DeferredPropagator(c, first, second));
+        } else {
+            c.setPropagator(TableRecognizer.recognize(c, first, second));
+        }
     }
 
     /**
@@ -89,15 +177,124 @@ public final class BinaryCSP {
                 || binaryConstraints.get(id2, id1) != null;
     }
 
+    /**
+     * Stores the given {@link BinaryConstraint},
+     * replacing any {@link BinaryConstraint} with the same scope.
+     *
+     * @param constraint the {@link BinaryConstraint} to store
+     */
+    public void setBinaryConstraint(BinaryConstraint constraint) {
+        specialise(constraint);
+        binaryConstraints.map(constraint.getVar1(), constraint.getVar2(), constraint);
+    }
+
+    /**
+     * Checks the given {@link Solution} against the tables
+     * of all {@link BinaryConstraint}s.
+     *
+     * @param solution the {@link Solution} to verify
+     *
+     * @return true iff every {@link BinaryConstraint} permits the solution
+     */
+    public boolean isSolution(Solution solution) {
+        for (BinaryConstraint c : binaryConstraints.getConstraints()) {
+            Integer v1 = solution.get(c.getVar1());
+            Integer v2 = solution.get(c.getVar2());
+            if (v1 == null || v2 == null || !c.allows(v1, v2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the {@link BinaryConstraint} with the given scope, if any.
+     *
+     * @param var1 the first {@link Variable}
+     * @param var2 the second {@link Variable}
+     */
+    public void removeBinaryConstraint(Variable var1, Variable var2) {
+        binaryConstraints.remove(var1.getId(), var2.getId());
+    }
+
+    /** @return the number of repeated scopes merged while reading */
+    public int getMergedDuplicates() {
+        return binaryConstraints.getMergedDuplicates();
+    }
+
+    /**
+     * Counts the {@link Relation}s stored for the {@link BinaryConstraint}s.
+     * Constraints that share an interned {@link Relation} count it once.
+     *
+     * @return the number of distinct {@link Relation} instances
+     */
+    public int countDistinctRelations() {
+        Set<Relation> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (BinaryConstraint c : binaryConstraints.getConstraints()) {
+            distinct.add(c.getRelation());
+        }
+        return distinct.size();
+    }
+
+    /**
+     * Counts the {@link BinaryConstraint}s whose table
+     * is loaded lazily and has been loaded.
+     *
+     * @return the number of loaded lazy tables
+     */
+    public int countLoadedLazyRelations() {
+        int count = 0;
+        for (BinaryConstraint c : binaryConstraints.getConstraints()) {
+            Relation relation = c.getRelation();
+            if (relation instanceof LazyRelation && ((LazyRelation) relation).isLoaded()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Detaches the given {@link Variable} from the search.
+     * It is no longer visited by {@link #forEachVariable(Consumer)},
+     * but can still be retrieved by its id.
+     *
+     * @param var the {@link Variable} to detach
+     */
+    public void detachVariable(Variable var) {
+        detached[var.getId()] = true;
+    }
+
+    /** @return a list of all {@link BinaryConstraint}s */
+    public LinkedList<BinaryConstraint> getConstraints() {
+        return binaryConstraints.getConstraints();
+    }
+
+    /**
+     * @param id the id of the {@link Variable}
+     *
+     * @return the {@link Variable} with the given id
+     */
+    public Variable getVariable(int id) {
+        return variables[id];
+    }
+
+    /** @return the number of {@link Variable}s in this {@link BinaryCSP} */
+    public int getNumberOfVariables() {
+        return variables.length;
+    }
+
     /**
      * Invokes the provided {@link Consumer}
-     * on each {@link Variable} in this {@link BinaryCSP}.
+     * on each {@link Variable} in this {@link BinaryCSP}
+     * that has not been detached.
      *
      * @param consumer the {@link Consumer} to invoke on each {@link Variable}
      */
     public void forEachVariable(Consumer<Variable> consumer) {
         for (Variable var : variables) {
-            consumer.accept(var);
+            if (!detached[var.getId()]) {
+                consumer.accept(var);
+            }
         }
     }
 
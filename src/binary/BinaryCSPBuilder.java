@@ -0,0 +1,163 @@
+package binary;
+
+import binary.types.BinaryConstraint;
+import binary.types.BinaryConstraintStorage;
+import binary.types.BitMatrix;
+import binary.types.PairPredicate;
+import binary.types.PredicateRelation;
+import binary.types.RelationPool;
+
+import java.util.ArrayList;
+
+/**
+ * Builds a {@link BinaryCSP} in memory, without writing or parsing a file.
+ * Variables are added first, then constraints, for example
+ * <pre>
+ * BinaryCSP csp = new BinaryCSPBuilder()
+ *         .variables(3, 0, 2)
+ *         .constraint(0, 1, (x, y) -&gt; x != y)
+ *         .constraint(1, 2, "x &lt; y")
+ *         .build();
+ * </pre>
+ * Equal relations are interned, as when reading a file.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class BinaryCSPBuilder implements ModelSink {
+
+    /** The domain bounds of the variables added so far. */
+    private ArrayList<int[]> bounds = new ArrayList<>();
+
+    /** The constraints added so far. */
+    private BinaryConstraintStorage constraints = new BinaryConstraintStorage();
+
+    /** The {@link RelationPool} of the added constraints. */
+    private RelationPool pool = new RelationPool();
+
+    /**
+     * Adds a variable with the given domain bounds.
+     * Its index is the number of variables added before it.
+     *
+     * @param lower the lower bound of the domain
+     * @param upper the upper bound of the domain
+     *
+     * @return this {@link BinaryCSPBuilder}
+     *
+     * @throws IllegalStateException if a constraint has already been added
+     */
+    public BinaryCSPBuilder variable(int lower, int upper) {
+        if (!constraints.getConstraints().isEmpty()) {
+            throw new IllegalStateException("Variables must be added before constraints");
+        }
+        bounds.add(new int[]{lower, upper});
+        return this;
+    }
+
+    @Override
+    public BinaryCSPBuilder comment(String text) {
+        return this;
+    }
+
+    @Override
+    public BinaryCSPBuilder variables(int[][] domainBounds) {
+        for (int[] b : domainBounds) {
+            variable(b[0], b[1]);
+        }
+        return this;
+    }
+
+    @Override
+    public BinaryCSPBuilder variables(int count, int lower, int upper) {
+        for (int i = 0; i < count; i++) {
+            variable(lower, upper);
+        }
+        return this;
+    }
+
+    @Override
+    public BinaryCSPBuilder constraint(int var1, int var2, PairPredicate allowed) {
+        BitMatrix pairs = emptyRelation(var1, var2);
+        int[] b1 = bounds.get(var1);
+        int[] b2 = bounds.get(var2);
+        for (int x = b1[0]; x <= b1[1]; x++) {
+            for (int y = b2[0]; y <= b2[1]; y++) {
+                if (allowed.test(x, y)) {
+                    pairs.set(x, y);
+                }
+            }
+        }
+        return add(pool.intern(var1, var2, pairs));
+    }
+
+    @Override
+    public BinaryCSPBuilder constraint(int var1, int var2, int[][] tuples) {
+        BitMatrix pairs = emptyRelation(var1, var2);
+        for (int[] tuple : tuples) {
+            pairs.set(tuple[0], tuple[1]);
+        }
+        return add(pool.intern(var1, var2, pairs));
+    }
+
+    @Override
+    public BinaryCSPBuilder constraint(int var1, int var2, String condition) {
+        checkScope(var1, var2);
+        PredicateRelation relation = new PredicateRelation(PredicateCompiler.compile(condition),
+                condition, bounds.get(var1), bounds.get(var2));
+        return add(pool.intern(var1, var2, relation));
+    }
+
+    /**
+     * Creates an empty relation over the domain bounds of the given variables.
+     *
+     * @param var1 the index of the first variable
+     * @param var2 the index of the second variable
+     *
+     * @return the empty {@link BitMatrix}
+     */
+    private BitMatrix emptyRelation(int var1, int var2) {
+        checkScope(var1, var2);
+        int[] b1 = bounds.get(var1);
+        int[] b2 = bounds.get(var2);
+        return new BitMatrix(b1[0], b1[1], b2[0], b2[1]);
+    }
+
+    /**
+     * Checks that the given variables have been added.
+     *
+     * @param var1 the index of the first variable
+     * @param var2 the index of the second variable
+     *
+     * @throws IllegalArgumentException if either variable does not exist
+     */
+    private void checkScope(int var1, int var2) {
+        if (var1 < 0 || var1 >= bounds.size() || var2 < 0 || var2 >= bounds.size()) {
+            throw new IllegalArgumentException("No variable for c(" + var1 + ", " + var2
+                    + "), there are " + bounds.size() + " variables");
+        }
+    }
+
+    /**
+     * Adds the given {@link BinaryConstraint}.
+     * A repeated scope further restricts the same variables.
+     *
+     * @param c the {@link BinaryConstraint} to add
+     *
+     * @return this {@link BinaryCSPBuilder}
+     */
+    private BinaryCSPBuilder add(BinaryConstraint c) {
+        constraints.add(c);
+        return this;
+    }
+
+    /**
+     * Creates the {@link BinaryCSP} of the added variables and constraints.
+     * The builder must not be used afterwards.
+     *
+     * @return the built {@link BinaryCSP}
+     */
+    public BinaryCSP build() {
+        return new BinaryCSP(bounds.toArray(new int[0][]), constraints);
+    }
+
+}
@@ -2,24 +2,31 @@ package binary;
 
 import binary.types.BinaryConstraint;
 import binary.types.BinaryConstraintStorage;
-import binary.types.BinaryTuple;
+import binary.types.BitMatrix;
+import binary.types.PredicateRelation;
+import binary.types.Relation;
+import binary.types.RelationPool;
+import events.Events;
+import events.ParseEvent;
 
-import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StreamTokenizer;
-import java.util.LinkedHashSet;
 
 /**
- * A reader tailored for binary extensional CSPs.
+ * A reader tailored for binary CSPs with extensional
+ * and intensional constraints.
  * It is created from a FileReader and a StreamTokenizer.
+ * Equal relations are interned in a {@link RelationPool},
+ * so that each is stored once however many scopes it has.
  *
- * @version 2.2
+ * @version 2.6
  */
 public final class BinaryCSPReader {
 
     /** The {@link StreamTokenizer} used to read the csp file. */
-    private static StreamTokenizer tokenizer;
+    private StreamTokenizer tokenizer;
 
     /**
      * A main method for simple testing.
@@ -36,6 +43,8 @@ public final class BinaryCSPReader {
         try {
             BinaryCSP csp = readBinaryCSP(args[0]);
             System.out.println(csp);
+            System.out.println(csp.getConstraints().size() + " constraints share "
+                    + csp.countDistinctRelations() + " relations");
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -49,49 +58,88 @@ public final class BinaryCSPReader {
      * NB vars indexed from 0
      * We assume that the domain of all vars is specified in terms of bounds
      * <lb>, <ub> (one per var)
-     * Then the list of constraints
+     * Then the list of constraints, each either extensional
      * c(<varno>, <varno>)
      * binary tuples
      * <domain val>, <domain val>
+     * or intensional, with the condition on a single line
+     * c(<varno>, <varno>): <condition over x and y>
+     * where x is the value of the first and y of the second variable
      *
      * @param filename the name of the file to read
      *
      * @return the parsed {@link BinaryCSP}
      *
      * @throws IOException if an I/O error occurs
+     * @see PredicateCompiler
      */
     public static BinaryCSP readBinaryCSP(String filename) throws IOException {
-        FileReader fileReader = instantiateTokenizer(filename);
+        ParseEvent event = Events.beginParse();
+        try (FileReader fileReader = new FileReader(filename)) {
+            BinaryCSP csp = new BinaryCSPReader(fileReader).read();
+            Events.endParse(event, filename, "tokenizer", csp);
+            return csp;
+        }
+    }
+
+    /**
+     * Creates a {@link BinaryCSPReader} that reads from the given {@link Reader}.
+     * Each file is read by its own {@link BinaryCSPReader},
+     * so that several files can be read concurrently.
+     *
+     * @param reader the {@link Reader} of the csp file
+     */
+    private BinaryCSPReader(Reader reader) {
+        tokenizer = new StreamTokenizer(reader);
+        useDefaultSyntax();
+    }
+
+    /**
+     * Reads the whole csp file.
+     *
+     * @return the parsed {@link BinaryCSP}
+     *
+     * @throws IOException if an I/O error occurs
+     * @see BinaryCSPReader#readBinaryCSP(String)
+     */
+    private BinaryCSP read() throws IOException {
         // number of variables
         tokenizer.nextToken();
         int n = (int) tokenizer.nval;
         int[][] domainBounds = readDomainBounds(n);
-        BinaryConstraintStorage constraints = readBinaryConstraints();
-        BinaryCSP csp = new BinaryCSP(domainBounds, constraints);
-        fileReader.close();
-        return csp;
+        BinaryConstraintStorage constraints = readBinaryConstraints(domainBounds);
+        return new BinaryCSP(domainBounds, constraints);
     }
 
     /**
-     * Instantiates the {@link BinaryCSPReader#tokenizer} to read
-     * the specified file.
-     *
-     * @param filename the name of the file to read
-     *
-     * @return the instantiated {@link FileReader}
-     * that has to be closed after parsing
-     *
-     * @throws FileNotFoundException if the specified file
-     *                               cannot be opened for reading
+     * Sets the syntax of the {@link BinaryCSPReader#tokenizer}
+     * for reading numbers, separators and comments.
      */
-    private static FileReader instantiateTokenizer(String filename)
-            throws FileNotFoundException {
-        FileReader fileReader = new FileReader(filename);
-        tokenizer = new StreamTokenizer(fileReader);
+    private void useDefaultSyntax() {
+        tokenizer.resetSyntax();
+        tokenizer.wordChars('a', 'z');
+        tokenizer.wordChars('A', 'Z');
+        tokenizer.wordChars(128 + 32, 255);
+        tokenizer.whitespaceChars(0, ' ');
+        tokenizer.parseNumbers();
+        // Comments start with "//", so that '/' can be used in conditions.
+        tokenizer.slashSlashComments(true);
+        tokenizer.eolIsSignificant(false);
         // Parentheses are not special.
         tokenizer.ordinaryChar('(');
         tokenizer.ordinaryChar(')');
-        return fileReader;
+    }
+
+    /**
+     * Sets the syntax of the {@link BinaryCSPReader#tokenizer}
+     * for reading the condition of an intensional constraint.
+     * Any text up to whitespace is a word and the end of line is reported.
+     */
+    private void useConditionSyntax() {
+        tokenizer.resetSyntax();
+        tokenizer.wordChars(' ' + 1, 255);
+        tokenizer.whitespaceChars(0, ' ');
+        tokenizer.eolIsSignificant(true);
     }
 
     /**
@@ -104,7 +152,7 @@ public final class BinaryCSPReader {
      * @throws IOException if an I/O error occurs
      * @see BinaryCSPReader#readBinaryCSP(String)
      */
-    private static int[][] readDomainBounds(int n) throws IOException {
+    private int[][] readDomainBounds(int n) throws IOException {
         int[][] bounds = new int[n][2];
         for (int i = 0; i < n; i++) {
             tokenizer.nextToken();  // i-th upper bound
@@ -119,14 +167,17 @@ public final class BinaryCSPReader {
     /**
      * Reads and returns the {@link BinaryConstraint}s of the CSP.
      *
+     * @param bounds the domain bounds of the variables
+     *
      * @return the parsed {@link BinaryConstraint}s
      *
      * @throws IOException if an I/O error occurs
      * @see BinaryCSPReader#readBinaryCSP(String)
      */
-    private static BinaryConstraintStorage readBinaryConstraints()
+    private BinaryConstraintStorage readBinaryConstraints(int[][] bounds)
             throws IOException {
         BinaryConstraintStorage constraints = new BinaryConstraintStorage();
+        RelationPool pool = new RelationPool();
         tokenizer.nextToken();  //'c' or EOF
         while (tokenizer.ttype != StreamTokenizer.TT_EOF) {
             // scope
@@ -138,32 +189,82 @@ public final class BinaryCSPReader {
             int var2 = (int) tokenizer.nval;
             tokenizer.nextToken();  // ')' closing parentheses
 
-            LinkedHashSet<BinaryTuple> tuples = readBinaryTuples();
-            BinaryConstraint c = new BinaryConstraint(var1, var2, tuples);
-            constraints.map(var1, var2, c);
+            // ':' or 1st allowed val of 1st tuple or c/EOF
+            tokenizer.nextToken();
+            BinaryConstraint c;
+            if (tokenizer.ttype == ':') {
+                Relation relation = readCondition(bounds[var1], bounds[var2]);
+                c = pool.intern(var1, var2, relation);
+            } else {
+                BitMatrix pairs = readBinaryTuples(bounds[var1], bounds[var2]);
+                c = pool.intern(var1, var2, pairs);
+            }
+            // A repeated scope further restricts the same variables.
+            constraints.add(c);
         }
 
         return constraints;
     }
 
     /**
-     * Reads and returns the {@link BinaryTuple}s of a {@link BinaryConstraint}.
+     * Reads the condition of an intensional {@link BinaryConstraint},
+     * which is the rest of the current line, and compiles it.
+     * Afterwards, the current token is either 'c' or EOF.
+     *
+     * @param bounds1 the domain bounds of the first variable
+     * @param bounds2 the domain bounds of the second variable
      *
-     * @return the parsed {@link BinaryTuple}s
+     * @return the {@link Relation} of the pairs that satisfy the condition
      *
      * @throws IOException if an I/O error occurs
-     * @see BinaryCSPReader#readBinaryConstraints()
+     * @throws IllegalArgumentException if the condition cannot be parsed
+     */
+    private Relation readCondition(int[] bounds1, int[] bounds2)
+            throws IOException {
+        useConditionSyntax();
+        StringBuilder text = new StringBuilder();
+        tokenizer.nextToken();
+        while (tokenizer.ttype == StreamTokenizer.TT_WORD) {
+            text.append(' ').append(tokenizer.sval);
+            tokenizer.nextToken();
+        }
+        useDefaultSyntax();
+        String condition = text.toString();
+        int comment = condition.indexOf("//");
+        if (comment >= 0) {
+            condition = condition.substring(0, comment);
+        }
+        condition = condition.trim();
+        Relation relation = new PredicateRelation(
+                PredicateCompiler.compile(condition), condition, bounds1, bounds2);
+        tokenizer.nextToken();  // 'c' or EOF
+        return relation;
+    }
+
+    /**
+     * Reads the tuples of a {@link BinaryConstraint} into a {@link BitMatrix}.
+     * The current token must be the first value of the first tuple.
+     * Tuples with values outside of the domain bounds are left out,
+     * as they can never be used.
+     *
+     * @param bounds1 the domain bounds of the first variable
+     * @param bounds2 the domain bounds of the second variable
+     *
+     * @return the {@link BitMatrix} of the parsed tuples
+     *
+     * @throws IOException if an I/O error occurs
+     * @see BinaryCSPReader#readBinaryConstraints(int[][])
      * @see BinaryCSPReader#readBinaryCSP(String)
      */
-    private static LinkedHashSet<BinaryTuple> readBinaryTuples() throws IOException {
-        LinkedHashSet<BinaryTuple> tuples = new LinkedHashSet<>();
-        tokenizer.nextToken();  // 1st allowed val of 1st tuple
+    private BitMatrix readBinaryTuples(int[] bounds1, int[] bounds2)
+            throws IOException {
+        BitMatrix tuples = new BitMatrix(bounds1[0], bounds1[1], bounds2[0], bounds2[1]);
         while (constraintIsNotOver()) {
             int val1 = (int) tokenizer.nval;  // 1st val
             tokenizer.nextToken();  // ',' comma separator
             tokenizer.nextToken();  // 2nd val
             int val2 = (int) tokenizer.nval;
-            tuples.add(new BinaryTuple(val1, val2));
+            tuples.set(val1, val2);
 
             // either 1st allowed val of next tuple or c/EOF
             tokenizer.nextToken();
@@ -179,16 +280,12 @@ public final class BinaryCSPReader {
      *
      * @return true iff the current constraint is not yet over
      *
-     * @see BinaryCSPReader#readBinaryTuples()
+     * @see BinaryCSPReader#readBinaryTuples(int[], int[])
      */
-    private static boolean constraintIsNotOver() {
+    private boolean constraintIsNotOver() {
         // NB: tokenizer.sval can be null
         return !"c".equals(tokenizer.sval)
                 && tokenizer.ttype != StreamTokenizer.TT_EOF;
     }
 
-    /** Hides the default constructor for this utility class. */
-    private BinaryCSPReader() {
-    }
-
 }
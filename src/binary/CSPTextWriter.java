@@ -0,0 +1,98 @@
+package binary;
+
+import binary.types.PairPredicate;
+
+import java.io.PrintStream;
+
+/**
+ * Writes a model in the .csp text format as it is received.
+ * Nothing is kept in memory apart from the domain bounds,
+ * so arbitrarily large models can be written.
+ * Constraints given as {@link PairPredicate}s are written as tuples,
+ * and constraints given as condition text are written intensionally.
+ *
+ * @author 150009974
+ * @version 1.1
+ * @see BinaryCSPReader#readBinaryCSP(String)
+ */
+public final class CSPTextWriter implements ModelSink {
+
+    /** The stream the text is written to. */
+    private PrintStream out;
+
+    /** The domain bounds of the variables, or null before they are declared. */
+    private int[][] bounds = null;
+
+    /**
+     * Creates a {@link CSPTextWriter} that writes to the given stream.
+     *
+     * @param stream the stream to write to
+     */
+    public CSPTextWriter(PrintStream stream) {
+        out = stream;
+    }
+
+    @Override
+    public CSPTextWriter comment(String text) {
+        out.println("//" + text);
+        return this;
+    }
+
+    @Override
+    public CSPTextWriter heading(String text) {
+        out.println();
+        out.println("// " + text);
+        return this;
+    }
+
+    @Override
+    public CSPTextWriter variables(int[][] domainBounds) {
+        return variables(domainBounds, new String[0]);
+    }
+
+    @Override
+    public CSPTextWriter variables(int[][] domainBounds, String... headings) {
+        bounds = domainBounds;
+        out.println(domainBounds.length);
+        for (String text : headings) {
+            heading(text);
+        }
+        for (int[] b : domainBounds) {
+            out.println(b[0] + ", " + b[1]);
+        }
+        return this;
+    }
+
+    @Override
+    public CSPTextWriter constraint(int var1, int var2, PairPredicate allowed) {
+        out.println("c(" + var1 + ", " + var2 + ")");
+        for (int x = bounds[var1][0]; x <= bounds[var1][1]; x++) {
+            for (int y = bounds[var2][0]; y <= bounds[var2][1]; y++) {
+                if (allowed.test(x, y)) {
+                    out.println(x + ", " + y);
+                }
+            }
+        }
+        out.println();
+        return this;
+    }
+
+    @Override
+    public CSPTextWriter constraint(int var1, int var2, int[][] tuples) {
+        out.println("c(" + var1 + ", " + var2 + ")");
+        for (int[] tuple : tuples) {
+            out.println(tuple[0] + ", " + tuple[1]);
+        }
+        out.println();
+        return this;
+    }
+
+    @Override
+    public CSPTextWriter constraint(int var1, int var2, String condition) {
+        // Fail now rather than write a file that cannot be read.
+        PredicateCompiler.compile(condition);
+        out.println("c(" + var1 + ", " + var2 + "): " + condition);
+        return this;
+    }
+
+}
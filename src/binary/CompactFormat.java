@@ -0,0 +1,250 @@
+package binary;
+
+import binary.types.BinaryConstraint;
+import binary.types.BinaryConstraintStorage;
+import binary.types.BitMatrix;
+import binary.types.MappedRelation;
+import binary.types.MatrixRelation;
+import binary.types.Relation;
+import binary.types.Variable;
+import events.Events;
+import events.ParseEvent;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.zip.CRC32;
+
+/**
+ * Writes and loads {@link BinaryCSP}s in a compact binary format.
+ * All numbers are little-endian and every section starts at a multiple of 8 bytes.
+ * <pre>
+ * header    magic "BCSP", version, no. vars, no. relations, no. scopes,
+ *           CRC32 of everything after the header, 8 reserved bytes (32 bytes)
+ * bounds    lower bound, upper bound (8 bytes per variable)
+ * relations lower and upper bound of the first and of the second variable,
+ *           then the words of the {@link BitMatrix}, row after row
+ * scopes    first variable, second variable, relation index,
+ *           1 if the relation is between the second and the first variable
+ *           (16 bytes per scope)
+ * </pre>
+ * Equal relations are stored once and referenced by index.
+ * The loader maps the file and reads every relation in place,
+ * through a {@link MappedRelation}, so that no relation is copied.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public final class CompactFormat {
+
+    /** The first 4 bytes of every file, "BCSP" in ASCII. */
+    private static final int MAGIC = 'B' | 'C' << 8 | 'S' << 16 | 'P' << 24;
+
+    /** The version of the format written. */
+    private static final int VERSION = 1;
+
+    /** The size of the header in bytes. */
+    private static final int HEADER_SIZE = 32;
+
+    /** The position of the checksum in the header. */
+    private static final int CHECKSUM_POSITION = 20;
+
+    /** The size of a relation header (four bounds) in bytes. */
+    private static final int RELATION_HEADER_SIZE = 16;
+
+    /** The size of a scope in bytes. */
+    private static final int SCOPE_SIZE = 16;
+
+    /**
+     * Writes the given {@link BinaryCSP} to the specified file.
+     * Relations are written over the current domain bounds of their variables.
+     *
+     * @param csp      the {@link BinaryCSP} to write
+     * @param filename the name of the file to write
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(BinaryCSP csp, String filename) throws IOException {
+        int n = csp.getNumberOfVariables();
+        int[][] bounds = new int[n][2];
+        for (int i = 0; i < n; i++) {
+            LinkedHashSet<Integer> domain = csp.getVariable(i).getDomain();
+            if (!domain.isEmpty()) {
+                bounds[i][0] = Collections.min(domain);
+                bounds[i][1] = Collections.max(domain);
+            } else {
+                bounds[i][0] = 0;
+                bounds[i][1] = -1;
+            }
+        }
+
+        // The pool of distinct relations and the scopes referring to them.
+        HashMap<BitMatrix, Integer> index = new HashMap<>();
+        ArrayList<BitMatrix> relations = new ArrayList<>();
+        ArrayList<int[]> scopes = new ArrayList<>();
+        long relationBytes = 0;
+        for (BinaryConstraint c : csp.getConstraints()) {
+            Relation relation = c.getRelation();
+            BitMatrix matrix;
+            boolean reversed;
+            if (relation instanceof MatrixRelation) {
+                matrix = ((MatrixRelation) relation).getMatrix();
+                reversed = c.isReversed();
+            } else {
+                int[] b1 = bounds[c.getVar1()];
+                int[] b2 = bounds[c.getVar2()];
+                matrix = c.toBitMatrix(b1[0], b1[1], b2[0], b2[1]);
+                reversed = false;
+            }
+            Integer id = index.get(matrix);
+            if (id == null) {
+                id = relations.size();
+                index.put(matrix, id);
+                relations.add(matrix);
+                relationBytes += RELATION_HEADER_SIZE + 8L * wordCount(matrix);
+            }
+            scopes.add(new int[]{c.getVar1(), c.getVar2(), id, reversed ? 1 : 0});
+        }
+
+        long size = HEADER_SIZE + 8L * n + relationBytes + (long) SCOPE_SIZE * scopes.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The problem is too large for the format");
+        }
+        ByteBuffer out = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(n)
+                .putInt(relations.size()).putInt(scopes.size())
+                .putInt(0).putLong(0);
+        for (int[] b : bounds) {
+            out.putInt(b[0]).putInt(b[1]);
+        }
+        for (BitMatrix matrix : relations) {
+            out.putInt(matrix.getFirstLower()).putInt(matrix.getFirstUpper())
+                    .putInt(matrix.getSecondLower()).putInt(matrix.getSecondUpper());
+            LongBuffer words = out.asLongBuffer();
+            matrix.writeTo(words);
+            out.position(out.position() + 8 * words.position());
+        }
+        for (int[] scope : scopes) {
+            out.putInt(scope[0]).putInt(scope[1]).putInt(scope[2]).putInt(scope[3]);
+        }
+        out.putInt(CHECKSUM_POSITION, checksum(out));
+
+        out.flip();
+        try (RandomAccessFile file = new RandomAccessFile(filename, "rw");
+             FileChannel channel = file.getChannel()) {
+            channel.truncate(0);
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    /**
+     * Loads a {@link BinaryCSP} from the specified file.
+     * The relations stay in the mapped file and are not copied.
+     *
+     * @param filename the name of the file to load
+     *
+     * @return the loaded {@link BinaryCSP}
+     *
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if the file is not in this format,
+     *                                  has another version or is corrupted
+     */
+    public static BinaryCSP load(String filename) throws IOException {
+        ParseEvent event = Events.beginParse();
+        MappedByteBuffer mapped;
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r");
+             FileChannel channel = file.getChannel()) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer in = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (in.limit() < HEADER_SIZE || in.getInt() != MAGIC) {
+            throw new IllegalArgumentException(filename + " is not a compact csp file");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException(filename + " has version " + version
+                    + ", but only version " + VERSION + " is supported");
+        }
+        int n = in.getInt();
+        int relationCount = in.getInt();
+        int scopeCount = in.getInt();
+        if (in.getInt() != checksum(in)) {
+            throw new IllegalArgumentException(filename + " is corrupted (checksum mismatch)");
+        }
+        in.position(HEADER_SIZE);
+
+        int[][] bounds = new int[n][2];
+        for (int i = 0; i < n; i++) {
+            bounds[i][0] = in.getInt();
+            bounds[i][1] = in.getInt();
+        }
+        Relation[] relations = new Relation[relationCount];
+        for (int r = 0; r < relationCount; r++) {
+            int firstLower = in.getInt();
+            int firstUpper = in.getInt();
+            int secondLower = in.getInt();
+            int secondUpper = in.getInt();
+            int words = BitMatrix.wordCount(Math.max(0, firstUpper - firstLower + 1),
+                    Math.max(0, secondUpper - secondLower + 1));
+            ByteBuffer view = in.duplicate();
+            view.limit(in.position() + 8 * words);
+            LongBuffer bits = view.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            relations[r] = new MappedRelation(bits, firstLower, firstUpper, secondLower, secondUpper);
+            in.position(in.position() + 8 * words);
+        }
+        BinaryConstraintStorage constraints = new BinaryConstraintStorage();
+        for (int s = 0; s < scopeCount; s++) {
+            int var1 = in.getInt();
+            int var2 = in.getInt();
+            int relation = in.getInt();
+            boolean reversed = in.getInt() != 0;
+            constraints.add(new BinaryConstraint(var1, var2, relations[relation], reversed));
+        }
+        Events.endParse(event, filename, "compact", n, scopeCount);
+        return new BinaryCSP(bounds, constraints);
+    }
+
+    /**
+     * Computes the CRC32 of everything after the header.
+     * The position of the buffer is not changed.
+     *
+     * @param buffer the whole file
+     *
+     * @return the checksum, truncated to an int
+     */
+    private static int checksum(ByteBuffer buffer) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Gives the number of words the given {@link BitMatrix} takes.
+     *
+     * @param matrix the {@link BitMatrix} to measure
+     *
+     * @return the number of words
+     */
+    private static int wordCount(BitMatrix matrix) {
+        int rows = matrix.getFirstUpper() - matrix.getFirstLower() + 1;
+        int cols = matrix.getSecondUpper() - matrix.getSecondLower() + 1;
+        return BitMatrix.wordCount(rows, cols);
+    }
+
+    /** Hides the default constructor for this utility class. */
+    private CompactFormat() {
+    }
+
+}
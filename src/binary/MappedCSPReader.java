@@ -0,0 +1,413 @@
+package binary;
+
+import binary.types.BinaryConstraint;
+import binary.types.BinaryConstraintStorage;
+import binary.types.BitMatrix;
+import binary.types.LazyRelation;
+import binary.types.MatrixRelation;
+import binary.types.PredicateRelation;
+import binary.types.Relation;
+import binary.types.RelationPool;
+import events.Events;
+import events.ParseEvent;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * A reader for .csp files that parses the bytes of a memory-mapped file.
+ * Integers are parsed directly from their ASCII digits
+ * and tuples are set straight into {@link BitMatrix} relations,
+ * which are interned in a {@link RelationPool}.
+ * The accepted format is the same as that of {@link BinaryCSPReader}.
+ * All parsing state is held by the instance,
+ * so different instances may read different files concurrently.
+ *
+ * @author 150009974
+ * @version 1.2
+ */
+public final class MappedCSPReader {
+
+    /** The number of bytes in a megabyte. */
+    private static final double MEGABYTE = 1024 * 1024;
+
+    /** The number of nanoseconds in a millisecond. */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /** The bytes of the file being parsed. */
+    private ByteBuffer bytes;
+
+    /** The index of the next byte to parse. */
+    private int pos;
+
+    /**
+     * Whether the tuples of extensional constraints are only parsed
+     * the first time the constraint is used.
+     */
+    private boolean lazy = false;
+
+    /** The {@link RelationPool} of the file being parsed. */
+    private RelationPool pool = new RelationPool();
+
+    /** The number of bytes parsed by the last read. */
+    private long parsedBytes = 0;
+
+    /** The time (in nanoseconds) parsing the last read took. */
+    private long parseTime = 0;
+
+    /**
+     * A main method for measuring the parser.
+     * Parses the csp files given as command line arguments
+     * and prints the parse throughput of each.
+     *
+     * @param args the names of the csp files
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: java binary.MappedCSPReader <file.csp>...");
+            return;
+        }
+        MappedCSPReader reader = new MappedCSPReader();
+        for (String filename : args) {
+            try {
+                reader.read(filename);
+                System.out.println(filename + ": " + reader.report());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Sets whether the tuples of extensional constraints are only parsed
+     * the first time the constraint is used.
+     * Only the position of each block of tuples is recorded while reading,
+     * and the mapped file is kept until every block has been parsed.
+     * Lazily parsed relations are not interned.
+     *
+     * @param lazyTuples whether to parse the tuples lazily
+     */
+    public void setLazy(boolean lazyTuples) {
+        lazy = lazyTuples;
+    }
+
+    /**
+     * Reads a {@link BinaryCSP} from the specified file.
+     *
+     * @param filename the name of the file to read
+     *
+     * @return the parsed {@link BinaryCSP}
+     *
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if the file is not a valid csp
+     * @see BinaryCSPReader#readBinaryCSP(String)
+     */
+    public BinaryCSP read(String filename) throws IOException {
+        ParseEvent event = Events.beginParse();
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r");
+             FileChannel channel = file.getChannel()) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            BinaryCSP csp = parse(mapped);
+            Events.endParse(event, filename, lazy ? "mapped lazy" : "mapped", csp);
+            return csp;
+        }
+    }
+
+    /**
+     * Parses a {@link BinaryCSP} from the given bytes,
+     * from the current position up to the limit of the buffer.
+     *
+     * @param buffer the bytes of a csp file
+     *
+     * @return the parsed {@link BinaryCSP}
+     *
+     * @throws IllegalArgumentException if the bytes are not a valid csp
+     */
+    public BinaryCSP parse(ByteBuffer buffer) {
+        long start = System.nanoTime();
+        int first = buffer.position();
+        pool = new RelationPool();
+        int[][] bounds = parseBounds(buffer);
+        BinaryConstraintStorage constraints = new BinaryConstraintStorage();
+        for (BinaryConstraint c : parseConstraints(buffer, bounds)) {
+            // A repeated scope further restricts the same variables.
+            constraints.add(c);
+        }
+        parsedBytes = buffer.position() - first;
+        parseTime = System.nanoTime() - start;
+        return new BinaryCSP(bounds, constraints);
+    }
+
+    /**
+     * Parses the number of variables and their domain bounds,
+     * starting from the current position of the given buffer.
+     * Afterwards, the position of the buffer is right after the bounds.
+     *
+     * @param buffer the bytes of a csp file
+     *
+     * @return the domain bounds of the variables
+     *
+     * @throws IllegalArgumentException if the bytes are not valid bounds
+     */
+    public int[][] parseBounds(ByteBuffer buffer) {
+        bytes = buffer;
+        pos = buffer.position();
+        int n = readInt();
+        int[][] bounds = new int[n][2];
+        for (int i = 0; i < n; i++) {
+            bounds[i][0] = readInt();
+            expect(',');
+            bounds[i][1] = readInt();
+        }
+        buffer.position(pos);
+        bytes = null;
+        return bounds;
+    }
+
+    /**
+     * Parses the extensional and intensional constraints
+     * from the current position up to the limit of the given buffer,
+     * which must not end in the middle of a constraint.
+     * Afterwards, the position of the buffer is at its limit.
+     *
+     * @param buffer the bytes of whole constraint blocks
+     * @param bounds the domain bounds of the variables
+     *
+     * @return the parsed {@link BinaryConstraint}s, in the order of the file
+     *
+     * @throws IllegalArgumentException if the bytes are not valid constraints
+     */
+    public ArrayList<BinaryConstraint> parseConstraints(ByteBuffer buffer, int[][] bounds) {
+        bytes = buffer;
+        pos = buffer.position();
+        ArrayList<BinaryConstraint> constraints = new ArrayList<>();
+        while (peek() == 'c') {
+            pos++;
+            expect('(');
+            int var1 = readInt();
+            expect(',');
+            int var2 = readInt();
+            expect(')');
+            BinaryConstraint c;
+            if (peek() == ':') {
+                pos++;
+                String condition = readLine();
+                Relation relation = new PredicateRelation(PredicateCompiler.compile(condition),
+                        condition, bounds[var1], bounds[var2]);
+                c = pool.intern(var1, var2, relation);
+            } else if (lazy) {
+                c = new BinaryConstraint(var1, var2, lazyTuples(bounds[var1], bounds[var2]));
+            } else {
+                c = pool.intern(var1, var2, readTuples(bounds[var1], bounds[var2]));
+            }
+            constraints.add(c);
+        }
+        if (peek() != -1) {
+            throw error("expected 'c'");
+        }
+        buffer.position(pos);
+        bytes = null;
+        return constraints;
+    }
+
+    /**
+     * Skips the tuples of an extensional constraint
+     * and returns a {@link LazyRelation} that parses them on first use.
+     *
+     * @param bounds1 the domain bounds of the first variable
+     * @param bounds2 the domain bounds of the second variable
+     *
+     * @return the {@link LazyRelation} of the skipped tuples
+     */
+    private LazyRelation lazyTuples(int[] bounds1, int[] bounds2) {
+        int start = pos;
+        // The tuples are skipped by the rules that read them, so the block ends
+        // before the next constraint however it is indented or commented.
+        int next = peek();
+        while (next == '-' || (next >= '0' && next <= '9')) {
+            readInt();
+            expect(',');
+            readInt();
+            next = peek();
+        }
+        ByteBuffer block = bytes.duplicate();
+        block.limit(pos);
+        block.position(start);
+        return new LazyRelation(() -> new MatrixRelation(
+                new MappedCSPReader().parseTuples(block, bounds1, bounds2)));
+    }
+
+    /**
+     * Parses a block of tuples of an extensional constraint
+     * from the current position up to the limit of the given buffer.
+     *
+     * @param block   the bytes of the tuples
+     * @param bounds1 the domain bounds of the first variable
+     * @param bounds2 the domain bounds of the second variable
+     *
+     * @return the {@link BitMatrix} of the parsed tuples
+     *
+     * @throws IllegalArgumentException if the bytes are not valid tuples
+     */
+    public BitMatrix parseTuples(ByteBuffer block, int[] bounds1, int[] bounds2) {
+        bytes = block;
+        pos = block.position();
+        BitMatrix tuples = readTuples(bounds1, bounds2);
+        if (peek() != -1) {
+            throw error("expected a number");
+        }
+        bytes = null;
+        return tuples;
+    }
+
+    /**
+     * Reads the tuples of an extensional constraint into a {@link BitMatrix}.
+     * Tuples with values outside of the domain bounds are left out.
+     *
+     * @param bounds1 the domain bounds of the first variable
+     * @param bounds2 the domain bounds of the second variable
+     *
+     * @return the {@link BitMatrix} of the parsed tuples
+     */
+    private BitMatrix readTuples(int[] bounds1, int[] bounds2) {
+        BitMatrix tuples = new BitMatrix(bounds1[0], bounds1[1], bounds2[0], bounds2[1]);
+        int next = peek();
+        while (next == '-' || (next >= '0' && next <= '9')) {
+            int val1 = readInt();
+            expect(',');
+            int val2 = readInt();
+            tuples.set(val1, val2);
+            next = peek();
+        }
+        return tuples;
+    }
+
+    /**
+     * Reads the rest of the current line, without a trailing comment.
+     *
+     * @return the trimmed text of the line
+     */
+    private String readLine() {
+        int start = pos;
+        int limit = bytes.limit();
+        while (pos < limit && bytes.get(pos) != '\n') {
+            pos++;
+        }
+        byte[] line = new byte[pos - start];
+        for (int i = 0; i < line.length; i++) {
+            line[i] = bytes.get(start + i);
+        }
+        String text = new String(line, StandardCharsets.US_ASCII);
+        int comment = text.indexOf("//");
+        if (comment >= 0) {
+            text = text.substring(0, comment);
+        }
+        return text.trim();
+    }
+
+    /**
+     * Reads an integer, which may be negative.
+     *
+     * @return the parsed integer
+     */
+    private int readInt() {
+        int next = peek();
+        boolean negative = next == '-';
+        if (negative) {
+            pos++;
+        }
+        int limit = bytes.limit();
+        int start = pos;
+        int value = 0;
+        while (pos < limit) {
+            int digit = bytes.get(pos) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            value = value * 10 + digit;
+            pos++;
+        }
+        if (pos == start) {
+            throw error("expected a number");
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads the given character, which must come next.
+     *
+     * @param c the expected character
+     */
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    /**
+     * Moves past whitespace and comments
+     * and returns the next byte without reading it.
+     *
+     * @return the next byte or -1 at the end
+     */
+    private int peek() {
+        int limit = bytes.limit();
+        while (pos < limit) {
+            byte b = bytes.get(pos);
+            if (b == '/' && pos + 1 < limit && bytes.get(pos + 1) == '/') {
+                while (pos < limit && bytes.get(pos) != '\n') {
+                    pos++;
+                }
+            } else if (b <= ' ') {
+                pos++;
+            } else {
+                return b;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates an exception describing a parse error at the current position.
+     *
+     * @param message what went wrong
+     *
+     * @return the {@link IllegalArgumentException} to throw
+     */
+    private IllegalArgumentException error(String message) {
+        int line = 1;
+        for (int i = 0; i < pos && i < bytes.limit(); i++) {
+            if (bytes.get(i) == '\n') {
+                line++;
+            }
+        }
+        return new IllegalArgumentException("Cannot parse line " + line + ": " + message);
+    }
+
+    /** @return the number of megabytes parsed per second by the last read */
+    public double getThroughput() {
+        if (parseTime == 0) {
+            return 0;
+        }
+        return parsedBytes / MEGABYTE / (parseTime / NANOS_PER_MILLI / 1000);
+    }
+
+    /**
+     * Creates and returns a summary of the last read.
+     *
+     * @return a {@link String} describing the parse time and throughput
+     */
+    public String report() {
+        return String.format("parsed %.2f MB in %.1f milliseconds (%.1f MB/s), "
+                        + "%d distinct relations for %d scopes",
+                parsedBytes / MEGABYTE, parseTime / NANOS_PER_MILLI, getThroughput(),
+                pool.getDistinct(), pool.getDistinct() + pool.getShared());
+    }
+
+}
@@ -0,0 +1,149 @@
+package binary;
+
+import binary.types.PairPredicate;
+
+/**
+ * Receives the parts of a binary CSP in the order of a .csp file:
+ * the domain bounds of all variables first, then the constraints.
+ * Comments may be given at any point and are only kept by text sinks.
+ * Generators describe their models to a {@link ModelSink},
+ * so the same model can be built in memory or written as text.
+ *
+ * @author 150009974
+ * @version 1.1
+ * @see BinaryCSPBuilder
+ * @see CSPTextWriter
+ */
+public interface ModelSink {
+
+    /**
+     * Adds a comment.
+     * Text sinks write the text right after the comment marker, as given.
+     *
+     * @param text the text of the comment, on a single line
+     *
+     * @return this {@link ModelSink}
+     */
+    ModelSink comment(String text);
+
+    /**
+     * Adds a comment that starts a part of the model, such as the constraints.
+     * Text sinks write it after a blank line.
+     *
+     * @param text the text of the heading, on a single line
+     *
+     * @return this {@link ModelSink}
+     */
+    default ModelSink heading(String text) {
+        return comment(text);
+    }
+
+    /**
+     * Declares the variables, indexed from 0, by their domain bounds.
+     * It is expected that bounds[i][0] is the lower bound of variable i,
+     * and that bounds[i][1] is the upper bound of variable i.
+     * This must be called once, before any constraint is added.
+     *
+     * @param bounds the inclusive domain bounds of the variables
+     *
+     * @return this {@link ModelSink}
+     */
+    ModelSink variables(int[][] bounds);
+
+    /**
+     * Declares the variables as {@link #variables(int[][])} does,
+     * with headings that describe their domains.
+     * Text sinks write the headings between the number of variables
+     * and their domain bounds.
+     *
+     * @param bounds   the inclusive domain bounds of the variables
+     * @param headings the headings of the domains
+     *
+     * @return this {@link ModelSink}
+     */
+    default ModelSink variables(int[][] bounds, String... headings) {
+        for (String text : headings) {
+            heading(text);
+        }
+        return variables(bounds);
+    }
+
+    /**
+     * Declares the given number of variables with the same domain bounds,
+     * with headings that describe their domains.
+     *
+     * @param count    the number of variables
+     * @param lower    the lower bound of every domain
+     * @param upper    the upper bound of every domain
+     * @param headings the headings of the domains
+     *
+     * @return this {@link ModelSink}
+     *
+     * @see ModelSink#variables(int[][], String...)
+     */
+    default ModelSink variables(int count, int lower, int upper, String... headings) {
+        int[][] bounds = new int[count][];
+        for (int i = 0; i < count; i++) {
+            bounds[i] = new int[]{lower, upper};
+        }
+        return variables(bounds, headings);
+    }
+
+    /**
+     * Declares the given number of variables with the same domain bounds.
+     *
+     * @param count the number of variables
+     * @param lower the lower bound of every domain
+     * @param upper the upper bound of every domain
+     *
+     * @return this {@link ModelSink}
+     *
+     * @see ModelSink#variables(int[][])
+     */
+    default ModelSink variables(int count, int lower, int upper) {
+        int[][] bounds = new int[count][];
+        for (int i = 0; i < count; i++) {
+            bounds[i] = new int[]{lower, upper};
+        }
+        return variables(bounds);
+    }
+
+    /**
+     * Adds a constraint that permits the pairs of values
+     * within the domain bounds that satisfy the given {@link PairPredicate}.
+     *
+     * @param var1    the index of the first variable
+     * @param var2    the index of the second variable
+     * @param allowed the condition that the permitted pairs satisfy
+     *
+     * @return this {@link ModelSink}
+     */
+    ModelSink constraint(int var1, int var2, PairPredicate allowed);
+
+    /**
+     * Adds a constraint that permits the given pairs of values.
+     *
+     * @param var1   the index of the first variable
+     * @param var2   the index of the second variable
+     * @param tuples the permitted pairs, each an array of two values
+     *
+     * @return this {@link ModelSink}
+     */
+    ModelSink constraint(int var1, int var2, int[][] tuples);
+
+    /**
+     * Adds an intensional constraint with the given condition over x and y,
+     * where x is the value of the first and y of the second variable.
+     *
+     * @param var1      the index of the first variable
+     * @param var2      the index of the second variable
+     * @param condition the text of the condition
+     *
+     * @return this {@link ModelSink}
+     *
+     * @throws IllegalArgumentException if the condition cannot be parsed
+     * @see PredicateCompiler
+     */
+    ModelSink constraint(int var1, int var2, String condition);
+
+}
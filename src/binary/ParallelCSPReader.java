@@ -0,0 +1,191 @@
+package binary;
+
+import binary.types.BinaryConstraint;
+import binary.types.BinaryConstraintStorage;
+import binary.types.RelationPool;
+import events.Events;
+import events.ParseEvent;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * A reader for .csp files that parses the constraint blocks in parallel.
+ * The mapped file is split into chunks at lines that start a constraint,
+ * each chunk is parsed by its own {@link MappedCSPReader}
+ * on a {@link ForkJoinPool}, and the parsed constraints are merged
+ * in the order of the file.
+ * The merged relations are interned again, so that the result
+ * is the same as that of a sequential read.
+ *
+ * @author 150009974
+ * @version 1.2
+ */
+public final class ParallelCSPReader {
+
+    /** The smallest chunk worth parsing on its own, in bytes. */
+    private static final int MIN_CHUNK = 64 * 1024;
+
+    /** The number of chunks per thread, so that threads can balance the work. */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /** The {@link ForkJoinPool} that parses the chunks. */
+    private ForkJoinPool threads;
+
+    /** The number of chunks the last read was split into. */
+    private int chunkCount = 0;
+
+    /** The time (in milliseconds) the last read took. */
+    private long time = 0;
+
+    /**
+     * Creates a {@link ParallelCSPReader} that parses on the given number of threads.
+     *
+     * @param parallelism the number of threads to use
+     */
+    public ParallelCSPReader(int parallelism) {
+        threads = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * A main method for measuring the parser.
+     * Parses the csp files given as command line arguments
+     * on all available processors and reports each.
+     *
+     * @param args the names of the csp files
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: java binary.ParallelCSPReader <file.csp>...");
+            return;
+        }
+        ParallelCSPReader reader = new ParallelCSPReader(Runtime.getRuntime().availableProcessors());
+        for (String filename : args) {
+            try {
+                BinaryCSP csp = reader.read(filename);
+                System.out.println(filename + ": " + csp.getConstraints().size()
+                        + " constraints in " + reader.report());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        reader.shutdown();
+    }
+
+    /**
+     * Reads a {@link BinaryCSP} from the specified file.
+     *
+     * @param filename the name of the file to read
+     *
+     * @return the parsed {@link BinaryCSP}
+     *
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if the file is not a valid csp
+     * @see BinaryCSPReader#readBinaryCSP(String)
+     */
+    public BinaryCSP read(String filename) throws IOException {
+        long start = System.currentTimeMillis();
+        ParseEvent event = Events.beginParse();
+        MappedByteBuffer mapped;
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r");
+             FileChannel channel = file.getChannel()) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int[][] bounds = new MappedCSPReader().parseBounds(mapped);
+        List<ByteBuffer> chunks = split(mapped);
+        chunkCount = chunks.size();
+        List<ArrayList<BinaryConstraint>> parsed = threads.submit(() -> chunks.parallelStream()
+                .map(chunk -> new MappedCSPReader().parseConstraints(chunk, bounds))
+                .collect(Collectors.toList())).join();
+
+        RelationPool pool = new RelationPool();
+        BinaryConstraintStorage constraints = new BinaryConstraintStorage();
+        for (ArrayList<BinaryConstraint> chunk : parsed) {
+            for (BinaryConstraint c : chunk) {
+                // A repeated scope further restricts the same variables.
+                constraints.add(pool.intern(c));
+            }
+        }
+        BinaryCSP csp = new BinaryCSP(bounds, constraints);
+        time = System.currentTimeMillis() - start;
+        Events.endParse(event, filename, "parallel", csp);
+        return csp;
+    }
+
+    /**
+     * Splits the constraint blocks of the given buffer into chunks.
+     * Every chunk except the first starts at a line whose first
+     * non-whitespace character is 'c', which can only start a constraint.
+     *
+     * @param buffer the bytes of the constraint blocks
+     *
+     * @return the chunks, in the order of the file
+     */
+    private List<ByteBuffer> split(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        int parts = threads.getParallelism() * CHUNKS_PER_THREAD;
+        int size = Math.max(MIN_CHUNK, (limit - buffer.position()) / parts);
+        List<ByteBuffer> chunks = new ArrayList<>();
+        int from = buffer.position();
+        while (from < limit) {
+            int to = blockStart(buffer, (int) Math.min(limit, (long) from + size));
+            ByteBuffer chunk = buffer.duplicate();
+            chunk.limit(to);
+            chunk.position(from);
+            chunks.add(chunk);
+            from = to;
+        }
+        return chunks;
+    }
+
+    /**
+     * Finds the start of a constraint after the given index,
+     * which is a 'c' with only whitespace before it on its line.
+     * Other lines start with a number, a comment or the rest of a condition,
+     * and a condition never continues on another line.
+     *
+     * @param buffer the bytes of the constraint blocks
+     * @param from   the index to start looking from, which is past the bounds
+     *
+     * @return the index of the 'c' that starts a constraint,
+     * or the limit of the buffer if there is none
+     */
+    private static int blockStart(ByteBuffer buffer, int from) {
+        int limit = buffer.limit();
+        boolean lineStart = false;
+        for (int i = from; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                lineStart = true;
+            } else if (lineStart && b == 'c') {
+                return i;
+            } else if (b > ' ') {
+                lineStart = false;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Creates and returns a summary of the last read.
+     *
+     * @return a {@link String} describing the chunks and the time taken
+     */
+    public String report() {
+        return chunkCount + " chunks on " + threads.getParallelism()
+                + " threads (" + time + " milliseconds)";
+    }
+
+    /** Stops the threads of this reader once they are idle. */
+    public void shutdown() {
+        threads.shutdown();
+    }
+
+}
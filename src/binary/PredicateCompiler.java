@@ -0,0 +1,319 @@
+package binary;
+
+import binary.types.PairPredicate;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Compiles the condition of an intensional binary constraint,
+ * such as {@code x != y && abs(x - y) != 1},
+ * into a {@link PairPredicate}.
+ * The value of the first variable is x and that of the second is y.
+ * Integer literals, the operators + - * / % (integer arithmetic),
+ * the comparisons == = != &lt; &lt;= &gt; &gt;=,
+ * the connectives &amp;&amp; || !, parentheses
+ * and the functions abs(a), min(a, b) and max(a, b) are supported.
+ * As in C, a condition holds iff its value is not zero.
+ * The text is parsed once into a tree of {@link IntBinaryOperator}s,
+ * which is then evaluated without any further parsing.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class PredicateCompiler {
+
+    /** The text being compiled. */
+    private String text;
+
+    /** The index of the next character of the {@link #text} to read. */
+    private int pos = 0;
+
+    /**
+     * Creates a {@link PredicateCompiler} for the given text.
+     *
+     * @param condition the text of the condition
+     */
+    private PredicateCompiler(String condition) {
+        text = condition;
+    }
+
+    /**
+     * Compiles the given condition into a {@link PairPredicate}.
+     *
+     * @param condition the text of the condition
+     *
+     * @return the compiled {@link PairPredicate}
+     *
+     * @throws IllegalArgumentException if the condition cannot be parsed
+     */
+    public static PairPredicate compile(String condition) {
+        PredicateCompiler compiler = new PredicateCompiler(condition);
+        IntBinaryOperator term = compiler.parseOr();
+        compiler.skipSpaces();
+        if (compiler.pos != condition.length()) {
+            throw compiler.error("unexpected '" + condition.charAt(compiler.pos) + "'");
+        }
+        return (x, y) -> term.applyAsInt(x, y) != 0;
+    }
+
+    /**
+     * Converts a boolean into the value of a condition.
+     *
+     * @param b the boolean to convert
+     *
+     * @return 1 if true, 0 if false
+     */
+    private static int truth(boolean b) {
+        return b ? 1 : 0;
+    }
+
+    /**
+     * Parses a disjunction: and { "||" and }.
+     *
+     * @return the parsed term
+     */
+    private IntBinaryOperator parseOr() {
+        IntBinaryOperator left = parseAnd();
+        while (accept("||")) {
+            IntBinaryOperator a = left;
+            IntBinaryOperator b = parseAnd();
+            left = (x, y) -> truth(a.applyAsInt(x, y) != 0 || b.applyAsInt(x, y) != 0);
+        }
+        return left;
+    }
+
+    /**
+     * Parses a conjunction: comparison { "&amp;&amp;" comparison }.
+     *
+     * @return the parsed term
+     */
+    private IntBinaryOperator parseAnd() {
+        IntBinaryOperator left = parseComparison();
+        while (accept("&&")) {
+            IntBinaryOperator a = left;
+            IntBinaryOperator b = parseComparison();
+            left = (x, y) -> truth(a.applyAsInt(x, y) != 0 && b.applyAsInt(x, y) != 0);
+        }
+        return left;
+    }
+
+    /**
+     * Parses a comparison: sum [ operator sum ].
+     *
+     * @return the parsed term
+     */
+    private IntBinaryOperator parseComparison() {
+        IntBinaryOperator a = parseSum();
+        if (accept("==") || accept("=")) {
+            IntBinaryOperator b = parseSum();
+            return (x, y) -> truth(a.applyAsInt(x, y) == b.applyAsInt(x, y));
+        }
+        if (accept("!=")) {
+            IntBinaryOperator b = parseSum();
+            return (x, y) -> truth(a.applyAsInt(x, y) != b.applyAsInt(x, y));
+        }
+        if (accept("<=")) {
+            IntBinaryOperator b = parseSum();
+            return (x, y) -> truth(a.applyAsInt(x, y) <= b.applyAsInt(x, y));
+        }
+        if (accept(">=")) {
+            IntBinaryOperator b = parseSum();
+            return (x, y) -> truth(a.applyAsInt(x, y) >= b.applyAsInt(x, y));
+        }
+        if (accept("<")) {
+            IntBinaryOperator b = parseSum();
+            return (x, y) -> truth(a.applyAsInt(x, y) < b.applyAsInt(x, y));
+        }
+        if (accept(">")) {
+            IntBinaryOperator b = parseSum();
+            return (x, y) -> truth(a.applyAsInt(x, y) > b.applyAsInt(x, y));
+        }
+        return a;
+    }
+
+    /**
+     * Parses a sum: product { ("+" | "-") product }.
+     *
+     * @return the parsed term
+     */
+    private IntBinaryOperator parseSum() {
+        IntBinaryOperator left = parseProduct();
+        while (true) {
+            IntBinaryOperator a = left;
+            if (accept("+")) {
+                IntBinaryOperator b = parseProduct();
+                left = (x, y) -> a.applyAsInt(x, y) + b.applyAsInt(x, y);
+            } else if (accept("-")) {
+                IntBinaryOperator b = parseProduct();
+                left = (x, y) -> a.applyAsInt(x, y) - b.applyAsInt(x, y);
+            } else {
+                return left;
+            }
+        }
+    }
+
+    /**
+     * Parses a product: unary { ("*" | "/" | "%") unary }.
+     *
+     * @return the parsed term
+     */
+    private IntBinaryOperator parseProduct() {
+        IntBinaryOperator left = parseUnary();
+        while (true) {
+            IntBinaryOperator a = left;
+            if (accept("*")) {
+                IntBinaryOperator b = parseUnary();
+                left = (x, y) -> a.applyAsInt(x, y) * b.applyAsInt(x, y);
+            } else if (accept("/")) {
+                IntBinaryOperator b = parseUnary();
+                left = (x, y) -> a.applyAsInt(x, y) / b.applyAsInt(x, y);
+            } else if (accept("%")) {
+                IntBinaryOperator b = parseUnary();
+                left = (x, y) -> a.applyAsInt(x, y) % b.applyAsInt(x, y);
+            } else {
+                return left;
+            }
+        }
+    }
+
+    /**
+     * Parses a negation or a primary term: ("-" | "!") unary | primary.
+     *
+     * @return the parsed term
+     */
+    private IntBinaryOperator parseUnary() {
+        if (accept("-")) {
+            IntBinaryOperator a = parseUnary();
+            return (x, y) -> -a.applyAsInt(x, y);
+        }
+        if (!peek("!=") && accept("!")) {
+            IntBinaryOperator a = parseUnary();
+            return (x, y) -> truth(a.applyAsInt(x, y) == 0);
+        }
+        return parsePrimary();
+    }
+
+    /**
+     * Parses a number, a variable, a function call or a parenthesised condition.
+     *
+     * @return the parsed term
+     */
+    private IntBinaryOperator parsePrimary() {
+        skipSpaces();
+        if (pos >= text.length()) {
+            throw error("unexpected end");
+        }
+        char c = text.charAt(pos);
+        if (Character.isDigit(c)) {
+            int start = pos;
+            while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                pos++;
+            }
+            int constant = Integer.parseInt(text.substring(start, pos));
+            return (x, y) -> constant;
+        }
+        if (accept("(")) {
+            IntBinaryOperator inner = parseOr();
+            expect(")");
+            return inner;
+        }
+        if (!Character.isLetter(c)) {
+            throw error("unexpected '" + c + "'");
+        }
+        int start = pos;
+        while (pos < text.length() && Character.isLetterOrDigit(text.charAt(pos))) {
+            pos++;
+        }
+        String name = text.substring(start, pos);
+        switch (name) {
+            case "x":
+                return (x, y) -> x;
+            case "y":
+                return (x, y) -> y;
+            case "abs": {
+                expect("(");
+                IntBinaryOperator a = parseOr();
+                expect(")");
+                return (x, y) -> Math.abs(a.applyAsInt(x, y));
+            }
+            case "min": {
+                expect("(");
+                IntBinaryOperator a = parseOr();
+                expect(",");
+                IntBinaryOperator b = parseOr();
+                expect(")");
+                return (x, y) -> Math.min(a.applyAsInt(x, y), b.applyAsInt(x, y));
+            }
+            case "max": {
+                expect("(");
+                IntBinaryOperator a = parseOr();
+                expect(",");
+                IntBinaryOperator b = parseOr();
+                expect(")");
+                return (x, y) -> Math.max(a.applyAsInt(x, y), b.applyAsInt(x, y));
+            }
+            default:
+                throw error("unknown name '" + name + "'");
+        }
+    }
+
+    /** Moves past any whitespace. */
+    private void skipSpaces() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    /**
+     * Determines whether the given symbol comes next, without reading it.
+     *
+     * @param symbol the symbol to look for
+     *
+     * @return true iff the symbol comes next
+     */
+    private boolean peek(String symbol) {
+        skipSpaces();
+        return text.startsWith(symbol, pos);
+    }
+
+    /**
+     * Reads the given symbol if it comes next.
+     *
+     * @param symbol the symbol to read
+     *
+     * @return true iff the symbol was read
+     */
+    private boolean accept(String symbol) {
+        if (peek(symbol)) {
+            pos += symbol.length();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the given symbol, which must come next.
+     *
+     * @param symbol the symbol to read
+     *
+     * @throws IllegalArgumentException if the symbol does not come next
+     */
+    private void expect(String symbol) {
+        if (!accept(symbol)) {
+            throw error("expected '" + symbol + "'");
+        }
+    }
+
+    /**
+     * Creates an exception describing a parse error at the current position.
+     *
+     * @param message what went wrong
+     *
+     * @return the {@link IllegalArgumentException} to throw
+     */
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Cannot parse condition \""
+                + text + "\" at " + pos + ": " + message);
+    }
+
+}
@@ -3,7 +3,6 @@ package binary.algorithms;
 import binary.BinaryCSP;
 import binary.types.BinaryConstraint;
 import binary.types.Variable;
-import main.Logging;
 
 import java.util.LinkedHashSet;
 import java.util.Objects;
@@ -12,7 +11,7 @@ import java.util.Objects;
  * Represents an arc from one {@link Variable} to another.
  *
  * @author 150009974
- * @version 1.3
+ * @version 1.5
  */
 public class Arc {
 
@@ -43,6 +42,17 @@ public class Arc {
         return supporter;
     }
 
+    /**
+     * Returns the number of constraint checks that revising this {@link Arc}
+     * makes, that is, the number of pairs of current values.
+     * The checks are counted before the revision removes any values.
+     *
+     * @return the number of pairs checked by {@link #prune(BinaryCSP)}
+     */
+    public long countChecks() {
+        return (long) dependent.getCurrentDomainSize() * supporter.getCurrentDomainSize();
+    }
+
     /**
      * Prunes and returns values from the {@link Arc#dependent}'s domain
      * based on the {@link Arc#supporter}'s domain.
@@ -52,26 +62,30 @@ public class Arc {
      * @return the performed {@link Prune} on the dependent {@link Variable}
      */
     public Prune prune(BinaryCSP csp) {
-        LinkedHashSet<Integer> domain = supporter.getDomain();
-        LinkedHashSet<Integer> supported;
         LinkedHashSet<Integer> removed;
-        BinaryConstraint cds = csp.getBinaryConstraint(dependent, supporter);
-        BinaryConstraint csd = csp.getBinaryConstraint(supporter, dependent);
-        if (cds != null) {
-            if (Logging.logArcRevisionConstraints()) {
-                System.out.println("\twith constraint: " + cds);
-            }
-            supported = cds.getFirstSupported(domain);
+        BinaryConstraint c = getConstraint(csp);
+        if (c.getVar1() == dependent.getId()) {
+            removed = c.reviseFirst(dependent, supporter);
         } else {
-            if (Logging.logArcRevisionConstraints()) {
-                System.out.println("\twith constraint: " + csd);
-            }
-            supported = csd.getSecondSupported(domain);
+            removed = c.reviseSecond(supporter, dependent);
         }
-        removed = dependent.retainValues(supported);
         return new Prune(dependent, removed);
     }
 
+    /**
+     * Returns the {@link BinaryConstraint} that this {@link Arc} is revised with.
+     * That is the constraint from the dependent to the supporter if it exists,
+     * otherwise the constraint from the supporter to the dependent.
+     *
+     * @param csp the {@link BinaryCSP} to which the {@link Variable}s belong
+     *
+     * @return the {@link BinaryConstraint} between the {@link Variable}s
+     */
+    public BinaryConstraint getConstraint(BinaryCSP csp) {
+        BinaryConstraint cds = csp.getBinaryConstraint(dependent, supporter);
+        return cds != null ? cds : csp.getBinaryConstraint(supporter, dependent);
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(dependent, supporter);
@@ -2,7 +2,7 @@ package binary.algorithms;
 
 import binary.BinaryCSP;
 import binary.types.Variable;
-import main.Logging;
+import main.SearchProgress;
 import main.SolvingAlgorithm;
 
 import java.util.HashSet;
@@ -12,7 +12,7 @@ import java.util.LinkedHashSet;
  * Represents a Constraint Solving algorithm for {@link BinaryCSP}s.
  *
  * @author 150009974
- * @version 2.3
+ * @version 2.9
  */
 public abstract class BinarySolving extends SolvingAlgorithm {
 
@@ -31,6 +31,9 @@ public abstract class BinarySolving extends SolvingAlgorithm {
     /** The set of {@link Solution}s. */
     private LinkedHashSet<Solution> solutions = new LinkedHashSet<>();
 
+    /** The {@link SearchListener} notified of the search events. */
+    private SearchListener listener = SearchListener.NONE;
+
     /**
      * Creates a {@link BinarySolving} instance
      * to solve the given {@link BinaryCSP}.
@@ -42,68 +45,99 @@ public abstract class BinarySolving extends SolvingAlgorithm {
         problem.forEachVariable(future::add);
     }
 
+    /**
+     * Solves the {@link BinaryCSP} as {@link SolvingAlgorithm#solve(int, boolean)} does.
+     *
+     * @param amount          the amount of {@link Solution}s to find
+     * @param startConsistent whether the {@link BinaryCSP}
+     *                        should be made consistent before solving
+     *
+     * @return the set of found {@link Solution}s
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public LinkedHashSet<Solution> solve(int amount, boolean startConsistent) {
+        // The solutions are the ones returned by innerSolve.
+        return (LinkedHashSet<Solution>) super.solve(amount, startConsistent);
+    }
+
     @Override
     public LinkedHashSet<Solution> innerSolve(int amount) {
         solutionCount = amount;
-        solve();
+        listener.restart();
+        // Every variable may have been detached before solving.
+        if (!checkState()) {
+            solve();
+        }
         return solutions;
     }
 
+    @Override
+    protected void attachProgress(SearchProgress tracked) {
+        addListener(new ProgressListener(tracked));
+    }
+
     @Override
     protected void makeConsistent() {
         LinkedHashSet<Prune> prunes = new LinkedHashSet<>();
         for (Variable v : future) {
             revise(v, prunes);
         }
-        if (Logging.logVarStates()) {
-            System.out.println("After initial revision:");
-            System.out.println("prunes: " + prunes);
-            System.out.println("future: " + future);
-        }
     }
 
     /**
      * Finds solutions to the {@link BinaryCSP}.
-     * Stops when the specified amount of {@link Solution}s is found.
+     * Stops when the specified amount of {@link Solution}s is found
+     * or the search is asked to stop.
      *
      * @see BinarySolving#solutionCount
      */
     private void solve() {
+        if (isStopped()) {
+            return;
+        }
         incrementNumberOfNodes();
+        listener.node(past.size());
         Variable var = getSmallestDomainVariable();
+        // Preprocessing or the initial revision may have wiped out a domain.
+        if (!var.isConsistent()) {
+            return;
+        }
         int val = var.getNextVal();
         leftBranch(var, val);
         // No need to search for more solutions.
-        if (solutions.size() >= solutionCount) {
+        if (solutions.size() >= solutionCount || isStopped()) {
             return;
         }
         rightBranch(var, val);
-        if (Logging.logBranches()) {
-            System.out.println("----------------------");
-        }
+        listener.backtrack(var);
+    }
+
+    @Override
+    public int getDepth() {
+        return past.size();
     }
 
     /**
      * If a solution is found, it is stored.
-     * Also, if needed, logs the current state of the search to standard output.
+     * Otherwise, notifies the {@link #listener} of the current state.
      *
      * @return true iff a solution was found and stored
      */
     private boolean checkState() {
         if (areAllVariablesAssigned()) {
-            solutions.add(new Solution(past));
+            Solution solution = new Solution(past);
+            solutions.add(solution);
+            listener.solution(solution);
+            solutionFound(solutions.size());
             return true;
         }
-
-        if (Logging.logVarStates()) {
-            System.out.println("past: " + past);
-            System.out.println("future: " + future);
-        }
+        listener.state(past, future);
         return false;
     }
 
     /** @return the variable with the smallest domain */
-    private Variable getSmallestDomainVariable() {
+    Variable getSmallestDomainVariable() {
         Variable best = null;
         int smallestDomain = Integer.MAX_VALUE;
         for (Variable var : future) {
@@ -128,10 +162,7 @@ public abstract class BinarySolving extends SolvingAlgorithm {
      */
     private void leftBranch(Variable var, int val) {
         assign(var, val);
-        if (Logging.logBranches()) {
-            System.out.println(var);
-            System.out.println("Left Branch");
-        }
+        listener.branch(var, val, true);
         if (!checkState()) {
             propagateChange(var);
         }
@@ -146,9 +177,7 @@ public abstract class BinarySolving extends SolvingAlgorithm {
      * @param val the value to remove
      */
     private void rightBranch(Variable var, int val) {
-        if (Logging.logBranches()) {
-            System.out.println("Right Branch");
-        }
+        listener.branch(var, val, false);
         var.removeFromDomain(val);
         if (var.isConsistent()) {
             propagateChange(var);
@@ -169,7 +198,7 @@ public abstract class BinarySolving extends SolvingAlgorithm {
      * @param var the {@link Variable} to be assigned
      * @param val the value to be assigned to the variable
      */
-    private void assign(Variable var, int val) {
+    void assign(Variable var, int val) {
         var.assign(val);
         past.add(var);
         future.remove(var);
@@ -182,7 +211,7 @@ public abstract class BinarySolving extends SolvingAlgorithm {
      *
      * @param var the {@link Variable} to be unassigned
      */
-    private void unassign(Variable var) {
+    void unassign(Variable var) {
         var.unassign();
         past.remove(var);
         future.add(var);
@@ -206,7 +235,7 @@ public abstract class BinarySolving extends SolvingAlgorithm {
 
     /**
      * Invokes the {@link BinarySolving#solve()} method if
-     * {@link Variable}s are consistent. Otherwise, prints "Domain wipeout!".
+     * {@link Variable}s are consistent.
      * This method should be called by implementing classes in their
      * {@link BinarySolving#propagateChange(Variable)} methods.
      *
@@ -215,8 +244,6 @@ public abstract class BinarySolving extends SolvingAlgorithm {
     private void recurseIfConsistent(boolean consistent) {
         if (consistent) {
             solve();
-        } else if (Logging.logWipeouts()) {
-            System.out.println("Domain wipeout!");
         }
     }
 
@@ -242,6 +269,21 @@ public abstract class BinarySolving extends SolvingAlgorithm {
         return future;
     }
 
+    /**
+     * Adds a {@link SearchListener} to be notified of the search events,
+     * after the ones added before.
+     *
+     * @param added the {@link SearchListener} to add
+     */
+    public void addListener(SearchListener added) {
+        listener = SearchListener.compose(listener, added);
+    }
+
+    /** @return the {@link SearchListener} notified of the search events */
+    protected SearchListener getListener() {
+        return listener;
+    }
+
     /** @return the {@link BinaryCSP} being solved */
     public BinaryCSP getProblem() {
         return problem;
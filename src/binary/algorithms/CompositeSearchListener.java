@@ -0,0 +1,89 @@
+package binary.algorithms;
+
+import binary.BinaryCSP;
+import binary.types.Variable;
+
+import java.util.Set;
+
+/**
+ * Passes every search event to two {@link SearchListener}s in order.
+ * Longer chains are built by composing composites.
+ *
+ * @author 150009974
+ * @version 1.0
+ * @see SearchListener#compose(SearchListener, SearchListener)
+ */
+final class CompositeSearchListener implements SearchListener {
+
+    /** The listener notified first. */
+    private final SearchListener first;
+
+    /** The listener notified second. */
+    private final SearchListener second;
+
+    /**
+     * Creates a {@link CompositeSearchListener} of the given listeners.
+     *
+     * @param first  the listener notified first
+     * @param second the listener notified second
+     */
+    CompositeSearchListener(SearchListener first, SearchListener second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public void restart() {
+        first.restart();
+        second.restart();
+    }
+
+    @Override
+    public void node(int depth) {
+        first.node(depth);
+        second.node(depth);
+    }
+
+    @Override
+    public void state(Set<Variable> past, Set<Variable> future) {
+        first.state(past, future);
+        second.state(past, future);
+    }
+
+    @Override
+    public void branch(Variable var, int val, boolean left) {
+        first.branch(var, val, left);
+        second.branch(var, val, left);
+    }
+
+    @Override
+    public void backtrack(Variable var) {
+        first.backtrack(var);
+        second.backtrack(var);
+    }
+
+    @Override
+    public void revision(Arc arc, BinaryCSP csp) {
+        first.revision(arc, csp);
+        second.revision(arc, csp);
+    }
+
+    @Override
+    public void prune(Prune prune) {
+        first.prune(prune);
+        second.prune(prune);
+    }
+
+    @Override
+    public void wipeout(Variable var) {
+        first.wipeout(var);
+        second.wipeout(var);
+    }
+
+    @Override
+    public void solution(Solution solution) {
+        first.solution(solution);
+        second.solution(solution);
+    }
+
+}
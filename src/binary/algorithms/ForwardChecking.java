@@ -2,7 +2,6 @@ package binary.algorithms;
 
 import binary.BinaryCSP;
 import binary.types.Variable;
-import main.Logging;
 
 import java.util.LinkedHashSet;
 
@@ -11,7 +10,7 @@ import java.util.LinkedHashSet;
  * specifically for {@link BinaryCSP}s.
  *
  * @author 150009974
- * @version 3.2
+ * @version 3.3
  */
 public class ForwardChecking extends BinarySolving {
 
@@ -33,13 +32,14 @@ public class ForwardChecking extends BinarySolving {
             }
             Arc a = new Arc(f, var);
             incrementRevisionCounter();
-            if (Logging.logArcRevision()) {
-                System.out.println("Revising arc: " + a);
-            }
+            addConstraintChecks(a.countChecks());
+            getListener().revision(a, getProblem());
             Prune entry = a.prune(getProblem());
+            getListener().prune(entry);
             prunes.add(entry);
             // Only this variable has changed, therefore check it alone.
             if (!f.isConsistent()) {
+                getListener().wipeout(f);
                 return false;
             }
         }
@@ -2,7 +2,6 @@ package binary.algorithms;
 
 import binary.BinaryCSP;
 import binary.types.Variable;
-import main.Logging;
 
 import java.util.LinkedHashSet;
 
@@ -11,7 +10,7 @@ import java.util.LinkedHashSet;
  * constraint solving algorithm, specifically for {@link BinaryCSP}.
  *
  * @author 150009974
- * @version 1.3
+ * @version 1.4
  */
 public class MaintainingArcConsistency extends BinarySolving {
 
@@ -31,12 +30,16 @@ public class MaintainingArcConsistency extends BinarySolving {
         while (!queue.isEmpty()) {
             Arc a = nextArc(queue);
             incrementRevisionCounter();
+            addConstraintChecks(a.countChecks());
+            getListener().revision(a, getProblem());
             Prune entry = a.prune(getProblem());
+            getListener().prune(entry);
             pruned.add(entry);
 
             Variable dep = a.getDependent();
             // Only this variable has changed, therefore check it alone.
             if (!dep.isConsistent()) {
+                getListener().wipeout(dep);
                 return false;
             }
 
@@ -67,9 +70,6 @@ public class MaintainingArcConsistency extends BinarySolving {
     private Arc nextArc(LinkedHashSet<Arc> queue) {
         Arc a = queue.iterator().next();
         queue.remove(a);
-        if (Logging.logArcRevision()) {
-            System.out.println("Revising arc: " + a);
-        }
         return a;
     }
 
@@ -0,0 +1,20 @@
+package binary.algorithms;
+
+/**
+ * The {@link SearchListener} that ignores every event.
+ * Only the single {@link #INSTANCE} exists,
+ * so that calls to it are monomorphic and can be inlined.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class NoSearchListener implements SearchListener {
+
+    /** The only instance. */
+    static final NoSearchListener INSTANCE = new NoSearchListener();
+
+    /** Prevents other instances. */
+    private NoSearchListener() {
+    }
+
+}
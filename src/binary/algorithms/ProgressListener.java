@@ -0,0 +1,48 @@
+package binary.algorithms;
+
+import binary.types.Variable;
+import main.SearchProgress;
+
+/**
+ * Reports the branches of a {@link BinarySolving} search to a {@link SearchProgress}.
+ * It is only attached when the progress of the search is read,
+ * so other searches do not estimate it.
+ *
+ * @author 150009974
+ * @version 1.0
+ * @see main.SolvingAlgorithm#trackProgress()
+ */
+final class ProgressListener implements SearchListener {
+
+    /** The {@link SearchProgress} the branches are reported to. */
+    private final SearchProgress progress;
+
+    /**
+     * Creates a {@link ProgressListener} that reports to the given {@link SearchProgress}.
+     *
+     * @param progress the {@link SearchProgress} to report to
+     */
+    ProgressListener(SearchProgress progress) {
+        this.progress = progress;
+    }
+
+    @Override
+    public void node(int depth) {
+        progress.enter();
+    }
+
+    @Override
+    public void branch(Variable var, int val, boolean left) {
+        if (left) {
+            progress.left(var.getDomainSize());
+        } else {
+            progress.right();
+        }
+    }
+
+    @Override
+    public void backtrack(Variable var) {
+        progress.leave();
+    }
+
+}
@@ -10,7 +10,7 @@ import java.util.Objects;
  * and a {@link LinkedHashSet} of values that have been pruned.
  *
  * @author 150009974
- * @version 2.1
+ * @version 2.2
  */
 public class Prune {
 
@@ -37,6 +37,16 @@ public class Prune {
         values.forEach(var::addToDomain);
     }
 
+    /** @return the {@link Variable} from which values have been pruned */
+    public Variable getVariable() {
+        return var;
+    }
+
+    /** @return the number of pruned values */
+    public int size() {
+        return values.size();
+    }
+
     /**
      * Checks if this {@link Prune} is empty.
      * In other words, if no values have been pruned.
@@ -0,0 +1,121 @@
+package binary.algorithms;
+
+import binary.BinaryCSP;
+import binary.types.Variable;
+
+import java.util.Set;
+
+/**
+ * Receives the events of a {@link BinarySolving} search.
+ * Every callback does nothing by default,
+ * so implementations only override the events they need.
+ * A search without listeners uses {@link #NONE},
+ * whose empty callbacks the JIT compiler inlines away.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public interface SearchListener {
+
+    /** The listener that ignores every event. */
+    SearchListener NONE = NoSearchListener.INSTANCE;
+
+    /**
+     * Combines the given listeners into one,
+     * that passes every event to the first and then to the second.
+     * {@link #NONE} is left out of the combination.
+     *
+     * @param first  the first listener
+     * @param second the second listener
+     *
+     * @return a listener that notifies both
+     */
+    static SearchListener compose(SearchListener first, SearchListener second) {
+        if (first == NONE) {
+            return second;
+        }
+        if (second == NONE) {
+            return first;
+        }
+        return new CompositeSearchListener(first, second);
+    }
+
+    /**
+     * Called when the search starts from the root.
+     * The solver never restarts in the middle of a search,
+     * so this is called once per solve.
+     */
+    default void restart() {
+    }
+
+    /**
+     * Called when the search reaches a node and selects its variable.
+     *
+     * @param depth the number of assigned {@link Variable}s
+     */
+    default void node(int depth) {
+    }
+
+    /**
+     * Called when a node that is not a solution has been propagated.
+     *
+     * @param past   the assigned {@link Variable}s
+     * @param future the unassigned {@link Variable}s
+     */
+    default void state(Set<Variable> past, Set<Variable> future) {
+    }
+
+    /**
+     * Called when the search takes a branch.
+     * The left branch assigns the value, the right branch removes it.
+     *
+     * @param var  the branching {@link Variable}
+     * @param val  the branching value
+     * @param left true for the left branch, false for the right
+     */
+    default void branch(Variable var, int val, boolean left) {
+    }
+
+    /**
+     * Called when both branches of a node have been explored.
+     *
+     * @param var the branching {@link Variable} of the node
+     */
+    default void backtrack(Variable var) {
+    }
+
+    /**
+     * Called before an {@link Arc} is revised.
+     *
+     * @param arc the {@link Arc} to revise
+     * @param csp the {@link BinaryCSP} with the constraint of the {@link Arc}
+     */
+    default void revision(Arc arc, BinaryCSP csp) {
+    }
+
+    /**
+     * Called after an {@link Arc} has been revised.
+     * The {@link Prune} may be empty.
+     *
+     * @param prune the values removed by the revision
+     */
+    default void prune(Prune prune) {
+    }
+
+    /**
+     * Called when a revision leaves a {@link Variable} without values.
+     *
+     * @param var the {@link Variable} with the empty domain
+     */
+    default void wipeout(Variable var) {
+    }
+
+    /**
+     * Called when a {@link Solution} is found.
+     *
+     * @param solution the found {@link Solution}
+     */
+    default void solution(Solution solution) {
+    }
+
+}
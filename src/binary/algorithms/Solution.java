@@ -27,6 +27,15 @@ public class Solution extends LinkedHashMap<Integer, Integer> {
         }
     }
 
+    /**
+     * Creates a copy of the given {@link Solution}.
+     *
+     * @param other the {@link Solution} to copy
+     */
+    public Solution(Solution other) {
+        super(other);
+    }
+
     @Override
     public String toString() {
         StringBuffer buffer = new StringBuffer();
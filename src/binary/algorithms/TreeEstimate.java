@@ -0,0 +1,92 @@
+package binary.algorithms;
+
+/**
+ * Represents an estimate of the size of a search tree
+ * and of the number of solutions in it, from a number of random probes.
+ * The mean and variance of each are accumulated by Welford's method.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class TreeEstimate {
+
+    /** The normal quantile of a two-sided 95% confidence interval. */
+    private static final double Z_95 = 1.96;
+
+    /** The number of probes added. */
+    private int probes = 0;
+
+    /** The mean of the estimated number of nodes. */
+    private double nodes = 0;
+
+    /** The sum of squared differences from the mean of the estimated number of nodes. */
+    private double nodesSquares = 0;
+
+    /** The mean of the estimated number of solutions. */
+    private double solutions = 0;
+
+    /** The sum of squared differences from the mean of the estimated number of solutions. */
+    private double solutionsSquares = 0;
+
+    /**
+     * Adds the estimates of one probe.
+     *
+     * @param probeNodes     the number of nodes estimated by the probe
+     * @param probeSolutions the number of solutions estimated by the probe
+     */
+    void add(double probeNodes, double probeSolutions) {
+        probes++;
+        double delta = probeNodes - nodes;
+        nodes += delta / probes;
+        nodesSquares += delta * (probeNodes - nodes);
+        delta = probeSolutions - solutions;
+        solutions += delta / probes;
+        solutionsSquares += delta * (probeSolutions - solutions);
+    }
+
+    /**
+     * Computes the standard error of a mean.
+     *
+     * @param squares the sum of squared differences from the mean
+     *
+     * @return the standard error, or 0 with fewer than two probes
+     */
+    private double standardError(double squares) {
+        if (probes < 2) {
+            return 0;
+        }
+        return Math.sqrt(squares / (probes - 1) / probes);
+    }
+
+    /** @return the number of probes made */
+    public int getProbes() {
+        return probes;
+    }
+
+    /** @return the estimated number of search tree nodes */
+    public double getNodes() {
+        return nodes;
+    }
+
+    /** @return the standard error of the estimated number of nodes */
+    public double getNodesError() {
+        return standardError(nodesSquares);
+    }
+
+    /** @return the estimated number of solutions */
+    public double getSolutions() {
+        return solutions;
+    }
+
+    /** @return the standard error of the estimated number of solutions */
+    public double getSolutionsError() {
+        return standardError(solutionsSquares);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Estimate: %.4g nodes (95%% CI +/- %.2g), %.4g solutions (95%% CI +/- %.2g) from %d probes",
+                nodes, Z_95 * getNodesError(), solutions, Z_95 * getSolutionsError(), probes);
+    }
+
+}
@@ -0,0 +1,188 @@
+package binary.algorithms;
+
+import binary.types.Variable;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+
+/**
+ * Estimates the size of the search tree of a {@link BinarySolving}
+ * and the number of its solutions by random probing (Knuth, 1975; Chen, 1992).
+ * A probe walks from the root to a leaf of the tree that the search would build,
+ * taking the left or right branch of every node at random among those that
+ * do not fail. Each node on the walk stands for as many nodes as the product
+ * of the number of choices made above it, and the means over many probes
+ * are unbiased estimates of the number of nodes and of solutions.
+ * The probes use the same variable ordering and propagation as the search,
+ * and leave the problem as they found it.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class TreeEstimator {
+
+    /** The default number of probes. */
+    public static final int DEFAULT_PROBES = 100;
+
+    /** The outcome of a left branch whose propagation wiped out a domain. */
+    private static final int FAILED = 0;
+
+    /** The outcome of a left branch that leads to another node. */
+    private static final int NODE = 1;
+
+    /** The outcome of a left branch that assigns the last variable. */
+    private static final int SOLUTION = 2;
+
+    /** The {@link BinarySolving} whose search tree is estimated. */
+    private final BinarySolving solver;
+
+    /** The source of the random choices. */
+    private final Random random;
+
+    /** The number of nodes estimated by the current probe. */
+    private double probeNodes;
+
+    /** The number of solutions estimated by the current probe. */
+    private double probeSolutions;
+
+    /**
+     * Creates a {@link TreeEstimator} for the given {@link BinarySolving}.
+     *
+     * @param solver the {@link BinarySolving} whose search tree to estimate
+     * @param seed   the seed of the random choices
+     */
+    public TreeEstimator(BinarySolving solver, long seed) {
+        this.solver = solver;
+        random = new Random(seed);
+    }
+
+    /**
+     * Estimates the search tree by the given number of probes.
+     *
+     * @param probes          the number of probes to make
+     * @param startConsistent whether the search will make the problem consistent first
+     *
+     * @return the {@link TreeEstimate}
+     */
+    public TreeEstimate estimate(int probes, boolean startConsistent) {
+        TreeEstimate estimate = new TreeEstimate();
+        LinkedHashSet<Prune> prunes = new LinkedHashSet<>();
+        boolean consistent = true;
+        if (startConsistent) {
+            for (Variable v : new LinkedHashSet<>(solver.getFuture())) {
+                consistent &= solver.revise(v, prunes);
+            }
+        }
+        for (int i = 0; i < probes; i++) {
+            probeNodes = 0;
+            probeSolutions = 0;
+            if (solver.getFuture().isEmpty()) {
+                // Every variable was detached, the search only finds the empty solution.
+                probeSolutions = 1;
+            } else if (consistent) {
+                probe(1);
+            } else {
+                probeNodes = 1;
+            }
+            estimate.add(probeNodes, probeSolutions);
+        }
+        prunes.forEach(Prune::undo);
+        return estimate;
+    }
+
+    /**
+     * Counts the current node and continues the probe below it.
+     *
+     * @param weight the number of nodes the current node stands for
+     */
+    private void probe(double weight) {
+        probeNodes += weight;
+        Variable var = solver.getSmallestDomainVariable();
+        if (!var.isConsistent()) {
+            return;
+        }
+        int val = var.getNextVal();
+        int left = tryLeft(var, val);
+        boolean right = tryRight(var, val);
+        int choices = (left != FAILED ? 1 : 0) + (right ? 1 : 0);
+        if (choices == 0) {
+            return;
+        }
+        boolean takeLeft = left != FAILED && (!right || random.nextBoolean());
+        double childWeight = weight * choices;
+        if (takeLeft && left == SOLUTION) {
+            probeSolutions += childWeight;
+        } else if (takeLeft) {
+            solver.assign(var, val);
+            descend(var, childWeight);
+            solver.unassign(var);
+        } else {
+            var.removeFromDomain(val);
+            descend(var, childWeight);
+            var.addToDomain(val);
+        }
+    }
+
+    /**
+     * Determines the outcome of the left branch of the current node, and undoes it.
+     *
+     * @param var the branching {@link Variable}
+     * @param val the value assigned by the left branch
+     *
+     * @return {@link #FAILED}, {@link #NODE} or {@link #SOLUTION}
+     */
+    private int tryLeft(Variable var, int val) {
+        solver.assign(var, val);
+        int outcome = SOLUTION;
+        if (!solver.getFuture().isEmpty()) {
+            outcome = propagates(var) ? NODE : FAILED;
+        }
+        solver.unassign(var);
+        return outcome;
+    }
+
+    /**
+     * Determines whether the right branch of the current node leads to a node, and undoes it.
+     *
+     * @param var the branching {@link Variable}
+     * @param val the value removed by the right branch
+     *
+     * @return true iff the right branch does not fail
+     */
+    private boolean tryRight(Variable var, int val) {
+        var.removeFromDomain(val);
+        boolean node = var.isConsistent() && propagates(var);
+        var.addToDomain(val);
+        return node;
+    }
+
+    /**
+     * Revises after a change to the given {@link Variable} and undoes the revision.
+     *
+     * @param var the changed {@link Variable}
+     *
+     * @return true iff the revision kept every domain non-empty
+     */
+    private boolean propagates(Variable var) {
+        LinkedHashSet<Prune> pruned = new LinkedHashSet<>();
+        boolean consistent = solver.revise(var, pruned);
+        pruned.forEach(Prune::undo);
+        return consistent;
+    }
+
+    /**
+     * Propagates the change to the given {@link Variable} and probes the node below,
+     * undoing the propagation afterwards.
+     *
+     * @param var    the changed {@link Variable}
+     * @param weight the number of nodes the node below stands for
+     */
+    private void descend(Variable var, double weight) {
+        LinkedHashSet<Prune> pruned = new LinkedHashSet<>();
+        if (solver.revise(var, pruned)) {
+            probe(weight);
+        }
+        pruned.forEach(Prune::undo);
+    }
+
+}
@@ -0,0 +1,204 @@
+package binary.metrics;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes the counters of a {@link SolveMetrics}
+ * to a file in the Prometheus text exposition format,
+ * for example for the textfile collector of the node exporter.
+ * The file is written next to its final name and then moved,
+ * so a reader never sees a partial file.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class PrometheusWriter {
+
+    /** The prefix of the names of the metrics. */
+    private static final String PREFIX = "constraintsolver_";
+
+    /** The default time (in milliseconds) between writes. */
+    private static final long DEFAULT_PERIOD = 1000;
+
+    /** The {@link SolveMetrics} written. */
+    private final SolveMetrics metrics;
+
+    /** The file written. */
+    private final Path file;
+
+    /** The file written before it is moved to the {@link #file}. */
+    private final Path temporary;
+
+    /** The time (in milliseconds) between writes. */
+    private final long period;
+
+    /** The background thread that writes the file. */
+    private final Thread writer;
+
+    /** Whether the writer is being closed. */
+    private volatile boolean closing = false;
+
+    /** The failure of the last write, if any. */
+    private volatile IOException failure;
+
+    /**
+     * Creates a {@link PrometheusWriter} that writes every second.
+     *
+     * @param filename the file to write
+     * @param metrics  the {@link SolveMetrics} to write
+     */
+    public PrometheusWriter(String filename, SolveMetrics metrics) {
+        this(filename, metrics, DEFAULT_PERIOD);
+    }
+
+    /**
+     * Creates a {@link PrometheusWriter} and starts writing.
+     *
+     * @param filename the file to write
+     * @param metrics  the {@link SolveMetrics} to write
+     * @param period   the time (in milliseconds) between writes
+     */
+    public PrometheusWriter(String filename, SolveMetrics metrics, long period) {
+        this.metrics = metrics;
+        this.period = period;
+        file = Paths.get(filename);
+        temporary = Paths.get(filename + ".tmp");
+        writer = new Thread(this::run, "metrics-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Writes the file every {@link #period} until closed. */
+    private void run() {
+        while (!closing) {
+            try {
+                write();
+            } catch (IOException e) {
+                failure = e;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(period);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops the writer and writes the final values of the counters.
+     *
+     * @throws IOException if the file could not be written
+     */
+    public void close() throws IOException {
+        closing = true;
+        writer.interrupt();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        write();
+    }
+
+    /**
+     * Writes the current values of the counters to the file.
+     *
+     * @throws IOException if the file could not be written
+     */
+    private synchronized void write() throws IOException {
+        Files.write(temporary, format().getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Formats the current values of the counters.
+     *
+     * @return the counters in the Prometheus text exposition format
+     */
+    private String format() {
+        String labels = "{algorithm=\"" + escape(metrics.getAlgorithm())
+                + "\",problem=\"" + escape(metrics.getProblem()) + "\"}";
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        metric(out, labels, "nodes_total", "counter",
+                "Search tree nodes reached.", metrics.getNodes());
+        metric(out, labels, "revisions_total", "counter",
+                "Arc revisions made.", metrics.getRevisions());
+        metric(out, labels, "constraint_checks_total", "counter",
+                "Pairs of values checked against constraints.", metrics.getConstraintChecks());
+        metric(out, labels, "wipeouts_total", "counter",
+                "Revisions that emptied a domain.", metrics.getWipeouts());
+        metric(out, labels, "solutions_total", "counter",
+                "Solutions found.", metrics.getSolutions());
+        metric(out, labels, "depth", "gauge",
+                "Assigned variables at the current node.", metrics.getDepth());
+        metric(out, labels, "max_depth", "gauge",
+                "Largest number of variables assigned at once.", metrics.getMaxDepth());
+        metric(out, labels, "nodes_per_second", "gauge",
+                "Average nodes reached per second.", metrics.getNodesPerSecond());
+        metric(out, labels, "progress_ratio", "gauge",
+                "Estimated fraction of the search tree explored.", metrics.getProgress());
+        metric(out, labels, "elapsed_seconds", "gauge",
+                "Time since the search started.", metrics.getElapsedMillis() / 1000.0);
+        metric(out, labels, "running", "gauge",
+                "Whether the search is still running.", metrics.isRunning() ? 1 : 0);
+        out.flush();
+        return text.toString();
+    }
+
+    /**
+     * Prints one metric with its help and type lines.
+     *
+     * @param out    where to print
+     * @param labels the labels of the sample
+     * @param name   the name of the metric, without the prefix
+     * @param type   the type of the metric
+     * @param help   the description of the metric
+     * @param value  the value of the metric
+     */
+    private static void metric(PrintWriter out, String labels, String name,
+                               String type, String help, double value) {
+        out.print("# HELP " + PREFIX + name + " " + help + "\n");
+        out.print("# TYPE " + PREFIX + name + " " + type + "\n");
+        out.print(PREFIX + name + labels + " " + number(value) + "\n");
+    }
+
+    /**
+     * Formats a value, without a fraction for whole numbers.
+     *
+     * @param value the value of a metric
+     *
+     * @return the formatted value
+     */
+    private static String number(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * Escapes a label value.
+     *
+     * @param value the value of a label
+     *
+     * @return the value with backslashes, quotes and line breaks escaped
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /** @return the failure of the last periodic write, or null if it succeeded */
+    public IOException getFailure() {
+        return failure;
+    }
+
+}
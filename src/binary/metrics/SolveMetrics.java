@@ -0,0 +1,237 @@
+package binary.metrics;
+
+import binary.BinaryCSP;
+import binary.algorithms.Arc;
+import binary.algorithms.SearchListener;
+import binary.algorithms.Solution;
+import binary.types.Variable;
+import main.SearchProgress;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the events of a search as it runs, so they can be read
+ * by JMX or a {@link PrometheusWriter} while the search continues.
+ * The counters are {@link LongAdder}s, so several searches or workers
+ * may share one {@link SolveMetrics} without contending.
+ *
+ * The progress is read from the {@link SearchProgress} of the solver,
+ * so the search is estimated once however many readers it has.
+ *
+ * @author 150009974
+ * @version 1.2
+ */
+public final class SolveMetrics implements SolveMetricsMBean, SearchListener {
+
+    /** The domain of the names of the registered MBeans. */
+    private static final String DOMAIN = "constraintsolver";
+
+    /** The number of {@link SolveMetrics} registered so far, to name them uniquely. */
+    private static final AtomicInteger REGISTERED = new AtomicInteger();
+
+    /** The name of the solving algorithm. */
+    private final String algorithm;
+
+    /** The problem file being solved. */
+    private final String problem;
+
+    /** The number of search tree nodes reached. */
+    private final LongAdder nodes = new LongAdder();
+
+    /** The number of arc revisions made. */
+    private final LongAdder revisions = new LongAdder();
+
+    /** The number of pairs of values checked against constraints. */
+    private final LongAdder checks = new LongAdder();
+
+    /** The number of revisions that emptied a domain. */
+    private final LongAdder wipeouts = new LongAdder();
+
+    /** The number of solutions found. */
+    private final LongAdder solutions = new LongAdder();
+
+    /** The largest number of variables assigned at once. */
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+
+    /** The number of assigned variables at the current node. */
+    private volatile int depth = 0;
+
+    /** The estimated progress of the search, kept by the solver. */
+    private final SearchProgress progress;
+
+    /** The start of the search, by {@link System#nanoTime()}. */
+    private volatile long start = System.nanoTime();
+
+    /** The end of the search, by {@link System#nanoTime()}, or 0 while it runs. */
+    private volatile long end = 0;
+
+    /** The depth of each node on the search path. */
+    private int[] depths = new int[64];
+
+    /** The number of nodes on the search path. */
+    private int pathLength = 0;
+
+    /** The name this is registered under, or null if it is not registered. */
+    private ObjectName name;
+
+    /**
+     * Creates {@link SolveMetrics} for a solve.
+     *
+     * @param algorithm the name of the solving algorithm
+     * @param problem   the problem file being solved
+     * @param progress  the {@link SearchProgress} of the solver
+     */
+    public SolveMetrics(String algorithm, String problem, SearchProgress progress) {
+        this.algorithm = algorithm;
+        this.problem = problem;
+        this.progress = progress;
+    }
+
+    /**
+     * Registers this as an MBean with the platform MBean server,
+     * under constraintsolver:type=Solve.
+     *
+     * @throws JMException if the MBean cannot be registered
+     */
+    public void register() throws JMException {
+        name = new ObjectName(DOMAIN + ":type=Solve,id=" + REGISTERED.incrementAndGet()
+                + ",algorithm=" + ObjectName.quote(algorithm)
+                + ",problem=" + ObjectName.quote(problem));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+    }
+
+    /**
+     * Unregisters this from the platform MBean server, if it was registered.
+     *
+     * @throws JMException if the MBean cannot be unregistered
+     */
+    public void unregister() throws JMException {
+        if (name != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            name = null;
+        }
+    }
+
+    /** Marks the search as finished. */
+    public void finish() {
+        end = System.nanoTime();
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    @Override
+    public String getProblem() {
+        return problem;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return end == 0;
+    }
+
+    @Override
+    public long getElapsedMillis() {
+        long stop = end;
+        return ((stop == 0 ? System.nanoTime() : stop) - start) / 1_000_000;
+    }
+
+    @Override
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    @Override
+    public long getRevisions() {
+        return revisions.sum();
+    }
+
+    @Override
+    public long getConstraintChecks() {
+        return checks.sum();
+    }
+
+    @Override
+    public long getWipeouts() {
+        return wipeouts.sum();
+    }
+
+    @Override
+    public long getSolutions() {
+        return solutions.sum();
+    }
+
+    @Override
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public long getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    @Override
+    public double getNodesPerSecond() {
+        long millis = getElapsedMillis();
+        return millis == 0 ? 0 : getNodes() * 1000.0 / millis;
+    }
+
+    @Override
+    public double getProgress() {
+        return progress.getFraction();
+    }
+
+    @Override
+    public void restart() {
+        pathLength = 0;
+        depth = 0;
+        end = 0;
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void node(int depth) {
+        nodes.increment();
+        maxDepth.accumulate(depth);
+        this.depth = depth;
+        if (pathLength == depths.length) {
+            depths = Arrays.copyOf(depths, 2 * pathLength);
+        }
+        depths[pathLength++] = depth;
+    }
+
+    @Override
+    public void backtrack(Variable var) {
+        if (pathLength == 0) {
+            return;
+        }
+        pathLength--;
+        depth = pathLength == 0 ? 0 : depths[pathLength - 1];
+    }
+
+    @Override
+    public void revision(Arc arc, BinaryCSP csp) {
+        revisions.increment();
+        checks.add(arc.countChecks());
+    }
+
+    @Override
+    public void wipeout(Variable var) {
+        wipeouts.increment();
+    }
+
+    @Override
+    public void solution(Solution solution) {
+        solutions.increment();
+    }
+
+}
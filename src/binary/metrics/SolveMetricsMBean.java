@@ -0,0 +1,51 @@
+package binary.metrics;
+
+/**
+ * The management interface of a {@link SolveMetrics},
+ * with the live counters of one running solve.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public interface SolveMetricsMBean {
+
+    /** @return the name of the solving algorithm */
+    String getAlgorithm();
+
+    /** @return the problem file being solved */
+    String getProblem();
+
+    /** @return true until the solve has finished */
+    boolean isRunning();
+
+    /** @return the time (in milliseconds) since the search started */
+    long getElapsedMillis();
+
+    /** @return the number of search tree nodes reached */
+    long getNodes();
+
+    /** @return the number of arc revisions made */
+    long getRevisions();
+
+    /** @return the number of pairs of values checked against constraints */
+    long getConstraintChecks();
+
+    /** @return the number of revisions that emptied a domain */
+    long getWipeouts();
+
+    /** @return the number of solutions found */
+    long getSolutions();
+
+    /** @return the number of assigned variables at the current node */
+    int getDepth();
+
+    /** @return the largest number of variables assigned at once */
+    long getMaxDepth();
+
+    /** @return the average number of nodes reached per second */
+    double getNodesPerSecond();
+
+    /** @return the estimated fraction of the search tree explored, from 0 to 1 */
+    double getProgress();
+
+}
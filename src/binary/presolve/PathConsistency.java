@@ -0,0 +1,402 @@
+package binary.presolve;
+
+import binary.BinaryCSP;
+import binary.types.BinaryConstraint;
+import binary.types.BitMatrix;
+import binary.types.RelationPool;
+import binary.types.Variable;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+/**
+ * Makes a {@link BinaryCSP} path consistent before solving (PC-2).
+ * For every triangle of variables i, k, j the relation between i and j
+ * is tightened to the pairs that extend to a value of k.
+ * Relations are composed as {@link BitMatrix}es, 64 pairs at a time.
+ * When the full variant is used, a constraint is added between
+ * two unconstrained variables whenever a triangle forbids some pair.
+ * The partial variant only tightens the constraints that already exist.
+ * Values that lose all support in a relation are removed from the domains.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public final class PathConsistency {
+
+    /** The {@link BinaryCSP} being made path consistent. */
+    private BinaryCSP csp;
+
+    /** Whether constraints may be added between unconstrained variables. */
+    private boolean addImplicit;
+
+    /** The number of variables in the {@link #csp}. */
+    private int n;
+
+    /** The smallest domain value of each variable. */
+    private int[] lower;
+
+    /** The largest domain value of each variable. */
+    private int[] upper;
+
+    /**
+     * The relation between each pair of variables, in both orientations.
+     * A null relation means that the pair is not constrained.
+     */
+    private BitMatrix[][] relations;
+
+    /** Whether the relation of a pair has changed and must be stored. */
+    private boolean[][] changed;
+
+    /** The pairs (i, j) with i less than j, whose relations must be propagated. */
+    private ArrayDeque<int[]> queue = new ArrayDeque<>();
+
+    /** Whether the relation of a pair was added by this preprocessing. */
+    private boolean[][] implicit;
+
+    /** Whether a pair is currently in the {@link #queue}. */
+    private boolean[][] queued;
+
+    /** The number of existing constraints that were tightened. */
+    private int tightened = 0;
+
+    /** The number of constraints that were added. */
+    private int added = 0;
+
+    /** The number of pairs removed from the existing constraints. */
+    private int removedPairs = 0;
+
+    /** The number of values removed from domains. */
+    private int removedValues = 0;
+
+    /** Whether the {@link #csp} was found to have no solutions. */
+    private boolean inconsistent = false;
+
+    /** The time (in milliseconds) the preprocessing took. */
+    private long time;
+
+    /**
+     * Creates a {@link PathConsistency} preprocessing
+     * step for the given {@link BinaryCSP}.
+     *
+     * @param problem         the {@link BinaryCSP} to preprocess
+     * @param addConstraints  whether constraints may be added
+     *                        between unconstrained variables
+     */
+    public PathConsistency(BinaryCSP problem, boolean addConstraints) {
+        csp = problem;
+        addImplicit = addConstraints;
+        n = problem.getNumberOfVariables();
+    }
+
+    /**
+     * Tightens the {@link BinaryConstraint}s of the {@link BinaryCSP}
+     * until every triangle of variables is path consistent.
+     * The tightened and added {@link BinaryConstraint}s,
+     * as well as the reduced domains, are stored in the {@link BinaryCSP}.
+     *
+     * @return false iff the {@link BinaryCSP} was proven to have no solutions
+     */
+    public boolean apply() {
+        long start = System.currentTimeMillis();
+        readBounds();
+        readRelations();
+        int before = countPairs();
+        while (!queue.isEmpty() && !inconsistent) {
+            int[] pair = queue.poll();
+            queued[pair[0]][pair[1]] = false;
+            propagate(pair[0], pair[1]);
+        }
+        removedPairs = before - countPairs();
+        writeRelations();
+        time = System.currentTimeMillis() - start;
+        return !inconsistent;
+    }
+
+    /** Reads the domain bounds of the variables. */
+    private void readBounds() {
+        lower = new int[n];
+        upper = new int[n];
+        for (int i = 0; i < n; i++) {
+            LinkedHashSet<Integer> domain = csp.getVariable(i).getDomain();
+            if (domain.isEmpty()) {
+                inconsistent = true;
+                continue;
+            }
+            lower[i] = Collections.min(domain);
+            upper[i] = Collections.max(domain);
+        }
+    }
+
+    /**
+     * Reads the {@link BinaryConstraint}s into {@link BitMatrix}es.
+     * Constraints on the same pair in opposite directions are intersected.
+     * Every constrained pair is queued for propagation.
+     */
+    private void readRelations() {
+        relations = new BitMatrix[n][n];
+        changed = new boolean[n][n];
+        queued = new boolean[n][n];
+        implicit = new boolean[n][n];
+        for (BinaryConstraint c : csp.getConstraints()) {
+            int i = c.getVar1();
+            int j = c.getVar2();
+            BitMatrix m = c.toBitMatrix(lower[i], upper[i], lower[j], upper[j]);
+            maskDomains(m, i, j);
+            if (relations[i][j] == null) {
+                relations[i][j] = m;
+                relations[j][i] = m.transpose();
+            } else {
+                // Both c(i, j) and c(j, i) are given, so they are merged.
+                relations[i][j].retainAll(m);
+                setRelation(i, j, relations[i][j]);
+            }
+            enqueue(i, j);
+        }
+    }
+
+    /**
+     * Removes the pairs that use values outside of the current domains.
+     *
+     * @param m the relation between the two variables
+     * @param i the first variable
+     * @param j the second variable
+     */
+    private void maskDomains(BitMatrix m, int i, int j) {
+        Variable first = csp.getVariable(i);
+        for (int v = lower[i]; v <= upper[i]; v++) {
+            if (!first.domainContains(v)) {
+                m.clearRow(v);
+            }
+        }
+        Variable second = csp.getVariable(j);
+        for (int v = lower[j]; v <= upper[j]; v++) {
+            if (!second.domainContains(v)) {
+                m.clearColumn(v);
+            }
+        }
+    }
+
+    /**
+     * Propagates the relation of the given pair to all triangles it is in.
+     *
+     * @param i the first variable of the pair
+     * @param j the second variable of the pair
+     */
+    private void propagate(int i, int j) {
+        for (int k = 0; k < n && !inconsistent; k++) {
+            if (k == i || k == j) {
+                continue;
+            }
+            // The path i - j - k constrains (i, k).
+            if (relations[j][k] != null && mayConstrain(i, k)) {
+                revise(i, k, relations[i][j].compose(relations[j][k]));
+            }
+            // The path k - i - j constrains (k, j).
+            if (relations[k][i] != null && mayConstrain(k, j)) {
+                revise(k, j, relations[k][i].compose(relations[i][j]));
+            }
+        }
+    }
+
+    /**
+     * Determines whether the relation of the given pair may be tightened.
+     * That is, if the pair is constrained or constraints may be added.
+     *
+     * @param i the first variable
+     * @param j the second variable
+     *
+     * @return true iff the relation of the pair may be tightened
+     */
+    private boolean mayConstrain(int i, int j) {
+        return addImplicit || relations[i][j] != null;
+    }
+
+    /**
+     * Intersects the relation of the given pair with the given derived one.
+     * If the pair is not constrained, a constraint is only added
+     * when the full variant is used and the derived relation forbids a pair.
+     *
+     * @param i       the first variable of the pair
+     * @param j       the second variable of the pair
+     * @param derived the relation derived from a path between them
+     */
+    private void revise(int i, int j, BitMatrix derived) {
+        BitMatrix current = relations[i][j];
+        if (current == null) {
+            if (allowsEverything(i, j, derived)) {
+                return;
+            }
+            added++;
+            implicit[i][j] = true;
+            implicit[j][i] = true;
+            setRelation(i, j, derived);
+        } else if (current.retainAll(derived)) {
+            setRelation(i, j, current);
+        } else {
+            return;
+        }
+        if (relations[i][j].isEmpty()) {
+            inconsistent = true;
+            return;
+        }
+        enqueue(i, j);
+        removeUnsupported(i, j);
+    }
+
+    /**
+     * Determines whether the given relation allows
+     * every pair of values from the current domains.
+     *
+     * @param i the first variable
+     * @param j the second variable
+     * @param m the relation between the two variables
+     *
+     * @return true iff the relation does not forbid any pair
+     */
+    private boolean allowsEverything(int i, int j, BitMatrix m) {
+        long size = (long) csp.getVariable(i).getDomainSize()
+                * csp.getVariable(j).getDomainSize();
+        return m.cardinality() == size;
+    }
+
+    /**
+     * Removes the values of either variable that lost all their support
+     * in the relation between the two variables.
+     *
+     * @param i the first variable
+     * @param j the second variable
+     */
+    private void removeUnsupported(int i, int j) {
+        BitMatrix m = relations[i][j];
+        for (int v = lower[i]; v <= upper[i] && !inconsistent; v++) {
+            if (csp.getVariable(i).domainContains(v) && m.rowIsEmpty(v)) {
+                removeValue(i, v);
+            }
+        }
+        for (int v = lower[j]; v <= upper[j] && !inconsistent; v++) {
+            if (csp.getVariable(j).domainContains(v) && m.columnIsEmpty(v)) {
+                removeValue(j, v);
+            }
+        }
+    }
+
+    /**
+     * Removes the given value from the domain of the given variable
+     * and from all relations in which the variable takes part.
+     *
+     * @param i   the variable
+     * @param val the value to remove
+     */
+    private void removeValue(int i, int val) {
+        Variable var = csp.getVariable(i);
+        var.removeFromDomain(val);
+        removedValues++;
+        if (!var.isConsistent()) {
+            inconsistent = true;
+            return;
+        }
+        for (int k = 0; k < n; k++) {
+            if (relations[i][k] == null) {
+                continue;
+            }
+            relations[i][k].clearRow(val);
+            setRelation(i, k, relations[i][k]);
+            enqueue(i, k);
+            removeUnsupported(i, k);
+            if (inconsistent) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stores the given relation for the given pair,
+     * along with its transposition for the opposite pair.
+     *
+     * @param i the first variable
+     * @param j the second variable
+     * @param m the relation between the first and the second variable
+     */
+    private void setRelation(int i, int j, BitMatrix m) {
+        relations[i][j] = m;
+        relations[j][i] = m.transpose();
+        changed[i][j] = true;
+        changed[j][i] = true;
+    }
+
+    /**
+     * Queues the given pair for propagation, unless already queued.
+     *
+     * @param i the first variable
+     * @param j the second variable
+     */
+    private void enqueue(int i, int j) {
+        int first = Math.min(i, j);
+        int second = Math.max(i, j);
+        if (!queued[first][second]) {
+            queued[first][second] = true;
+            queue.add(new int[]{first, second});
+        }
+    }
+
+    /** @return the number of allowed pairs over all given constraints */
+    private int countPairs() {
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (relations[i][j] != null && !implicit[i][j]) {
+                    count += relations[i][j].cardinality();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Stores the changed relations as {@link BinaryConstraint}s.
+     * An existing constraint keeps its direction.
+     * An added constraint goes from the lower to the higher variable index.
+     * The {@link BitMatrix}es are kept as they are, and equal ones
+     * (or transpositions) are shared through a {@link RelationPool}.
+     */
+    private void writeRelations() {
+        RelationPool pool = new RelationPool();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (!changed[i][j]) {
+                    continue;
+                }
+                boolean forward = csp.getBinaryConstraint(csp.getVariable(i), csp.getVariable(j)) != null;
+                boolean backward = csp.getBinaryConstraint(csp.getVariable(j), csp.getVariable(i)) != null;
+                if (forward || !backward) {
+                    csp.setBinaryConstraint(pool.intern(i, j, relations[i][j]));
+                }
+                if (backward) {
+                    csp.setBinaryConstraint(pool.intern(j, i, relations[j][i]));
+                }
+                if (forward || backward) {
+                    tightened++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates and returns a summary of the performed preprocessing.
+     *
+     * @return a {@link String} describing what was removed and added
+     */
+    public String report() {
+        String variant = addImplicit ? "Path consistency" : "Partial path consistency";
+        return variant + ": "
+                + tightened + " constraints tightened, "
+                + added + " constraints added, "
+                + removedPairs + " pairs removed, "
+                + removedValues + " values removed"
+                + (inconsistent ? ", no solutions exist" : "")
+                + " (" + time + " milliseconds)";
+    }
+
+}
@@ -0,0 +1,216 @@
+package binary.presolve;
+
+import binary.BinaryCSP;
+import binary.algorithms.Solution;
+import binary.types.BinaryConstraint;
+import binary.types.Variable;
+
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+
+/**
+ * Simplifies a {@link BinaryCSP} between reading and solving.
+ * Constraints given for both c(i, j) and c(j, i) are merged into one,
+ * values that have no support in some constraint are deleted,
+ * constraints are restricted to the remaining values,
+ * constraints that allow every pair are dropped,
+ * and variables without constraints are detached from the search.
+ * Detached variables are reattached to the found {@link Solution}s.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class Presolver {
+
+    /** The {@link BinaryCSP} being simplified. */
+    private BinaryCSP csp;
+
+    /** The {@link Variable}s that were detached from the search. */
+    private LinkedList<Variable> detached = new LinkedList<>();
+
+    /** The number of constraints merged with the reversed scope. */
+    private int reversedMerged = 0;
+
+    /** The number of constraints that allowed every pair and were dropped. */
+    private int universalDropped = 0;
+
+    /** The number of values removed from domains. */
+    private int removedValues = 0;
+
+    /** The number of pairs removed from constraints. */
+    private int removedPairs = 0;
+
+    /** Whether the {@link #csp} was found to have no solutions. */
+    private boolean inconsistent = false;
+
+    /** The time (in milliseconds) the presolve took. */
+    private long time;
+
+    /**
+     * Creates a {@link Presolver} for the given {@link BinaryCSP}.
+     *
+     * @param problem the {@link BinaryCSP} to simplify
+     */
+    public Presolver(BinaryCSP problem) {
+        csp = problem;
+    }
+
+    /**
+     * Simplifies the {@link BinaryCSP}.
+     * The changes are stored in the {@link BinaryCSP}.
+     *
+     * @return false iff the {@link BinaryCSP} was proven to have no solutions
+     */
+    public boolean apply() {
+        long start = System.currentTimeMillis();
+        mergeReversed();
+        removeUnsupportedValues();
+        if (!inconsistent) {
+            restrictConstraints();
+            detachUnconstrained();
+        }
+        time = System.currentTimeMillis() - start;
+        return !inconsistent;
+    }
+
+    /** Merges each c(j, i) into c(i, j) when both are given. */
+    private void mergeReversed() {
+        for (BinaryConstraint c : csp.getConstraints()) {
+            Variable first = csp.getVariable(c.getVar1());
+            Variable second = csp.getVariable(c.getVar2());
+            BinaryConstraint reversed = csp.getBinaryConstraint(second, first);
+            if (c.getVar1() < c.getVar2() && reversed != null) {
+                csp.setBinaryConstraint(c.intersect(reversed));
+                csp.removeBinaryConstraint(second, first);
+                reversedMerged++;
+            }
+        }
+    }
+
+    /**
+     * Deletes the values that have no support in some constraint,
+     * until every remaining value is supported in every constraint.
+     */
+    private void removeUnsupportedValues() {
+        boolean changed = true;
+        while (changed && !inconsistent) {
+            changed = false;
+            for (BinaryConstraint c : csp.getConstraints()) {
+                Variable first = csp.getVariable(c.getVar1());
+                Variable second = csp.getVariable(c.getVar2());
+                LinkedHashSet<Integer> supported;
+                supported = c.getFirstSupported(second.getDomain());
+                changed |= removeValues(first, supported);
+                supported = c.getSecondSupported(first.getDomain());
+                changed |= removeValues(second, supported);
+                if (!first.isConsistent() || !second.isConsistent()) {
+                    inconsistent = true;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the values of the given {@link Variable}
+     * that are not among the given supported values.
+     *
+     * @param var       the {@link Variable} to reduce
+     * @param supported the values to keep
+     *
+     * @return true iff a value was removed
+     */
+    private boolean removeValues(Variable var, LinkedHashSet<Integer> supported) {
+        int removed = var.retainValues(supported).size();
+        removedValues += removed;
+        return removed > 0;
+    }
+
+    /**
+     * Removes the pairs with deleted values from each constraint
+     * and drops the constraints that allow every remaining pair.
+     */
+    private void restrictConstraints() {
+        for (BinaryConstraint c : csp.getConstraints()) {
+            Variable first = csp.getVariable(c.getVar1());
+            Variable second = csp.getVariable(c.getVar2());
+            BinaryConstraint restricted = c.restrictTo(first, second);
+            removedPairs += c.size() - restricted.size();
+            int all = first.getDomainSize() * second.getDomainSize();
+            if (restricted.size() == all) {
+                csp.removeBinaryConstraint(first, second);
+                universalDropped++;
+            } else if (restricted.size() != c.size()) {
+                csp.setBinaryConstraint(restricted);
+            }
+        }
+    }
+
+    /** Detaches the variables that take part in no constraint. */
+    private void detachUnconstrained() {
+        boolean[] constrained = new boolean[csp.getNumberOfVariables()];
+        for (BinaryConstraint c : csp.getConstraints()) {
+            constrained[c.getVar1()] = true;
+            constrained[c.getVar2()] = true;
+        }
+        for (int i = 0; i < constrained.length; i++) {
+            if (!constrained[i]) {
+                Variable var = csp.getVariable(i);
+                csp.detachVariable(var);
+                detached.add(var);
+            }
+        }
+    }
+
+    /**
+     * Extends the given {@link Solution}s with values
+     * for the detached {@link Variable}s.
+     * Every combination of their values is a separate {@link Solution},
+     * so at most the given amount of {@link Solution}s is returned.
+     *
+     * @param solutions the {@link Solution}s found by the search
+     * @param amount    the amount of {@link Solution}s to return,
+     *                  0 or less returns all
+     *
+     * @return the {@link Solution}s to the original {@link BinaryCSP}
+     */
+    public LinkedHashSet<Solution> reattach(LinkedHashSet<Solution> solutions, int amount) {
+        if (amount <= 0) {
+            amount = Integer.MAX_VALUE;
+        }
+        LinkedHashSet<Solution> extended = solutions;
+        for (Variable var : detached) {
+            LinkedHashSet<Solution> next = new LinkedHashSet<>();
+            for (Solution solution : extended) {
+                for (int val : var.getDomain()) {
+                    if (next.size() >= amount) {
+                        break;
+                    }
+                    Solution copy = new Solution(solution);
+                    copy.put(var.getId(), val);
+                    next.add(copy);
+                }
+            }
+            extended = next;
+        }
+        return extended;
+    }
+
+    /**
+     * Creates and returns a summary of the performed presolve.
+     *
+     * @return a {@link String} describing what was removed
+     */
+    public String report() {
+        return "Presolve: "
+                + csp.getMergedDuplicates() + " duplicate constraints merged, "
+                + reversedMerged + " reversed constraints merged, "
+                + universalDropped + " universal constraints dropped, "
+                + removedPairs + " pairs removed, "
+                + removedValues + " values removed, "
+                + detached.size() + " variables detached"
+                + (inconsistent ? ", no solutions exist" : "")
+                + " (" + time + " milliseconds)";
+    }
+
+}
@@ -0,0 +1,81 @@
+package binary.propagators;
+
+import binary.types.BinaryConstraint;
+import binary.types.Propagator;
+import binary.types.Variable;
+
+import java.util.LinkedHashSet;
+
+/**
+ * Postpones recognising the table of a {@link BinaryConstraint}
+ * until its first revision, so that a lazily loaded table
+ * is not loaded before the search needs it.
+ * The table is recognised over the domains the {@link Variable}s had
+ * when this {@link DeferredPropagator} was created,
+ * which is what {@link TableRecognizer} would have seen then.
+ * If the table is not recognised, it is revised directly.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public final class DeferredPropagator implements Propagator {
+
+    /** The {@link BinaryConstraint} whose table is recognised. */
+    private final BinaryConstraint constraint;
+
+    /** The domain of the first {@link Variable} when this was created. */
+    private final LinkedHashSet<Integer> firstDomain;
+
+    /** The domain of the second {@link Variable} when this was created. */
+    private final LinkedHashSet<Integer> secondDomain;
+
+    /** The recognised {@link Propagator}, or null until the first revision. */
+    private volatile Propagator resolved = null;
+
+    /**
+     * Creates a {@link DeferredPropagator} for the given {@link BinaryConstraint}.
+     *
+     * @param c      the {@link BinaryConstraint} to recognise later
+     * @param first  the first {@link Variable} of the constraint
+     * @param second the second {@link Variable} of the constraint
+     */
+    public DeferredPropagator(BinaryConstraint c, Variable first, Variable second) {
+        constraint = c;
+        firstDomain = first.getDomain();
+        secondDomain = second.getDomain();
+    }
+
+    /**
+     * Recognises the table when first called
+     * and returns the same {@link Propagator} afterwards.
+     *
+     * @return the {@link Propagator} to revise with
+     */
+    private Propagator resolve() {
+        Propagator result = resolved;
+        if (result == null) {
+            synchronized (this) {
+                result = resolved;
+                if (result == null) {
+                    result = TableRecognizer.recognize(constraint, firstDomain, secondDomain);
+                    if (result == null) {
+                        result = new TablePropagator(constraint);
+                    }
+                    resolved = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public LinkedHashSet<Integer> reviseFirst(Variable first, Variable second) {
+        return resolve().reviseFirst(first, second);
+    }
+
+    @Override
+    public LinkedHashSet<Integer> reviseSecond(Variable first, Variable second) {
+        return resolve().reviseSecond(first, second);
+    }
+
+}
@@ -0,0 +1,119 @@
+package binary.propagators;
+
+import binary.types.Propagator;
+import binary.types.Variable;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+/**
+ * Propagates a constraint that forbids a few differences
+ * between the values of its two {@link Variable}s.
+ * That is, first - second must not be any of the forbidden differences.
+ * A not-equal constraint forbids the difference 0,
+ * a queens diagonal constraint also forbids the row distance and its negation.
+ * A value can only lose its support if the other {@link Variable}
+ * has at most as many values as there are forbidden differences,
+ * so most revisions return without looking at any domain.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public final class DifferencePropagator implements Propagator {
+
+    /** The forbidden values of first - second. */
+    private final int[] forbidden;
+
+    /**
+     * Creates a {@link DifferencePropagator} for the given differences.
+     *
+     * @param differences the forbidden values of first - second
+     */
+    public DifferencePropagator(int[] differences) {
+        forbidden = differences.clone();
+    }
+
+    @Override
+    public LinkedHashSet<Integer> reviseFirst(Variable first, Variable second) {
+        return revise(first, second, 1);
+    }
+
+    @Override
+    public LinkedHashSet<Integer> reviseSecond(Variable first, Variable second) {
+        return revise(second, first, -1);
+    }
+
+    /**
+     * Removes the values of the dependent {@link Variable}
+     * that have no support in the supporter {@link Variable}.
+     * A dependent value d is unsupported iff every supporter value s
+     * has sign * (d - s) among the forbidden differences.
+     * Such a d must be s + sign * f for the first supporter value s
+     * and some forbidden difference f, so only those are checked.
+     *
+     * @param dependent the {@link Variable} to remove values from
+     * @param supporter the {@link Variable} that supports the values
+     * @param sign      1 if the dependent is the first variable, -1 otherwise
+     *
+     * @return the removed values
+     */
+    private LinkedHashSet<Integer> revise(Variable dependent, Variable supporter, int sign) {
+        LinkedHashSet<Integer> removed = new LinkedHashSet<>();
+        if (supporter.getCurrentDomainSize() > forbidden.length) {
+            return removed;
+        }
+        LinkedHashSet<Integer> domain = supporter.getDomain();
+        if (domain.isEmpty()) {
+            return removed;
+        }
+        int s = domain.iterator().next();
+        for (int f : forbidden) {
+            int candidate = s + sign * f;
+            if (dependent.domainContains(candidate)
+                    && isUnsupported(candidate, domain, sign)) {
+                dependent.removeFromDomain(candidate);
+                removed.add(candidate);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Determines whether the given dependent value
+     * conflicts with every value of the supporter.
+     *
+     * @param candidate the dependent value
+     * @param domain    the values of the supporter
+     * @param sign      1 if the dependent is the first variable, -1 otherwise
+     *
+     * @return true iff the value has no support
+     */
+    private boolean isUnsupported(int candidate, LinkedHashSet<Integer> domain, int sign) {
+        for (int s : domain) {
+            if (!isForbidden(sign * (candidate - s))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param difference the value of first - second
+     *
+     * @return true iff the difference is forbidden
+     */
+    private boolean isForbidden(int difference) {
+        for (int f : forbidden) {
+            if (f == difference) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "DifferencePropagator{forbidden=" + Arrays.toString(forbidden) + "}";
+    }
+
+}
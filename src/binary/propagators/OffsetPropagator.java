@@ -0,0 +1,56 @@
+package binary.propagators;
+
+import binary.types.Propagator;
+import binary.types.Variable;
+
+import java.util.LinkedHashSet;
+
+/**
+ * Propagates a constraint that fixes the difference
+ * between the values of its two {@link Variable}s.
+ * That is, first - second must equal the offset,
+ * as between the two occurrences of a number in Langford's problem.
+ * Each value has exactly one possible support,
+ * so the supported values are found without scanning a table.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public final class OffsetPropagator implements Propagator {
+
+    /** The required value of first - second. */
+    private final int offset;
+
+    /**
+     * Creates an {@link OffsetPropagator} for the given offset.
+     *
+     * @param difference the required value of first - second
+     */
+    public OffsetPropagator(int difference) {
+        offset = difference;
+    }
+
+    @Override
+    public LinkedHashSet<Integer> reviseFirst(Variable first, Variable second) {
+        LinkedHashSet<Integer> supported = new LinkedHashSet<>();
+        for (int s : second.getDomain()) {
+            supported.add(s + offset);
+        }
+        return first.retainValues(supported);
+    }
+
+    @Override
+    public LinkedHashSet<Integer> reviseSecond(Variable first, Variable second) {
+        LinkedHashSet<Integer> supported = new LinkedHashSet<>();
+        for (int f : first.getDomain()) {
+            supported.add(f - offset);
+        }
+        return second.retainValues(supported);
+    }
+
+    @Override
+    public String toString() {
+        return "OffsetPropagator{offset=" + offset + "}";
+    }
+
+}
@@ -0,0 +1,39 @@
+package binary.propagators;
+
+import binary.types.BinaryConstraint;
+import binary.types.Propagator;
+import binary.types.Variable;
+
+import java.util.LinkedHashSet;
+
+/**
+ * Revises a {@link BinaryConstraint} by looking up supports in its table.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public final class TablePropagator implements Propagator {
+
+    /** The {@link BinaryConstraint} whose table is used. */
+    private final BinaryConstraint constraint;
+
+    /**
+     * Creates a {@link TablePropagator} for the given {@link BinaryConstraint}.
+     *
+     * @param c the {@link BinaryConstraint} to revise
+     */
+    public TablePropagator(BinaryConstraint c) {
+        constraint = c;
+    }
+
+    @Override
+    public LinkedHashSet<Integer> reviseFirst(Variable first, Variable second) {
+        return first.retainValues(constraint.getFirstSupported(second.getDomain()));
+    }
+
+    @Override
+    public LinkedHashSet<Integer> reviseSecond(Variable first, Variable second) {
+        return second.retainValues(constraint.getSecondSupported(first.getDomain()));
+    }
+
+}
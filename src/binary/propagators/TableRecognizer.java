@@ -0,0 +1,123 @@
+package binary.propagators;
+
+import binary.types.BinaryConstraint;
+import binary.types.Propagator;
+import binary.types.Variable;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+/**
+ * Recognises tables that only depend on the difference of the two values
+ * and provides an equivalent specialised {@link Propagator} for them.
+ * Each difference first - second is either allowed for every pair of values
+ * in the current domains or forbidden for every such pair.
+ * Tables that forbid a few differences (not-equal, queens diagonals)
+ * get a {@link DifferencePropagator}, tables that allow a single difference
+ * (Langford distances) get an {@link OffsetPropagator}.
+ *
+ * @author 150009974
+ * @version 1.2
+ */
+public final class TableRecognizer {
+
+    /** The largest number of forbidden differences worth specialising. */
+    private static final int MAX_FORBIDDEN = 3;
+
+    /**
+     * Creates and returns a specialised {@link Propagator}
+     * for the given {@link BinaryConstraint},
+     * which is equivalent over the current domains of its {@link Variable}s.
+     *
+     * @param c      the {@link BinaryConstraint} to recognise
+     * @param first  the first {@link Variable} of the constraint
+     * @param second the second {@link Variable} of the constraint
+     *
+     * @return the specialised {@link Propagator}
+     * or null if the table is not recognised
+     */
+    public static Propagator recognize(BinaryConstraint c, Variable first, Variable second) {
+        return recognize(c, first.getDomain(), second.getDomain());
+    }
+
+    /**
+     * Creates and returns a specialised {@link Propagator}
+     * for the given {@link BinaryConstraint},
+     * which is equivalent over the given domains.
+     *
+     * @param c  the {@link BinaryConstraint} to recognise
+     * @param d1 the domain of the first variable of the constraint
+     * @param d2 the domain of the second variable of the constraint
+     *
+     * @return the specialised {@link Propagator}
+     * or null if the table is not recognised
+     */
+    public static Propagator recognize(BinaryConstraint c,
+                                       LinkedHashSet<Integer> d1, LinkedHashSet<Integer> d2) {
+        if (d1.isEmpty() || d2.isEmpty()) {
+            return null;
+        }
+        int min = Collections.min(d1) - Collections.max(d2);
+        int max = Collections.max(d1) - Collections.min(d2);
+        // How many pairs of the domains have each difference
+        // and how many of those pairs the relation allows.
+        // Intensional relations are checked without enumerating their pairs.
+        int[] pairs = new int[max - min + 1];
+        int[] allowed = new int[max - min + 1];
+        for (int v1 : d1) {
+            for (int v2 : d2) {
+                pairs[v1 - v2 - min]++;
+                if (c.allows(v1, v2)) {
+                    allowed[v1 - v2 - min]++;
+                }
+            }
+        }
+        return fromDifferences(pairs, allowed, min);
+    }
+
+    /**
+     * Creates a specialised {@link Propagator} from the counts
+     * of pairs and of allowed pairs for each difference.
+     *
+     * @param pairs   the number of pairs with each difference
+     * @param allowed the number of allowed pairs with each difference
+     * @param min     the difference at index 0
+     *
+     * @return the specialised {@link Propagator}
+     * or null if the differences do not describe the table
+     */
+    private static Propagator fromDifferences(int[] pairs, int[] allowed, int min) {
+        LinkedHashSet<Integer> forbidden = new LinkedHashSet<>();
+        LinkedHashSet<Integer> permitted = new LinkedHashSet<>();
+        for (int i = 0; i < pairs.length; i++) {
+            if (pairs[i] == 0) {
+                continue;
+            }
+            if (allowed[i] == 0) {
+                forbidden.add(i + min);
+            } else if (allowed[i] == pairs[i]) {
+                permitted.add(i + min);
+            } else {
+                // Only some pairs with this difference are allowed.
+                return null;
+            }
+        }
+        if (forbidden.size() <= MAX_FORBIDDEN) {
+            int[] differences = new int[forbidden.size()];
+            int i = 0;
+            for (int f : forbidden) {
+                differences[i++] = f;
+            }
+            return new DifferencePropagator(differences);
+        }
+        if (permitted.size() == 1) {
+            return new OffsetPropagator(permitted.iterator().next());
+        }
+        return null;
+    }
+
+    /** Hides the default constructor for this utility class. */
+    private TableRecognizer() {
+    }
+
+}
@@ -0,0 +1,142 @@
+package binary.trace;
+
+/**
+ * Defines the encoding of the fixed-size events of a search trace.
+ * Every event is two longs, 16 bytes in the file.
+ * The first long holds the nanoseconds since the trace started
+ * in its upper 48 bits and the search depth in its lower 16 bits.
+ * The second long holds the event type in its upper 8 bits,
+ * the variable in the next 24 bits and a value in the lower 32 bits.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class TraceEvent {
+
+    /** The number of bytes of an event in a trace file. */
+    public static final int BYTES = 2 * Long.BYTES;
+
+    /** The type of the left branch, assigning the value to the variable. */
+    public static final int DECISION = 1;
+
+    /** The type of the right branch, removing the value from the variable. */
+    public static final int REFUTATION = 2;
+
+    /** The type of a revision that removed values, the value is their number. */
+    public static final int PRUNE = 3;
+
+    /** The type of a revision that emptied the domain of the variable. */
+    public static final int WIPEOUT = 4;
+
+    /** The type of a node whose branches were both explored. */
+    public static final int BACKTRACK = 5;
+
+    /** The type of a found solution, the value is the number found so far. */
+    public static final int SOLUTION = 6;
+
+    /** The type of the start of a search from the root. */
+    public static final int RESTART = 7;
+
+    /** The names of the types, indexed by type. */
+    private static final String[] NAMES = {
+            "unknown", "decision", "refutation", "prune", "wipeout", "backtrack", "solution", "restart"
+    };
+
+    /** The number of bits of the depth in the first long. */
+    private static final int DEPTH_BITS = 16;
+
+    /** The mask of the depth in the first long. */
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+
+    /** The mask of the variable in the second long, after shifting. */
+    private static final long VAR_MASK = (1L << 24) - 1;
+
+    /** Prevents instantiation. */
+    private TraceEvent() {
+    }
+
+    /**
+     * Encodes the time and depth of an event.
+     *
+     * @param nanos the nanoseconds since the trace started
+     * @param depth the search depth
+     *
+     * @return the first long of the event
+     */
+    static long encodeTime(long nanos, int depth) {
+        return (nanos << DEPTH_BITS) | Math.min(depth, DEPTH_MASK);
+    }
+
+    /**
+     * Encodes the type, variable and value of an event.
+     *
+     * @param type  the event type
+     * @param var   the variable id
+     * @param value the value
+     *
+     * @return the second long of the event
+     */
+    static long encodeData(int type, int var, int value) {
+        return ((long) type << 56) | ((var & VAR_MASK) << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param time the first long of an event
+     *
+     * @return the nanoseconds since the trace started
+     */
+    public static long nanos(long time) {
+        return time >>> DEPTH_BITS;
+    }
+
+    /**
+     * @param time the first long of an event
+     *
+     * @return the search depth
+     */
+    public static int depth(long time) {
+        return (int) (time & DEPTH_MASK);
+    }
+
+    /**
+     * @param data the second long of an event
+     *
+     * @return the event type
+     */
+    public static int type(long data) {
+        return (int) (data >>> 56);
+    }
+
+    /**
+     * @param data the second long of an event
+     *
+     * @return the variable id
+     */
+    public static int var(long data) {
+        return (int) ((data >>> 32) & VAR_MASK);
+    }
+
+    /**
+     * @param data the second long of an event
+     *
+     * @return the value
+     */
+    public static int value(long data) {
+        return (int) data;
+    }
+
+    /**
+     * @param type an event type
+     *
+     * @return the name of the type
+     */
+    public static String name(int type) {
+        return type > 0 && type < NAMES.length ? NAMES[type] : NAMES[0];
+    }
+
+    /** @return the number of event types, including the unknown type 0 */
+    public static int typeCount() {
+        return NAMES.length;
+    }
+
+}
@@ -0,0 +1,94 @@
+package binary.trace;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a trace file written by a {@link TraceRecorder}.
+ * The file is mapped and its events are read in place.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class TraceReader {
+
+    /** The start time of the trace, in epoch milliseconds. */
+    private long startMillis;
+
+    /** The number of events in the trace. */
+    private int events;
+
+    /** The number of events dropped while recording. */
+    private long dropped;
+
+    /** The events, two longs each. */
+    private LongBuffer data;
+
+    /**
+     * Maps and checks the given trace file.
+     *
+     * @param filename the trace file to read
+     *
+     * @throws IOException if the file cannot be read
+     */
+    public TraceReader(String filename) throws IOException {
+        ByteBuffer in;
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r")) {
+            in = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        }
+        in.order(ByteOrder.LITTLE_ENDIAN);
+        if (in.limit() < TraceRecorder.HEADER_BYTES || in.getInt(0) != TraceRecorder.MAGIC) {
+            throw new IllegalArgumentException(filename + " is not a trace file");
+        }
+        if (in.getInt(4) != TraceRecorder.VERSION || in.getInt(8) != TraceEvent.BYTES) {
+            throw new IllegalArgumentException(filename + " has an unsupported trace version " + in.getInt(4));
+        }
+        startMillis = in.getLong(16);
+        long count = in.getLong(TraceRecorder.EVENTS_OFFSET);
+        dropped = in.getLong(TraceRecorder.DROPPED_OFFSET);
+        if (TraceRecorder.HEADER_BYTES + count * TraceEvent.BYTES != in.limit()) {
+            throw new IllegalArgumentException(filename + " is incomplete, the recorder was not closed");
+        }
+        events = (int) count;
+        in.position(TraceRecorder.HEADER_BYTES);
+        data = in.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    }
+
+    /** @return the start time of the trace, in epoch milliseconds */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /** @return the number of events in the trace */
+    public int getEvents() {
+        return events;
+    }
+
+    /** @return the number of events dropped while recording */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @param index the index of an event
+     *
+     * @return the first long of the event, with its time and depth
+     */
+    public long getTime(int index) {
+        return data.get(2 * index);
+    }
+
+    /**
+     * @param index the index of an event
+     *
+     * @return the second long of the event, with its type, variable and value
+     */
+    public long getData(int index) {
+        return data.get(2 * index + 1);
+    }
+
+}
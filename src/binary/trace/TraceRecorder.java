@@ -0,0 +1,323 @@
+package binary.trace;
+
+import binary.algorithms.Prune;
+import binary.algorithms.SearchListener;
+import binary.algorithms.Solution;
+import binary.types.Variable;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records the events of a search into a binary trace file.
+ * The search thread writes fixed-size events into a lock-free
+ * single-producer single-consumer ring buffer,
+ * and a background thread drains the buffer into a memory-mapped file.
+ * The search never waits: when the buffer is full, events are dropped
+ * and counted, so tracing can stay on for long runs.
+ * Revisions that remove no values are not recorded.
+ *
+ * The file starts with a header of {@link #HEADER_BYTES} little-endian bytes:
+ * the magic "BTRC", the version, the event size, a reserved int,
+ * the start time in epoch milliseconds, the number of events,
+ * the number of dropped events and a reserved long.
+ * The events follow, as described in {@link TraceEvent}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class TraceRecorder implements SearchListener {
+
+    /** The magic number at the start of a trace file, "BTRC". */
+    static final int MAGIC = 0x43525442;
+
+    /** The version of the trace file format. */
+    static final int VERSION = 1;
+
+    /** The number of bytes of the file header. */
+    static final int HEADER_BYTES = 48;
+
+    /** The offset of the number of events in the header. */
+    static final int EVENTS_OFFSET = 24;
+
+    /** The offset of the number of dropped events in the header. */
+    static final int DROPPED_OFFSET = 32;
+
+    /** The default number of events the ring buffer holds, a power of two. */
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /** The number of bytes mapped at a time as the file grows. */
+    private static final long CHUNK_BYTES = 16 << 20;
+
+    /** The time (in nanoseconds) the drainer sleeps when the buffer is empty. */
+    private static final long IDLE_NANOS = 1_000_000;
+
+    /** The ring buffer, two longs per event. */
+    private final long[] ring;
+
+    /** The mask of an event index in the {@link #ring}. */
+    private final int mask;
+
+    /** The number of events written by the search thread. */
+    private final AtomicLong head = new AtomicLong();
+
+    /** The number of events read by the drainer. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** The last value of the {@link #tail} seen by the search thread. */
+    private long cachedTail = 0;
+
+    /** The number of events dropped because the buffer was full. */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** The start of the trace, by {@link System#nanoTime()}. */
+    private final long start = System.nanoTime();
+
+    /**
+     * The depths of the nodes on the current search path.
+     * A node is pushed when reached and popped when it backtracks.
+     */
+    private int[] depths = new int[64];
+
+    /** The number of nodes on the current search path. */
+    private int pathLength = 0;
+
+    /** The number of solutions found so far. */
+    private int solutions = 0;
+
+    /** The file the trace is written to. */
+    private final RandomAccessFile file;
+
+    /** The mapped region of the {@link #file} being written. */
+    private MappedByteBuffer region;
+
+    /** The file position of the start of the {@link #region}. */
+    private long regionStart;
+
+    /** The number of events written to the {@link #file}. */
+    private long written = 0;
+
+    /** The background thread that drains the buffer. */
+    private final Thread drainer;
+
+    /** Whether the recorder is being closed. */
+    private volatile boolean closing = false;
+
+    /** The failure of the drainer, if any. */
+    private volatile IOException failure;
+
+    /** The name of the trace file. */
+    private final String filename;
+
+    /**
+     * Creates a {@link TraceRecorder} writing to the given file,
+     * with a ring buffer of the default capacity.
+     *
+     * @param filename the trace file to create
+     *
+     * @throws IOException if the file cannot be created
+     */
+    public TraceRecorder(String filename) throws IOException {
+        this(filename, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a {@link TraceRecorder} writing to the given file.
+     * The drainer starts immediately.
+     *
+     * @param filename the trace file to create
+     * @param capacity the number of events the ring buffer holds, a power of two
+     *
+     * @throws IOException if the file cannot be created
+     */
+    public TraceRecorder(String filename, int capacity) throws IOException {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity must be a power of two: " + capacity);
+        }
+        this.filename = filename;
+        ring = new long[2 * capacity];
+        mask = capacity - 1;
+        file = new RandomAccessFile(filename, "rw");
+        file.setLength(0);
+        mapRegion(0);
+        region.putInt(MAGIC);
+        region.putInt(VERSION);
+        region.putInt(TraceEvent.BYTES);
+        region.putInt(0);
+        region.putLong(System.currentTimeMillis());
+        region.putLong(0);
+        region.putLong(0);
+        region.putLong(0);
+        drainer = new Thread(this::drain, "trace-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Maps the next region of the file, starting at the given position.
+     *
+     * @param position the file position of the region
+     *
+     * @throws IOException if the region cannot be mapped
+     */
+    private void mapRegion(long position) throws IOException {
+        regionStart = position;
+        region = file.getChannel().map(FileChannel.MapMode.READ_WRITE, position, CHUNK_BYTES);
+        region.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Writes an event into the ring buffer, or drops it if the buffer is full.
+     * Only the search thread calls this.
+     *
+     * @param type  the event type
+     * @param var   the variable id
+     * @param value the value
+     */
+    private void record(int type, int var, int value) {
+        long h = head.get();
+        if (h - cachedTail > mask) {
+            cachedTail = tail.get();
+            if (h - cachedTail > mask) {
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+        int slot = 2 * (int) (h & mask);
+        int depth = pathLength == 0 ? 0 : depths[pathLength - 1];
+        ring[slot] = TraceEvent.encodeTime(System.nanoTime() - start, depth);
+        ring[slot + 1] = TraceEvent.encodeData(type, var, value);
+        // Publishes the slot to the drainer.
+        head.lazySet(h + 1);
+    }
+
+    /** Moves the events from the ring buffer to the file until closed. */
+    private void drain() {
+        try {
+            while (true) {
+                boolean last = closing;
+                long h = head.get();
+                long t = tail.get();
+                if (t == h) {
+                    if (last) {
+                        return;
+                    }
+                    LockSupport.parkNanos(IDLE_NANOS);
+                    continue;
+                }
+                for (; t < h; t++) {
+                    int slot = 2 * (int) (t & mask);
+                    write(ring[slot], ring[slot + 1]);
+                }
+                tail.lazySet(t);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Writes one event to the file, mapping a new region when needed.
+     *
+     * @param time the first long of the event
+     * @param data the second long of the event
+     *
+     * @throws IOException if a new region cannot be mapped
+     */
+    private void write(long time, long data) throws IOException {
+        if (region.remaining() < TraceEvent.BYTES) {
+            mapRegion(regionStart + region.position());
+        }
+        region.putLong(time);
+        region.putLong(data);
+        written++;
+    }
+
+    /**
+     * Stops the drainer after it has written every recorded event,
+     * completes the header and trims the file to its contents.
+     *
+     * @throws IOException if the trace could not be written
+     */
+    public void close() throws IOException {
+        closing = true;
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        long size = regionStart + region.position();
+        MappedByteBuffer header = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(EVENTS_OFFSET, written);
+        header.putLong(DROPPED_OFFSET, dropped.get());
+        header.force();
+        region.force();
+        file.setLength(size);
+        file.close();
+    }
+
+    /**
+     * Creates and returns a summary of the recorded trace.
+     *
+     * @return a {@link String} with the number of written and dropped events
+     */
+    public String report() {
+        return "Trace: " + written + " events written to " + filename
+                + ", " + dropped.get() + " dropped";
+    }
+
+    @Override
+    public void restart() {
+        pathLength = 0;
+        record(TraceEvent.RESTART, 0, 0);
+    }
+
+    @Override
+    public void node(int depth) {
+        if (pathLength == depths.length) {
+            depths = Arrays.copyOf(depths, 2 * pathLength);
+        }
+        depths[pathLength++] = depth;
+    }
+
+    @Override
+    public void branch(Variable var, int val, boolean left) {
+        record(left ? TraceEvent.DECISION : TraceEvent.REFUTATION, var.getId(), val);
+    }
+
+    @Override
+    public void backtrack(Variable var) {
+        record(TraceEvent.BACKTRACK, var.getId(), 0);
+        if (pathLength > 0) {
+            pathLength--;
+        }
+    }
+
+    @Override
+    public void prune(Prune prune) {
+        if (!prune.isEmpty()) {
+            record(TraceEvent.PRUNE, prune.getVariable().getId(), prune.size());
+        }
+    }
+
+    @Override
+    public void wipeout(Variable var) {
+        record(TraceEvent.WIPEOUT, var.getId(), 0);
+    }
+
+    @Override
+    public void solution(Solution solution) {
+        record(TraceEvent.SOLUTION, 0, ++solutions);
+    }
+
+}
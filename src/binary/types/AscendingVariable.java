@@ -9,7 +9,7 @@ import java.util.HashSet;
  * the domain of which is iterated in ascending order.
  *
  * @author 150009974
- * @version 2.0
+ * @version 2.1
  */
 public class AscendingVariable extends Variable {
 
@@ -28,6 +28,22 @@ public class AscendingVariable extends Variable {
         }
     }
 
+    /**
+     * Creates an {@link AscendingVariable} with the given domain.
+     *
+     * @param index  the index of this {@link AscendingVariable}
+     *               in the {@link BinaryCSP}
+     * @param values the values of the domain, which are not copied
+     */
+    private AscendingVariable(int index, HashSet<Integer> values) {
+        super(index, values);
+    }
+
+    @Override
+    public Variable copy() {
+        return new AscendingVariable(getId(), new HashSet<>(domain));
+    }
+
     @Override
     public int getNextVal() {
         /*
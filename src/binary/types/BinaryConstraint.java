@@ -1,11 +1,12 @@
 package binary.types;
 
 import java.util.LinkedHashSet;
+import java.util.function.Consumer;
 
 /**
  * Represents a binary constraint between two variables.
  *
- * @version 3.0
+ * @version 3.4
  */
 public final class BinaryConstraint {
 
@@ -15,8 +16,23 @@ public final class BinaryConstraint {
     /** The second variable of this constraint. */
     private int var2;
 
-    /** The {@link BinaryTuple}s that this {@link BinaryConstraint} permits. */
-    private LinkedHashSet<BinaryTuple> tuples;
+    /**
+     * The {@link Relation} that this {@link BinaryConstraint} permits.
+     * It may be shared with other constraints and is never changed.
+     */
+    private Relation relation;
+
+    /**
+     * Whether the {@link #relation} is stored with the variables swapped,
+     * so that its first values belong to the second variable.
+     */
+    private boolean reversed;
+
+    /**
+     * The specialised {@link Propagator} that replaces the table
+     * during revision, or null if the table is revised directly.
+     */
+    private Propagator propagator = null;
 
     /**
      * Creates a {@link BinaryConstraint} for the given variables.
@@ -28,9 +44,214 @@ public final class BinaryConstraint {
      */
     public BinaryConstraint(int firstVar, int secondVar,
                             LinkedHashSet<BinaryTuple> binaryTuples) {
+        this(firstVar, secondVar, new TupleRelation(binaryTuples));
+    }
+
+    /**
+     * Creates a {@link BinaryConstraint} for the given variables.
+     *
+     * @param firstVar  the index of the first variable
+     * @param secondVar the index of the second variable
+     * @param permitted the {@link Relation} that
+     *                  this {@link BinaryConstraint} permits
+     */
+    public BinaryConstraint(int firstVar, int secondVar, Relation permitted) {
+        this(firstVar, secondVar, permitted, false);
+    }
+
+    /**
+     * Creates a {@link BinaryConstraint} for the given variables
+     * that refers to a possibly shared {@link Relation}.
+     *
+     * @param firstVar  the index of the first variable
+     * @param secondVar the index of the second variable
+     * @param permitted the {@link Relation} that
+     *                  this {@link BinaryConstraint} permits
+     * @param swapped   whether the {@link Relation} is between
+     *                  the second and the first variable
+     */
+    public BinaryConstraint(int firstVar, int secondVar,
+                            Relation permitted, boolean swapped) {
         var1 = firstVar;
         var2 = secondVar;
-        tuples = binaryTuples;
+        relation = permitted;
+        reversed = swapped;
+    }
+
+    /**
+     * Creates a {@link BinaryConstraint} over the same variables
+     * with the same {@link Relation} and {@link Propagator}.
+     * Setting the {@link Propagator} of either one does not affect the other.
+     *
+     * @return the copy of this {@link BinaryConstraint}
+     */
+    public BinaryConstraint copy() {
+        BinaryConstraint copy = new BinaryConstraint(var1, var2, relation, reversed);
+        copy.propagator = propagator;
+        return copy;
+    }
+
+    /** @return the index of the first variable of this constraint */
+    public int getVar1() {
+        return var1;
+    }
+
+    /** @return the index of the second variable of this constraint */
+    public int getVar2() {
+        return var2;
+    }
+
+    /** @return the possibly shared {@link Relation} of this constraint */
+    public Relation getRelation() {
+        return relation;
+    }
+
+    /** @return true iff the {@link Relation} is between var2 and var1 */
+    public boolean isReversed() {
+        return reversed;
+    }
+
+    /**
+     * Sets a specialised {@link Propagator} that is equivalent to
+     * the table of this {@link BinaryConstraint} over the current domains.
+     * The table itself is kept, so that solutions can still be verified.
+     *
+     * @param specialised the {@link Propagator} to use during revision
+     */
+    public void setPropagator(Propagator specialised) {
+        propagator = specialised;
+    }
+
+    /** @return the specialised {@link Propagator} or null if there is none */
+    public Propagator getPropagator() {
+        return propagator;
+    }
+
+    /**
+     * Invokes the provided {@link Consumer} on each permitted {@link BinaryTuple}.
+     *
+     * @param consumer the {@link Consumer} to invoke on each {@link BinaryTuple}
+     */
+    public void forEachTuple(Consumer<BinaryTuple> consumer) {
+        if (reversed) {
+            relation.forEachTuple(t -> consumer.accept(new BinaryTuple(t.getVal2(), t.getVal1())));
+        } else {
+            relation.forEachTuple(consumer);
+        }
+    }
+
+    /**
+     * Checks the given values against the table of this {@link BinaryConstraint}.
+     *
+     * @param v1 the value of the first variable
+     * @param v2 the value of the second variable
+     *
+     * @return true iff the table permits the pair of values
+     */
+    public boolean allows(int v1, int v2) {
+        return reversed ? relation.allows(v2, v1) : relation.allows(v1, v2);
+    }
+
+    /**
+     * Removes and returns the values of the first {@link Variable}
+     * that have no support in the current domain of the second.
+     *
+     * @param first  the first {@link Variable} of this constraint
+     * @param second the second {@link Variable} of this constraint
+     *
+     * @return the values removed from the first {@link Variable}
+     */
+    public LinkedHashSet<Integer> reviseFirst(Variable first, Variable second) {
+        if (propagator != null) {
+            return propagator.reviseFirst(first, second);
+        }
+        return first.retainValues(getFirstSupported(second.getDomain()));
+    }
+
+    /**
+     * Removes and returns the values of the second {@link Variable}
+     * that have no support in the current domain of the first.
+     *
+     * @param first  the first {@link Variable} of this constraint
+     * @param second the second {@link Variable} of this constraint
+     *
+     * @return the values removed from the second {@link Variable}
+     */
+    public LinkedHashSet<Integer> reviseSecond(Variable first, Variable second) {
+        if (propagator != null) {
+            return propagator.reviseSecond(first, second);
+        }
+        return second.retainValues(getSecondSupported(first.getDomain()));
+    }
+
+    /** @return the number of {@link BinaryTuple}s this constraint permits */
+    public int size() {
+        return relation.size();
+    }
+
+    /**
+     * Creates and returns a {@link BinaryConstraint} over the same variables
+     * that permits only the {@link BinaryTuple}s permitted by both
+     * this and the given {@link BinaryConstraint}.
+     * The given constraint may be over the same variables in either order.
+     *
+     * @param other the {@link BinaryConstraint} to intersect with
+     *
+     * @return the intersection of the two {@link BinaryConstraint}s
+     */
+    public BinaryConstraint intersect(BinaryConstraint other) {
+        LinkedHashSet<BinaryTuple> common = new LinkedHashSet<>();
+        boolean reversed = this.var1 != other.var1;
+        forEachTuple(tuple -> {
+            boolean allowed = reversed
+                    ? other.allows(tuple.getVal2(), tuple.getVal1())
+                    : other.allows(tuple.getVal1(), tuple.getVal2());
+            if (allowed) {
+                common.add(tuple);
+            }
+        });
+        return new BinaryConstraint(var1, var2, common);
+    }
+
+    /**
+     * Creates and returns a {@link BinaryConstraint} over the same variables
+     * that keeps only the {@link BinaryTuple}s whose values are
+     * in the domains of the given {@link Variable}s.
+     *
+     * @param first  the first {@link Variable} of this constraint
+     * @param second the second {@link Variable} of this constraint
+     *
+     * @return the restricted {@link BinaryConstraint}
+     */
+    public BinaryConstraint restrictTo(Variable first, Variable second) {
+        LinkedHashSet<BinaryTuple> kept = new LinkedHashSet<>();
+        forEachTuple(tuple -> {
+            if (first.domainContains(tuple.getVal1())
+                    && second.domainContains(tuple.getVal2())) {
+                kept.add(tuple);
+            }
+        });
+        return new BinaryConstraint(var1, var2, kept);
+    }
+
+    /**
+     * Creates and returns a {@link BitMatrix} of the permitted
+     * {@link BinaryTuple}s within the given value ranges.
+     * Tuples with values outside of the ranges are left out.
+     *
+     * @param firstLower  the lower bound of the first variable
+     * @param firstUpper  the upper bound of the first variable
+     * @param secondLower the lower bound of the second variable
+     * @param secondUpper the upper bound of the second variable
+     *
+     * @return the {@link BitMatrix} of this {@link BinaryConstraint}
+     */
+    public BitMatrix toBitMatrix(int firstLower, int firstUpper,
+                                 int secondLower, int secondUpper) {
+        BitMatrix matrix = new BitMatrix(firstLower, firstUpper,
+                secondLower, secondUpper);
+        forEachTuple(tuple -> matrix.set(tuple.getVal1(), tuple.getVal2()));
+        return matrix;
     }
 
     @Override
@@ -50,13 +271,16 @@ public final class BinaryConstraint {
      */
     @Override
     public String toString() {
-        StringBuilder result = new StringBuilder();
-        String declaration = "c(" + var1 + ", " + var2 + ")\n";
-        result.append(declaration);
-        for (BinaryTuple tuple : tuples) {
+        String declaration = "c(" + var1 + ", " + var2 + ")";
+        if (!reversed) {
+            return declaration + relation;
+        }
+        StringBuilder result = new StringBuilder(declaration);
+        result.append("\n");
+        forEachTuple(tuple -> {
             result.append(tuple);
             result.append("\n");
-        }
+        });
         return result.toString();
     }
 
@@ -69,13 +293,10 @@ public final class BinaryConstraint {
      * @return the supported values for the first variable
      */
     public LinkedHashSet<Integer> getFirstSupported(LinkedHashSet<Integer> domain) {
-        LinkedHashSet<Integer> supported = new LinkedHashSet<>();
-        for (BinaryTuple tuple : tuples) {
-            if (domain.contains(tuple.getVal2())) {
-                supported.add(tuple.getVal1());
-            }
+        if (reversed) {
+            return relation.getSecondSupported(domain);
         }
-        return supported;
+        return relation.getFirstSupported(domain);
     }
 
     /**
@@ -87,13 +308,10 @@ public final class BinaryConstraint {
      * @return the supported values for the second variable
      */
     public LinkedHashSet<Integer> getSecondSupported(LinkedHashSet<Integer> domain) {
-        LinkedHashSet<Integer> supported = new LinkedHashSet<>();
-        for (BinaryTuple tuple : tuples) {
-            if (domain.contains(tuple.getVal1())) {
-                supported.add(tuple.getVal2());
-            }
+        if (reversed) {
+            return relation.getFirstSupported(domain);
         }
-        return supported;
+        return relation.getSecondSupported(domain);
     }
 
 }
@@ -10,7 +10,7 @@ import java.util.LinkedList;
  * Allows indexing with two {@link Variable} IDs.
  *
  * @author 150009974
- * @version 1.01
+ * @version 1.2
  */
 public class BinaryConstraintStorage {
 
@@ -22,6 +22,9 @@ public class BinaryConstraintStorage {
      */
     private LinkedHashMap<Integer, LinkedHashMap<Integer, BinaryConstraint>> storage = new LinkedHashMap<>();
 
+    /** The number of {@link BinaryConstraint}s merged into one with the same scope. */
+    private int mergedDuplicates = 0;
+
     /**
      * Associates the given {@link Variable} ids
      * with the given {@link BinaryConstraint}.
@@ -37,6 +40,66 @@ public class BinaryConstraintStorage {
         storage.get(id1).put(id2, constraint);
     }
 
+    /**
+     * Stores the given {@link BinaryConstraint} under its own scope.
+     * If a {@link BinaryConstraint} with the same scope is already stored,
+     * it is replaced with the intersection of the two.
+     *
+     * @param constraint the {@link BinaryConstraint}
+     */
+    public void add(BinaryConstraint constraint) {
+        int id1 = constraint.getVar1();
+        int id2 = constraint.getVar2();
+        BinaryConstraint existing = get(id1, id2);
+        if (existing != null) {
+            constraint = existing.intersect(constraint);
+            mergedDuplicates++;
+        }
+        map(id1, id2, constraint);
+    }
+
+    /**
+     * Removes the {@link BinaryConstraint} associated with
+     * the given {@link Variable} ids, if there is one.
+     *
+     * @param id1 the first {@link Variable} id
+     * @param id2 the second {@link Variable} id
+     */
+    public void remove(Integer id1, Integer id2) {
+        LinkedHashMap<Integer, BinaryConstraint> map = storage.get(id1);
+        if (map == null) {
+            return;
+        }
+        map.remove(id2);
+        if (map.isEmpty()) {
+            storage.remove(id1);
+        }
+    }
+
+    /**
+     * Creates a {@link BinaryConstraintStorage} with copies of the {@link BinaryConstraint}s.
+     * The tables of the constraints are shared, but the constraints themselves,
+     * their propagators and which constraint is stored for which scope
+     * can be changed in either storage without affecting the other.
+     *
+     * @return the copy of this {@link BinaryConstraintStorage}
+     */
+    public BinaryConstraintStorage copy() {
+        BinaryConstraintStorage copy = new BinaryConstraintStorage();
+        storage.forEach((id1, map) -> {
+            LinkedHashMap<Integer, BinaryConstraint> copied = new LinkedHashMap<>();
+            map.forEach((id2, constraint) -> copied.put(id2, constraint.copy()));
+            copy.storage.put(id1, copied);
+        });
+        copy.mergedDuplicates = mergedDuplicates;
+        return copy;
+    }
+
+    /** @return the number of duplicate scopes merged by {@link #add} */
+    public int getMergedDuplicates() {
+        return mergedDuplicates;
+    }
+
     /**
      * @param id1 the id of the first {@link Variable}
      * @param id2 the id of the second {@link Variable}
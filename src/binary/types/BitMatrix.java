@@ -0,0 +1,469 @@
+package binary.types;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Represents a binary relation as a word-packed boolean matrix.
+ * Rows are indexed by the values of the first variable
+ * and columns by the values of the second variable.
+ * Each row is stored in consecutive longs, one bit per column,
+ * so that relation operations work on 64 pairs at a time.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class BitMatrix {
+
+    /** The number of bits in a word. */
+    private static final int WORD_SIZE = 64;
+
+    /** The amount to shift an index by to get its word index. */
+    private static final int WORD_SHIFT = 6;
+
+    /** The smallest value of the first variable. */
+    private int rowOffset;
+
+    /** The smallest value of the second variable. */
+    private int colOffset;
+
+    /** The number of values of the first variable. */
+    private int rows;
+
+    /** The number of values of the second variable. */
+    private int cols;
+
+    /** The number of words used to store a row. */
+    private int rowWords;
+
+    /** The bits of the matrix, row after row. */
+    private long[] words;
+
+    /**
+     * Creates an empty {@link BitMatrix} for the given value ranges.
+     * All bounds are inclusive.
+     *
+     * @param firstLower  the lower bound of the first variable
+     * @param firstUpper  the upper bound of the first variable
+     * @param secondLower the lower bound of the second variable
+     * @param secondUpper the upper bound of the second variable
+     */
+    public BitMatrix(int firstLower, int firstUpper,
+                     int secondLower, int secondUpper) {
+        rowOffset = firstLower;
+        colOffset = secondLower;
+        rows = Math.max(0, firstUpper - firstLower + 1);
+        cols = Math.max(0, secondUpper - secondLower + 1);
+        rowWords = (cols + WORD_SIZE - 1) >>> WORD_SHIFT;
+        words = new long[rows * rowWords];
+    }
+
+    /**
+     * Creates a {@link BitMatrix} with the same ranges
+     * and the same bits as the given one.
+     *
+     * @param other the {@link BitMatrix} to copy
+     */
+    public BitMatrix(BitMatrix other) {
+        rowOffset = other.rowOffset;
+        colOffset = other.colOffset;
+        rows = other.rows;
+        cols = other.cols;
+        rowWords = other.rowWords;
+        words = other.words.clone();
+    }
+
+    /** @return the smallest value of the first variable */
+    public int getFirstLower() {
+        return rowOffset;
+    }
+
+    /** @return the largest value of the first variable */
+    public int getFirstUpper() {
+        return rowOffset + rows - 1;
+    }
+
+    /** @return the smallest value of the second variable */
+    public int getSecondLower() {
+        return colOffset;
+    }
+
+    /** @return the largest value of the second variable */
+    public int getSecondUpper() {
+        return colOffset + cols - 1;
+    }
+
+    /**
+     * Determines whether the given pair of values is in the relation.
+     * Values outside of the ranges of this {@link BitMatrix}
+     * are never in the relation.
+     *
+     * @param v1 the value of the first variable
+     * @param v2 the value of the second variable
+     *
+     * @return true iff the pair is allowed
+     */
+    public boolean get(int v1, int v2) {
+        int r = v1 - rowOffset;
+        int c = v2 - colOffset;
+        if (r < 0 || r >= rows || c < 0 || c >= cols) {
+            return false;
+        }
+        return (words[r * rowWords + (c >>> WORD_SHIFT)] & (1L << c)) != 0;
+    }
+
+    /**
+     * Adds the given pair of values to the relation.
+     * Values outside of the ranges of this {@link BitMatrix} are ignored.
+     *
+     * @param v1 the value of the first variable
+     * @param v2 the value of the second variable
+     */
+    public void set(int v1, int v2) {
+        int r = v1 - rowOffset;
+        int c = v2 - colOffset;
+        if (r < 0 || r >= rows || c < 0 || c >= cols) {
+            return;
+        }
+        words[r * rowWords + (c >>> WORD_SHIFT)] |= 1L << c;
+    }
+
+    /** Adds every pair of values to the relation. */
+    public void fill() {
+        for (int r = 0; r < rows; r++) {
+            for (int w = 0; w < rowWords; w++) {
+                words[r * rowWords + w] = lastWordMask(w);
+            }
+        }
+    }
+
+    /**
+     * Removes all pairs whose first value is the given one.
+     *
+     * @param v1 the value of the first variable
+     */
+    public void clearRow(int v1) {
+        int r = v1 - rowOffset;
+        if (r < 0 || r >= rows) {
+            return;
+        }
+        Arrays.fill(words, r * rowWords, (r + 1) * rowWords, 0L);
+    }
+
+    /**
+     * Removes all pairs whose second value is the given one.
+     *
+     * @param v2 the value of the second variable
+     */
+    public void clearColumn(int v2) {
+        int c = v2 - colOffset;
+        if (c < 0 || c >= cols) {
+            return;
+        }
+        long mask = ~(1L << c);
+        for (int r = 0; r < rows; r++) {
+            words[r * rowWords + (c >>> WORD_SHIFT)] &= mask;
+        }
+    }
+
+    /**
+     * Determines whether any pair has the given first value.
+     *
+     * @param v1 the value of the first variable
+     *
+     * @return true iff the value has a support in the second variable
+     */
+    public boolean rowIsEmpty(int v1) {
+        int r = v1 - rowOffset;
+        if (r < 0 || r >= rows) {
+            return true;
+        }
+        for (int w = r * rowWords; w < (r + 1) * rowWords; w++) {
+            if (words[w] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether any pair has the given second value.
+     *
+     * @param v2 the value of the second variable
+     *
+     * @return true iff the value has a support in the first variable
+     */
+    public boolean columnIsEmpty(int v2) {
+        int c = v2 - colOffset;
+        if (c < 0 || c >= cols) {
+            return true;
+        }
+        long bit = 1L << c;
+        for (int r = 0; r < rows; r++) {
+            if ((words[r * rowWords + (c >>> WORD_SHIFT)] & bit) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates and returns the transposed relation,
+     * in which the first and the second variable swap places.
+     *
+     * @return the transposed {@link BitMatrix}
+     */
+    public BitMatrix transpose() {
+        BitMatrix t = new BitMatrix(getSecondLower(), getSecondUpper(),
+                getFirstLower(), getFirstUpper());
+        for (int r = 0; r < rows; r++) {
+            for (int w = 0; w < rowWords; w++) {
+                long word = words[r * rowWords + w];
+                while (word != 0) {
+                    int c = (w << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+                    t.words[c * t.rowWords + (r >>> WORD_SHIFT)] |= 1L << r;
+                    word &= word - 1;
+                }
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Creates and returns the composition of this relation with that one.
+     * This relation is between variables X and Y,
+     * that relation must be between Y and Z (over the same range of Y).
+     * The result is between X and Z and allows a pair (x, z)
+     * iff there is some y such that (x, y) and (y, z) are both allowed.
+     *
+     * @param that the relation between Y and Z
+     *
+     * @return the composed relation between X and Z
+     */
+    public BitMatrix compose(BitMatrix that) {
+        BitMatrix result = new BitMatrix(getFirstLower(), getFirstUpper(),
+                that.getSecondLower(), that.getSecondUpper());
+        int shift = this.colOffset - that.rowOffset;
+        for (int r = 0; r < rows; r++) {
+            int target = r * result.rowWords;
+            for (int w = 0; w < rowWords; w++) {
+                long word = words[r * rowWords + w];
+                while (word != 0) {
+                    int y = (w << WORD_SHIFT) + Long.numberOfTrailingZeros(word) + shift;
+                    word &= word - 1;
+                    if (y < 0 || y >= that.rows) {
+                        continue;
+                    }
+                    int source = y * that.rowWords;
+                    for (int k = 0; k < result.rowWords; k++) {
+                        result.words[target + k] |= that.words[source + k];
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes all pairs that are not allowed by the given relation.
+     * Both relations must be over the same ranges.
+     *
+     * @param that the relation to intersect with
+     *
+     * @return true iff this relation has changed
+     */
+    public boolean retainAll(BitMatrix that) {
+        boolean changed = false;
+        for (int i = 0; i < words.length; i++) {
+            long old = words[i];
+            words[i] &= that.words[i];
+            changed |= old != words[i];
+        }
+        return changed;
+    }
+
+    /** @return the number of allowed pairs */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /** @return true iff every pair of values is allowed */
+    public boolean isUniversal() {
+        return cardinality() == rows * cols;
+    }
+
+    /** @return true iff no pair of values is allowed */
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves the values of the first variable that are
+     * in a pair with some value of the given domain of the second variable.
+     *
+     * @param domain the domain of values of the second variable
+     *
+     * @return the supported values of the first variable, in ascending order
+     */
+    public LinkedHashSet<Integer> getFirstSupported(Collection<Integer> domain) {
+        long[] mask = new long[rowWords];
+        for (int v : domain) {
+            int c = v - colOffset;
+            if (c >= 0 && c < cols) {
+                mask[c >>> WORD_SHIFT] |= 1L << c;
+            }
+        }
+        LinkedHashSet<Integer> supported = new LinkedHashSet<>();
+        for (int r = 0; r < rows; r++) {
+            for (int w = 0; w < rowWords; w++) {
+                if ((words[r * rowWords + w] & mask[w]) != 0) {
+                    supported.add(r + rowOffset);
+                    break;
+                }
+            }
+        }
+        return supported;
+    }
+
+    /**
+     * Retrieves the values of the second variable that are
+     * in a pair with some value of the given domain of the first variable.
+     *
+     * @param domain the domain of values of the first variable
+     *
+     * @return the supported values of the second variable, in ascending order
+     */
+    public LinkedHashSet<Integer> getSecondSupported(Collection<Integer> domain) {
+        long[] union = new long[rowWords];
+        for (int v : domain) {
+            int r = v - rowOffset;
+            if (r < 0 || r >= rows) {
+                continue;
+            }
+            for (int w = 0; w < rowWords; w++) {
+                union[w] |= words[r * rowWords + w];
+            }
+        }
+        LinkedHashSet<Integer> supported = new LinkedHashSet<>();
+        for (int w = 0; w < rowWords; w++) {
+            long word = union[w];
+            while (word != 0) {
+                supported.add((w << WORD_SHIFT) + Long.numberOfTrailingZeros(word) + colOffset);
+                word &= word - 1;
+            }
+        }
+        return supported;
+    }
+
+    /**
+     * Invokes the provided {@link Consumer} on each allowed pair,
+     * ordered by the first and then by the second value.
+     *
+     * @param consumer the {@link Consumer} to invoke on each {@link BinaryTuple}
+     */
+    public void forEachTuple(Consumer<BinaryTuple> consumer) {
+        for (int r = 0; r < rows; r++) {
+            for (int w = 0; w < rowWords; w++) {
+                long word = words[r * rowWords + w];
+                while (word != 0) {
+                    int c = (w << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+                    consumer.accept(new BinaryTuple(r + rowOffset, c + colOffset));
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates and returns the {@link BinaryTuple}s of this relation,
+     * ordered by the first and then by the second value.
+     *
+     * @return the allowed {@link BinaryTuple}s
+     */
+    public LinkedHashSet<BinaryTuple> toTuples() {
+        LinkedHashSet<BinaryTuple> tuples = new LinkedHashSet<>();
+        forEachTuple(tuples::add);
+        return tuples;
+    }
+
+    /**
+     * Gives the number of words needed to store a relation
+     * with the given number of rows and columns.
+     *
+     * @param rows the number of values of the first variable
+     * @param cols the number of values of the second variable
+     *
+     * @return the number of words, row after row
+     */
+    public static int wordCount(int rows, int cols) {
+        return rows * ((cols + WORD_SIZE - 1) >>> WORD_SHIFT);
+    }
+
+    /**
+     * Writes the bits of the matrix, row after row, to the given buffer.
+     * A row takes the same number of words as in memory.
+     *
+     * @param out the buffer to write the words to
+     */
+    public void writeTo(LongBuffer out) {
+        out.put(words);
+    }
+
+    /**
+     * Gives the mask of valid bits in the given word of a row.
+     * Only the last word of a row can have unused bits.
+     *
+     * @param w the index of the word in the row
+     *
+     * @return the mask of bits that correspond to columns
+     */
+    private long lastWordMask(int w) {
+        int used = cols - (w << WORD_SHIFT);
+        if (used >= WORD_SIZE) {
+            return -1L;
+        }
+        return (1L << used) - 1;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(rowOffset, colOffset, rows, cols)
+                + Arrays.hashCode(words);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof BitMatrix)) {
+            return false;
+        }
+        BitMatrix other = (BitMatrix) obj;
+        return this.rowOffset == other.rowOffset
+                && this.colOffset == other.colOffset
+                && this.rows == other.rows
+                && this.cols == other.cols
+                && Arrays.equals(this.words, other.words);
+    }
+
+    @Override
+    public String toString() {
+        return "BitMatrix{"
+                + "first=" + getFirstLower() + ".." + getFirstUpper() + ","
+                + "second=" + getSecondLower() + ".." + getSecondUpper() + ","
+                + "pairs=" + cardinality()
+                + "}";
+    }
+
+}
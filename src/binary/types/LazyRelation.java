@@ -0,0 +1,96 @@
+package binary.types;
+
+import java.util.LinkedHashSet;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Relation} that is only created the first time it is used,
+ * for example parsed from its block of a file on the first revision.
+ * The creation happens at most once, even if several threads
+ * use the {@link LazyRelation} at the same time.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class LazyRelation implements Relation {
+
+    /** Creates the {@link Relation}, or null once it has been created. */
+    private Supplier<Relation> loader;
+
+    /** The created {@link Relation}, or null until it is first needed. */
+    private volatile Relation loaded = null;
+
+    /**
+     * Creates a {@link LazyRelation} that is created by the given {@link Supplier}.
+     *
+     * @param creator creates the {@link Relation} on first use
+     */
+    public LazyRelation(Supplier<Relation> creator) {
+        loader = creator;
+    }
+
+    /** @return true iff the {@link Relation} has been created */
+    public boolean isLoaded() {
+        return loaded != null;
+    }
+
+    /**
+     * Creates the {@link Relation} when first called
+     * and returns the same {@link Relation} afterwards.
+     *
+     * @return the created {@link Relation}
+     */
+    public Relation get() {
+        Relation result = loaded;
+        if (result == null) {
+            synchronized (this) {
+                result = loaded;
+                if (result == null) {
+                    result = loader.get();
+                    loaded = result;
+                    // The block of the file is no longer needed.
+                    loader = null;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean allows(int v1, int v2) {
+        return get().allows(v1, v2);
+    }
+
+    @Override
+    public void forEachTuple(Consumer<BinaryTuple> consumer) {
+        get().forEachTuple(consumer);
+    }
+
+    @Override
+    public int size() {
+        return get().size();
+    }
+
+    @Override
+    public LinkedHashSet<Integer> getFirstSupported(LinkedHashSet<Integer> domain) {
+        return get().getFirstSupported(domain);
+    }
+
+    @Override
+    public LinkedHashSet<Integer> getSecondSupported(LinkedHashSet<Integer> domain) {
+        return get().getSecondSupported(domain);
+    }
+
+    /**
+     * Creates and returns a {@link String} representation
+     * of the {@link Relation}, creating it if needed.
+     *
+     * @return the {@link String} representing the {@link Relation}
+     */
+    @Override
+    public String toString() {
+        return get().toString();
+    }
+
+}
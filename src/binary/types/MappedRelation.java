@@ -0,0 +1,163 @@
+package binary.types;
+
+import java.nio.LongBuffer;
+import java.util.LinkedHashSet;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Relation} whose bits are read in place from a {@link LongBuffer},
+ * such as a view of a memory-mapped file.
+ * The layout is the same as that of a {@link BitMatrix}:
+ * rows are the values of the first variable,
+ * each stored in consecutive longs, one bit per value of the second variable.
+ * Nothing is copied when the {@link MappedRelation} is created.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class MappedRelation implements Relation {
+
+    /** The number of bits in a word. */
+    private static final int WORD_SIZE = 64;
+
+    /** The amount to shift an index by to get its word index. */
+    private static final int WORD_SHIFT = 6;
+
+    /** The bits of the relation, row after row. */
+    private LongBuffer words;
+
+    /** The smallest value of the first variable. */
+    private int rowOffset;
+
+    /** The smallest value of the second variable. */
+    private int colOffset;
+
+    /** The number of values of the first variable. */
+    private int rows;
+
+    /** The number of values of the second variable. */
+    private int cols;
+
+    /** The number of words used to store a row. */
+    private int rowWords;
+
+    /** The number of permitted pairs, or -1 until it is first counted. */
+    private int size = -1;
+
+    /**
+     * Creates a {@link MappedRelation} over the given words.
+     * All bounds are inclusive.
+     *
+     * @param bits        the words of the relation, starting at index 0
+     * @param firstLower  the lower bound of the first variable
+     * @param firstUpper  the upper bound of the first variable
+     * @param secondLower the lower bound of the second variable
+     * @param secondUpper the upper bound of the second variable
+     */
+    public MappedRelation(LongBuffer bits, int firstLower, int firstUpper,
+                          int secondLower, int secondUpper) {
+        words = bits;
+        rowOffset = firstLower;
+        colOffset = secondLower;
+        rows = Math.max(0, firstUpper - firstLower + 1);
+        cols = Math.max(0, secondUpper - secondLower + 1);
+        rowWords = (cols + WORD_SIZE - 1) >>> WORD_SHIFT;
+    }
+
+    @Override
+    public boolean allows(int v1, int v2) {
+        int r = v1 - rowOffset;
+        int c = v2 - colOffset;
+        if (r < 0 || r >= rows || c < 0 || c >= cols) {
+            return false;
+        }
+        return (words.get(r * rowWords + (c >>> WORD_SHIFT)) & (1L << c)) != 0;
+    }
+
+    @Override
+    public void forEachTuple(Consumer<BinaryTuple> consumer) {
+        for (int r = 0; r < rows; r++) {
+            for (int w = 0; w < rowWords; w++) {
+                long word = words.get(r * rowWords + w);
+                while (word != 0) {
+                    int c = (w << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+                    consumer.accept(new BinaryTuple(r + rowOffset, c + colOffset));
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        if (size < 0) {
+            int count = 0;
+            for (int i = 0; i < rows * rowWords; i++) {
+                count += Long.bitCount(words.get(i));
+            }
+            size = count;
+        }
+        return size;
+    }
+
+    @Override
+    public LinkedHashSet<Integer> getFirstSupported(LinkedHashSet<Integer> domain) {
+        long[] mask = new long[rowWords];
+        for (int v : domain) {
+            int c = v - colOffset;
+            if (c >= 0 && c < cols) {
+                mask[c >>> WORD_SHIFT] |= 1L << c;
+            }
+        }
+        LinkedHashSet<Integer> supported = new LinkedHashSet<>();
+        for (int r = 0; r < rows; r++) {
+            for (int w = 0; w < rowWords; w++) {
+                if ((words.get(r * rowWords + w) & mask[w]) != 0) {
+                    supported.add(r + rowOffset);
+                    break;
+                }
+            }
+        }
+        return supported;
+    }
+
+    @Override
+    public LinkedHashSet<Integer> getSecondSupported(LinkedHashSet<Integer> domain) {
+        long[] union = new long[rowWords];
+        for (int v : domain) {
+            int r = v - rowOffset;
+            if (r < 0 || r >= rows) {
+                continue;
+            }
+            for (int w = 0; w < rowWords; w++) {
+                union[w] |= words.get(r * rowWords + w);
+            }
+        }
+        LinkedHashSet<Integer> supported = new LinkedHashSet<>();
+        for (int w = 0; w < rowWords; w++) {
+            long word = union[w];
+            while (word != 0) {
+                supported.add((w << WORD_SHIFT) + Long.numberOfTrailingZeros(word) + colOffset);
+                word &= word - 1;
+            }
+        }
+        return supported;
+    }
+
+    /**
+     * Creates and returns a {@link String} representation
+     * of this {@link MappedRelation}, one pair per line.
+     *
+     * @return the {@link String} representing this {@link MappedRelation}
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("\n");
+        forEachTuple(tuple -> {
+            result.append(tuple);
+            result.append("\n");
+        });
+        return result.toString();
+    }
+
+}
@@ -0,0 +1,97 @@
+package binary.types;
+
+import java.util.LinkedHashSet;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Relation} stored as a {@link BitMatrix}.
+ * Supports are found a word of 64 values at a time.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class MatrixRelation implements Relation {
+
+    /** The {@link BitMatrix} of the permitted pairs. */
+    private BitMatrix matrix;
+
+    /** The number of permitted pairs. */
+    private int size;
+
+    /** The hash code of the {@link #matrix}, computed once. */
+    private int hash;
+
+    /**
+     * Creates a {@link MatrixRelation} that permits
+     * the pairs of the given {@link BitMatrix}.
+     * The {@link BitMatrix} must not be changed afterwards.
+     *
+     * @param pairs the {@link BitMatrix} of the permitted pairs
+     */
+    public MatrixRelation(BitMatrix pairs) {
+        matrix = pairs;
+        size = pairs.cardinality();
+        hash = pairs.hashCode();
+    }
+
+    /** @return the {@link BitMatrix} of the permitted pairs */
+    public BitMatrix getMatrix() {
+        return matrix;
+    }
+
+    @Override
+    public boolean allows(int v1, int v2) {
+        return matrix.get(v1, v2);
+    }
+
+    @Override
+    public void forEachTuple(Consumer<BinaryTuple> consumer) {
+        matrix.forEachTuple(consumer);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public LinkedHashSet<Integer> getFirstSupported(LinkedHashSet<Integer> domain) {
+        return matrix.getFirstSupported(domain);
+    }
+
+    @Override
+    public LinkedHashSet<Integer> getSecondSupported(LinkedHashSet<Integer> domain) {
+        return matrix.getSecondSupported(domain);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof MatrixRelation)) {
+            return false;
+        }
+        MatrixRelation other = (MatrixRelation) obj;
+        return this.hash == other.hash && this.matrix.equals(other.matrix);
+    }
+
+    /**
+     * Creates and returns a {@link String} representation
+     * of this {@link MatrixRelation}, one pair per line.
+     *
+     * @return the {@link String} representing this {@link MatrixRelation}
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("\n");
+        matrix.forEachTuple(tuple -> {
+            result.append(tuple);
+            result.append("\n");
+        });
+        return result.toString();
+    }
+
+}
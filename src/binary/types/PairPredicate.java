@@ -0,0 +1,22 @@
+package binary.types;
+
+/**
+ * A condition on a pair of values, used by intensional constraints.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface PairPredicate {
+
+    /**
+     * Evaluates this condition on the given pair of values.
+     *
+     * @param x the value of the first variable
+     * @param y the value of the second variable
+     *
+     * @return true iff the pair satisfies the condition
+     */
+    boolean test(int x, int y);
+
+}
@@ -0,0 +1,152 @@
+package binary.types;
+
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Relation} given intensionally, as a {@link PairPredicate}
+ * over the domain bounds of the two variables.
+ * Single pairs are checked by evaluating the {@link PairPredicate}.
+ * The pairs are only enumerated into a {@link MatrixRelation}
+ * the first time that supports or tuples are requested.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class PredicateRelation implements Relation {
+
+    /** The condition that the permitted pairs satisfy. */
+    private PairPredicate predicate;
+
+    /** The text that the {@link #predicate} was compiled from. */
+    private String source;
+
+    /** The domain bounds of the first variable. */
+    private int firstLower, firstUpper;
+
+    /** The domain bounds of the second variable. */
+    private int secondLower, secondUpper;
+
+    /** The enumerated pairs, or null until they are first needed. */
+    private volatile MatrixRelation expanded = null;
+
+    /**
+     * Creates a {@link PredicateRelation} that permits the pairs
+     * within the given bounds that satisfy the given {@link PairPredicate}.
+     * All bounds are inclusive.
+     *
+     * @param condition the condition that the permitted pairs satisfy
+     * @param text      the text that the condition was compiled from
+     * @param bounds1   the lower and upper bound of the first variable
+     * @param bounds2   the lower and upper bound of the second variable
+     */
+    public PredicateRelation(PairPredicate condition, String text,
+                             int[] bounds1, int[] bounds2) {
+        predicate = condition;
+        source = text;
+        firstLower = bounds1[0];
+        firstUpper = bounds1[1];
+        secondLower = bounds2[0];
+        secondUpper = bounds2[1];
+    }
+
+    /** @return the text that the condition was compiled from */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Enumerates the permitted pairs when first called
+     * and returns the same {@link MatrixRelation} afterwards.
+     *
+     * @return the {@link MatrixRelation} of the permitted pairs
+     */
+    private MatrixRelation expand() {
+        MatrixRelation result = expanded;
+        if (result == null) {
+            synchronized (this) {
+                result = expanded;
+                if (result == null) {
+                    BitMatrix matrix = new BitMatrix(firstLower, firstUpper,
+                            secondLower, secondUpper);
+                    for (int x = firstLower; x <= firstUpper; x++) {
+                        for (int y = secondLower; y <= secondUpper; y++) {
+                            if (predicate.test(x, y)) {
+                                matrix.set(x, y);
+                            }
+                        }
+                    }
+                    result = new MatrixRelation(matrix);
+                    expanded = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean allows(int v1, int v2) {
+        return v1 >= firstLower && v1 <= firstUpper
+                && v2 >= secondLower && v2 <= secondUpper
+                && predicate.test(v1, v2);
+    }
+
+    @Override
+    public void forEachTuple(Consumer<BinaryTuple> consumer) {
+        expand().forEachTuple(consumer);
+    }
+
+    @Override
+    public int size() {
+        return expand().size();
+    }
+
+    @Override
+    public LinkedHashSet<Integer> getFirstSupported(LinkedHashSet<Integer> domain) {
+        return expand().getFirstSupported(domain);
+    }
+
+    @Override
+    public LinkedHashSet<Integer> getSecondSupported(LinkedHashSet<Integer> domain) {
+        return expand().getSecondSupported(domain);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(source, firstLower, firstUpper, secondLower, secondUpper);
+    }
+
+    /**
+     * Determines whether the given object is a {@link PredicateRelation}
+     * with the same condition text over the same bounds.
+     *
+     * @param obj the object to compare with
+     *
+     * @return true iff both permit the same pairs for the same reason
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof PredicateRelation)) {
+            return false;
+        }
+        PredicateRelation other = (PredicateRelation) obj;
+        return this.source.equals(other.source)
+                && this.firstLower == other.firstLower
+                && this.firstUpper == other.firstUpper
+                && this.secondLower == other.secondLower
+                && this.secondUpper == other.secondUpper;
+    }
+
+    /**
+     * Creates and returns a {@link String} representation
+     * of this {@link PredicateRelation}, in the intensional .csp syntax.
+     *
+     * @return the {@link String} representing this {@link PredicateRelation}
+     */
+    @Override
+    public String toString() {
+        return ": " + source + "\n";
+    }
+
+}
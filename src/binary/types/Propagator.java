@@ -0,0 +1,36 @@
+package binary.types;
+
+import java.util.LinkedHashSet;
+
+/**
+ * Removes unsupported values from the domains of
+ * the two {@link Variable}s of a {@link BinaryConstraint}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public interface Propagator {
+
+    /**
+     * Removes and returns the values of the first {@link Variable}
+     * that have no support in the current domain of the second.
+     *
+     * @param first  the first {@link Variable} of the constraint
+     * @param second the second {@link Variable} of the constraint
+     *
+     * @return the values removed from the first {@link Variable}
+     */
+    LinkedHashSet<Integer> reviseFirst(Variable first, Variable second);
+
+    /**
+     * Removes and returns the values of the second {@link Variable}
+     * that have no support in the current domain of the first.
+     *
+     * @param first  the first {@link Variable} of the constraint
+     * @param second the second {@link Variable} of the constraint
+     *
+     * @return the values removed from the second {@link Variable}
+     */
+    LinkedHashSet<Integer> reviseSecond(Variable first, Variable second);
+
+}
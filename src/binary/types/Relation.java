@@ -0,0 +1,56 @@
+package binary.types;
+
+import java.util.LinkedHashSet;
+import java.util.function.Consumer;
+
+/**
+ * The set of value pairs that a {@link BinaryConstraint} permits.
+ * The first value of a pair belongs to the first variable of the constraint
+ * and the second value to the second variable.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public interface Relation {
+
+    /**
+     * Determines whether the given pair of values is permitted.
+     *
+     * @param v1 the value of the first variable
+     * @param v2 the value of the second variable
+     *
+     * @return true iff the pair is permitted
+     */
+    boolean allows(int v1, int v2);
+
+    /**
+     * Invokes the provided {@link Consumer} on each permitted pair.
+     *
+     * @param consumer the {@link Consumer} to invoke on each {@link BinaryTuple}
+     */
+    void forEachTuple(Consumer<BinaryTuple> consumer);
+
+    /** @return the number of permitted pairs */
+    int size();
+
+    /**
+     * Retrieves the set of supported values for the first variable,
+     * given a domain of values for the second variable.
+     *
+     * @param domain the domain of values of the second variable
+     *
+     * @return the supported values for the first variable
+     */
+    LinkedHashSet<Integer> getFirstSupported(LinkedHashSet<Integer> domain);
+
+    /**
+     * Retrieves the set of supported values for the second variable,
+     * given a domain of values for the first variable.
+     *
+     * @param domain the domain of values of the first variable
+     *
+     * @return the supported values for the second variable
+     */
+    LinkedHashSet<Integer> getSecondSupported(LinkedHashSet<Integer> domain);
+
+}
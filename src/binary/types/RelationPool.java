@@ -0,0 +1,102 @@
+package binary.types;
+
+import java.util.HashMap;
+
+/**
+ * Interns the {@link Relation}s of {@link BinaryConstraint}s while loading,
+ * so that equal relations are stored once and shared by many scopes.
+ * A relation that equals the transposition of an interned one
+ * is shared as well, with the scope recording the reversed orientation.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class RelationPool {
+
+    /** The interned {@link Relation}s, each mapped to itself. */
+    private HashMap<Relation, Relation> pool = new HashMap<>();
+
+    /** The number of scopes that reused an interned {@link Relation}. */
+    private int shared = 0;
+
+    /**
+     * Creates a {@link BinaryConstraint} over the given variables
+     * that permits the pairs of the given {@link BitMatrix}.
+     * The {@link BitMatrix} must not be changed afterwards.
+     *
+     * @param var1  the index of the first variable
+     * @param var2  the index of the second variable
+     * @param pairs the {@link BitMatrix} of the permitted pairs
+     *
+     * @return the {@link BinaryConstraint} referring to an interned {@link Relation}
+     */
+    public BinaryConstraint intern(int var1, int var2, BitMatrix pairs) {
+        MatrixRelation relation = new MatrixRelation(pairs);
+        Relation found = pool.get(relation);
+        if (found != null) {
+            shared++;
+            return new BinaryConstraint(var1, var2, found, false);
+        }
+        found = pool.get(new MatrixRelation(pairs.transpose()));
+        if (found != null) {
+            shared++;
+            return new BinaryConstraint(var1, var2, found, true);
+        }
+        pool.put(relation, relation);
+        return new BinaryConstraint(var1, var2, relation, false);
+    }
+
+    /**
+     * Creates a {@link BinaryConstraint} over the given variables
+     * that permits the given {@link Relation}, or an interned equal one.
+     *
+     * @param var1     the index of the first variable
+     * @param var2     the index of the second variable
+     * @param relation the {@link Relation} of the permitted pairs
+     *
+     * @return the {@link BinaryConstraint} referring to an interned {@link Relation}
+     */
+    public BinaryConstraint intern(int var1, int var2, Relation relation) {
+        Relation found = pool.putIfAbsent(relation, relation);
+        if (found != null) {
+            shared++;
+            return new BinaryConstraint(var1, var2, found, false);
+        }
+        return new BinaryConstraint(var1, var2, relation, false);
+    }
+
+    /**
+     * Creates a {@link BinaryConstraint} over the same variables
+     * as the given one, referring to an interned equal {@link Relation}.
+     * This merges relations interned by different pools.
+     *
+     * @param c the {@link BinaryConstraint} to intern
+     *
+     * @return the equal {@link BinaryConstraint} referring to an interned {@link Relation}
+     */
+    public BinaryConstraint intern(BinaryConstraint c) {
+        Relation relation = c.getRelation();
+        if (!(relation instanceof MatrixRelation)) {
+            return intern(c.getVar1(), c.getVar2(), relation);
+        }
+        BitMatrix pairs = ((MatrixRelation) relation).getMatrix();
+        if (!c.isReversed()) {
+            return intern(c.getVar1(), c.getVar2(), pairs);
+        }
+        // The pairs are between the second and the first variable.
+        BinaryConstraint swapped = intern(c.getVar2(), c.getVar1(), pairs);
+        return new BinaryConstraint(c.getVar1(), c.getVar2(),
+                swapped.getRelation(), !swapped.isReversed());
+    }
+
+    /** @return the number of distinct interned {@link Relation}s */
+    public int getDistinct() {
+        return pool.size();
+    }
+
+    /** @return the number of scopes that reused an interned {@link Relation} */
+    public int getShared() {
+        return shared;
+    }
+
+}
@@ -0,0 +1,79 @@
+package binary.types;
+
+import java.util.LinkedHashSet;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Relation} given extensionally, as a set of {@link BinaryTuple}s.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class TupleRelation implements Relation {
+
+    /** The {@link BinaryTuple}s that this {@link Relation} permits. */
+    private LinkedHashSet<BinaryTuple> tuples;
+
+    /**
+     * Creates a {@link TupleRelation} that permits the given {@link BinaryTuple}s.
+     *
+     * @param binaryTuples the permitted {@link BinaryTuple}s
+     */
+    public TupleRelation(LinkedHashSet<BinaryTuple> binaryTuples) {
+        tuples = binaryTuples;
+    }
+
+    @Override
+    public boolean allows(int v1, int v2) {
+        return tuples.contains(new BinaryTuple(v1, v2));
+    }
+
+    @Override
+    public void forEachTuple(Consumer<BinaryTuple> consumer) {
+        tuples.forEach(consumer);
+    }
+
+    @Override
+    public int size() {
+        return tuples.size();
+    }
+
+    @Override
+    public LinkedHashSet<Integer> getFirstSupported(LinkedHashSet<Integer> domain) {
+        LinkedHashSet<Integer> supported = new LinkedHashSet<>();
+        for (BinaryTuple tuple : tuples) {
+            if (domain.contains(tuple.getVal2())) {
+                supported.add(tuple.getVal1());
+            }
+        }
+        return supported;
+    }
+
+    @Override
+    public LinkedHashSet<Integer> getSecondSupported(LinkedHashSet<Integer> domain) {
+        LinkedHashSet<Integer> supported = new LinkedHashSet<>();
+        for (BinaryTuple tuple : tuples) {
+            if (domain.contains(tuple.getVal1())) {
+                supported.add(tuple.getVal2());
+            }
+        }
+        return supported;
+    }
+
+    /**
+     * Creates and returns a {@link String} representation
+     * of this {@link TupleRelation}, one {@link BinaryTuple} per line.
+     *
+     * @return the {@link String} representing this {@link TupleRelation}
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("\n");
+        for (BinaryTuple tuple : tuples) {
+            result.append(tuple);
+            result.append("\n");
+        }
+        return result.toString();
+    }
+
+}
@@ -10,7 +10,7 @@ import java.util.LinkedHashSet;
  * Represents a variable in a constraint problem.
  *
  * @author 150009974
- * @version 4.1
+ * @version 4.2
  */
 public abstract class Variable {
 
@@ -78,6 +78,16 @@ public abstract class Variable {
         return domain.size();
     }
 
+    /**
+     * Returns the number of values this {@link Variable} can currently take.
+     * If this {@link Variable} is assigned, that is only the assigned value.
+     *
+     * @return the size of the current domain of this {@link Variable}
+     */
+    public int getCurrentDomainSize() {
+        return value == null ? domain.size() : 1;
+    }
+
     /**
      * Determines whether the domain of this {@link Variable}
      * contains the given value.
@@ -121,6 +131,15 @@ public abstract class Variable {
     /** @return the next value to branch on */
     public abstract int getNextVal();
 
+    /**
+     * Creates an unassigned {@link Variable} with the same id
+     * and a copy of the current domain of this {@link Variable},
+     * so that the two can be pruned independently.
+     *
+     * @return the copy of this {@link Variable}
+     */
+    public abstract Variable copy();
+
     /**
      * Returns the hash code of this {@link Variable}
      * which is the {@link Variable}'s {@link Variable#id}.
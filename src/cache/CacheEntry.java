@@ -0,0 +1,82 @@
+package cache;
+
+/**
+ * Represents a problem held by a {@link ProblemCache},
+ * with what identifies the version of the file it was loaded from.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class CacheEntry {
+
+    /** The loaded problem. */
+    private final Object problem;
+
+    /** The hash of the contents of the file. */
+    private final String hash;
+
+    /** The estimated number of bytes the problem occupies. */
+    private final long footprint;
+
+    /** The last modification time (in milliseconds) of the file. */
+    private long modified;
+
+    /** The length (in bytes) of the file. */
+    private long length;
+
+    /**
+     * Creates a {@link CacheEntry}.
+     *
+     * @param problem   the loaded problem
+     * @param hash      the hash of the contents of the file
+     * @param footprint the estimated number of bytes the problem occupies
+     * @param modified  the last modification time (in milliseconds) of the file
+     * @param length    the length (in bytes) of the file
+     */
+    CacheEntry(Object problem, String hash, long footprint, long modified, long length) {
+        this.problem = problem;
+        this.hash = hash;
+        this.footprint = footprint;
+        this.modified = modified;
+        this.length = length;
+    }
+
+    /**
+     * Determines whether the file is unchanged by its modification time and length.
+     *
+     * @param fileModified the current modification time (in milliseconds) of the file
+     * @param fileLength   the current length (in bytes) of the file
+     *
+     * @return true iff both match the ones recorded
+     */
+    boolean matches(long fileModified, long fileLength) {
+        return modified == fileModified && length == fileLength;
+    }
+
+    /**
+     * Records a new modification time and length of a file whose contents did not change.
+     *
+     * @param fileModified the current modification time (in milliseconds) of the file
+     * @param fileLength   the current length (in bytes) of the file
+     */
+    void touch(long fileModified, long fileLength) {
+        modified = fileModified;
+        length = fileLength;
+    }
+
+    /** @return the loaded problem */
+    Object getProblem() {
+        return problem;
+    }
+
+    /** @return the hash of the contents of the file */
+    String getHash() {
+        return hash;
+    }
+
+    /** @return the estimated number of bytes the problem occupies */
+    long getFootprint() {
+        return footprint;
+    }
+
+}
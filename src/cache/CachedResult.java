@@ -0,0 +1,97 @@
+package cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the result of a solve stored in a {@link ResultCache}:
+ * the solutions, as maps from variable names or ids to values,
+ * and the statistics of the search that found them.
+ * A result is exhaustive when the search explored its whole tree,
+ * so that no solutions were missed; an exhaustive result without solutions
+ * records that the problem is unsatisfiable.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class CachedResult {
+
+    /** The solutions, as maps from variable names or ids to values. */
+    private final List<Map<String, Integer>> solutions = new ArrayList<>();
+
+    /** The number of search tree nodes. */
+    private final long nodes;
+
+    /** The number of arc revisions. */
+    private final long revisions;
+
+    /** The number of constraint checks. */
+    private final long checks;
+
+    /** The time (in milliseconds) the solve took. */
+    private final long time;
+
+    /** Whether the search explored its whole tree. */
+    private final boolean exhaustive;
+
+    /**
+     * Creates a {@link CachedResult} with the statistics of a solve and no solutions.
+     *
+     * @param nodes      the number of search tree nodes
+     * @param revisions  the number of arc revisions
+     * @param checks     the number of constraint checks
+     * @param time       the time (in milliseconds) the solve took
+     * @param exhaustive whether the search explored its whole tree
+     */
+    public CachedResult(long nodes, long revisions, long checks, long time, boolean exhaustive) {
+        this.nodes = nodes;
+        this.revisions = revisions;
+        this.checks = checks;
+        this.time = time;
+        this.exhaustive = exhaustive;
+    }
+
+    /**
+     * Adds a solution, converting its variables to {@link String}s.
+     *
+     * @param solution a map from variable names or ids to values
+     */
+    public void addSolution(Map<?, Integer> solution) {
+        Map<String, Integer> stored = new LinkedHashMap<>();
+        solution.forEach((var, value) -> stored.put(String.valueOf(var), value));
+        solutions.add(stored);
+    }
+
+    /** @return the solutions, as maps from variable names or ids to values */
+    public List<Map<String, Integer>> getSolutions() {
+        return solutions;
+    }
+
+    /** @return the number of search tree nodes */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /** @return the number of arc revisions */
+    public long getRevisions() {
+        return revisions;
+    }
+
+    /** @return the number of constraint checks */
+    public long getChecks() {
+        return checks;
+    }
+
+    /** @return the time (in milliseconds) the solve took */
+    public long getTime() {
+        return time;
+    }
+
+    /** @return true iff the search explored its whole tree */
+    public boolean isExhaustive() {
+        return exhaustive;
+    }
+
+}
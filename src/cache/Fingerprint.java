@@ -0,0 +1,241 @@
+package cache;
+
+import binary.BinaryCSP;
+import binary.types.BinaryConstraint;
+import binary.types.Variable;
+import nary.ECSProblem;
+import nary.constraints.Assignment;
+import nary.constraints.NaryConstraint;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * Computes canonical fingerprints of problems, so that the same problem
+ * has the same fingerprint however its file was written.
+ * The fingerprint of a {@link BinaryCSP} is the SHA-256 hash of its sorted domains
+ * and, for every pair of variables with constraints, of the pairs of values
+ * that all of them allow, whatever the representation of their relations.
+ * Pairs of variables whose constraints allow every pair of values are left out,
+ * as such constraints do not change the problem.
+ * The fingerprint of a prepared {@link ECSProblem} is the hash of its variables,
+ * by name with their sorted domains, and of the sorted tables of its constraints.
+ * A fingerprint is computed once per problem instance and remembered
+ * for as long as the instance is in use, so it describes the problem as loaded.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public final class Fingerprint {
+
+    /** The fingerprints computed so far, by problem instance. */
+    private static final Map<Object, String> COMPUTED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** The digest the problem is fed into. */
+    private final MessageDigest digest;
+
+    /** The buffer of an int fed into the {@link #digest}. */
+    private final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+
+    /** Creates a {@link Fingerprint} with an empty digest. */
+    private Fingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the fingerprint of the given {@link BinaryCSP}.
+     *
+     * @param csp the {@link BinaryCSP}
+     *
+     * @return the fingerprint in hexadecimal
+     */
+    public static String of(BinaryCSP csp) {
+        return COMPUTED.computeIfAbsent(csp, p -> new Fingerprint().binary(csp));
+    }
+
+    /**
+     * Returns the fingerprint of the given prepared {@link ECSProblem}.
+     *
+     * @param problem the prepared {@link ECSProblem}
+     *
+     * @return the fingerprint in hexadecimal
+     */
+    public static String of(ECSProblem problem) {
+        return COMPUTED.computeIfAbsent(problem, p -> new Fingerprint().nary(problem));
+    }
+
+    /**
+     * Feeds a {@link BinaryCSP} into the {@link #digest}.
+     *
+     * @param csp the {@link BinaryCSP}
+     *
+     * @return the fingerprint in hexadecimal
+     */
+    private String binary(BinaryCSP csp) {
+        int n = csp.getNumberOfVariables();
+        int[][] domains = new int[n][];
+        put(n);
+        for (int i = 0; i < n; i++) {
+            domains[i] = sorted(csp.getVariable(i));
+            put(domains[i].length);
+            for (int value : domains[i]) {
+                put(value);
+            }
+        }
+        // The constraints on each pair of variables, with the smaller id first.
+        TreeMap<Long, List<BinaryConstraint>> scopes = new TreeMap<>();
+        for (BinaryConstraint c : csp.getConstraints()) {
+            int first = Math.min(c.getVar1(), c.getVar2());
+            int second = Math.max(c.getVar1(), c.getVar2());
+            scopes.computeIfAbsent((long) first * n + second, k -> new ArrayList<>()).add(c);
+        }
+        for (Map.Entry<Long, List<BinaryConstraint>> scope : scopes.entrySet()) {
+            int first = (int) (scope.getKey() / n);
+            int second = (int) (scope.getKey() % n);
+            int[] pairs = new int[2 * domains[first].length * domains[second].length];
+            int size = 0;
+            for (int x : domains[first]) {
+                for (int y : domains[second]) {
+                    if (allows(scope.getValue(), first, x, y)) {
+                        pairs[size++] = x;
+                        pairs[size++] = y;
+                    }
+                }
+            }
+            if (size == pairs.length) {
+                // The constraints allow the full product of the domains.
+                continue;
+            }
+            put(first);
+            put(second);
+            for (int i = 0; i < size; i++) {
+                put(pairs[i]);
+            }
+            // Separates the pairs of different scopes.
+            put(-1);
+        }
+        return hex();
+    }
+
+    /**
+     * Determines whether all of the given {@link BinaryConstraint}s allow a pair of values.
+     *
+     * @param constraints the {@link BinaryConstraint}s on one pair of variables
+     * @param first       the id of the variable with the smaller id
+     * @param x           the value of the variable with the smaller id
+     * @param y           the value of the other variable
+     *
+     * @return true iff every constraint allows the pair
+     */
+    private static boolean allows(List<BinaryConstraint> constraints, int first, int x, int y) {
+        for (BinaryConstraint c : constraints) {
+            boolean allowed = c.getVar1() == first ? c.allows(x, y) : c.allows(y, x);
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param var a {@link Variable}
+     *
+     * @return the values of its domain, in ascending order
+     */
+    private static int[] sorted(Variable var) {
+        int[] values = var.getDomain().stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(values);
+        return values;
+    }
+
+    /**
+     * Feeds a prepared {@link ECSProblem} into the {@link #digest}.
+     *
+     * @param problem the prepared {@link ECSProblem}
+     *
+     * @return the fingerprint in hexadecimal
+     */
+    private String nary(ECSProblem problem) {
+        TreeMap<String, int[]> domains = new TreeMap<>();
+        problem.forEachVariable((name, var) -> domains.put(name,
+                var.getDomain().stream().mapToInt(Integer::intValue).sorted().toArray()));
+        put(domains.size());
+        domains.forEach((name, domain) -> {
+            put(name);
+            put(domain.length);
+            for (int value : domain) {
+                put(value);
+            }
+        });
+        List<String> tables = new ArrayList<>();
+        for (int i = 0; i < problem.getNumberOfNaryConstraints(); i++) {
+            tables.add(table(problem.getNaryConstraint(i)));
+        }
+        Collections.sort(tables);
+        put(tables.size());
+        tables.forEach(this::put);
+        return hex();
+    }
+
+    /**
+     * Writes the table of a {@link NaryConstraint} in a canonical form:
+     * the sorted names of its variables followed by its sorted rows of values.
+     *
+     * @param constraint the prepared {@link NaryConstraint}
+     *
+     * @return the canonical table
+     */
+    private static String table(NaryConstraint constraint) {
+        String[] names = constraint.getVarNames().clone();
+        Arrays.sort(names);
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < constraint.getDomainSize(); i++) {
+            Assignment row = constraint.getValue(i);
+            StringBuilder values = new StringBuilder();
+            for (String name : names) {
+                values.append(row.get(name)).append(',');
+            }
+            rows.add(values.toString());
+        }
+        Collections.sort(rows);
+        return String.join(",", names) + ":" + String.join(";", rows);
+    }
+
+    /** @param value an int to feed into the {@link #digest} */
+    private void put(int value) {
+        buffer.clear();
+        buffer.putInt(value);
+        digest.update(buffer.array());
+    }
+
+    /** @param value a {@link String} to feed into the {@link #digest}, with its length */
+    private void put(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        put(bytes.length);
+        digest.update(bytes);
+    }
+
+    /** @return the hash of everything fed into the {@link #digest}, in hexadecimal */
+    private String hex() {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+}
@@ -0,0 +1,274 @@
+package cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Holds loaded problems so that a long-running process reads each file once.
+ * A problem is identified by the kind of loading, such as "csp" or "nary",
+ * and the absolute path of its file, and is valid for as long as the file
+ * has the same modification time and length, or else the same SHA-256 hash.
+ * The least recently used problems are evicted when the footprint of all
+ * problems exceeds the capacity, but the last loaded one is always kept.
+ * The footprint of a problem is taken to be the bytes allocated while loading it,
+ * an upper bound of what it retains.
+ * The problems are returned as they are and may be used by several threads,
+ * so callers solve forks of them rather than the problems themselves.
+ * Files are hashed and loaded outside the lock of the cache, so a load only
+ * delays the requests for the same problem, which wait for it instead of loading it again.
+ *
+ * @author 150009974
+ * @version 1.2
+ */
+public final class ProblemCache {
+
+    /** The number of bytes in a megabyte. */
+    private static final long MEGABYTE = 1024 * 1024;
+
+    /** The size (in bytes) of the buffer the files are hashed with. */
+    private static final int BUFFER = 1 << 16;
+
+    /** The entries, from the least to the most recently used. */
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The loads in progress, by the key of their entry. */
+    private final Map<String, CompletableFuture<CacheEntry>> loading = new HashMap<>();
+
+    /** The largest total footprint (in bytes) of the entries. */
+    private final long capacity;
+
+    /** The total footprint (in bytes) of the entries. */
+    private long footprint = 0;
+
+    /** The number of problems returned from the cache. */
+    private long hits = 0;
+
+    /** The number of problems loaded. */
+    private long misses = 0;
+
+    /** The number of entries evicted to stay within the capacity. */
+    private long evictions = 0;
+
+    /** The {@link ThreadMXBean} that measures the bytes allocated by a load. */
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Creates an empty {@link ProblemCache}.
+     *
+     * @param capacity the largest total footprint (in bytes) of the cached problems
+     */
+    public ProblemCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the problem of the given kind in the given file,
+     * loading it if it is not cached or the file has changed.
+     * If another thread is already loading it, waits for that load.
+     *
+     * @param filename the problem file
+     * @param kind     the kind of loading, which determines the type of the problem
+     * @param loader   the {@link ProblemLoader} to load the problem with
+     * @param <T>      the type of the problem
+     *
+     * @return the cached or loaded problem
+     *
+     * @throws IOException if the file cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String filename, String kind, ProblemLoader<T> loader) throws IOException {
+        Path path = Paths.get(filename).toAbsolutePath().normalize();
+        String key = kind + ":" + path;
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        long length = Files.size(path);
+        CacheEntry previous;
+        CompletableFuture<CacheEntry> pending;
+        CompletableFuture<CacheEntry> load = null;
+        synchronized (this) {
+            previous = entries.get(key);
+            if (previous != null && previous.matches(modified, length)) {
+                hits++;
+                return (T) previous.getProblem();
+            }
+            pending = loading.get(key);
+            if (pending != null) {
+                hits++;
+            } else {
+                load = new CompletableFuture<>();
+                loading.put(key, load);
+            }
+        }
+        if (pending != null) {
+            return (T) await(pending).getProblem();
+        }
+        try {
+            CacheEntry entry = load(key, path, filename, modified, length, previous, loader);
+            load.complete(entry);
+            return (T) entry.getProblem();
+        } catch (IOException | RuntimeException | Error e) {
+            synchronized (this) {
+                loading.remove(key);
+            }
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Loads a problem that is not cached or whose file has changed,
+     * unless only the modification time of the file changed, and caches it.
+     * Only the bookkeeping holds the lock of the cache.
+     *
+     * @param key      the key of the entry
+     * @param path     the absolute path of the file
+     * @param filename the problem file
+     * @param modified the last modification time (in milliseconds) of the file
+     * @param length   the length (in bytes) of the file
+     * @param previous the outdated entry of the problem, or null if there is none
+     * @param loader   the {@link ProblemLoader} to load the problem with
+     *
+     * @return the entry of the problem
+     *
+     * @throws IOException if the file cannot be read
+     */
+    private CacheEntry load(String key, Path path, String filename, long modified, long length,
+                            CacheEntry previous, ProblemLoader<?> loader) throws IOException {
+        String hash = hash(path);
+        if (previous != null && previous.getHash().equals(hash)) {
+            synchronized (this) {
+                // Only the modification time changed.
+                previous.touch(modified, length);
+                loading.remove(key);
+                hits++;
+            }
+            return previous;
+        }
+        long before = allocatedBytes();
+        Object problem = loader.load(filename);
+        long after = allocatedBytes();
+        long size = before < 0 || after < 0 ? length : after - before;
+        CacheEntry entry = new CacheEntry(problem, hash, size, modified, length);
+        synchronized (this) {
+            CacheEntry replaced = entries.put(key, entry);
+            if (replaced != null) {
+                footprint -= replaced.getFootprint();
+            }
+            footprint += size;
+            loading.remove(key);
+            misses++;
+            evict();
+        }
+        return entry;
+    }
+
+    /**
+     * Waits for a load of another thread.
+     *
+     * @param pending the load in progress
+     *
+     * @return the entry of the loaded problem
+     *
+     * @throws IOException if the other thread could not read the file
+     */
+    private static CacheEntry await(CompletableFuture<CacheEntry> pending) throws IOException {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /** Evicts the least recently used entries until the footprint is within the capacity. */
+    private void evict() {
+        Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (footprint > capacity && entries.size() > 1) {
+            CacheEntry eldest = iterator.next().getValue();
+            iterator.remove();
+            footprint -= eldest.getFootprint();
+            evictions++;
+        }
+    }
+
+    /** Removes every entry. */
+    public synchronized void clear() {
+        entries.clear();
+        footprint = 0;
+    }
+
+    /**
+     * Computes the SHA-256 hash of the contents of the given file.
+     *
+     * @param path the file to hash
+     *
+     * @return the hash in hexadecimal
+     *
+     * @throws IOException if the file cannot be read
+     */
+    private static String hash(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256.
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[BUFFER];
+        try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+            while (in.read(buffer) != -1) {
+                // The stream updates the digest.
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /** @return the bytes allocated by the current thread so far, or -1 if unknown */
+    private long allocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean extended = (com.sun.management.ThreadMXBean) threads;
+            if (extended.isThreadAllocatedMemorySupported() && extended.isThreadAllocatedMemoryEnabled()) {
+                return extended.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates and returns a summary of the cache.
+     *
+     * @return a {@link String} with the entries, footprint, hits, misses and evictions
+     */
+    public synchronized String report() {
+        return String.format("Cache: %d problems, %.1f of %.1f MB, %d hits, %d misses, %d evictions",
+                entries.size(), (double) footprint / MEGABYTE, (double) capacity / MEGABYTE,
+                hits, misses, evictions);
+    }
+
+}
@@ -0,0 +1,27 @@
+package cache;
+
+import java.io.IOException;
+
+/**
+ * Loads a problem from a file, for a {@link ProblemCache}.
+ *
+ * @param <T> the type of the loaded problem
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ProblemLoader<T> {
+
+    /**
+     * Loads the problem in the given file.
+     *
+     * @param filename the problem file
+     *
+     * @return the loaded problem
+     *
+     * @throws IOException if the file cannot be read
+     */
+    T load(String filename) throws IOException;
+
+}
@@ -0,0 +1,339 @@
+package cache;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Stores the results of solves in a directory, one file per
+ * problem {@link Fingerprint}, algorithm and number of solutions,
+ * so that a repeated query is answered without solving.
+ * A result is written to a temporary file and moved into place,
+ * so other processes only ever read complete results.
+ * Reading a result marks it as used, and when the files exceed the capacity
+ * the least recently used are deleted, under a lock that the processes share.
+ *
+ * The results read or written by this process are also kept in memory,
+ * so a long running process answers a repeated query without parsing its file;
+ * such a result is still dropped once another process evicts its file.
+ *
+ * A result file is text: a line with the {@link #VERSION} it was written by,
+ * lines of a name and a value for the statistics,
+ * a line with the number of solutions and then one line per solution
+ * with tab separated pairs of a variable and its value.
+ * A result written by another version, or with no version line, is not answered
+ * nor marked as used, and is left to be evicted once it is the least recently used.
+ *
+ * @author 150009974
+ * @version 1.3
+ */
+public final class ResultCache {
+
+    /**
+     * The version of the result files and of the solver that found the results.
+     * It is increased whenever the format changes or a fix changes what is found,
+     * so that results stored before are not answered.
+     */
+    private static final int VERSION = 2;
+
+    /** The system property with the directory of the results. */
+    public static final String DIRECTORY_PROPERTY = "solver.results";
+
+    /** The system property with the capacity (in megabytes) of the results. */
+    public static final String CAPACITY_PROPERTY = "solver.results.mb";
+
+    /** The default capacity (in megabytes) of the results. */
+    private static final long DEFAULT_CAPACITY_MB = 64;
+
+    /** The number of bytes in a megabyte. */
+    private static final long MEGABYTE = 1024 * 1024;
+
+    /** The extension of result files. */
+    private static final String EXTENSION = ".result";
+
+    /** The name of the file locked while evicting. */
+    private static final String LOCK = ".lock";
+
+    /** The largest number of results kept in memory. */
+    private static final int MEMORY_CAPACITY = 1024;
+
+    /**
+     * The lock held by the threads of this process while evicting,
+     * as a lock on the {@link #LOCK} file is held by the whole process.
+     */
+    private static final Object EVICTING = new Object();
+
+    /** The results read or written by this process, by the path of their file. */
+    private static final Map<Path, CachedResult> MEMORY = new ConcurrentHashMap<>();
+
+    /** The directory of the result files. */
+    private final Path directory;
+
+    /** The largest total size (in bytes) of the result files. */
+    private final long capacity;
+
+    /**
+     * Creates a {@link ResultCache} in the given directory, creating it if needed.
+     *
+     * @param directory the directory of the result files
+     * @param capacity  the largest total size (in bytes) of the result files
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    public ResultCache(Path directory, long capacity) throws IOException {
+        this.directory = directory;
+        this.capacity = capacity;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Creates a {@link ResultCache} in the directory given by the {@link #DIRECTORY_PROPERTY},
+     * by default .constraintsolver/results in the home directory,
+     * with the capacity given by the {@link #CAPACITY_PROPERTY}, by default 64 MB.
+     *
+     * @return the {@link ResultCache}
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    public static ResultCache open() throws IOException {
+        String directory = System.getProperty(DIRECTORY_PROPERTY,
+                Paths.get(System.getProperty("user.home"), ".constraintsolver", "results").toString());
+        long capacity = Long.getLong(CAPACITY_PROPERTY, DEFAULT_CAPACITY_MB) * MEGABYTE;
+        return new ResultCache(Paths.get(directory), capacity);
+    }
+
+    /**
+     * Creates the key of a result.
+     *
+     * @param fingerprint the {@link Fingerprint} of the problem
+     * @param algorithm   the algorithm and the options that change its search
+     * @param count       the number of solutions asked for, 0 for all of them
+     *
+     * @return the key, which is also the name of the result file
+     */
+    public static String key(String fingerprint, String algorithm, int count) {
+        return fingerprint + "-" + algorithm.replaceAll("[^A-Za-z0-9+]", "_") + "-" + count;
+    }
+
+    /**
+     * Reads the result with the given key and marks it as used,
+     * even when it is answered from memory.
+     * A result written by another version is a miss and is left in place,
+     * while a result of this version that cannot be parsed is deleted.
+     *
+     * @param key the key of the result
+     *
+     * @return the {@link CachedResult}, or null if there is none
+     */
+    public CachedResult get(String key) {
+        Path file = directory.resolve(key + EXTENSION);
+        CachedResult remembered = MEMORY.get(file);
+        if (remembered != null) {
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                return remembered;
+            } catch (NoSuchFileException e) {
+                // Another process evicted it.
+                MEMORY.remove(file);
+            } catch (IOException e) {
+                return remembered;
+            }
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line == null || !line.equals("version " + VERSION)) {
+                // Written by another version, which may still be using it.
+                return null;
+            }
+            CachedResult result = new CachedResult(
+                    Long.parseLong(value(reader, "nodes")), Long.parseLong(value(reader, "revisions")),
+                    Long.parseLong(value(reader, "checks")), Long.parseLong(value(reader, "time_ms")),
+                    Boolean.parseBoolean(value(reader, "exhaustive")));
+            int solutions = Integer.parseInt(value(reader, "solutions"));
+            for (int i = 0; i < solutions; i++) {
+                result.addSolution(parseSolution(reader.readLine()));
+            }
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            remember(file, result);
+            return result;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // Another process may have just evicted it, or the file is damaged.
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Someone else removed it.
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Reads a line of a name and a value.
+     *
+     * @param reader the reader of a result file
+     * @param name   the expected name
+     *
+     * @return the value
+     *
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the line does not have the expected name
+     */
+    private static String value(BufferedReader reader, String name) throws IOException {
+        String line = reader.readLine();
+        if (line == null || !line.startsWith(name + " ")) {
+            throw new IllegalArgumentException("Expected " + name + " but found: " + line);
+        }
+        return line.substring(name.length() + 1);
+    }
+
+    /**
+     * Parses a line of tab separated pairs of a variable and its value.
+     *
+     * @param line the line of a solution
+     *
+     * @return the solution
+     *
+     * @throws IllegalArgumentException if the line is missing or malformed
+     */
+    private static Map<String, Integer> parseSolution(String line) {
+        if (line == null) {
+            throw new IllegalArgumentException("Missing solution");
+        }
+        Map<String, Integer> solution = new LinkedHashMap<>();
+        String[] fields = line.isEmpty() ? new String[0] : line.split("\t");
+        if (fields.length % 2 != 0) {
+            throw new IllegalArgumentException("Malformed solution: " + line);
+        }
+        for (int i = 0; i < fields.length; i += 2) {
+            solution.put(fields[i], Integer.parseInt(fields[i + 1]));
+        }
+        return solution;
+    }
+
+    /**
+     * Stores a result under the given key, replacing any stored before,
+     * and evicts the least recently used results beyond the capacity.
+     *
+     * @param key    the key of the result
+     * @param result the {@link CachedResult} to store
+     *
+     * @throws IOException if the result cannot be written
+     */
+    public void put(String key, CachedResult result) throws IOException {
+        Path temporary = Files.createTempFile(directory, key, ".tmp");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(temporary, StandardCharsets.UTF_8))) {
+            out.print("version " + VERSION + "\n");
+            out.print("nodes " + result.getNodes() + "\n");
+            out.print("revisions " + result.getRevisions() + "\n");
+            out.print("checks " + result.getChecks() + "\n");
+            out.print("time_ms " + result.getTime() + "\n");
+            out.print("exhaustive " + result.isExhaustive() + "\n");
+            out.print("solutions " + result.getSolutions().size() + "\n");
+            for (Map<String, Integer> solution : result.getSolutions()) {
+                out.print(solution.entrySet().stream()
+                        .map(e -> e.getKey() + "\t" + e.getValue())
+                        .collect(Collectors.joining("\t")) + "\n");
+            }
+        }
+        Path file = directory.resolve(key + EXTENSION);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        remember(file, result);
+        evict();
+    }
+
+    /**
+     * Keeps a result in memory, forgetting all others once there are too many.
+     *
+     * @param file   the file of the result
+     * @param result the {@link CachedResult}
+     */
+    private static void remember(Path file, CachedResult result) {
+        if (MEMORY.size() >= MEMORY_CAPACITY) {
+            MEMORY.clear();
+        }
+        MEMORY.put(file, result);
+    }
+
+    /**
+     * Deletes the least recently used results until the rest fit the capacity.
+     *
+     * @throws IOException if the directory cannot be listed or locked
+     */
+    private void evict() throws IOException {
+        synchronized (EVICTING) {
+            evictLocked();
+        }
+    }
+
+    /**
+     * Deletes the least recently used results until the rest fit the capacity,
+     * while no other thread of this process is evicting.
+     *
+     * @throws IOException if the directory cannot be listed or locked
+     */
+    private void evictLocked() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(LOCK),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                deleteLeastRecentlyUsed();
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used results until the rest fit the capacity,
+     * while the {@link #LOCK} file is locked.
+     *
+     * @throws IOException if the directory cannot be listed
+     */
+    private void deleteLeastRecentlyUsed() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listed = Files.list(directory)) {
+            files = listed.filter(p -> p.toString().endsWith(EXTENSION)).collect(Collectors.toList());
+        }
+        List<long[]> stats = new ArrayList<>();
+        long total = 0;
+        for (int i = 0; i < files.size(); i++) {
+            try {
+                long size = Files.size(files.get(i));
+                stats.add(new long[]{Files.getLastModifiedTime(files.get(i)).toMillis(), size, i});
+                total += size;
+            } catch (NoSuchFileException e) {
+                // Replaced or deleted meanwhile.
+            }
+        }
+        stats.sort(Comparator.comparingLong(s -> s[0]));
+        for (long[] stat : stats) {
+            if (total <= capacity) {
+                break;
+            }
+            Files.deleteIfExists(files.get((int) stat[2]));
+            MEMORY.remove(files.get((int) stat[2]));
+            total -= stat[1];
+        }
+    }
+
+}
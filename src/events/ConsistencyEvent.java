@@ -0,0 +1,52 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event of making a problem consistent before the search.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+@Name("constraintsolver.InitialConsistency")
+@Label("Initial Consistency")
+@Category({"Constraint Solver", "Search"})
+@Description("Revising every variable before the search")
+@StackTrace(false)
+public final class ConsistencyEvent extends Event {
+
+    /** The solving algorithm. */
+    @Label("Algorithm")
+    public String algorithm;
+
+    /** The number of arc revisions made. */
+    @Label("Revisions")
+    public long revisions;
+
+    /** The number of constraint checks made. */
+    @Label("Constraint Checks")
+    public long checks;
+
+    /**
+     * Ends and commits this event, if it is being recorded.
+     * Called through {@link Events#endConsistency}.
+     *
+     * @param solver         the name of the solving algorithm
+     * @param revisionCount  the number of arc revisions made
+     * @param checkCount     the number of constraint checks made
+     */
+    void finish(String solver, long revisionCount, long checkCount) {
+        if (shouldCommit()) {
+            algorithm = solver;
+            revisions = revisionCount;
+            checks = checkCount;
+            commit();
+        }
+    }
+
+}
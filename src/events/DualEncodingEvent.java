@@ -0,0 +1,35 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event of encoding an N-ary problem as a binary problem.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@Name("constraintsolver.DualEncoding")
+@Label("Dual Encoding")
+@Category({"Constraint Solver", "Preparation"})
+@Description("Encoding an N-ary problem as a binary problem")
+@StackTrace(false)
+public final class DualEncodingEvent extends Event {
+
+    /** The number of binary variables, one per N-ary constraint. */
+    @Label("Variables")
+    public int variables;
+
+    /** The number of binary constraints. */
+    @Label("Constraints")
+    public int constraints;
+
+    /** The number of allowed pairs over all binary constraints. */
+    @Label("Tuples")
+    public long tuples;
+
+}
@@ -0,0 +1,138 @@
+package events;
+
+import binary.BinaryCSP;
+import jdk.jfr.FlightRecorder;
+import main.SolvingAlgorithm;
+
+/**
+ * Decides whether the JFR events of the solver are created.
+ * Loading the first event class initialises JFR, which slows down
+ * the start of every run by hundreds of milliseconds,
+ * so no event is created until a recording has been started,
+ * with -XX:StartFlightRecording or with jcmd JFR.start.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public final class Events {
+
+    /** Prevents instantiation. */
+    private Events() {
+    }
+
+    /** @return true iff JFR has been initialised by a recording */
+    public static boolean isRecording() {
+        return FlightRecorder.isInitialized();
+    }
+
+    /**
+     * Creates and begins a {@link ParseEvent}, if JFR is recording.
+     *
+     * @return the begun {@link ParseEvent}, or null if JFR is not recording
+     */
+    public static ParseEvent beginParse() {
+        if (!isRecording()) {
+            return null;
+        }
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits the given {@link ParseEvent} for a {@link BinaryCSP}.
+     *
+     * @param event    the {@link ParseEvent} from {@link #beginParse()}, may be null
+     * @param filename the problem file
+     * @param reader   the reader or format used
+     * @param csp      the read {@link BinaryCSP}
+     */
+    public static void endParse(ParseEvent event, String filename, String reader, BinaryCSP csp) {
+        if (event != null) {
+            event.finish(filename, reader, csp.getNumberOfVariables(), csp.getConstraints().size());
+        }
+    }
+
+    /**
+     * Ends and commits the given {@link ParseEvent}.
+     *
+     * @param event           the {@link ParseEvent} from {@link #beginParse()}, may be null
+     * @param filename        the problem file
+     * @param reader          the reader or format used
+     * @param variableCount   the number of variables read
+     * @param constraintCount the number of constraints read
+     */
+    public static void endParse(ParseEvent event, String filename, String reader,
+                                int variableCount, int constraintCount) {
+        if (event != null) {
+            event.finish(filename, reader, variableCount, constraintCount);
+        }
+    }
+
+    /**
+     * Creates and begins a {@link ConsistencyEvent}, if JFR is recording.
+     *
+     * @return the begun {@link ConsistencyEvent}, or null if JFR is not recording
+     */
+    public static ConsistencyEvent beginConsistency() {
+        if (!isRecording()) {
+            return null;
+        }
+        ConsistencyEvent event = new ConsistencyEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits the given {@link ConsistencyEvent}.
+     *
+     * @param event     the {@link ConsistencyEvent} from {@link #beginConsistency()}, may be null
+     * @param search    the {@link SolvingAlgorithm} made consistent
+     * @param revisions the number of arc revisions made
+     * @param checks    the number of constraint checks made
+     */
+    public static void endConsistency(ConsistencyEvent event, SolvingAlgorithm search,
+                                      long revisions, long checks) {
+        if (event != null) {
+            event.finish(search.getClass().getSimpleName(), revisions, checks);
+        }
+    }
+
+    /**
+     * Creates and begins a {@link SearchEvent} and starts sampling the search,
+     * if JFR is recording.
+     *
+     * @param search the {@link SolvingAlgorithm} that starts searching
+     *
+     * @return the begun {@link SearchEvent}, or null if JFR is not recording
+     */
+    public static SearchEvent beginSearch(SolvingAlgorithm search) {
+        if (!isRecording()) {
+            return null;
+        }
+        SearchSampler.begin(search);
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits the given {@link SearchEvent} and stops sampling the search.
+     *
+     * @param event     the {@link SearchEvent} from {@link #beginSearch}, may be null
+     * @param search    the {@link SolvingAlgorithm} that searched
+     * @param wanted    the number of solutions asked for
+     * @param found     the number of solutions found
+     * @param revisions the number of arc revisions made by the search
+     * @param checks    the number of constraint checks made by the search
+     */
+    public static void endSearch(SearchEvent event, SolvingAlgorithm search,
+                                 int wanted, int found, long revisions, long checks) {
+        if (event != null) {
+            SearchSampler.end(search);
+            event.finish(search.getClass().getSimpleName(), wanted, found,
+                    search.getNumberOfNodes(), revisions, checks);
+        }
+    }
+
+}
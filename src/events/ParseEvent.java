@@ -0,0 +1,67 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.io.File;
+
+/**
+ * The JFR event of reading a problem file.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@Name("constraintsolver.Parse")
+@Label("Parse")
+@Category({"Constraint Solver", "Load"})
+@Description("Reading a problem file")
+@StackTrace(false)
+public final class ParseEvent extends Event {
+
+    /** The problem file. */
+    @Label("File")
+    public String file;
+
+    /** The reader or format used. */
+    @Label("Format")
+    public String format;
+
+    /** The size of the file. */
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    /** The number of variables read. */
+    @Label("Variables")
+    public int variables;
+
+    /** The number of constraints read. */
+    @Label("Constraints")
+    public int constraints;
+
+    /**
+     * Ends and commits this event, if it is being recorded.
+     * Called through {@link Events#endParse}.
+     *
+     * @param filename         the problem file
+     * @param reader           the reader or format used
+     * @param variableCount    the number of variables read
+     * @param constraintCount  the number of constraints read
+     */
+    void finish(String filename, String reader, int variableCount, int constraintCount) {
+        if (shouldCommit()) {
+            file = filename;
+            format = reader;
+            bytes = new File(filename).length();
+            variables = variableCount;
+            constraints = constraintCount;
+            commit();
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event of a complete search.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+@Name("constraintsolver.Search")
+@Label("Search")
+@Category({"Constraint Solver", "Search"})
+@Description("Searching for solutions")
+@StackTrace(false)
+public final class SearchEvent extends Event {
+
+    /** The solving algorithm. */
+    @Label("Algorithm")
+    public String algorithm;
+
+    /** The number of solutions asked for. */
+    @Label("Solutions Wanted")
+    public int wanted;
+
+    /** The number of solutions found. */
+    @Label("Solutions Found")
+    public int found;
+
+    /** The number of search tree nodes. */
+    @Label("Nodes")
+    public long nodes;
+
+    /** The number of arc revisions made. */
+    @Label("Revisions")
+    public long revisions;
+
+    /** The number of constraint checks made. */
+    @Label("Constraint Checks")
+    public long checks;
+
+    /**
+     * Ends and commits this event, if it is being recorded.
+     * Called through {@link Events#endSearch}.
+     *
+     * @param solver         the name of the solving algorithm
+     * @param wantedCount    the number of solutions asked for
+     * @param foundCount     the number of solutions found
+     * @param nodeCount      the number of search tree nodes
+     * @param revisionCount  the number of arc revisions made
+     * @param checkCount     the number of constraint checks made
+     */
+    void finish(String solver, int wantedCount, int foundCount,
+                long nodeCount, long revisionCount, long checkCount) {
+        if (shouldCommit()) {
+            algorithm = solver;
+            wanted = wantedCount;
+            found = foundCount;
+            nodes = nodeCount;
+            revisions = revisionCount;
+            checks = checkCount;
+            commit();
+        }
+    }
+
+}
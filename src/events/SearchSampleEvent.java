@@ -0,0 +1,42 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * The periodic JFR event sampling the progress of a running search.
+ *
+ * @author 150009974
+ * @version 1.0
+ * @see SearchSampler
+ */
+@Name("constraintsolver.SearchSample")
+@Label("Search Sample")
+@Category({"Constraint Solver", "Search"})
+@Description("The depth and speed of a running search")
+@Period("1 s")
+@StackTrace(false)
+public final class SearchSampleEvent extends Event {
+
+    /** The solving algorithm. */
+    @Label("Algorithm")
+    public String algorithm;
+
+    /** The number of assigned variables. */
+    @Label("Depth")
+    public int depth;
+
+    /** The number of search tree nodes so far. */
+    @Label("Nodes")
+    public long nodes;
+
+    /** The number of nodes per second since the previous sample. */
+    @Label("Nodes per Second")
+    public double nodesPerSecond;
+
+}
@@ -0,0 +1,69 @@
+package events;
+
+import jdk.jfr.FlightRecorder;
+import main.SolvingAlgorithm;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emits a {@link SearchSampleEvent} for every running search,
+ * whenever JFR asks for the periodic event.
+ * The counters are read without synchronisation, so a sample may be
+ * slightly out of date, but the search is never slowed down.
+ * It is only used while {@link Events#isRecording()}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class SearchSampler {
+
+    /**
+     * The running searches, with the node count and time (in nanoseconds)
+     * of their previous sample.
+     */
+    private static final Map<SolvingAlgorithm, long[]> RUNNING = new ConcurrentHashMap<>();
+
+    static {
+        FlightRecorder.addPeriodicEvent(SearchSampleEvent.class, SearchSampler::sample);
+    }
+
+    /** Prevents instantiation. */
+    private SearchSampler() {
+    }
+
+    /**
+     * Starts sampling the given search.
+     *
+     * @param search the search that starts
+     */
+    public static void begin(SolvingAlgorithm search) {
+        RUNNING.put(search, new long[]{0, System.nanoTime()});
+    }
+
+    /**
+     * Stops sampling the given search.
+     *
+     * @param search the search that ended
+     */
+    public static void end(SolvingAlgorithm search) {
+        RUNNING.remove(search);
+    }
+
+    /** Emits one {@link SearchSampleEvent} per running search. */
+    private static void sample() {
+        long now = System.nanoTime();
+        RUNNING.forEach((search, previous) -> {
+            long nodes = search.getNumberOfNodes();
+            SearchSampleEvent event = new SearchSampleEvent();
+            event.algorithm = search.getClass().getSimpleName();
+            event.depth = search.getDepth();
+            event.nodes = nodes;
+            event.nodesPerSecond = (nodes - previous[0]) * 1e9 / Math.max(now - previous[1], 1);
+            event.commit();
+            previous[0] = nodes;
+            previous[1] = now;
+        });
+    }
+
+}
@@ -0,0 +1,39 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event of finding a solution.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@Name("constraintsolver.Solution")
+@Label("Solution")
+@Category({"Constraint Solver", "Search"})
+@Description("A solution was found")
+@StackTrace(false)
+public final class SolutionEvent extends Event {
+
+    /** The solving algorithm. */
+    @Label("Algorithm")
+    public String algorithm;
+
+    /** The number of this solution, starting from 1. */
+    @Label("Index")
+    public int index;
+
+    /** The number of search tree nodes before the solution. */
+    @Label("Nodes")
+    public long nodes;
+
+    /** The number of arc revisions before the solution. */
+    @Label("Revisions")
+    public long revisions;
+
+}
@@ -0,0 +1,39 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event of enumerating the valid assignments of an N-ary constraint.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@Name("constraintsolver.TableEnumeration")
+@Label("Table Enumeration")
+@Category({"Constraint Solver", "Preparation"})
+@Description("Enumerating the assignments that satisfy an N-ary constraint")
+@StackTrace(false)
+public final class TableEvent extends Event {
+
+    /** The expression of the constraint. */
+    @Label("Constraint")
+    public String constraint;
+
+    /** The number of variables in the constraint. */
+    @Label("Arity")
+    public int arity;
+
+    /** The number of assignments tried. */
+    @Label("Candidates")
+    public long candidates;
+
+    /** The number of valid assignments stored. */
+    @Label("Tuples")
+    public long tuples;
+
+}
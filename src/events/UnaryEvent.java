@@ -0,0 +1,31 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event of applying the unary constraints of an N-ary problem.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@Name("constraintsolver.UnaryApplication")
+@Label("Unary Application")
+@Category({"Constraint Solver", "Preparation"})
+@Description("Removing the values that violate unary constraints")
+@StackTrace(false)
+public final class UnaryEvent extends Event {
+
+    /** The number of unary constraints applied. */
+    @Label("Constraints")
+    public int constraints;
+
+    /** The number of values removed from the domains. */
+    @Label("Values Removed")
+    public long valuesRemoved;
+
+}
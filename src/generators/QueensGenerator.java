@@ -1,5 +1,8 @@
 package generators;
 
+import binary.CSPTextWriter;
+import binary.ModelSink;
+
 public final class QueensGenerator {
 
     public static void main(String[] args) {
@@ -8,28 +11,33 @@ public final class QueensGenerator {
             return;
         }
         int n = Integer.parseInt(args[0]);
-        System.out.println("//" + n + "-Queens.");
-        System.out.println("\n// Number of variables:\n" + n);
-        System.out.println("\n// Domains of the variables: 0.. (inclusive)");
-        for (int i = 0; i < n; i++) {
-            System.out.println("0, " + (n - 1));
-        }
-        System.out.println("\n// constraints (vars indexed from 0, allowed tuples):");
+        generate(n, new CSPTextWriter(System.out));
+    }
+
+    /**
+     * Describes the n-Queens problem to the given {@link ModelSink}.
+     * Variable i is the column of the queen in row i.
+     *
+     * @param n    the number of queens
+     * @param sink the {@link ModelSink} to describe the problem to
+     * @param <S>  the type of the {@link ModelSink}
+     *
+     * @return the given {@link ModelSink}
+     */
+    public static <S extends ModelSink> S generate(int n, S sink) {
+        sink.comment(n + "-Queens.");
+        sink.heading("Number of variables:");
+        sink.variables(n, 0, n - 1, "Domains of the variables: 0.. (inclusive)");
+        sink.heading("constraints (vars indexed from 0, allowed tuples):");
 
         for (int row1 = 0; row1 < n - 1; row1++) {
             for (int row2 = row1 + 1; row2 < n; row2++) {
-                System.out.println("c(" + row1 + ", " + row2 + ")");
-                for (int col1 = 0; col1 < n; col1++) {
-                    for (int col2 = 0; col2 < n; col2++) {
-                        if ((col1 != col2) &&
-                                (Math.abs(col1 - col2) != (row2 - row1))) {
-                            System.out.println(col1 + ", " + col2);
-                        }
-                    }
-                }
-                System.out.println();
+                int distance = row2 - row1;
+                sink.constraint(row1, row2, (col1, col2) -> (col1 != col2)
+                        && (Math.abs(col1 - col2) != distance));
             }
         }
+        return sink;
     }
 
 }
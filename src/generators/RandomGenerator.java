@@ -0,0 +1,111 @@
+package generators;
+
+import binary.CSPTextWriter;
+import binary.ModelSink;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public final class RandomGenerator {
+
+    public static void main(String[] args) {
+        if (args.length != 5) {
+            System.out.println("Usage: java generators.RandomGenerator <n> <d> <p1> <p2> <seed>");
+            System.out.println("for <n> variables with <d> values, constraint density <p1>");
+            System.out.println("and constraint tightness <p2> (model B)");
+            return;
+        }
+        int n = Integer.parseInt(args[0]);
+        int d = Integer.parseInt(args[1]);
+        double p1 = Double.parseDouble(args[2]);
+        double p2 = Double.parseDouble(args[3]);
+        long seed = Long.parseLong(args[4]);
+        generate(n, d, p1, p2, seed, new CSPTextWriter(System.out));
+    }
+
+    /**
+     * Describes a random binary CSP (model B) to the given {@link ModelSink}.
+     * There are n variables with the domain 0..d-1.
+     * Exactly round(p1 * n * (n - 1) / 2) distinct pairs of variables
+     * are constrained, each forbidding exactly round(p2 * d * d)
+     * distinct pairs of values.
+     * The same seed always gives the same problem.
+     *
+     * @param n    the number of variables
+     * @param d    the domain size
+     * @param p1   the density, the fraction of pairs of variables constrained
+     * @param p2   the tightness, the fraction of pairs of values forbidden
+     * @param seed the seed of the random choices
+     * @param sink the {@link ModelSink} to describe the problem to
+     * @param <S>  the type of the {@link ModelSink}
+     *
+     * @return the given {@link ModelSink}
+     */
+    public static <S extends ModelSink> S generate(int n, int d, double p1, double p2,
+                                                   long seed, S sink) {
+        if (p1 < 0 || p1 > 1 || p2 < 0 || p2 > 1) {
+            throw new IllegalArgumentException("p1 and p2 must be between 0 and 1");
+        }
+        Random random = new Random(seed);
+        sink.comment("Random binary CSP (model B) <n, d, p1, p2> = <"
+                + n + ", " + d + ", " + p1 + ", " + p2 + ">, seed " + seed);
+        sink.heading("Number of variables:");
+        sink.variables(n, 0, d - 1, "Domains of the variables: 0.. (inclusive)");
+        sink.heading("constraints (vars indexed from 0, allowed tuples):");
+
+        int pairCount = n * (n - 1) / 2;
+        int[] scopes = choose(pairCount, (int) Math.round(p1 * pairCount), random);
+        int forbiddenCount = (int) Math.round(p2 * d * d);
+        for (int scope : scopes) {
+            // Decode the index of the pair (i, j), i < j, in row-wise order.
+            int i = 0;
+            int rest = scope;
+            while (rest >= n - 1 - i) {
+                rest -= n - 1 - i;
+                i++;
+            }
+            int j = i + 1 + rest;
+
+            boolean[] forbidden = new boolean[d * d];
+            for (int pair : choose(d * d, forbiddenCount, random)) {
+                forbidden[pair] = true;
+            }
+            int[][] allowed = new int[d * d - forbiddenCount][];
+            int t = 0;
+            for (int pair = 0; pair < d * d; pair++) {
+                if (!forbidden[pair]) {
+                    allowed[t++] = new int[]{pair / d, pair % d};
+                }
+            }
+            sink.constraint(i, j, allowed);
+        }
+        return sink;
+    }
+
+    /**
+     * Chooses the given number of distinct integers from 0..total-1,
+     * by a partial Fisher-Yates shuffle.
+     *
+     * @param total  the number of integers to choose from
+     * @param amount the number of integers to choose
+     * @param random the source of randomness
+     *
+     * @return the chosen integers, in ascending order
+     */
+    private static int[] choose(int total, int amount, Random random) {
+        int[] all = new int[total];
+        for (int i = 0; i < total; i++) {
+            all[i] = i;
+        }
+        for (int i = 0; i < amount; i++) {
+            int k = i + random.nextInt(total - i);
+            int swap = all[i];
+            all[i] = all[k];
+            all[k] = swap;
+        }
+        int[] chosen = Arrays.copyOf(all, amount);
+        Arrays.sort(chosen);
+        return chosen;
+    }
+
+}
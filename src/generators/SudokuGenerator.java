@@ -1,71 +1,75 @@
 package generators;
 
+import binary.CSPTextWriter;
+import binary.ModelSink;
+import binary.types.PairPredicate;
+
 public final class SudokuGenerator {
 
+    /** The constraint is always the same != on the digits. */
+    private static final PairPredicate DIFFERENT = (val1, val2) -> val1 != val2;
+
     public static void main(String[] args) {
-        if (args.length != 0) {
-            System.out.println("Usage: java generators.SudokuGenerator");
+        if (args.length > 1) {
+            System.out.println("Usage: java generators.SudokuGenerator [<box size>]");
             return;
         }
-        System.out.println("//Sudoku.");
-        System.out.println("\n// Always 81 variables:\n" + 81);
-        System.out.println("\n// Domains of the variables: 1..9 (inclusive)");
-        System.out.println("\n// Edit the following to provide clues");
-        for (int i = 0; i < 81; i++) {
-            System.out.println("1, 9");
-        }
-        System.out.println("\n// constraints (vars indexed from 0, allowed tuples):");
+        int box = args.length == 1 ? Integer.parseInt(args[0]) : 3;
+        generate(box, new CSPTextWriter(System.out));
+    }
+
+    /**
+     * Describes an empty Sudoku to the given {@link ModelSink}.
+     * The grid has box * box rows, columns and digits
+     * and the variables are the cells in row-wise order.
+     *
+     * @param box  the size of a subsquare, 3 for the usual 9 x 9 Sudoku
+     * @param sink the {@link ModelSink} to describe the problem to
+     * @param <S>  the type of the {@link ModelSink}
+     *
+     * @return the given {@link ModelSink}
+     */
+    public static <S extends ModelSink> S generate(int box, S sink) {
+        int size = box * box;
+        sink.comment("Sudoku.");
+        sink.heading("Always " + size * size + " variables:");
+        sink.variables(size * size, 1, size, "Domains of the variables: 1.." + size + " (inclusive)",
+                "Edit the following to provide clues");
+        sink.heading("constraints (vars indexed from 0, allowed tuples):");
 
         // Rows
-        for (int row = 1; row <= 9; row++) {
-            System.out.println("//Row: " + row);
-            for (int col1 = 1; col1 <= 8; col1++) {
-                for (int col2 = col1 + 1; col2 <= 9; col2++) {
-                    System.out.println(
-                            "c(" + ((row - 1) * 9 + col1 - 1) + ", " + (
-                                    (row - 1) * 9 + col2 - 1) + ")");
-                    diseqTuples();
-                    System.out.println();
+        for (int row = 1; row <= size; row++) {
+            sink.comment("Row: " + row);
+            for (int col1 = 1; col1 < size; col1++) {
+                for (int col2 = col1 + 1; col2 <= size; col2++) {
+                    sink.constraint(cell(size, row, col1), cell(size, row, col2), DIFFERENT);
                 }
             }
         }
 
         // Cols
-        for (int col = 1; col <= 9; col++) {
-            System.out.println("//Col: " + col);
-            for (int row1 = 1; row1 <= 8; row1++) {
-                for (int row2 = row1 + 1; row2 <= 9; row2++) {
-                    System.out.println(
-                            "c(" + ((row1 - 1) * 9 + col - 1) + ", " + (
-                                    (row2 - 1) * 9 + col - 1) + ")");
-                    diseqTuples();
-                    System.out.println();
+        for (int col = 1; col <= size; col++) {
+            sink.comment("Col: " + col);
+            for (int row1 = 1; row1 < size; row1++) {
+                for (int row2 = row1 + 1; row2 <= size; row2++) {
+                    sink.constraint(cell(size, row1, col), cell(size, row2, col), DIFFERENT);
                 }
             }
         }
 
-        // 3 x 3 subsquares
-
-        for (int subRow = 1; subRow <= 7; subRow += 3) {
-            for (int subCol = 1; subCol <= 7; subCol += 3) {
-                System.out.println(
-                        "//Subsquare starting at row: " + subRow + ", col: "
-                                + subCol);
-                for (int row1 = subRow; row1 <= subRow + 2; row1++) {
-                    for (int col1 = subCol; col1 <= subCol + 2; col1++) {
-                        for (int row2 = row1; row2 <= subRow + 2; row2++) {
-                            for (int col2 = subCol;
-                                 col2 <= subCol + 2; col2++) {
+        // box x box subsquares
+        for (int subRow = 1; subRow <= size; subRow += box) {
+            for (int subCol = 1; subCol <= size; subCol += box) {
+                sink.comment("Subsquare starting at row: " + subRow + ", col: " + subCol);
+                for (int row1 = subRow; row1 < subRow + box; row1++) {
+                    for (int col1 = subCol; col1 < subCol + box; col1++) {
+                        for (int row2 = row1; row2 < subRow + box; row2++) {
+                            for (int col2 = subCol; col2 < subCol + box; col2++) {
                                 // break symmetry: only allow cell1 != cell2 where cell1 is less than cell2 in
                                 //   the row-wise ordering of the subsquare
                                 if ((row2 > row1) || (col2 > col1)) {
-                                    System.out.println(
-                                            "c(" + ((row1 - 1) * 9 + col1 - 1)
-                                                    + ", " + (
-                                                    (row2 - 1) * 9 + col2 - 1)
-                                                    + ")");
-                                    diseqTuples();
-                                    System.out.println();
+                                    sink.constraint(cell(size, row1, col1),
+                                            cell(size, row2, col2), DIFFERENT);
                                 }
                             }
                         }
@@ -73,19 +77,20 @@ public final class SudokuGenerator {
                 }
             }
         }
+        return sink;
     }
 
     /**
-     * The constraint is always the same != on 1..9 Only the
+     * Gives the index of the variable of the given cell.
+     *
+     * @param size the number of rows and columns
+     * @param row  the row of the cell, from 1
+     * @param col  the column of the cell, from 1
+     *
+     * @return the index of the variable, from 0
      */
-    private static void diseqTuples() {
-        for (int val1 = 1; val1 <= 9; val1++) {
-            for (int val2 = 1; val2 <= 9; val2++) {
-                if (val1 != val2) {
-                    System.out.println(val1 + ", " + val2);
-                }
-            }
-        }
+    private static int cell(int size, int row, int col) {
+        return (row - 1) * size + col - 1;
     }
 
 }
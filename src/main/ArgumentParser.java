@@ -1,14 +1,34 @@
 package main;
 
+import binary.BinaryCSP;
+import binary.algorithms.BinarySolving;
 import binary.algorithms.Solution;
+import binary.algorithms.TreeEstimate;
+import binary.algorithms.TreeEstimator;
+import binary.metrics.PrometheusWriter;
+import binary.metrics.SolveMetrics;
+import binary.presolve.PathConsistency;
+import binary.presolve.Presolver;
+import binary.trace.TraceRecorder;
+import cache.CachedResult;
+import cache.ProblemCache;
+import cache.ResultCache;
+import nary.algorithms.NarySolving;
+import nary.constraints.Assignment;
+import profile.ConstraintProfiler;
 
+import javax.management.JMException;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Provides a main method to run the system.
  *
  * @author 150009974
- * @version 3.1
+ * @version 3.16
  */
 public abstract class ArgumentParser {
 
@@ -27,11 +47,92 @@ public abstract class ArgumentParser {
     /** Index of the start consistent flag in the command line arguments. */
     private static final int START_CONSISTENT_INDEX = 4;
 
+    /** Index of the first option in the command line arguments. */
+    private static final int OPTIONS_INDEX = 5;
+
+    /** The option to simplify a {@link BinaryCSP} before solving. */
+    private static final String PRESOLVE = "presolve";
+
+    /** The option to make a {@link BinaryCSP} path consistent before solving. */
+    private static final String PATH_CONSISTENCY = "pc";
+
+    /**
+     * The option to make a {@link BinaryCSP} partially path consistent
+     * before solving, without adding constraints.
+     */
+    private static final String PARTIAL_PATH_CONSISTENCY = "ppc";
+
+    /** The option to report how long reading the problem took. */
+    protected static final String LOAD_REPORT = "load";
+
+    /** The option to parse the problem file on all processors. */
+    protected static final String PARALLEL_LOAD = "parallel";
+
+    /** The option to parse the tuples of each constraint on its first revision. */
+    protected static final String LAZY_LOAD = "lazy";
+
+    /** The option to record a binary trace of the search next to the problem file. */
+    protected static final String TRACE = "trace";
+
+    /** The extension added to the problem file to name its trace. */
+    private static final String TRACE_EXTENSION = ".trace";
+
+    /** The option to publish the live counters of the search as a JMX MBean. */
+    protected static final String JMX = "jmx";
+
+    /** The option to write the live counters of the search in the Prometheus text format. */
+    protected static final String METRICS = "metrics";
+
+    /** The extension added to the problem file to name its Prometheus metrics. */
+    private static final String METRICS_EXTENSION = ".prom";
+
+    /** The option to measure the cost of every constraint and report the most expensive. */
+    protected static final String PROFILE = "profile";
+
+    /** The option to estimate the search tree by random probes before solving. */
+    protected static final String ESTIMATE = "estimate";
+
+    /** The option to print the estimated progress of the search periodically. */
+    protected static final String PROGRESS = "progress";
+
+    /** The option to answer from, and store the result in, the on-disk {@link ResultCache}. */
+    protected static final String RESULTS = "results";
+
     /** A reference to the command line arguments, to avoid method arguments. */
     private String[] args;
 
-    /** The solving algorithm to use. */
-    private SolvingAlgorithm alg;
+    /** The solving algorithm to use, which another thread may {@link #stop()}. */
+    private volatile SolvingAlgorithm alg;
+
+    /** Whether the run has been asked to stop. */
+    private volatile boolean stopRequested = false;
+
+    /** The {@link Presolver} applied to the problem, if any. */
+    private Presolver presolver;
+
+    /** Whether preprocessing proved that the problem has no solutions. */
+    private boolean unsatisfiable = false;
+
+    /** The cost of every phase of the run. */
+    private SolveReport report = new SolveReport();
+
+    /** The live counters of the search, if they were requested. */
+    private SolveMetrics metrics;
+
+    /** The writer of the {@link #metrics} in the Prometheus text format, if requested. */
+    private PrometheusWriter prometheus;
+
+    /** The {@link ProblemCache} to load the problem through, if any. */
+    private ProblemCache cache;
+
+    /** The {@link ResultCache} to answer from, if the "results" option was given. */
+    private ResultCache results;
+
+    /** The key of the result in the {@link #results}. */
+    private String resultKey;
+
+    /** The result found in the {@link #results}, if any. */
+    private CachedResult cachedResult;
 
     /**
      * Constructs an {@link ArgumentParser} with the given arguments.
@@ -52,29 +153,270 @@ public abstract class ArgumentParser {
         if (!areArgsValid()) {
             return null;
         }
-        Logging.setLogConfig(parseLoggingConfiguration());
         alg = getAlgorithm(args[CSP_INDEX], args[ALG_INDEX]);
         if (alg == null) {
             return null;
         }
+        if (stopRequested) {
+            alg.stop();
+        }
+        if (cachedResult != null) {
+            return cachedSolutions();
+        }
+        if (unsatisfiable) {
+            // There is nothing to search for.
+            LinkedHashSet<Solution> none = new LinkedHashSet<>();
+            storeResult(none, parseSolutionCount());
+            return none;
+        }
+        // The probes run before any listener is attached, so they are not reported.
+        TreeEstimate estimate = null;
+        if (hasOption(ESTIMATE) && alg instanceof BinarySolving) {
+            estimate = new TreeEstimator((BinarySolving) alg, System.nanoTime())
+                    .estimate(TreeEstimator.DEFAULT_PROBES, startConsistent());
+            System.out.println(estimate);
+        }
+        int log = parseLoggingConfiguration();
+        if (log != 0 && alg instanceof BinarySolving) {
+            ((BinarySolving) alg).addListener(new Logging(log));
+        }
+        TraceRecorder trace = null;
+        if (hasOption(TRACE) && alg instanceof BinarySolving) {
+            try {
+                trace = new TraceRecorder(args[CSP_INDEX] + TRACE_EXTENSION);
+                ((BinarySolving) alg).addListener(trace);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        startMetrics();
+        ConstraintProfiler profiler = null;
+        if (hasOption(PROFILE)) {
+            profiler = createProfiler();
+            if (alg instanceof BinarySolving) {
+                ((BinarySolving) alg).addListener(profiler);
+            } else if (alg instanceof NarySolving) {
+                ((NarySolving) alg).setProfiler(profiler);
+            }
+        }
         int count = parseSolutionCount();
         boolean consistentStart = startConsistent();
-        return alg.solve(count, consistentStart);
+        alg.setReport(report);
+        ProgressReporter progress = null;
+        if (hasOption(PROGRESS)) {
+            progress = new ProgressReporter(alg, estimate == null ? 0 : estimate.getNodes());
+        }
+        LinkedHashSet<?> solutions;
+        if (alg instanceof BinarySolving) {
+            LinkedHashSet<Solution> found = ((BinarySolving) alg).solve(count, consistentStart);
+            solutions = presolver == null ? found : presolver.reattach(found, count);
+        } else {
+            solutions = alg.solve(count, consistentStart);
+        }
+        if (progress != null) {
+            progress.close();
+        }
+        stopMetrics();
+        if (profiler != null) {
+            System.out.println(profiler.report(ConstraintProfiler.DEFAULT_TOP));
+        }
+        if (trace != null) {
+            try {
+                trace.close();
+                System.out.println(trace.report());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        storeResult(solutions, count);
+        return solutions;
+    }
+
+    /**
+     * Looks the problem up in the {@link ResultCache} if the "results" option was given.
+     * Subclasses call this once the problem is loaded and before it is preprocessed.
+     * The key includes everything in the command line arguments that changes the search.
+     *
+     * @param fingerprint computes the {@link cache.Fingerprint} of the loaded problem
+     */
+    protected void lookupResult(Supplier<String> fingerprint) {
+        if (!hasOption(RESULTS)) {
+            return;
+        }
+        try {
+            results = ResultCache.open();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        String algname = args[ALG_INDEX].equalsIgnoreCase("MAC") ? "MAC3" : args[ALG_INDEX].toUpperCase();
+        StringBuilder search = new StringBuilder(algname).append(startConsistent() ? "+consistent" : "");
+        for (String option : new String[]{PRESOLVE, PATH_CONSISTENCY, PARTIAL_PATH_CONSISTENCY}) {
+            if (hasOption(option)) {
+                search.append('+').append(option);
+            }
+        }
+        long start = System.nanoTime();
+        String print = fingerprint.get();
+        long fingerprinted = System.nanoTime();
+        resultKey = ResultCache.key(print, search.toString(), parseSolutionCount());
+        cachedResult = results.get(resultKey);
+        if (cachedResult != null) {
+            System.out.printf("Result cache: hit in %d microseconds (fingerprint %s computed in %d microseconds)%n",
+                    (System.nanoTime() - fingerprinted) / 1000, print.substring(0, 16), (fingerprinted - start) / 1000);
+        }
+    }
+
+    /**
+     * Rebuilds the solutions of the {@link #cachedResult}
+     * as {@link Solution}s of a binary problem or {@link Assignment}s of an n-ary one.
+     *
+     * @return the cached solutions
+     */
+    private LinkedHashSet<Map<?, Integer>> cachedSolutions() {
+        LinkedHashSet<Map<?, Integer>> solutions = new LinkedHashSet<>();
+        for (Map<String, Integer> stored : cachedResult.getSolutions()) {
+            if (alg instanceof BinarySolving) {
+                Solution solution = new Solution(Collections.emptyList());
+                stored.forEach((var, value) -> solution.put(Integer.parseInt(var), value));
+                solutions.add(solution);
+            } else {
+                Assignment assignment = new Assignment();
+                assignment.putAll(stored);
+                solutions.add(assignment);
+            }
+        }
+        return solutions;
+    }
+
+    /**
+     * Stores the solutions and statistics of a completed search in the {@link ResultCache},
+     * if the problem was looked up in it.
+     * A search stopped before it completed is not stored.
+     *
+     * @param solutions the found solutions
+     * @param count     the number of solutions asked for
+     */
+    @SuppressWarnings("unchecked")
+    private void storeResult(LinkedHashSet<?> solutions, int count) {
+        if (resultKey == null || alg.isStopped()) {
+            return;
+        }
+        // Finding fewer solutions than asked for means the whole tree was explored.
+        boolean exhaustive = count <= 0 || solutions.size() < count;
+        CachedResult result = new CachedResult(alg.getNumberOfNodes(), alg.getRevisions(),
+                alg.getConstraintChecks(), alg.getSolutionTime(), exhaustive);
+        solutions.forEach(solution -> result.addSolution((Map<?, Integer>) solution));
+        try {
+            results.put(resultKey, result);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Attaches {@link SolveMetrics} to a {@link BinarySolving} search
+     * and publishes them as requested in the command line arguments.
+     */
+    private void startMetrics() {
+        if (!(hasOption(JMX) || hasOption(METRICS)) || !(alg instanceof BinarySolving)) {
+            return;
+        }
+        metrics = new SolveMetrics(args[ALG_INDEX].toUpperCase(), args[CSP_INDEX], alg.trackProgress());
+        ((BinarySolving) alg).addListener(metrics);
+        if (hasOption(JMX)) {
+            try {
+                metrics.register();
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+        }
+        if (hasOption(METRICS)) {
+            prometheus = new PrometheusWriter(args[CSP_INDEX] + METRICS_EXTENSION, metrics);
+        }
+    }
+
+    /** Completes the {@link SolveMetrics}, if any, and stops publishing them. */
+    private void stopMetrics() {
+        if (metrics == null) {
+            return;
+        }
+        metrics.finish();
+        try {
+            metrics.unregister();
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+        if (prometheus != null) {
+            try {
+                prometheus.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Creates the {@link ConstraintProfiler} for the "profile" option.
+     * Subclasses may describe the constraints in terms of the original problem.
+     *
+     * @return a new {@link ConstraintProfiler}
+     */
+    protected ConstraintProfiler createProfiler() {
+        return new ConstraintProfiler();
+    }
+
+    /** @param problemCache the {@link ProblemCache} to load the problem through */
+    public void setCache(ProblemCache problemCache) {
+        cache = problemCache;
+    }
+
+    /**
+     * Returns the {@link ProblemCache} to load the problem through.
+     * Subclasses solve, and preprocess, a fork of the cached problem.
+     *
+     * @return the {@link ProblemCache}, or null if the problem should be loaded anew
+     */
+    protected ProblemCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Asks the search of this run to stop before its next node,
+     * keeping the solutions found so far.
+     * Any thread may call this, and a search that has not started yet stops at once.
+     */
+    public void stop() {
+        stopRequested = true;
+        SolvingAlgorithm running = alg;
+        if (running != null) {
+            running.stop();
+        }
+    }
+
+    /** @return the {@link SolveReport} with the cost of every phase of the run */
+    public SolveReport getReport() {
+        return report;
     }
 
     /** @return the solving algorithm's total execution time */
     public long getExecutionTime() {
-        return alg.getSolutionTime();
+        return cachedResult != null ? cachedResult.getTime() : alg.getSolutionTime();
     }
 
     /** @return the number of nodes created during the algorithm's execution */
     public long getSearchTreeNodes() {
-        return alg.getNumberOfNodes();
+        return cachedResult != null ? cachedResult.getNodes() : alg.getNumberOfNodes();
     }
 
     /** @return the total number of revisions made during solving */
     public long getArcRevisions() {
-        return alg.getRevisions();
+        return cachedResult != null ? cachedResult.getRevisions() : alg.getRevisions();
+    }
+
+    /** @return the total number of constraint checks made during solving */
+    public long getConstraintChecks() {
+        return cachedResult != null ? cachedResult.getChecks() : alg.getConstraintChecks();
     }
 
     /**
@@ -84,21 +426,77 @@ public abstract class ArgumentParser {
      * @return true iff the arguments are usable
      */
     private boolean areArgsValid() {
-        if (COUNT_INDEX <= args.length
-                && args.length <= START_CONSISTENT_INDEX + 1) {
+        if (COUNT_INDEX <= args.length) {
             return true;
         }
 
-        System.out.println("Usage: java main.<class> <alg> <csp> [<count>, <log>, <consistent flag>]");
+        System.out.println("Usage: java main.<class> <alg> <csp> [<count>, <log>, <consistent flag>, <options>...]");
         System.out.println("<class> must be one of \"Basic\" or \"DualRepresentation\" ");
         System.out.println("<alg> must be one of \"FC\" or \"MAC3\"");
         System.out.println("<csp> must be a .csp file");
         System.out.print("<count> is the number of solutions to find");
         System.out.println(", defaults to 1");
         System.out.println("<log> is the level of logging to the screen");
+        System.out.print("<options> can be \"" + PRESOLVE + "\", \"" + PATH_CONSISTENCY + "\" or \"");
+        System.out.println(PARTIAL_PATH_CONSISTENCY + "\" to preprocess binary problems");
+        System.out.print("or \"" + LOAD_REPORT + "\" to report the parse throughput");
+        System.out.print(", \"" + PARALLEL_LOAD + "\" to parse on all processors");
+        System.out.println(" or \"" + LAZY_LOAD + "\" to parse tuples on first use");
+        System.out.println("or \"" + TRACE + "\" to record a binary search trace to <csp>" + TRACE_EXTENSION);
+        System.out.print("or \"" + JMX + "\" to publish live search counters as a JMX MBean");
+        System.out.println(" or \"" + METRICS + "\" to write them to <csp>" + METRICS_EXTENSION + " every second");
+        System.out.println("or \"" + PROFILE + "\" to report the most expensive constraints");
+        System.out.print("or \"" + ESTIMATE + "\" to estimate the search tree of binary problems first");
+        System.out.println(" or \"" + PROGRESS + "\" to print the search progress every 10 seconds");
+        System.out.println("or \"" + RESULTS + "\" to answer repeated queries from the on-disk result cache");
+        return false;
+    }
+
+    /**
+     * Determines whether the given option is among the command line arguments.
+     *
+     * @param option the option to look for
+     *
+     * @return true iff the option was given
+     */
+    protected boolean hasOption(String option) {
+        for (int i = OPTIONS_INDEX; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase(option)) {
+                return true;
+            }
+        }
         return false;
     }
 
+    /**
+     * Applies the preprocessing requested in the command line arguments
+     * to the given {@link BinaryCSP} and reports what it did.
+     * If the preprocessing proves that there are no solutions,
+     * the search is skipped.
+     *
+     * @param csp the {@link BinaryCSP} to preprocess
+     */
+    protected void preprocess(BinaryCSP csp) {
+        if (cachedResult != null) {
+            return;
+        }
+        if (hasOption(PRESOLVE)) {
+            report.begin(SolveReport.PREPROCESS);
+            presolver = new Presolver(csp);
+            unsatisfiable = !presolver.apply();
+            report.end();
+            System.out.println(presolver.report());
+        }
+        if (!unsatisfiable && (hasOption(PATH_CONSISTENCY) || hasOption(PARTIAL_PATH_CONSISTENCY))) {
+            boolean full = hasOption(PATH_CONSISTENCY);
+            report.begin(SolveReport.PREPROCESS);
+            PathConsistency pc = new PathConsistency(csp, full);
+            unsatisfiable = !pc.apply();
+            report.end();
+            System.out.println(pc.report());
+        }
+    }
+
     /**
      * Instantiates and returns a {@link SolvingAlgorithm},
      * depending on the command line arguments.
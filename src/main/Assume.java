@@ -0,0 +1,328 @@
+package main;
+
+import nary.Assumptions;
+import nary.ECSPReader;
+import nary.ECSProblem;
+import nary.algorithms.NaryForwardChecking;
+import nary.algorithms.NaryMaintainingArcConsistency;
+import nary.algorithms.NarySolving;
+import nary.constraints.Assignment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides a main method to solve one N-ary model under many sets of {@link Assumptions},
+ * such as one Sudoku model under the clues of many puzzles.
+ * The model is read and prepared once, and every worker thread solves a fork of it,
+ * which shares the tables of its constraints.
+ * For every line of the assumptions file the fork is restored, the assumptions applied
+ * and the problem solved, so nothing is parsed, enumerated or encoded again.
+ * The lines are solved in chunks in parallel, and the results are written in order,
+ * one line per set of assumptions.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public class Assume {
+
+    /** The setting with the algorithm to solve with, FC or MAC3. */
+    private static final String ALGORITHM = "algorithm=";
+
+    /** The setting with the number of worker threads. */
+    private static final String WORKERS = "workers=";
+
+    /** The setting with the number of solutions to find per set of assumptions. */
+    private static final String COUNT = "count=";
+
+    /** The setting with the number of sets of assumptions a worker solves at a time. */
+    private static final String CHUNK = "chunk=";
+
+    /** The setting with the file to write the results to, instead of standard output. */
+    private static final String OUT = "out=";
+
+    /** The setting to leave out the unary constraints of the model, such as example clues. */
+    private static final String NO_UNARY = "nounary";
+
+    /** The stack size (in bytes) of the worker threads, as the search recurses per node. */
+    private static final long STACK_BYTES = 64 * 1024 * 1024;
+
+    /** The prepared model. */
+    private ECSProblem model;
+
+    /** The names of the variables of the {@link #model} in the order of declaration. */
+    private final List<String> variables = new ArrayList<>();
+
+    /** The algorithm to solve with. */
+    private String algorithm = "MAC3";
+
+    /** The number of worker threads. */
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    /** The number of solutions to find per set of assumptions, 0 finds all of them. */
+    private int count = 1;
+
+    /** The number of sets of assumptions a worker solves at a time. */
+    private int chunk = 256;
+
+    /** The file to write the results to, or null for standard output. */
+    private String outFile;
+
+    /** Whether the unary constraints of the model are left out. */
+    private boolean noUnary = false;
+
+    /** The fork of the {@link #model} of each worker thread. */
+    private ThreadLocal<ECSProblem> forks;
+
+    /** The number of sets of assumptions with a solution. */
+    private final AtomicInteger satisfied = new AtomicInteger();
+
+    /** The number of sets of assumptions without a solution. */
+    private final AtomicInteger unsatisfiable = new AtomicInteger();
+
+    /** The number of lines that could not be parsed or applied. */
+    private final AtomicInteger invalid = new AtomicInteger();
+
+    /**
+     * Solves a model under every set of assumptions in a file.
+     * The arguments are the model, the file of assumptions, one set per line,
+     * and settings of the form name=value: algorithm=FC|MAC3, workers=N,
+     * count=N (2 checks that solutions are unique), chunk=N, out=FILE
+     * and the bare word nounary.
+     *
+     * @param args the model, the assumptions file and the settings
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: java main.Assume <ecsp> <assumptions> [settings...]");
+            System.out.println("settings: " + ALGORITHM + "FC|MAC3, " + WORKERS + "N, " + COUNT + "N, "
+                    + CHUNK + "N, " + OUT + "FILE, " + NO_UNARY);
+            System.out.println("<assumptions> has one set per line, either name=v1,v2 and name!=v1,v2");
+            System.out.println("or one digit 1-9, '.' or '0' per variable, as Sudoku puzzles are written");
+            return;
+        }
+        Assume assume = new Assume();
+        try {
+            assume.parse(args);
+            assume.prepare(args[0]);
+            assume.runAll(args[1]);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Parses the settings in the command line arguments.
+     *
+     * @param args the command line arguments
+     */
+    private void parse(String[] args) {
+        for (int i = 2; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith(ALGORITHM)) {
+                algorithm = arg.substring(ALGORITHM.length()).toUpperCase();
+            } else if (arg.startsWith(WORKERS)) {
+                workers = Integer.parseInt(arg.substring(WORKERS.length()));
+            } else if (arg.startsWith(COUNT)) {
+                count = Integer.parseInt(arg.substring(COUNT.length()));
+            } else if (arg.startsWith(CHUNK)) {
+                chunk = Integer.parseInt(arg.substring(CHUNK.length()));
+            } else if (arg.startsWith(OUT)) {
+                outFile = arg.substring(OUT.length());
+            } else if (arg.equalsIgnoreCase(NO_UNARY)) {
+                noUnary = true;
+            } else {
+                throw new IllegalArgumentException("Unknown setting: " + arg);
+            }
+        }
+        if (!algorithm.equals("FC") && !algorithm.equals("MAC") && !algorithm.equals("MAC3")) {
+            throw new IllegalArgumentException("Unknown algorithm: " + algorithm + ", use one of FC or MAC3");
+        }
+    }
+
+    /**
+     * Reads and prepares the model once.
+     *
+     * @param filename the ecsp file of the model
+     */
+    private void prepare(String filename) {
+        long start = System.nanoTime();
+        model = ECSPReader.parse(filename);
+        if (noUnary) {
+            model.setUnary(new LinkedHashSet<>());
+        }
+        model.prepare();
+        model.forEachVariable((name, var) -> variables.add(name));
+        forks = ThreadLocal.withInitial(model::fork);
+        System.out.printf("Model: %d variables and %d constraints prepared in %.1f milliseconds%n",
+                variables.size(), model.getNumberOfNaryConstraints(), (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Solves the model under every set of assumptions and writes the results.
+     *
+     * @param filename the file of assumptions, one set per line
+     *
+     * @throws IOException if the assumptions cannot be read or the results written
+     */
+    private void runAll(String filename) throws IOException {
+        PrintStream sink = outFile == null ? System.out : new PrintStream(outFile, "UTF-8");
+        AtomicInteger created = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(null, r, "assume-worker-" + created.incrementAndGet(), STACK_BYTES);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Every worker may have one chunk being solved and one waiting.
+        Semaphore inProgress = new Semaphore(2 * workers);
+        ArrayDeque<CompletableFuture<List<String>>> pending = new ArrayDeque<>();
+        int lines = 0;
+        long start = System.nanoTime();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8)) {
+            List<String> next = new ArrayList<>(chunk);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                next.add(line);
+                lines++;
+                if (next.size() == chunk) {
+                    submit(next, pool, inProgress, pending);
+                    next = new ArrayList<>(chunk);
+                    writeFinished(pending, sink, false);
+                }
+            }
+            if (!next.isEmpty()) {
+                submit(next, pool, inProgress, pending);
+            }
+        }
+        writeFinished(pending, sink, true);
+        pool.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (sink != System.out) {
+            sink.close();
+        }
+        System.out.printf("Assume: %d sets of assumptions in %.3f seconds (%.1f per second) on %d workers, "
+                        + "%d satisfiable, %d unsatisfiable, %d invalid%n",
+                lines, seconds, seconds == 0 ? 0 : lines / seconds, workers,
+                satisfied.get(), unsatisfiable.get(), invalid.get());
+    }
+
+    /**
+     * Submits a chunk of lines to the workers, waiting while too many chunks are in progress.
+     *
+     * @param lines      the lines of the chunk
+     * @param pool       the worker threads
+     * @param inProgress the permits of the chunks in progress
+     * @param pending    the results of the chunks not written yet, in order
+     */
+    private void submit(List<String> lines, ExecutorService pool, Semaphore inProgress,
+                        ArrayDeque<CompletableFuture<List<String>>> pending) {
+        inProgress.acquireUninterruptibly();
+        pending.add(CompletableFuture.supplyAsync(() -> solveChunk(lines), pool)
+                .whenComplete((r, failure) -> inProgress.release()));
+    }
+
+    /**
+     * Writes the results of the chunks that have finished, in order.
+     *
+     * @param pending the results of the chunks not written yet, in order
+     * @param sink    where the results are written
+     * @param all     whether to wait for every chunk rather than only write the finished ones
+     */
+    private static void writeFinished(ArrayDeque<CompletableFuture<List<String>>> pending,
+                                      PrintStream sink, boolean all) {
+        while (!pending.isEmpty() && (all || pending.peek().isDone())) {
+            pending.poll().join().forEach(sink::println);
+        }
+        sink.flush();
+    }
+
+    /**
+     * Solves the model under every set of assumptions of a chunk.
+     *
+     * @param lines the lines of the chunk
+     *
+     * @return the result of every line
+     */
+    private List<String> solveChunk(List<String> lines) {
+        ECSProblem fork = forks.get();
+        List<String> results = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            results.add(solve(fork, line));
+        }
+        return results;
+    }
+
+    /**
+     * Solves the model under one set of assumptions.
+     * The result is the number of solutions found and the first of them,
+     * as the values of the variables in the order of declaration,
+     * or "invalid" and the reason the line could not be used.
+     *
+     * @param fork the fork of the {@link #model} of the current thread
+     * @param line the set of assumptions
+     *
+     * @return the result
+     */
+    private String solve(ECSProblem fork, String line) {
+        // Retracts the assumptions of the previous line and what they pruned.
+        fork.restore();
+        try {
+            Assumptions.parse(line, variables).apply(fork);
+        } catch (IllegalArgumentException e) {
+            invalid.incrementAndGet();
+            return "invalid " + e.getMessage();
+        }
+        NarySolving alg = algorithm.equals("FC") ? new NaryForwardChecking(fork)
+                : new NaryMaintainingArcConsistency(fork);
+        // Revisions only prune by assigned values, so nothing is pruned before the first assignment.
+        LinkedHashSet<Assignment> solutions = alg.solve(count, false);
+        if (solutions.isEmpty()) {
+            unsatisfiable.incrementAndGet();
+            return "0";
+        }
+        satisfied.incrementAndGet();
+        return solutions.size() + " " + format(solutions.iterator().next());
+    }
+
+    /**
+     * Writes a solution as the values of the variables in the order of declaration,
+     * as digits if they all are, otherwise separated by commas.
+     *
+     * @param solution the solution
+     *
+     * @return the written solution
+     */
+    private String format(Assignment solution) {
+        boolean digits = true;
+        for (String name : variables) {
+            int value = solution.get(name);
+            digits &= value >= 0 && value <= 9;
+        }
+        StringBuilder written = new StringBuilder();
+        for (String name : variables) {
+            if (!digits && written.length() > 0) {
+                written.append(',');
+            }
+            written.append(solution.get(name));
+        }
+        return written.toString();
+    }
+
+}
@@ -0,0 +1,185 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Represents stored benchmark results to compare new results against.
+ * Both the CSV written by {@link Benchmark} and the older CSV
+ * with averages per algorithm, such as data/queens_optimized.csv, are read.
+ * An average has no confidence interval, since a single value would be
+ * flagged by almost any new result, so it is widened by a relative tolerance,
+ * and the changes found against it are labelled as such.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public final class Baseline {
+
+    /** The algorithms whose columns appear in the older CSV. */
+    private static final String[] OLD_ALGORITHMS = {"FC", "MAC3"};
+
+    /** The columns of the older CSV and the metrics they correspond to. */
+    private static final String[][] OLD_COLUMNS = {
+            {"time", "solve_ms"}, {"nodes", "nodes"}, {"revisions", "revisions"}
+    };
+
+    /**
+     * The confidence interval of each metric of each cell.
+     * Cells are identified by {@link #key(String, String, String)}.
+     */
+    private Map<String, Map<String, double[]>> intervals = new HashMap<>();
+
+    /** The relative tolerance of the averages of the older CSV. */
+    private final double tolerance;
+
+    /** Whether the cells are averages of the older CSV rather than confidence intervals. */
+    private boolean averages = false;
+
+    /**
+     * Creates an empty {@link Baseline}.
+     *
+     * @param tolerance the relative tolerance of the averages of the older CSV
+     */
+    private Baseline(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Reads a {@link Baseline} from the given CSV file.
+     *
+     * @param filename  the CSV file to read
+     * @param tolerance the relative tolerance of the averages of the older CSV,
+     *                  such as 0.1 for values within 10% of them
+     *
+     * @return the read {@link Baseline}
+     *
+     * @throws IOException if the file cannot be read
+     */
+    public static Baseline load(String filename, double tolerance) throws IOException {
+        Baseline baseline = new Baseline(tolerance);
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            String[] header = reader.readLine().split(",");
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                columns.put(header[i].trim(), i);
+            }
+            boolean old = !columns.containsKey("algorithm");
+            baseline.averages = old;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (old) {
+                    baseline.readOld(columns, fields);
+                } else {
+                    baseline.readNew(columns, fields);
+                }
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Stores the averages of a row of the older CSV, widened by the {@link #tolerance}.
+     *
+     * @param columns the index of each named column
+     * @param fields  the fields of the row
+     */
+    private void readOld(Map<String, Integer> columns, String[] fields) {
+        String problem = fields[columns.get("problem name")];
+        for (String algorithm : OLD_ALGORITHMS) {
+            Map<String, double[]> cell = new HashMap<>();
+            for (String[] column : OLD_COLUMNS) {
+                Integer index = columns.get(algorithm + " " + column[0]);
+                if (index != null) {
+                    double value = Double.parseDouble(fields[index]);
+                    cell.put(column[1], new double[]{value * (1 - tolerance), value * (1 + tolerance)});
+                }
+            }
+            intervals.put(key(problem, algorithm, ""), cell);
+        }
+    }
+
+    /**
+     * Stores the confidence intervals of a row written by {@link Benchmark}.
+     *
+     * @param columns the index of each named column
+     * @param fields  the fields of the row
+     */
+    private void readNew(Map<String, Integer> columns, String[] fields) {
+        String problem = fields[columns.get("problem")];
+        String algorithm = fields[columns.get("algorithm")];
+        String options = fields[columns.get("options")];
+        Map<String, double[]> cell = new HashMap<>();
+        for (String metric : Measurement.METRICS) {
+            Integer low = columns.get(metric + "_ci_low");
+            Integer high = columns.get(metric + "_ci_high");
+            if (low != null && high != null && !fields[low].isEmpty()) {
+                cell.put(metric, new double[]{
+                        Double.parseDouble(fields[low]), Double.parseDouble(fields[high])
+                });
+            }
+        }
+        intervals.put(key(problem, algorithm, options), cell);
+    }
+
+    /**
+     * Creates the key of a cell.
+     *
+     * @param problem   the problem file
+     * @param algorithm the algorithm
+     * @param options   the solver options
+     *
+     * @return the key of the cell
+     */
+    private static String key(String problem, String algorithm, String options) {
+        return problem + "," + algorithm.toUpperCase() + "," + options;
+    }
+
+    /**
+     * Compares a new result with this {@link Baseline}.
+     * A change is significant when the confidence intervals do not overlap,
+     * or when the new interval lies outside the tolerance of an average.
+     * Lower values are always better.
+     *
+     * @param problem   the problem file
+     * @param algorithm the algorithm
+     * @param options   the solver options
+     * @param metric    the name of the metric
+     * @param now       the {@link Summary} of the new result
+     *
+     * @return a description of a significant change, or null if there is none
+     */
+    public String compare(String problem, String algorithm, String options,
+                          String metric, Summary now) {
+        Map<String, double[]> cell = intervals.get(key(problem, algorithm, options));
+        if (cell == null || !cell.containsKey(metric)) {
+            return null;
+        }
+        double[] before = cell.get(metric);
+        String verdict;
+        if (now.getLow() > before[1]) {
+            verdict = "REGRESSION";
+        } else if (now.getHigh() < before[0]) {
+            verdict = "IMPROVEMENT";
+        } else {
+            return null;
+        }
+        double baseline = (before[0] + before[1]) / 2;
+        double change = baseline == 0 ? Double.POSITIVE_INFINITY
+                : 100 * (now.getMedian() - baseline) / baseline;
+        String label = averages
+                ? String.format(", against an average with a %.0f%% tolerance", 100 * tolerance) : "";
+        return String.format("%s %s %s %s %s: %.3f [%.3f, %.3f] -> %.3f [%.3f, %.3f] (%+.1f%%%s)",
+                verdict, problem, algorithm, options.isEmpty() ? "-" : options, metric,
+                baseline, before[0], before[1],
+                now.getMedian(), now.getLow(), now.getHigh(), change, label);
+    }
+
+}
@@ -1,10 +1,14 @@
 package main;
 
 import binary.BinaryCSP;
-import binary.BinaryCSPReader;
+import binary.CompactFormat;
+import binary.MappedCSPReader;
+import binary.ParallelCSPReader;
 import binary.algorithms.ForwardChecking;
 import binary.algorithms.MaintainingArcConsistency;
 import binary.algorithms.Solution;
+import cache.Fingerprint;
+import cache.ProblemCache;
 
 import java.io.IOException;
 import java.util.LinkedHashSet;
@@ -13,19 +17,43 @@ import java.util.LinkedHashSet;
  * Provides a main method to run the basic implementation.
  *
  * @author 150009974
- * @version 2.0
+ * @version 2.6
  */
 public class Basic extends ArgumentParser {
 
+    /** The extension of problem files in the {@link CompactFormat}. */
+    private static final String COMPACT = ".bcsp";
+
+    /** The kind of the {@link BinaryCSP}s read by {@link Basic} in a {@link ProblemCache}. */
+    private static final String CACHE_KIND = "csp";
+
+    /** The kind of the lazily read {@link BinaryCSP}s in a {@link ProblemCache}. */
+    private static final String LAZY_CACHE_KIND = "csp-lazy";
+
     public static void main(String[] args) {
-        Basic basic = new Basic(args);
+        run(new Basic(args));
+    }
+
+    /**
+     * Runs the given {@link Basic} instance and prints the solutions and statistics.
+     *
+     * @param basic the {@link Basic} instance to run
+     *
+     * @return false if the arguments or the problem could not be used
+     */
+    static boolean run(Basic basic) {
         LinkedHashSet<Solution> solutions = basic.runSatisfactionAlg();
+        if (solutions == null) {
+            return false;
+        }
         solutions.forEach(System.out::println);
         System.out.println("Solution count: " + solutions.size());
         long executionTime = basic.getExecutionTime();
         System.out.println("Found in: " + executionTime + " milliseconds");
         System.out.println("Node count: " + basic.getSearchTreeNodes());
         System.out.println("Arc revisions: " + basic.getArcRevisions());
+        System.out.println(basic.getReport());
+        return true;
     }
 
     /**
@@ -39,13 +67,43 @@ public class Basic extends ArgumentParser {
 
     @Override
     protected SolvingAlgorithm getAlgorithm(String cspfilename, String algname) {
-        BinaryCSP csp;
+        BinaryCSP definition;
+        MappedCSPReader reader = new MappedCSPReader();
+        reader.setLazy(hasOption(LAZY_LOAD));
+        ParallelCSPReader parallelReader = null;
+        ProblemCache cache = getCache();
+        long start = System.nanoTime();
+        getReport().begin(SolveReport.PARSE);
         try {
-            csp = BinaryCSPReader.readBinaryCSP(cspfilename);
+            if (cspfilename.endsWith(COMPACT)) {
+                definition = CompactFormat.load(cspfilename);
+            } else if (cache != null) {
+                definition = cache.get(cspfilename, hasOption(LAZY_LOAD) ? LAZY_CACHE_KIND : CACHE_KIND, reader::read);
+            } else if (hasOption(PARALLEL_LOAD)) {
+                parallelReader = new ParallelCSPReader(Runtime.getRuntime().availableProcessors());
+                definition = parallelReader.read(cspfilename);
+                parallelReader.shutdown();
+            } else {
+                definition = reader.read(cspfilename);
+            }
         } catch (IOException e) {
             e.printStackTrace();
             return null;
         }
+        getReport().end();
+        if (hasOption(LOAD_REPORT)) {
+            if (cspfilename.endsWith(COMPACT)) {
+                System.out.printf("Load: mapped in %.1f milliseconds%n", (System.nanoTime() - start) / 1e6);
+            } else if (parallelReader != null) {
+                System.out.println("Load: " + parallelReader.report());
+            } else {
+                System.out.println("Load: " + reader.report());
+            }
+        }
+        // A cached problem may be solved by other threads at the same time.
+        BinaryCSP csp = cache != null ? definition.fork() : definition;
+        lookupResult(() -> Fingerprint.of(definition));
+        preprocess(csp);
         if (algname.equalsIgnoreCase("FC")) {
             return new ForwardChecking(csp);
         } else if (algname.equalsIgnoreCase("MAC")) {
@@ -0,0 +1,402 @@
+package main;
+
+import binary.BinaryCSP;
+import binary.CompactFormat;
+import binary.MappedCSPReader;
+import binary.algorithms.ForwardChecking;
+import binary.algorithms.MaintainingArcConsistency;
+import nary.ECSPReader;
+import nary.ECSProblem;
+import nary.algorithms.NaryForwardChecking;
+import nary.algorithms.NaryMaintainingArcConsistency;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Provides a main method to solve many problem instances in one JVM.
+ * The instances are the .csp, .bcsp and .ecsp files in the given directories
+ * and the files listed in the given manifests, one per line.
+ * I/O threads read and prepare the next instances while a bounded pool
+ * of workers solves the current ones, and the result of every instance
+ * is written, as JSON lines or CSV, as soon as it finishes.
+ * Every search is stopped after a time limit, and an instance that fails,
+ * even by running out of memory or stack, is recorded without stopping the others.
+ * An instance reserves an estimate of its memory from a global budget
+ * before it is read, so at most the budget is in use at once.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class Batch {
+
+    /** The setting with the algorithm to solve with, FC or MAC3. */
+    private static final String ALGORITHM = "algorithm=";
+
+    /** The setting with the number of worker threads. */
+    private static final String WORKERS = "workers=";
+
+    /** The setting with the number of threads that read the instances. */
+    private static final String IO = "io=";
+
+    /** The setting with the time limit (in seconds) of each search. */
+    private static final String TIMEOUT = "timeout=";
+
+    /** The setting with the memory budget (in megabytes) of the instances in progress. */
+    private static final String MEMORY = "memory=";
+
+    /** The setting with the file to write the results to, instead of standard output. */
+    private static final String OUT = "out=";
+
+    /** The setting to solve N-ary problems by their dual encoding. */
+    private static final String DUAL = "dual";
+
+    /** The extension of the result file that selects CSV instead of JSON lines. */
+    private static final String CSV = ".csv";
+
+    /** The extensions of the problem files found in directories. */
+    private static final String[] EXTENSIONS = {".csp", ".bcsp", ".ecsp"};
+
+    /** The extension of N-ary problem files. */
+    private static final String NARY = ".ecsp";
+
+    /** The extension of problem files in the {@link CompactFormat}. */
+    private static final String COMPACT = ".bcsp";
+
+    /** The estimated ratio of the memory an instance uses to the size of its file. */
+    private static final long EXPANSION = 32;
+
+    /** The number of bytes in a megabyte. */
+    private static final long MEGABYTE = 1024 * 1024;
+
+    /** The stack size (in bytes) of the worker threads, as the search recurses per node. */
+    private static final long STACK_BYTES = 256 * MEGABYTE;
+
+    /** The number of solutions to find per instance, 0 finds all of them. */
+    private int count;
+
+    /** The algorithm to solve with. */
+    private String algorithm = "MAC3";
+
+    /** The number of worker threads. */
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    /** The number of threads that read the instances. */
+    private int ioThreads = 2;
+
+    /** The time limit (in seconds) of each search. */
+    private long timeout = 60;
+
+    /** The memory budget (in megabytes) of the instances in progress. */
+    private int memory = (int) (Runtime.getRuntime().maxMemory() / 2 / MEGABYTE);
+
+    /** The file to write the results to, or null for standard output. */
+    private String outFile;
+
+    /** Whether N-ary problems are solved by their dual encoding. */
+    private boolean dual = false;
+
+    /** The problem files to solve. */
+    private List<String> problems = new ArrayList<>();
+
+    /** Where the results are written. */
+    private PrintStream sink;
+
+    /** Whether the results are written as CSV. */
+    private boolean csv;
+
+    /** The number of instances whose search completed. */
+    private int solved = 0;
+
+    /** The number of instances whose search was stopped by the time limit. */
+    private int timedOut = 0;
+
+    /** The number of instances that could not be read or solved. */
+    private int failed = 0;
+
+    /**
+     * Solves every given problem instance.
+     * The first argument is the number of solutions to find per instance,
+     * 0 finds all of them.
+     * The rest are directories, manifests and settings of the form name=value:
+     * algorithm=FC|MAC3, workers=N, io=N, timeout=SECONDS, memory=MB,
+     * out=FILE (.csv for CSV, otherwise JSON lines) and the bare word dual.
+     *
+     * @param args the solution count, settings, directories and manifests
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: java main.Batch <count> [settings...] <directories or manifests...>");
+            System.out.println("settings: " + ALGORITHM + "FC|MAC3, " + WORKERS + "N, " + IO + "N, "
+                    + TIMEOUT + "SECONDS, " + MEMORY + "MB, " + OUT + "FILE, " + DUAL);
+            return;
+        }
+        Batch batch = new Batch();
+        try {
+            batch.parse(args);
+            batch.runAll();
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Parses the command line arguments into the settings and problem files.
+     *
+     * @param args the command line arguments
+     *
+     * @throws IOException if a directory or manifest cannot be read
+     */
+    private void parse(String[] args) throws IOException {
+        count = Integer.parseInt(args[0]);
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith(ALGORITHM)) {
+                algorithm = arg.substring(ALGORITHM.length()).toUpperCase();
+            } else if (arg.startsWith(WORKERS)) {
+                workers = Integer.parseInt(arg.substring(WORKERS.length()));
+            } else if (arg.startsWith(IO)) {
+                ioThreads = Integer.parseInt(arg.substring(IO.length()));
+            } else if (arg.startsWith(TIMEOUT)) {
+                timeout = Long.parseLong(arg.substring(TIMEOUT.length()));
+            } else if (arg.startsWith(MEMORY)) {
+                memory = Integer.parseInt(arg.substring(MEMORY.length()));
+            } else if (arg.startsWith(OUT)) {
+                outFile = arg.substring(OUT.length());
+            } else if (arg.equalsIgnoreCase(DUAL)) {
+                dual = true;
+            } else {
+                collect(Paths.get(arg));
+            }
+        }
+        if (!algorithm.equals("FC") && !algorithm.equals("MAC") && !algorithm.equals("MAC3")) {
+            throw new IllegalArgumentException("Unknown algorithm: " + algorithm + ", use one of FC or MAC3");
+        }
+    }
+
+    /**
+     * Adds the problem files of a directory, recursively, or of a manifest.
+     * The lines of a manifest are resolved against its directory,
+     * and blank lines and lines starting with '#' are skipped.
+     *
+     * @param input the directory or manifest
+     *
+     * @throws IOException if the directory or manifest cannot be read
+     */
+    private void collect(Path input) throws IOException {
+        if (Files.isDirectory(input)) {
+            try (Stream<Path> files = Files.walk(input)) {
+                problems.addAll(files.filter(Files::isRegularFile)
+                        .map(Path::toString)
+                        .filter(Batch::isProblem)
+                        .sorted()
+                        .collect(Collectors.toList()));
+            }
+            return;
+        }
+        Path base = input.toAbsolutePath().getParent();
+        for (String line : Files.readAllLines(input)) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                Path problem = Paths.get(line);
+                problems.add(problem.isAbsolute() ? line : base.resolve(problem).toString());
+            }
+        }
+    }
+
+    /**
+     * @param filename the name of a file
+     *
+     * @return true iff the file has the extension of a problem file
+     */
+    private static boolean isProblem(String filename) {
+        for (String extension : EXTENSIONS) {
+            if (filename.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Solves every problem instance and writes the results.
+     *
+     * @throws IOException if the result file cannot be written
+     */
+    private void runAll() throws IOException {
+        sink = outFile == null ? System.out : new PrintStream(outFile, "UTF-8");
+        csv = outFile != null && outFile.endsWith(CSV);
+        if (csv) {
+            sink.println(BatchResult.CSV_HEADER);
+        }
+        ExecutorService io = threads("batch-io", ioThreads);
+        ExecutorService solvers = threads("batch-worker", workers);
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Every worker may have one instance being solved and one read ahead.
+        Semaphore inProgress = new Semaphore(2 * workers);
+        Semaphore budget = new Semaphore(memory);
+        List<CompletableFuture<BatchResult>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (String problem : problems) {
+            int reserved = reserve(problem);
+            inProgress.acquireUninterruptibly();
+            budget.acquireUninterruptibly(reserved);
+            BatchResult result = new BatchResult(problem, algorithm);
+            CompletableFuture<BatchResult> finished = CompletableFuture
+                    .supplyAsync(() -> load(problem, result), io)
+                    .thenApplyAsync(alg -> solve(alg, result, timer), solvers)
+                    .whenComplete((r, failure) -> {
+                        write(result);
+                        budget.release(reserved);
+                        inProgress.release();
+                    });
+            results.add(finished);
+        }
+        results.forEach(CompletableFuture::join);
+        io.shutdown();
+        solvers.shutdown();
+        timer.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (sink != System.out) {
+            sink.close();
+        }
+        System.out.printf("Batch: %d instances in %.1f seconds (%.1f per minute), "
+                        + "%d solved, %d timed out, %d failed%n",
+                problems.size(), seconds, seconds == 0 ? 0 : 60 * problems.size() / seconds,
+                solved, timedOut, failed);
+    }
+
+    /**
+     * Estimates the memory (in megabytes) that solving the given problem needs,
+     * from the size of its file, within the budget.
+     *
+     * @param problem the problem file
+     *
+     * @return the number of megabytes to reserve
+     */
+    private int reserve(String problem) {
+        long bytes = new File(problem).length() * EXPANSION;
+        return (int) Math.max(1, Math.min(memory, (bytes + MEGABYTE - 1) / MEGABYTE));
+    }
+
+    /**
+     * Creates a pool of daemon threads with a large stack.
+     *
+     * @param name    the prefix of the names of the threads
+     * @param threads the number of threads
+     *
+     * @return the pool
+     */
+    private static ExecutorService threads(String name, int threads) {
+        AtomicInteger created = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(null, r, name + "-" + created.incrementAndGet(), STACK_BYTES);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads and prepares a problem and creates its {@link SolvingAlgorithm}.
+     *
+     * @param problem the problem file
+     * @param result  the {@link BatchResult} to record the time or failure in
+     *
+     * @return the {@link SolvingAlgorithm}, or null if the problem could not be read
+     */
+    private SolvingAlgorithm load(String problem, BatchResult result) {
+        long start = System.nanoTime();
+        try {
+            SolvingAlgorithm alg;
+            if (problem.endsWith(NARY) && !dual) {
+                ECSProblem ecsp = ECSPReader.parse(problem);
+                ecsp.prepare();
+                alg = algorithm.equals("FC") ? new NaryForwardChecking(ecsp)
+                        : new NaryMaintainingArcConsistency(ecsp);
+            } else {
+                BinaryCSP csp;
+                if (problem.endsWith(NARY)) {
+                    csp = ECSPReader.parse(problem).asBinaryCSP();
+                } else if (problem.endsWith(COMPACT)) {
+                    csp = CompactFormat.load(problem);
+                } else {
+                    csp = new MappedCSPReader().read(problem);
+                }
+                alg = algorithm.equals("FC") ? new ForwardChecking(csp)
+                        : new MaintainingArcConsistency(csp);
+            }
+            result.setParseTime((System.nanoTime() - start) / 1e6);
+            return alg;
+        } catch (IOException | RuntimeException | Error e) {
+            // Out of memory or stack in one instance should not stop the others.
+            result.fail(e);
+        }
+        return null;
+    }
+
+    /**
+     * Solves a problem within the time limit.
+     *
+     * @param alg    the {@link SolvingAlgorithm} to run, or null if the problem could not be read
+     * @param result the {@link BatchResult} to record the outcome in
+     * @param timer  the executor that stops searches at their time limit
+     *
+     * @return the {@link BatchResult}
+     */
+    private BatchResult solve(SolvingAlgorithm alg, BatchResult result, ScheduledExecutorService timer) {
+        if (alg == null) {
+            return result;
+        }
+        ScheduledFuture<?> limit = timer.schedule(alg::stop, timeout, TimeUnit.SECONDS);
+        long start = System.nanoTime();
+        try {
+            int found = alg.solve(count, true).size();
+            result.record(alg, found, (System.nanoTime() - start) / 1e6);
+        } catch (RuntimeException | Error e) {
+            result.fail(e);
+        } finally {
+            limit.cancel(false);
+        }
+        return result;
+    }
+
+    /**
+     * Writes a {@link BatchResult} and counts its status.
+     *
+     * @param result the {@link BatchResult} of a finished instance
+     */
+    private synchronized void write(BatchResult result) {
+        sink.println(csv ? result.toCsv() : result.toJson());
+        sink.flush();
+        String status = result.getStatus();
+        if (status.equals(BatchResult.SOLVED)) {
+            solved++;
+        } else if (status.equals(BatchResult.TIMEOUT)) {
+            timedOut++;
+        } else {
+            failed++;
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package main;
+
+/**
+ * Represents the outcome of solving one instance of a {@link Batch},
+ * written as a JSON line or a CSV row.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class BatchResult {
+
+    /** The status of an instance whose search completed. */
+    static final String SOLVED = "solved";
+
+    /** The status of an instance whose search was stopped by the time limit. */
+    static final String TIMEOUT = "timeout";
+
+    /** The status of an instance that could not be read or solved. */
+    static final String ERROR = "error";
+
+    /** The header of the CSV, in the order of {@link #toCsv()}. */
+    static final String CSV_HEADER = "problem,algorithm,status,solutions,nodes,revisions,checks,"
+            + "parse_ms,solve_ms,error";
+
+    /** The problem file. */
+    private final String problem;
+
+    /** The name of the algorithm. */
+    private final String algorithm;
+
+    /** The status, one of {@link #SOLVED}, {@link #TIMEOUT} or {@link #ERROR}. */
+    private String status = SOLVED;
+
+    /** The number of solutions found. */
+    private int solutions;
+
+    /** The number of search tree nodes. */
+    private long nodes;
+
+    /** The number of arc revisions. */
+    private long revisions;
+
+    /** The number of constraint checks. */
+    private long checks;
+
+    /** The wall clock time (in milliseconds) of reading and preparing the problem. */
+    private double parseTime;
+
+    /** The wall clock time (in milliseconds) of solving the problem. */
+    private double solveTime;
+
+    /** The reason of an {@link #ERROR}, or null. */
+    private String error;
+
+    /**
+     * Creates a {@link BatchResult} of an instance yet to be solved.
+     *
+     * @param problem   the problem file
+     * @param algorithm the name of the algorithm
+     */
+    BatchResult(String problem, String algorithm) {
+        this.problem = problem;
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Records the counters of a finished {@link SolvingAlgorithm}.
+     *
+     * @param alg       the {@link SolvingAlgorithm} that ran
+     * @param found     the number of solutions it found
+     * @param solveTime the wall clock time (in milliseconds) it took
+     */
+    void record(SolvingAlgorithm alg, int found, double solveTime) {
+        status = alg.isStopped() ? TIMEOUT : SOLVED;
+        solutions = found;
+        nodes = alg.getNumberOfNodes();
+        revisions = alg.getRevisions();
+        checks = alg.getConstraintChecks();
+        this.solveTime = solveTime;
+    }
+
+    /**
+     * Records that the instance failed.
+     *
+     * @param failure what the instance failed with
+     */
+    void fail(Throwable failure) {
+        status = ERROR;
+        error = failure.toString();
+    }
+
+    /** @param parseTime the wall clock time (in milliseconds) of reading and preparing the problem */
+    void setParseTime(double parseTime) {
+        this.parseTime = parseTime;
+    }
+
+    /** @return the status, one of {@link #SOLVED}, {@link #TIMEOUT} or {@link #ERROR} */
+    String getStatus() {
+        return status;
+    }
+
+    /** @return this {@link BatchResult} as a JSON object on one line */
+    String toJson() {
+        return String.format("{\"problem\": \"%s\", \"algorithm\": \"%s\", \"status\": \"%s\", "
+                        + "\"solutions\": %d, \"nodes\": %d, \"revisions\": %d, \"checks\": %d, "
+                        + "\"parse_ms\": %.3f, \"solve_ms\": %.3f, \"error\": %s}",
+                escape(problem), algorithm, status, solutions, nodes, revisions, checks,
+                parseTime, solveTime, error == null ? "null" : "\"" + escape(error) + "\"");
+    }
+
+    /** @return this {@link BatchResult} as a CSV row, in the order of {@link #CSV_HEADER} */
+    String toCsv() {
+        return String.format("%s,%s,%s,%d,%d,%d,%d,%.3f,%.3f,%s",
+                problem, algorithm, status, solutions, nodes, revisions, checks,
+                parseTime, solveTime, error == null ? "" : "\"" + error.replace("\"", "\"\"") + "\"");
+    }
+
+    /**
+     * Escapes a JSON string value.
+     *
+     * @param value the value to escape
+     *
+     * @return the value with backslashes, quotes and line breaks escaped
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+}
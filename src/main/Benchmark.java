@@ -1,93 +1,451 @@
 package main;
 
-import binary.algorithms.Solution;
-
-import java.util.LinkedHashSet;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Provides a main method to run and compare the solving algorithms.
+ * Each cell of problem, algorithm and solver options is run several times,
+ * either in a fresh JVM per run or in this JVM after warmup runs,
+ * and every run is stopped after a timeout.
+ * The {@link Measurement}s of each cell are summarised by their median,
+ * 90th and 99th percentiles and a confidence interval of the median,
+ * written as CSV and optionally as JSON,
+ * and optionally compared against a {@link Baseline}.
  *
  * @author 150009974
- * @version 1.1
+ * @version 2.2
  */
 public class Benchmark {
 
-    /** The code for the {@link binary.algorithms.ForwardChecking} algorithm. */
-    private static final String FC = "FC";
+    /** The setting to run each measured run in a fresh JVM. */
+    private static final String FORK = "fork";
+
+    /** The setting with the number of warmup runs per cell in this JVM. */
+    private static final String WARMUP = "warmup=";
+
+    /** The setting with the timeout (in seconds) of each run. */
+    private static final String TIMEOUT = "timeout=";
+
+    /** The setting with the comma separated algorithms to run. */
+    private static final String ALGORITHMS = "algorithms=";
+
+    /**
+     * The setting with one set of solver options, separated by '+'.
+     * It may be given several times, each set is a separate cell.
+     */
+    private static final String OPTIONS = "options=";
+
+    /** The setting with the file to write the CSV to, instead of standard output. */
+    private static final String CSV = "csv=";
+
+    /** The setting with the file to write the JSON to. */
+    private static final String JSON = "json=";
 
-    /** The code for {@link binary.algorithms.MaintainingArcConsistency} algorithm. */
-    private static final String MAC = "MAC";
+    /** The setting with the CSV file to compare the results against. */
+    private static final String BASELINE = "baseline=";
+
+    /**
+     * The setting with the tolerance (in percent) of a baseline of averages,
+     * which have no confidence interval.
+     */
+    private static final String TOLERANCE = "tolerance=";
+
+    /** The logging level given to the solvers, so nothing is logged. */
+    private static final String NO_LOGGING = "0";
+
+    /** The start consistent flag given to the solvers. */
+    private static final String CONSISTENT = "true";
+
+    /** The {@link Measurement} that stands for a run that timed out. */
+    private static final Measurement TIMED_OUT = new Measurement();
+
+    /** The number of measured runs per cell. */
+    private int runs;
+
+    /** The number of solutions to find. */
+    private String count;
+
+    /** Whether each measured run is done in a fresh JVM. */
+    private boolean fork = false;
+
+    /** The number of warmup runs per cell, when not forking. */
+    private int warmup = 3;
+
+    /** The timeout (in seconds) of each run. */
+    private long timeout = 60;
+
+    /** The algorithms to run. */
+    private List<String> algorithms = Arrays.asList("FC", "MAC3");
+
+    /** The sets of solver options to run. */
+    private List<String> optionSets = new ArrayList<>();
+
+    /** The problem files to run. */
+    private List<String> problems = new ArrayList<>();
+
+    /** The file to write the CSV to, or null for standard output. */
+    private String csvFile;
+
+    /** The file to write the JSON to, or null for none. */
+    private String jsonFile;
+
+    /** The CSV file of the {@link #baseline}, or null for none. */
+    private String baselineFile;
+
+    /** The tolerance (in percent) of a {@link #baseline} of averages. */
+    private double tolerance = 10;
+
+    /** The {@link Baseline} to compare against, or null for none. */
+    private Baseline baseline;
+
+    /** The executor of the runs in this JVM, replaced after a timeout. */
+    private ExecutorService executor;
+
+    /** The significant changes against the {@link #baseline}. */
+    private List<String> changes = new ArrayList<>();
+
+    /** Whether a significant regression was found. */
+    private boolean regressed = false;
 
     /**
      * Runs the {@link binary.algorithms.ForwardChecking}
      * and {@link binary.algorithms.MaintainingArcConsistency} algorithms
      * on all specified problems.
-     * Only the final statistics are printed.
-     * All other information (such as solutions and logging) is discarded.
-     * The first argument (called N) is the number of iterations.
-     * Each solver is run N times on each input file.
-     * The average results are printed to standard output.
-     *
-     * The second argument must be the number of solutions
-     * to find for each problem.
+     * The first argument is the number of measured runs per cell.
+     * The second argument is the number of solutions to find,
+     * 0 finds all of them.
+     * The rest are problem files, .csp, .bcsp or .ecsp,
+     * and settings of the form name=value:
+     * warmup=N, timeout=SECONDS, algorithms=FC,MAC3,
+     * options=presolve+lazy (repeatable), csv=FILE, json=FILE,
+     * baseline=FILE, tolerance=PERCENT and the bare word fork.
+     * The process exits with status 1 if a regression was found.
      *
-     * @param args the array of problem filenames to solve
+     * @param args the number of runs, the solution count, settings and problems
      */
     public static void main(String[] args) {
-        int iterationsPerFile = Integer.parseInt(args[0]);
-        String loggingLevel = "0";
-        String stud = "i get replaced in the loop";
-        String[] fcArgs = {FC, stud, args[1], loggingLevel};
-        String[] macArgs = {MAC, stud, args[1], loggingLevel};
-        System.out.print("problem name,");
-        System.out.print("FC solutions,FC time,FC nodes,FC revisions,");
-        System.out.println("MAC3 solutions,MAC3 time,MAC3 nodes,MAC3 revisions");
+        if (args.length < 3) {
+            System.out.println("Usage: java main.Benchmark <runs> <count> [settings...] <problems...>");
+            System.out.println("settings: " + FORK + ", " + WARMUP + "N, " + TIMEOUT + "SECONDS, "
+                    + ALGORITHMS + "FC,MAC3, " + OPTIONS + "OPT+OPT (repeatable),");
+            System.out.println("          " + CSV + "FILE, " + JSON + "FILE, " + BASELINE + "FILE, "
+                    + TOLERANCE + "PERCENT");
+            return;
+        }
+        Benchmark benchmark = new Benchmark();
+        try {
+            benchmark.parse(args);
+            benchmark.runAll();
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(2);
+        }
+        if (benchmark.regressed) {
+            System.exit(1);
+        }
+    }
 
+    /**
+     * Parses the command line arguments into the settings.
+     *
+     * @param args the command line arguments
+     *
+     * @throws IOException if the baseline cannot be read
+     */
+    private void parse(String[] args) throws IOException {
+        runs = Integer.parseInt(args[0]);
+        count = args[1];
         for (int i = 2; i < args.length; i++) {
-            String problemFilename = args[i];
-            System.out.print(problemFilename);
-            System.out.print(",");
-            fcArgs[1] = problemFilename;
-            executeAndPrintStats(fcArgs, iterationsPerFile);
-            System.out.print(",");
+            String arg = args[i];
+            if (arg.equalsIgnoreCase(FORK)) {
+                fork = true;
+            } else if (arg.startsWith(WARMUP)) {
+                warmup = Integer.parseInt(arg.substring(WARMUP.length()));
+            } else if (arg.startsWith(TIMEOUT)) {
+                timeout = Long.parseLong(arg.substring(TIMEOUT.length()));
+            } else if (arg.startsWith(ALGORITHMS)) {
+                algorithms = Arrays.asList(arg.substring(ALGORITHMS.length()).split(","));
+            } else if (arg.startsWith(OPTIONS)) {
+                optionSets.add(arg.substring(OPTIONS.length()));
+            } else if (arg.startsWith(CSV)) {
+                csvFile = arg.substring(CSV.length());
+            } else if (arg.startsWith(JSON)) {
+                jsonFile = arg.substring(JSON.length());
+            } else if (arg.startsWith(BASELINE)) {
+                baselineFile = arg.substring(BASELINE.length());
+            } else if (arg.startsWith(TOLERANCE)) {
+                tolerance = Double.parseDouble(arg.substring(TOLERANCE.length()));
+            } else {
+                problems.add(arg);
+            }
+        }
+        if (optionSets.isEmpty()) {
+            optionSets.add("");
+        }
+        if (baselineFile != null) {
+            baseline = Baseline.load(baselineFile, tolerance / 100);
+        }
+    }
 
-            macArgs[1] = problemFilename;
-            executeAndPrintStats(macArgs, iterationsPerFile);
-            System.out.println();
+    /**
+     * Runs every cell and writes the results.
+     *
+     * @throws IOException if a result file cannot be written
+     *                     or a fresh JVM cannot be started
+     */
+    private void runAll() throws IOException {
+        PrintStream csv = csvFile == null ? System.out : new PrintStream(csvFile);
+        StringBuilder json = new StringBuilder("[");
+        csv.println(csvHeader());
+        for (String problem : problems) {
+            for (String algorithm : algorithms) {
+                for (String options : optionSets) {
+                    runCell(problem, algorithm, options, csv, json);
+                }
+            }
         }
+        json.append("\n]\n");
+        if (csv != System.out) {
+            csv.close();
+        }
+        if (jsonFile != null) {
+            Files.write(new File(jsonFile).toPath(), json.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        changes.forEach(System.out::println);
+    }
+
+    /** @return the header of the CSV */
+    private static String csvHeader() {
+        StringBuilder sb = new StringBuilder("problem,algorithm,options,runs,timeouts,solutions");
+        for (String metric : Measurement.METRICS) {
+            sb.append(",").append(metric).append("_median");
+            sb.append(",").append(metric).append("_p90");
+            sb.append(",").append(metric).append("_p99");
+            sb.append(",").append(metric).append("_ci_low");
+            sb.append(",").append(metric).append("_ci_high");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Runs one cell, writes its results and compares them with the {@link #baseline}.
+     * After the first timeout the remaining runs of the cell are skipped.
+     *
+     * @param problem   the problem file
+     * @param algorithm the algorithm
+     * @param options   the solver options, separated by '+'
+     * @param csv       where to write the CSV row
+     * @param json      where to append the JSON object
+     *
+     * @throws IOException if a fresh JVM cannot be started
+     */
+    private void runCell(String problem, String algorithm, String options,
+                         PrintStream csv, StringBuilder json) throws IOException {
+        String[] solverArgs = solverArgs(problem, algorithm, options);
+        List<Measurement> measurements = new ArrayList<>();
+        int timeouts = 0;
+        for (int i = 0; i < warmup && !fork && timeouts == 0; i++) {
+            if (runInProcess(solverArgs) == TIMED_OUT) {
+                timeouts++;
+            }
+        }
+        for (int i = 0; i < runs && timeouts == 0; i++) {
+            Measurement m = fork ? runForked(solverArgs) : runInProcess(solverArgs);
+            if (m == TIMED_OUT) {
+                timeouts++;
+            } else if (m != null) {
+                measurements.add(m);
+            }
+        }
+
+        int solutions = measurements.isEmpty() ? 0 : measurements.get(0).getSolutions();
+        StringBuilder row = new StringBuilder();
+        row.append(problem).append(",").append(algorithm).append(",").append(options);
+        row.append(",").append(measurements.size()).append(",").append(timeouts);
+        row.append(",").append(solutions);
+        json.append(json.length() > 1 ? ",\n" : "\n");
+        json.append("  {\"problem\": \"").append(problem).append("\", \"algorithm\": \"").append(algorithm);
+        json.append("\", \"options\": \"").append(options).append("\", \"runs\": ").append(measurements.size());
+        json.append(", \"timeouts\": ").append(timeouts).append(", \"solutions\": ").append(solutions);
+        json.append(", \"metrics\": {");
+        for (int k = 0; k < Measurement.METRICS.length; k++) {
+            String metric = Measurement.METRICS[k];
+            if (measurements.isEmpty()) {
+                row.append(",,,,,");
+                continue;
+            }
+            double[] sample = new double[measurements.size()];
+            for (int i = 0; i < sample.length; i++) {
+                sample[i] = measurements.get(i).values()[k];
+            }
+            Summary s = new Summary(sample);
+            row.append(format(",%s,%s,%s,%s,%s", s.getMedian(), s.getP90(), s.getP99(), s.getLow(), s.getHigh()));
+            json.append(k == 0 ? "\n" : ",\n");
+            json.append(format("    \"%s\": {\"median\": %s, \"p90\": %s, \"p99\": %s, \"ci_low\": %s, \"ci_high\": %s, \"samples\": %s}",
+                    metric, s.getMedian(), s.getP90(), s.getP99(), s.getLow(), s.getHigh(), Arrays.toString(sample)));
+            if (baseline != null) {
+                String change = baseline.compare(problem, algorithm, options, metric, s);
+                if (change != null) {
+                    changes.add(change);
+                    regressed |= change.startsWith("REGRESSION");
+                }
+            }
+        }
+        json.append(measurements.isEmpty() ? "}}" : "\n  }}");
+        csv.println(row);
+        csv.flush();
+    }
+
+    /**
+     * Formats the given values, printing whole numbers without a fraction.
+     *
+     * @param pattern the format with a %s for each value
+     * @param values  the values to format
+     *
+     * @return the formatted {@link String}
+     */
+    private static String format(String pattern, Object... values) {
+        Object[] formatted = values.clone();
+        for (int i = 0; i < formatted.length; i++) {
+            if (formatted[i] instanceof Double) {
+                double value = (Double) formatted[i];
+                formatted[i] = value == Math.rint(value)
+                        ? String.valueOf((long) value)
+                        : String.format(Locale.ROOT, "%.3f", value);
+            }
+        }
+        return String.format(Locale.ROOT, pattern, formatted);
     }
 
     /**
-     * Executes the {@link Basic} constraint solver with the given arguments
-     * and outputs the performance statistics to standard output.
+     * Creates the arguments of {@link Basic} or {@link Nary} for one cell.
      *
-     * @param algArgs the arguments to give to the solver
-     * @param iterations the number of times to run the algorithm
+     * @param problem   the problem file
+     * @param algorithm the algorithm
+     * @param options   the solver options, separated by '+'
+     *
+     * @return the solver arguments
+     */
+    private String[] solverArgs(String problem, String algorithm, String options) {
+        List<String> list = new ArrayList<>(Arrays.asList(algorithm, problem, count, NO_LOGGING, CONSISTENT));
+        for (String option : options.split("\\+")) {
+            if (!option.isEmpty()) {
+                list.add(option);
+            }
+        }
+        return list.toArray(new String[0]);
+    }
+
+    /**
+     * Performs one run in this JVM.
+     * A run that times out is stopped and waited for, so that it does not
+     * take a processor from the following runs. If it does not stop
+     * within another timeout, for example while still parsing,
+     * it is abandoned on its daemon thread and the following runs are forked.
+     *
+     * @param solverArgs the arguments of the solver
+     *
+     * @return the {@link Measurement}, {@link #TIMED_OUT} or null if the run failed
      */
-    private static void executeAndPrintStats(String[] algArgs, int iterations) {
-        double averageSolutionCount = 0;
-        double averageTime = 0;
-        double averageNodes = 0;
-        double averageRevisions = 0;
-        for (int i = 0; i < iterations; i++) {
-            Basic alg = new Basic(algArgs);
-            LinkedHashSet<Solution> solutions = alg.runSatisfactionAlg();
-            averageSolutionCount += solutions.size();
-            averageTime += alg.getExecutionTime();
-            averageNodes += alg.getSearchTreeNodes();
-            averageRevisions += alg.getArcRevisions();
-        }
-
-        averageSolutionCount /= iterations;
-        averageTime /= iterations;
-        averageNodes /= iterations;
-        averageRevisions /= iterations;
-
-        System.out.print(averageSolutionCount + ",");
-        System.out.print(averageTime + ",");
-        System.out.print(averageNodes + ",");
-        System.out.print(averageRevisions);
+    private Measurement runInProcess(String[] solverArgs) {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "benchmark-run");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        ArgumentParser solver = Measurement.solverFor(solverArgs);
+        Future<Measurement> future = executor.submit(() -> Measurement.run(solver));
+        try {
+            return future.get(timeout, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            solver.stop();
+            awaitStopped(future);
+            return TIMED_OUT;
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+            return null;
+        }
     }
 
+    /**
+     * Waits for a stopped run to finish.
+     * If it does not finish within the timeout, it is abandoned
+     * and every following run is done in a fresh JVM.
+     *
+     * @param future the result of the stopped run
+     */
+    private void awaitStopped(Future<Measurement> future) {
+        try {
+            future.get(timeout, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            System.err.println("A timed out run did not stop and keeps a processor busy, "
+                    + "the following runs are forked");
+            executor.shutdownNow();
+            executor = null;
+            fork = true;
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Performs one run in a fresh JVM with the same class path.
+     *
+     * @param solverArgs the arguments of the solver
+     *
+     * @return the {@link Measurement}, {@link #TIMED_OUT} or null if the run failed
+     *
+     * @throws IOException if the JVM cannot be started
+     */
+    private Measurement runForked(String[] solverArgs) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Measurement.class.getName());
+        command.addAll(Arrays.asList(solverArgs));
+        File output = File.createTempFile("benchmark", ".out");
+        try {
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(output)
+                    .start();
+            if (!process.waitFor(timeout, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return TIMED_OUT;
+            }
+            for (String line : Files.readAllLines(output.toPath())) {
+                if (line.startsWith(Measurement.PREFIX)) {
+                    return Measurement.parse(line);
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        } finally {
+            if (!output.delete()) {
+                output.deleteOnExit();
+            }
+        }
+    }
 
 }
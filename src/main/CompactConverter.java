@@ -0,0 +1,57 @@
+package main;
+
+import binary.BinaryCSP;
+import binary.CompactFormat;
+import binary.MappedCSPReader;
+import nary.ECSPReader;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Provides a main method to convert problems into the {@link CompactFormat}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class CompactConverter {
+
+    /** The extension of n-ary problem files. */
+    private static final String ECSP = ".ecsp";
+
+    /**
+     * Converts a .csp file, or a .ecsp file through its dual encoding,
+     * into a compact binary file.
+     * Then loads the written file and reports how long that took.
+     * The solutions of a converted .ecsp file are over the dual variables,
+     * one per n-ary constraint.
+     *
+     * @param args the name of the problem file and of the file to write
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: java main.CompactConverter <file.csp|file.ecsp> <file.bcsp>");
+            return;
+        }
+        try {
+            BinaryCSP csp;
+            if (args[0].endsWith(ECSP)) {
+                csp = ECSPReader.parse(args[0]).asBinaryCSP();
+            } else {
+                csp = new MappedCSPReader().read(args[0]);
+            }
+            CompactFormat.write(csp, args[1]);
+            long start = System.nanoTime();
+            BinaryCSP loaded = CompactFormat.load(args[1]);
+            long time = System.nanoTime() - start;
+            System.out.println(args[0] + " (" + new File(args[0]).length() + " bytes) -> "
+                    + args[1] + " (" + new File(args[1]).length() + " bytes), "
+                    + loaded.countDistinctRelations() + " relations for "
+                    + loaded.getConstraints().size() + " scopes");
+            System.out.printf("Loaded in %.2f milliseconds%n", time / 1e6);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+}
@@ -0,0 +1,240 @@
+package main;
+
+import binary.BinaryCSP;
+import binary.BinaryCSPReader;
+import binary.algorithms.BinarySolving;
+import binary.algorithms.ForwardChecking;
+import binary.algorithms.MaintainingArcConsistency;
+import binary.algorithms.Solution;
+import binary.presolve.Presolver;
+import binary.types.BinaryConstraint;
+import binary.types.BinaryConstraintStorage;
+import binary.types.BinaryTuple;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Provides a main method to check that interning relations does not change
+ * the solutions of binary problems.
+ * Every problem is solved for all of its solutions as loaded,
+ * where constraints share interned {@link binary.types.Relation}s,
+ * some of them reversed, and again after giving every constraint
+ * its own table in its own orientation.
+ * Both are solved by {@link ForwardChecking} and {@link MaintainingArcConsistency},
+ * with and without the {@link Presolver}, and all the solution sets must be equal.
+ * Problems with at most {@link #BRUTE_FORCE_LIMIT} assignments are also solved
+ * by trying every assignment against every table, and the solution sets
+ * must equal those solutions.
+ *
+ * @author 150009974
+ * @version 1.2
+ */
+public final class CrossCheck {
+
+    /** The extension of binary problem files. */
+    private static final String BINARY = ".csp";
+
+    /** The largest number of assignments that {@link #bruteForce} tries. */
+    public static final long BRUTE_FORCE_LIMIT = 1000000;
+
+    /**
+     * Checks the given .csp files, and the .csp files of the given directories,
+     * and prints the outcome for each.
+     * Exits with status 1 if the solutions of any problem differ.
+     *
+     * @param args the .csp files and directories to check
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: java main.CrossCheck <csp or directory>...");
+            System.out.println("Every problem is solved for all of its solutions, so keep them small");
+            return;
+        }
+        boolean agree = true;
+        for (String arg : args) {
+            File[] files = new File(arg).isDirectory()
+                    ? new File(arg).listFiles((dir, name) -> name.endsWith(BINARY))
+                    : new File[]{new File(arg)};
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                try {
+                    agree &= checkAndPrint(file.getPath());
+                } catch (IOException e) {
+                    System.out.println(file + ": " + e.getMessage());
+                    agree = false;
+                }
+            }
+        }
+        if (!agree) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Checks one problem file and prints the outcome.
+     *
+     * @param filename the .csp file
+     *
+     * @return true iff all the solution sets agree
+     *
+     * @throws IOException if the file cannot be read
+     */
+    private static boolean checkAndPrint(String filename) throws IOException {
+        BinaryCSP csp = BinaryCSPReader.readBinaryCSP(filename);
+        int reversed = 0;
+        for (BinaryConstraint c : csp.getConstraints()) {
+            if (c.isReversed()) {
+                reversed++;
+            }
+        }
+        String mismatch = check(csp);
+        System.out.println(filename + ": " + reversed + " of " + csp.getConstraints().size()
+                + " constraints reversed, " + (mismatch == null ? "solutions agree" : mismatch));
+        return mismatch == null;
+    }
+
+    /**
+     * Solves the given {@link BinaryCSP} as loaded and with its own tables,
+     * by every algorithm with and without presolving, and compares the solutions
+     * with those found by {@link #bruteForce}, or if there are too many assignments,
+     * with those found by {@link ForwardChecking} with its own tables.
+     * The {@link BinaryCSP} is restored before every solve.
+     *
+     * @param csp the {@link BinaryCSP} to check
+     *
+     * @return null if all the solution sets are equal,
+     * otherwise a description of the first difference
+     */
+    public static String check(BinaryCSP csp) {
+        BinaryCSP own = withOwnTables(csp);
+        HashSet<Solution> expected = bruteForce(csp);
+        String reference = "brute force";
+        if (expected == null) {
+            expected = solve(own, false, false);
+            reference = "FC with own tables";
+        }
+        for (BinaryCSP problem : new BinaryCSP[]{csp, own}) {
+            String loading = problem == csp ? "interned" : "own tables";
+            for (boolean mac : new boolean[]{false, true}) {
+                for (boolean presolve : new boolean[]{false, true}) {
+                    HashSet<Solution> found = solve(problem, mac, presolve);
+                    if (!found.equals(expected)) {
+                        return "MISMATCH: " + (mac ? "MAC3" : "FC") + (presolve ? " presolved" : "")
+                                + " with " + loading + " tables found " + found.size()
+                                + " solutions, " + reference + " found " + expected.size();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds all the solutions of the given {@link BinaryCSP} without any propagation,
+     * by trying every assignment of the full domains against every {@link BinaryConstraint}.
+     * The {@link BinaryCSP} is restored first.
+     *
+     * @param csp the {@link BinaryCSP} to solve
+     *
+     * @return the {@link Solution}s, or null if there are more
+     * than {@link #BRUTE_FORCE_LIMIT} assignments
+     */
+    public static HashSet<Solution> bruteForce(BinaryCSP csp) {
+        csp.restore();
+        int[][] domains = new int[csp.getNumberOfVariables()][];
+        long assignments = 1;
+        for (int i = 0; i < domains.length; i++) {
+            domains[i] = csp.getVariable(i).getDomain().stream().mapToInt(Integer::intValue).toArray();
+            assignments *= domains[i].length;
+            if (assignments > BRUTE_FORCE_LIMIT) {
+                return null;
+            }
+        }
+        List<BinaryConstraint> constraints = csp.getConstraints();
+        HashSet<Solution> solutions = new HashSet<>();
+        // The index of the value of every variable, counting up like an odometer.
+        int[] index = new int[domains.length];
+        for (long a = 0; a < assignments; a++) {
+            boolean allowed = true;
+            for (BinaryConstraint c : constraints) {
+                if (!c.allows(domains[c.getVar1()][index[c.getVar1()]],
+                        domains[c.getVar2()][index[c.getVar2()]])) {
+                    allowed = false;
+                    break;
+                }
+            }
+            if (allowed) {
+                Solution solution = new Solution(Collections.emptyList());
+                for (int i = 0; i < domains.length; i++) {
+                    solution.put(i, domains[i][index[i]]);
+                }
+                solutions.add(solution);
+            }
+            for (int i = domains.length - 1; i >= 0 && ++index[i] == domains[i].length; i--) {
+                index[i] = 0;
+            }
+        }
+        return solutions;
+    }
+
+    /**
+     * Creates a {@link BinaryCSP} with the domains and constraints of the given one,
+     * where every constraint has its own table of pairs in the order of its scope.
+     *
+     * @param csp the {@link BinaryCSP} to copy
+     *
+     * @return the {@link BinaryCSP} without shared or reversed tables
+     */
+    private static BinaryCSP withOwnTables(BinaryCSP csp) {
+        csp.restore();
+        int[][] bounds = new int[csp.getNumberOfVariables()][];
+        for (int i = 0; i < bounds.length; i++) {
+            LinkedHashSet<Integer> domain = csp.getVariable(i).getDomain();
+            bounds[i] = new int[]{Collections.min(domain), Collections.max(domain)};
+        }
+        BinaryConstraintStorage constraints = new BinaryConstraintStorage();
+        for (BinaryConstraint c : csp.getConstraints()) {
+            LinkedHashSet<BinaryTuple> tuples = new LinkedHashSet<>();
+            c.forEachTuple(tuples::add);
+            constraints.map(c.getVar1(), c.getVar2(), new BinaryConstraint(c.getVar1(), c.getVar2(), tuples));
+        }
+        return new BinaryCSP(bounds, constraints);
+    }
+
+    /**
+     * Restores the given {@link BinaryCSP} and finds all the solutions of a fork of it,
+     * so that presolving does not remove constraints from the given one.
+     *
+     * @param csp      the {@link BinaryCSP} to solve
+     * @param mac      whether to use {@link MaintainingArcConsistency}
+     *                 instead of {@link ForwardChecking}
+     * @param presolve whether to apply the {@link Presolver} first
+     *
+     * @return the found {@link Solution}s
+     */
+    private static HashSet<Solution> solve(BinaryCSP csp, boolean mac, boolean presolve) {
+        csp.restore();
+        BinaryCSP fork = csp.fork();
+        Presolver presolver = null;
+        if (presolve) {
+            presolver = new Presolver(fork);
+            if (!presolver.apply()) {
+                return new HashSet<>();
+            }
+        }
+        BinarySolving alg = mac ? new MaintainingArcConsistency(fork) : new ForwardChecking(fork);
+        LinkedHashSet<Solution> solutions = alg.solve(0, true);
+        if (presolver != null) {
+            solutions = presolver.reattach(solutions, 0);
+        }
+        return new HashSet<>(solutions);
+    }
+
+}
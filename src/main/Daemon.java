@@ -0,0 +1,261 @@
+package main;
+
+import cache.ProblemCache;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Provides a main method to run the solver as a long-running daemon,
+ * which keeps the JIT compiled code and the loaded problems between solves.
+ * It listens on a TCP port of the loopback address,
+ * and every connection sends requests, one per line.
+ * A solve request is the name of the runner, "basic", "nary" or "dual",
+ * followed by the command line arguments of that runner.
+ * A problem file of "-" stands for an inline problem, whose lines follow
+ * the request and end with a line of a single ".".
+ * The output of the solve, as the runner would print it, is sent back,
+ * followed by a line "END" and the milliseconds the request took,
+ * or a line "ERROR" and the reason it failed.
+ * "stats" reports the {@link ProblemCache}, "quit" closes the connection
+ * and "shutdown" stops the daemon.
+ * Solves run at the same time, each on a fork of the cached problem,
+ * and what they print to {@link System#out} is sent to their own connection
+ * through a {@link ThreadOutput}.
+ *
+ * @author 150009974
+ * @version 1.2
+ */
+public class Daemon {
+
+    /** The default port to listen on. */
+    private static final int DEFAULT_PORT = 7437;
+
+    /** The number of bytes in a megabyte. */
+    private static final long MEGABYTE = 1024 * 1024;
+
+    /** The problem file argument that stands for an inline problem. */
+    private static final String INLINE = "-";
+
+    /** The line that ends an inline problem. */
+    private static final String INLINE_END = ".";
+
+    /** The index of the problem file in the arguments of a runner. */
+    private static final int CSP_INDEX = 1;
+
+    /** The {@link ProblemCache} shared by all solves. */
+    private final ProblemCache cache;
+
+    /** The socket the daemon listens on. */
+    private final ServerSocket server;
+
+    /** The {@link System#out} of the daemon, which sends each solve's output to its connection. */
+    private final ThreadOutput output;
+
+    /** The number of connections accepted so far. */
+    private int connections = 0;
+
+    /**
+     * Starts a daemon and serves requests until it is shut down.
+     *
+     * @param args optionally the port and the capacity (in megabytes) of the cache,
+     *             which defaults to half of the maximum heap
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        long capacity = args.length > 1 ? Long.parseLong(args[1]) * MEGABYTE : Runtime.getRuntime().maxMemory() / 2;
+        try {
+            Daemon daemon = new Daemon(port, capacity);
+            System.out.println("Listening on " + daemon.server.getLocalSocketAddress());
+            daemon.serve();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Creates a {@link Daemon} listening on the given port of the loopback address.
+     *
+     * @param port     the port to listen on, or 0 for any free port
+     * @param capacity the capacity (in bytes) of the {@link ProblemCache}
+     *
+     * @throws IOException if the port cannot be listened on
+     */
+    public Daemon(int port, long capacity) throws IOException {
+        cache = new ProblemCache(capacity);
+        server = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        output = new ThreadOutput(System.out);
+        System.setOut(output);
+    }
+
+    /** Accepts connections, each served by its own thread, until the daemon is shut down. */
+    public void serve() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                Thread client = new Thread(() -> handle(socket), "daemon-client-" + ++connections);
+                client.setDaemon(true);
+                client.start();
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Serves the requests of one connection until it is closed.
+     *
+     * @param socket the connection
+     */
+    private void handle(Socket socket) {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             OutputStream raw = s.getOutputStream();
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(raw, StandardCharsets.UTF_8), true)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] words = line.trim().split("\\s+");
+                if (words[0].isEmpty()) {
+                    continue;
+                }
+                String command = words[0].toLowerCase();
+                if (command.equals("quit")) {
+                    return;
+                } else if (command.equals("shutdown")) {
+                    out.println("END");
+                    server.close();
+                    return;
+                } else if (command.equals("stats")) {
+                    out.println(cache.report());
+                    out.println("END");
+                } else {
+                    request(words, in, raw, out);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Serves a solve request.
+     *
+     * @param words the words of the request line
+     * @param in    the connection input, which holds any inline problem
+     * @param raw   the connection output, for the output of the solve
+     * @param out   the connection output, for the replies of the daemon
+     *
+     * @throws IOException if the connection fails
+     */
+    private void request(String[] words, BufferedReader in, OutputStream raw, PrintWriter out)
+            throws IOException {
+        String runner = words[0].toLowerCase();
+        String[] args = Arrays.copyOfRange(words, 1, words.length);
+        File inline = null;
+        if (args.length > CSP_INDEX && args[CSP_INDEX].equals(INLINE)) {
+            inline = readInline(in, runner.equals("basic") ? ".csp" : ".ecsp");
+            args[CSP_INDEX] = inline.getPath();
+        }
+        long start = System.nanoTime();
+        try {
+            String error = solve(runner, args, inline == null, raw);
+            if (error == null) {
+                out.printf("END %.1f ms%n", (System.nanoTime() - start) / 1e6);
+            } else {
+                out.println("ERROR " + error);
+            }
+        } finally {
+            if (inline != null) {
+                Files.deleteIfExists(inline.toPath());
+            }
+        }
+    }
+
+    /**
+     * Reads the lines of an inline problem into a temporary file.
+     *
+     * @param in        the connection input
+     * @param extension the extension of the problem file
+     *
+     * @return the temporary file
+     *
+     * @throws IOException if the connection or the file fails
+     */
+    private static File readInline(BufferedReader in, String extension) throws IOException {
+        File file = File.createTempFile("inline", extension);
+        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+            String line;
+            while ((line = in.readLine()) != null && !line.equals(INLINE_END)) {
+                writer.println(line);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Runs a solve with the given runner, sending what it prints to the connection.
+     *
+     * @param runner the name of the runner
+     * @param args   the command line arguments of the runner
+     * @param cached whether the problem may be loaded through the {@link #cache}
+     * @param out    the connection output
+     *
+     * @return null if the solve ran, or the reason it did not
+     *
+     * @throws IOException if UTF-8 is not supported
+     */
+    private String solve(String runner, String[] args, boolean cached, OutputStream out) throws IOException {
+        ArgumentParser parser;
+        if (runner.equals("basic")) {
+            parser = new Basic(args);
+        } else if (runner.equals("nary")) {
+            parser = new Nary(args);
+        } else if (runner.equals("dual")) {
+            parser = new DualRepresentation(args);
+        } else {
+            return "Unknown runner: " + runner + ", use one of \"basic\", \"nary\" or \"dual\"";
+        }
+        if (cached) {
+            parser.setCache(cache);
+        }
+        PrintStream stream = new PrintStream(out, true, "UTF-8");
+        output.redirect(stream);
+        try {
+            boolean ran;
+            if (parser instanceof Basic) {
+                ran = Basic.run((Basic) parser);
+            } else if (parser instanceof Nary) {
+                ran = Nary.run((Nary) parser);
+            } else {
+                ran = DualRepresentation.run((DualRepresentation) parser);
+            }
+            if (!ran) {
+                return "The arguments or the problem could not be used";
+            }
+        } catch (RuntimeException | Error e) {
+            // Out of memory or stack in one request should not stop the daemon.
+            e.printStackTrace();
+            return e.toString();
+        } finally {
+            stream.flush();
+            output.reset();
+        }
+        return null;
+    }
+
+}
@@ -4,23 +4,44 @@ import binary.BinaryCSP;
 import binary.algorithms.ForwardChecking;
 import binary.algorithms.MaintainingArcConsistency;
 import binary.algorithms.Solution;
+import cache.Fingerprint;
+import cache.ProblemCache;
 import nary.ECSPReader;
 import nary.ECSProblem;
 import nary.constraints.Assignment;
+import profile.ConstraintProfiler;
 
+import java.io.IOException;
 import java.util.LinkedHashSet;
 
 /**
  * Provides a main method to run the extension implementation.
  *
  * @author 150009974
- * @version 2.0
+ * @version 2.5
  */
 public class DualRepresentation extends ArgumentParser {
 
+    /** The kind of the encoded {@link ECSProblem}s in a {@link ProblemCache}. */
+    private static final String CACHE_KIND = "dual";
+
     public static void main(String[] args) {
-        DualRepresentation ext = new DualRepresentation(args);
+        run(new DualRepresentation(args));
+    }
+
+    /**
+     * Runs the given {@link DualRepresentation} instance
+     * and prints the decoded solutions and statistics.
+     *
+     * @param ext the {@link DualRepresentation} instance to run
+     *
+     * @return false if the arguments or the problem could not be used
+     */
+    static boolean run(DualRepresentation ext) {
         LinkedHashSet<Solution> solutions = ext.runSatisfactionAlg();
+        if (solutions == null) {
+            return false;
+        }
         for (Solution solution : solutions) {
             Assignment decoded = ext.originalProblem.decodeSolution(solution);
             System.out.println(decoded);
@@ -30,6 +51,8 @@ public class DualRepresentation extends ArgumentParser {
         System.out.println("Found in: " + executionTime + " milliseconds");
         System.out.println("Node count: " + ext.getSearchTreeNodes());
         System.out.println("Arc revisions: " + ext.getArcRevisions());
+        System.out.println(ext.getReport());
+        return true;
     }
 
     /** The given high-level problem. */
@@ -45,10 +68,33 @@ public class DualRepresentation extends ArgumentParser {
         super(args);
     }
 
+    @Override
+    protected ConstraintProfiler createProfiler() {
+        // The variables of the dual encoding are the original constraints.
+        return new ConstraintProfiler(c -> originalProblem.getNaryConstraint(c.getVar1()).describe()
+                + " x " + originalProblem.getNaryConstraint(c.getVar2()).describe());
+    }
+
     @Override
     protected SolvingAlgorithm getAlgorithm(String cspfilename, String algname) {
-        originalProblem = ECSPReader.parse(cspfilename);
-        BinaryCSP csp = originalProblem.asBinaryCSP();
+        ProblemCache cache = getCache();
+        ECSProblem definition;
+        if (cache == null) {
+            definition = load(cspfilename);
+        } else {
+            try {
+                definition = cache.get(cspfilename, CACHE_KIND, this::load);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+        // A cached problem may be solved by other threads at the same time.
+        originalProblem = cache != null ? definition.fork() : definition;
+        BinaryCSP csp = originalProblem.asBinaryCSP(getReport());
+        BinaryCSP encoding = definition.asBinaryCSP(getReport());
+        lookupResult(() -> Fingerprint.of(encoding));
+        preprocess(csp);
         if (algname.equalsIgnoreCase("FC")) {
             return new ForwardChecking(csp);
         } else if (algname.equalsIgnoreCase("MAC")) {
@@ -62,4 +108,19 @@ public class DualRepresentation extends ArgumentParser {
         }
     }
 
+    /**
+     * Parses the {@link ECSProblem} in the given file and builds its dual encoding.
+     *
+     * @param cspfilename the name of the ecsp file
+     *
+     * @return the {@link ECSProblem}, with its encoding built
+     */
+    private ECSProblem load(String cspfilename) {
+        getReport().begin(SolveReport.PARSE);
+        ECSProblem problem = ECSPReader.parse(cspfilename);
+        getReport().end();
+        problem.asBinaryCSP(getReport());
+        return problem;
+    }
+
 }
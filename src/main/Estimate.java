@@ -0,0 +1,71 @@
+package main;
+
+import binary.BinaryCSP;
+import binary.MappedCSPReader;
+import binary.algorithms.BinarySolving;
+import binary.algorithms.ForwardChecking;
+import binary.algorithms.MaintainingArcConsistency;
+import binary.algorithms.TreeEstimate;
+import binary.algorithms.TreeEstimator;
+import nary.ECSPReader;
+
+import java.io.IOException;
+
+/**
+ * Provides a main method to estimate the search tree size
+ * and the number of solutions of a problem without solving it.
+ * N-ary problems are estimated through their dual encoding.
+ *
+ * @author 150009974
+ * @version 1.0
+ * @see TreeEstimator
+ */
+public class Estimate {
+
+    /** The extension of N-ary problem files. */
+    private static final String NARY = ".ecsp";
+
+    /**
+     * Estimates the search tree of the given problem and algorithm.
+     *
+     * @param args the algorithm, the problem file,
+     *             optionally the number of probes and the random seed
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: java main.Estimate <alg> <csp> [<probes> [<seed>]]");
+            System.out.println("<alg> must be one of \"FC\" or \"MAC3\"");
+            System.out.println("<csp> must be a .csp or an .ecsp file");
+            System.out.println("<probes> defaults to " + TreeEstimator.DEFAULT_PROBES);
+            return;
+        }
+        BinaryCSP csp;
+        try {
+            if (args[1].endsWith(NARY)) {
+                csp = ECSPReader.parse(args[1]).asBinaryCSP();
+            } else {
+                csp = new MappedCSPReader().read(args[1]);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        BinarySolving alg;
+        if (args[0].equalsIgnoreCase("FC")) {
+            alg = new ForwardChecking(csp);
+        } else if (args[0].equalsIgnoreCase("MAC") || args[0].equalsIgnoreCase("MAC3")) {
+            alg = new MaintainingArcConsistency(csp);
+        } else {
+            System.out.println("Algorithm not recognized!");
+            System.out.println("Use one of \"FC\" or \"MAC3\"");
+            return;
+        }
+        int probes = args.length > 2 ? Integer.parseInt(args[2]) : TreeEstimator.DEFAULT_PROBES;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+        long start = System.nanoTime();
+        TreeEstimate estimate = new TreeEstimator(alg, seed).estimate(probes, true);
+        System.out.println(estimate);
+        System.out.printf("Estimated in %.1f milliseconds%n", (System.nanoTime() - start) / 1e6);
+    }
+
+}
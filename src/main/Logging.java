@@ -1,13 +1,21 @@
 package main;
 
+import binary.BinaryCSP;
+import binary.algorithms.Arc;
+import binary.algorithms.SearchListener;
+import binary.types.Variable;
+
+import java.util.Set;
+
 /**
- * This class provides methods to determine
- * what info should be logged to standard output.
+ * Logs the events of a binary search to standard output.
+ * The logging configuration selects what is logged,
+ * as the sum of the constants below.
  *
  * @author 150009974
- * @version 1.2
+ * @version 2.0
  */
-public final class Logging {
+public final class Logging implements SearchListener {
 
     // Note that these constant should be powers of two.
 
@@ -27,37 +35,78 @@ public final class Logging {
     private static final int ARC_REVISION_CONSTRAINT = 16;
 
     /** The logging configuration. */
-    private static int config = 0;
+    private final int config;
 
-    /** @return true iff branches should be logged */
-    public static boolean logBranches() {
-        return (config & BRANCHES) > 0;
+    /**
+     * Creates a {@link Logging} listener with the given configuration.
+     *
+     * @param log the logging configuration
+     */
+    public Logging(int log) {
+        config = log;
     }
 
-    /** @return true iff domain wipeouts should be logged */
-    public static boolean logWipeouts() {
-        return (config & DOMAIN_WIPEOUT) > 0;
+    /**
+     * Determines whether the given kind of event is logged.
+     *
+     * @param kind one of the constants
+     *
+     * @return true iff events of that kind are logged
+     */
+    private boolean logs(int kind) {
+        return (config & kind) > 0;
     }
 
-    /** @return true iff variable states should be logged */
-    public static boolean logVarStates() {
-        return (config & VAR_STATE) > 0;
+    @Override
+    public void restart() {
+        if (logs(VAR_STATE)) {
+            System.out.println("After initial revision:");
+        }
     }
 
-    /** @return true iff arc revisions should be logged */
-    public static boolean logArcRevision() {
-        return (config & ARC_REVISION) > 0;
+    @Override
+    public void state(Set<Variable> past, Set<Variable> future) {
+        if (logs(VAR_STATE)) {
+            System.out.println("past: " + past);
+            System.out.println("future: " + future);
+        }
     }
 
-    /** @return true iff arc revisions' constraints should be logged */
-    public static boolean logArcRevisionConstraints() {
-        return (config & ARC_REVISION_CONSTRAINT) > 0;
+    @Override
+    public void branch(Variable var, int val, boolean left) {
+        if (!logs(BRANCHES)) {
+            return;
+        }
+        if (left) {
+            System.out.println(var);
+            System.out.println("Left Branch");
+        } else {
+            System.out.println("Right Branch");
+        }
     }
 
-    /** @param log the logging configuration to set */
-    // package private method. Only main.ArgumentParser should set this.
-    static void setLogConfig(int log) {
-        config = log;
+    @Override
+    public void backtrack(Variable var) {
+        if (logs(BRANCHES)) {
+            System.out.println("----------------------");
+        }
+    }
+
+    @Override
+    public void revision(Arc arc, BinaryCSP csp) {
+        if (logs(ARC_REVISION)) {
+            System.out.println("Revising arc: " + arc);
+        }
+        if (logs(ARC_REVISION_CONSTRAINT)) {
+            System.out.println("\twith constraint: " + arc.getConstraint(csp));
+        }
+    }
+
+    @Override
+    public void wipeout(Variable var) {
+        if (logs(DOMAIN_WIPEOUT)) {
+            System.out.println("Domain wipeout!");
+        }
     }
 
 }
@@ -0,0 +1,246 @@
+package main;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+/**
+ * Represents the measurements of one solver run.
+ * A run reads the problem, preprocesses it and solves it,
+ * exactly as {@link Basic} or {@link Nary} would,
+ * with all of their output discarded.
+ * The main method performs one run and prints its {@link Measurement},
+ * so that {@link Benchmark} can run each measurement in a fresh JVM.
+ *
+ * @author 150009974
+ * @version 1.2
+ */
+public final class Measurement {
+
+    /** The names of the measured metrics, in the order of {@link #values()}. */
+    static final String[] METRICS = {
+            "wall_ms", "cpu_ms", "solve_ms", "nodes", "revisions", "checks", "peak_heap_mb",
+            "parse_ms", "prepare_ms", "consistency_ms", "search_ms", "allocated_mb"
+    };
+
+    /** The phases of a {@link SolveReport} that prepare the problem for the solver. */
+    private static final String[] PREPARATION = {
+            SolveReport.UNARY, SolveReport.TABLES, SolveReport.ENCODING, SolveReport.PREPROCESS
+    };
+
+    /** The prefix of the line that a forked run prints its measurement on. */
+    static final String PREFIX = "MEASUREMENT ";
+
+    /** The extension of N-ary problem files. */
+    private static final String NARY = ".ecsp";
+
+    /** The number of bytes in a megabyte. */
+    private static final double MEGABYTE = 1024 * 1024;
+
+    /** The wall clock time (in milliseconds) of reading, preprocessing and solving. */
+    private double wallTime;
+
+    /** The CPU time (in milliseconds) of reading, preprocessing and solving. */
+    private double cpuTime;
+
+    /** The time (in milliseconds) reported by the {@link SolvingAlgorithm}. */
+    private double solveTime;
+
+    /** The number of search tree nodes. */
+    private long nodes;
+
+    /** The number of arc revisions. */
+    private long revisions;
+
+    /** The number of constraint checks. */
+    private long checks;
+
+    /** The peak heap usage (in megabytes) during the run. */
+    private double peakHeap;
+
+    /** The wall clock time (in milliseconds) of reading the problem. */
+    private double parseTime;
+
+    /** The wall clock time (in milliseconds) of preparing the problem for the solver. */
+    private double prepareTime;
+
+    /** The wall clock time (in milliseconds) of making the problem consistent. */
+    private double consistencyTime;
+
+    /** The wall clock time (in milliseconds) of the search. */
+    private double searchTime;
+
+    /** The memory (in megabytes) allocated by the measured phases. */
+    private double allocated;
+
+    /** The number of solutions found. */
+    private int solutions;
+
+    /**
+     * Performs one run with the given arguments and prints its {@link Measurement}.
+     *
+     * @param args the arguments of {@link Basic} or {@link Nary}
+     */
+    public static void main(String[] args) {
+        Measurement m = run(args);
+        System.out.println(m == null ? PREFIX + "failed" : m.toLine());
+    }
+
+    /**
+     * Performs one run with the given arguments.
+     * The problem file decides between {@link Basic} and {@link Nary}.
+     *
+     * @param args the arguments of {@link Basic} or {@link Nary}
+     *
+     * @return the {@link Measurement} of the run, or null if it failed
+     */
+    public static Measurement run(String[] args) {
+        return run(solverFor(args));
+    }
+
+    /**
+     * Creates the solver of one run with the given arguments.
+     * The problem file decides between {@link Basic} and {@link Nary}.
+     *
+     * @param args the arguments of {@link Basic} or {@link Nary}
+     *
+     * @return the solver, which can be stopped while it runs
+     */
+    public static ArgumentParser solverFor(String[] args) {
+        return args[1].endsWith(NARY) ? new Nary(args) : new Basic(args);
+    }
+
+    /**
+     * Performs one run with the given solver.
+     *
+     * @param solver the solver created by {@link #solverFor(String[])}
+     *
+     * @return the {@link Measurement} of the run, or null if it failed
+     */
+    public static Measurement run(ArgumentParser solver) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+        long wallStart = System.nanoTime();
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        LinkedHashSet<?> found;
+        try {
+            found = solver.runSatisfactionAlg();
+        } finally {
+            System.setOut(out);
+        }
+        if (found == null) {
+            return null;
+        }
+        Measurement m = new Measurement();
+        m.wallTime = (System.nanoTime() - wallStart) / 1e6;
+        m.cpuTime = (threads.getCurrentThreadCpuTime() - cpuStart) / 1e6;
+        m.solveTime = solver.getExecutionTime();
+        m.nodes = solver.getSearchTreeNodes();
+        m.revisions = solver.getArcRevisions();
+        m.checks = solver.getConstraintChecks();
+        m.solutions = found.size();
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        SolveReport report = solver.getReport();
+        Phase total = report.getTotal();
+        // Every phase resets the peak, so the run's peak is the largest one.
+        if (total != null) {
+            peak = Math.max(peak, total.getPeakHeapBytes());
+            m.allocated = Math.max(total.getAllocatedBytes(), 0) / MEGABYTE;
+        }
+        m.peakHeap = peak / MEGABYTE;
+        m.parseTime = phaseTime(report, SolveReport.PARSE);
+        for (String phase : PREPARATION) {
+            m.prepareTime += phaseTime(report, phase);
+        }
+        m.consistencyTime = phaseTime(report, SolveReport.CONSISTENCY);
+        m.searchTime = phaseTime(report, SolveReport.SEARCH);
+        return m;
+    }
+
+    /**
+     * Returns the wall clock time of a phase of a {@link SolveReport}.
+     *
+     * @param report the {@link SolveReport} of a run
+     * @param name   the name of the phase
+     *
+     * @return the time (in milliseconds) of the phase, or 0 if it was not measured
+     */
+    private static double phaseTime(SolveReport report, String name) {
+        Phase phase = report.get(name);
+        return phase == null ? 0 : phase.getWallNanos() / 1e6;
+    }
+
+    /**
+     * Parses a {@link Measurement} from the line printed by a forked run.
+     *
+     * @param line the printed line
+     *
+     * @return the parsed {@link Measurement}, or null if the run failed
+     */
+    static Measurement parse(String line) {
+        String[] fields = line.substring(PREFIX.length()).split(" ");
+        if (fields.length != METRICS.length + 1) {
+            return null;
+        }
+        Measurement m = new Measurement();
+        m.wallTime = Double.parseDouble(fields[0]);
+        m.cpuTime = Double.parseDouble(fields[1]);
+        m.solveTime = Double.parseDouble(fields[2]);
+        m.nodes = Long.parseLong(fields[3]);
+        m.revisions = Long.parseLong(fields[4]);
+        m.checks = Long.parseLong(fields[5]);
+        m.peakHeap = Double.parseDouble(fields[6]);
+        m.parseTime = Double.parseDouble(fields[7]);
+        m.prepareTime = Double.parseDouble(fields[8]);
+        m.consistencyTime = Double.parseDouble(fields[9]);
+        m.searchTime = Double.parseDouble(fields[10]);
+        m.allocated = Double.parseDouble(fields[11]);
+        m.solutions = Integer.parseInt(fields[12]);
+        return m;
+    }
+
+    /** @return the line that a forked run prints this {@link Measurement} on */
+    String toLine() {
+        return PREFIX + wallTime + " " + cpuTime + " " + solveTime + " "
+                + nodes + " " + revisions + " " + checks + " "
+                + peakHeap + " " + parseTime + " " + prepareTime + " "
+                + consistencyTime + " " + searchTime + " " + allocated + " " + solutions;
+    }
+
+    /** @return the values of the {@link #METRICS}, in order */
+    double[] values() {
+        return new double[]{
+                wallTime, cpuTime, solveTime, nodes, revisions, checks, peakHeap,
+                parseTime, prepareTime, consistencyTime, searchTime, allocated
+        };
+    }
+
+    /** @return the number of solutions found */
+    int getSolutions() {
+        return solutions;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values());
+    }
+
+}
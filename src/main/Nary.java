@@ -1,30 +1,51 @@
 package main;
 
+import cache.Fingerprint;
+import cache.ProblemCache;
 import nary.ECSPReader;
 import nary.ECSProblem;
 import nary.algorithms.NaryForwardChecking;
 import nary.algorithms.NaryMaintainingArcConsistency;
 import nary.constraints.Assignment;
 
+import java.io.IOException;
 import java.util.LinkedHashSet;
 
 /**
  * Provides a main method to run the NarySolving algorithm.
  *
  * @author 150009974
- * @version 1.0
+ * @version 1.4
  */
 public class Nary extends ArgumentParser {
 
+    /** The kind of the prepared {@link ECSProblem}s in a {@link ProblemCache}. */
+    private static final String CACHE_KIND = "nary";
+
     public static void main(String[] args) {
-        Nary nary = new Nary(args);
+        run(new Nary(args));
+    }
+
+    /**
+     * Runs the given {@link Nary} instance and prints the solutions and statistics.
+     *
+     * @param nary the {@link Nary} instance to run
+     *
+     * @return false if the arguments or the problem could not be used
+     */
+    static boolean run(Nary nary) {
         LinkedHashSet<Assignment> solutions = nary.runSatisfactionAlg();
+        if (solutions == null) {
+            return false;
+        }
         solutions.forEach(System.out::println);
         System.out.println("Solution count: " + solutions.size());
         long executionTime = nary.getExecutionTime();
         System.out.println("Found in: " + executionTime + " milliseconds");
         System.out.println("Node count: " + nary.getSearchTreeNodes());
         System.out.println("Arc revisions: " + nary.getArcRevisions());
+        System.out.println(nary.getReport());
+        return true;
     }
 
     /**
@@ -38,8 +59,21 @@ public class Nary extends ArgumentParser {
 
     @Override
     protected SolvingAlgorithm getAlgorithm(String cspfilename, String algname) {
-        ECSProblem problem = ECSPReader.parse(cspfilename);
-        problem.prepare();
+        ECSProblem definition;
+        ProblemCache cache = getCache();
+        if (cache == null) {
+            definition = load(cspfilename);
+        } else {
+            try {
+                definition = cache.get(cspfilename, CACHE_KIND, this::load);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+        // A cached problem may be solved by other threads at the same time.
+        ECSProblem problem = cache != null ? definition.fork() : definition;
+        lookupResult(() -> Fingerprint.of(definition));
         if (algname.equalsIgnoreCase("FC")) {
             return new NaryForwardChecking(problem);
         } else if (algname.equalsIgnoreCase("MAC")) {
@@ -53,4 +87,19 @@ public class Nary extends ArgumentParser {
         }
     }
 
+    /**
+     * Parses and prepares the {@link ECSProblem} in the given file.
+     *
+     * @param cspfilename the name of the ecsp file
+     *
+     * @return the prepared {@link ECSProblem}
+     */
+    private ECSProblem load(String cspfilename) {
+        getReport().begin(SolveReport.PARSE);
+        ECSProblem problem = ECSPReader.parse(cspfilename);
+        getReport().end();
+        problem.prepare(getReport());
+        return problem;
+    }
+
 }
@@ -0,0 +1,84 @@
+package main;
+
+/**
+ * Represents the measured cost of one phase of a run,
+ * such as parsing, table enumeration or the search.
+ * The times and allocation are those of the thread that ran the phase.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class Phase {
+
+    /** The name of the phase. */
+    private final String name;
+
+    /** The wall clock time (in nanoseconds) of the phase. */
+    private long wallNanos;
+
+    /** The CPU time (in nanoseconds) of the phase, or -1 if unsupported. */
+    private long cpuNanos;
+
+    /** The number of bytes allocated during the phase, or -1 if unsupported. */
+    private long allocatedBytes;
+
+    /** The peak heap usage (in bytes) during the phase. */
+    private long peakHeapBytes;
+
+    /**
+     * Creates a measured {@link Phase}.
+     *
+     * @param name           the name of the phase
+     * @param wallNanos      the wall clock time (in nanoseconds)
+     * @param cpuNanos       the CPU time (in nanoseconds), or -1 if unsupported
+     * @param allocatedBytes the number of bytes allocated, or -1 if unsupported
+     * @param peakHeapBytes  the peak heap usage (in bytes)
+     */
+    Phase(String name, long wallNanos, long cpuNanos, long allocatedBytes, long peakHeapBytes) {
+        this.name = name;
+        this.wallNanos = wallNanos;
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    /**
+     * Adds another measurement of the same phase to this one.
+     * The times and allocations are summed, the peak is the larger one.
+     *
+     * @param other the other measurement
+     */
+    void add(Phase other) {
+        wallNanos += other.wallNanos;
+        cpuNanos = cpuNanos < 0 || other.cpuNanos < 0 ? -1 : cpuNanos + other.cpuNanos;
+        allocatedBytes = allocatedBytes < 0 || other.allocatedBytes < 0
+                ? -1 : allocatedBytes + other.allocatedBytes;
+        peakHeapBytes = Math.max(peakHeapBytes, other.peakHeapBytes);
+    }
+
+    /** @return the name of the phase */
+    public String getName() {
+        return name;
+    }
+
+    /** @return the wall clock time (in nanoseconds) of the phase */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /** @return the CPU time (in nanoseconds) of the phase, or -1 if unsupported */
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    /** @return the number of bytes allocated during the phase, or -1 if unsupported */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /** @return the peak heap usage (in bytes) during the phase */
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+}
@@ -0,0 +1,143 @@
+package main;
+
+import binary.BinaryCSP;
+import binary.BinaryCSPBuilder;
+import binary.algorithms.ForwardChecking;
+import binary.algorithms.MaintainingArcConsistency;
+import generators.RandomGenerator;
+
+/**
+ * Provides a main method to compare the solving algorithms
+ * across the phase transition of random binary CSPs.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public class PhaseTransition {
+
+    /** The default number of tightness values to sweep. */
+    private static final int DEFAULT_STEPS = 20;
+
+    /** The option to check every instance with {@link CrossCheck} before solving it. */
+    private static final String VERIFY = "verify";
+
+    /**
+     * Generates random binary CSPs (model B) with increasing tightness
+     * and runs the {@link ForwardChecking}
+     * and {@link MaintainingArcConsistency} algorithms on them.
+     * Each algorithm looks for one solution of each problem.
+     * The arguments are the number of variables n, the domain size d,
+     * the density p1, the number of instances per tightness,
+     * the seed of the first instance
+     * and optionally the number of tightness values to sweep
+     * and the word verify.
+     * Instance i of every tightness uses the seed plus i.
+     * For each tightness and algorithm, the fraction of satisfiable instances
+     * and the average time, nodes and revisions are printed as CSV.
+     * With verify, every instance is first checked by {@link CrossCheck},
+     * which finds the solutions of small instances by brute force,
+     * and the sweep stops at the first instance whose solutions differ.
+     *
+     * @param args n, d, p1, instances, seed and optionally steps and verify
+     */
+    public static void main(String[] args) {
+        if (args.length < 5) {
+            System.out.println("Usage: java main.PhaseTransition <n> <d> <p1> <instances> <seed> [<steps>] ["
+                    + VERIFY + "]");
+            return;
+        }
+        int n = Integer.parseInt(args[0]);
+        int d = Integer.parseInt(args[1]);
+        double p1 = Double.parseDouble(args[2]);
+        int instances = Integer.parseInt(args[3]);
+        long seed = Long.parseLong(args[4]);
+        int steps = DEFAULT_STEPS;
+        boolean verify = false;
+        for (int i = 5; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase(VERIFY)) {
+                verify = true;
+            } else {
+                steps = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.print("p2,");
+        System.out.print("FC satisfiable,FC time,FC nodes,FC revisions,");
+        System.out.println("MAC3 satisfiable,MAC3 time,MAC3 nodes,MAC3 revisions");
+        for (int step = 1; step < steps; step++) {
+            double p2 = (double) step / steps;
+            if (verify) {
+                verify(n, d, p1, p2, instances, seed);
+            }
+            System.out.print(p2 + ",");
+            runAndPrintStats(n, d, p1, p2, instances, seed, false);
+            System.out.print(",");
+            runAndPrintStats(n, d, p1, p2, instances, seed, true);
+            System.out.println();
+        }
+    }
+
+    /**
+     * Checks the random instances of the given tightness with {@link CrossCheck}.
+     *
+     * @param n         the number of variables
+     * @param d         the domain size
+     * @param p1        the density
+     * @param p2        the tightness
+     * @param instances the number of instances to check
+     * @param seed      the seed of the first instance
+     *
+     * @throws IllegalStateException if the solutions of an instance differ
+     */
+    private static void verify(int n, int d, double p1, double p2, int instances, long seed) {
+        for (int i = 0; i < instances; i++) {
+            BinaryCSP csp = RandomGenerator.generate(n, d, p1, p2, seed + i,
+                    new BinaryCSPBuilder()).build();
+            String mismatch = CrossCheck.check(csp);
+            if (mismatch != null) {
+                throw new IllegalStateException("<" + n + ", " + d + ", " + p1 + ", " + p2
+                        + ">, seed " + (seed + i) + ": " + mismatch);
+            }
+        }
+    }
+
+    /**
+     * Solves the random instances of the given tightness with one algorithm
+     * and outputs the performance statistics to standard output.
+     * Every run gets a freshly generated {@link BinaryCSP},
+     * since solving changes the domains.
+     *
+     * @param n         the number of variables
+     * @param d         the domain size
+     * @param p1        the density
+     * @param p2        the tightness
+     * @param instances the number of instances to solve
+     * @param seed      the seed of the first instance
+     * @param mac       whether to use {@link MaintainingArcConsistency}
+     *                  instead of {@link ForwardChecking}
+     */
+    private static void runAndPrintStats(int n, int d, double p1, double p2,
+                                         int instances, long seed, boolean mac) {
+        double satisfiable = 0;
+        double averageTime = 0;
+        double averageNodes = 0;
+        double averageRevisions = 0;
+        for (int i = 0; i < instances; i++) {
+            BinaryCSP csp = RandomGenerator.generate(n, d, p1, p2, seed + i,
+                    new BinaryCSPBuilder()).build();
+            SolvingAlgorithm alg = mac ? new MaintainingArcConsistency(csp)
+                    : new ForwardChecking(csp);
+            if (!alg.solve(1, true).isEmpty()) {
+                satisfiable++;
+            }
+            averageTime += alg.getSolutionTime();
+            averageNodes += alg.getNumberOfNodes();
+            averageRevisions += alg.getRevisions();
+        }
+        System.out.print(satisfiable / instances + ",");
+        System.out.print(averageTime / instances + ",");
+        System.out.print(averageNodes / instances + ",");
+        System.out.print(averageRevisions / instances);
+    }
+
+}
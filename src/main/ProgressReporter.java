@@ -0,0 +1,121 @@
+package main;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically prints the estimated progress of a running {@link SolvingAlgorithm}:
+ * the percent of the search tree explored, the nodes reached and their rate,
+ * and the projected time left and finish time.
+ * The projection assumes the rest of the tree is explored at the same pace.
+ * Given an estimated tree size, the nodes are also shown against it.
+ *
+ * @author 150009974
+ * @version 1.1
+ * @see SearchProgress
+ */
+public final class ProgressReporter {
+
+    /** The default time (in milliseconds) between reports. */
+    private static final long DEFAULT_PERIOD = 10000;
+
+    /** The format of the projected finish time. */
+    private static final String CLOCK = "HH:mm:ss";
+
+    /** The {@link SolvingAlgorithm} reported on. */
+    private final SolvingAlgorithm alg;
+
+    /** The estimated number of search tree nodes, or 0 if unknown. */
+    private final double estimatedNodes;
+
+    /** The time (in milliseconds) between reports. */
+    private final long period;
+
+    /** The start of the reports, by {@link System#nanoTime()}. */
+    private final long start = System.nanoTime();
+
+    /** The background thread that prints the reports. */
+    private final Thread reporter;
+
+    /** Whether the reporter is being closed. */
+    private volatile boolean closing = false;
+
+    /**
+     * Creates a {@link ProgressReporter} that reports every 10 seconds.
+     *
+     * @param alg            the {@link SolvingAlgorithm} to report on
+     * @param estimatedNodes the estimated number of search tree nodes, or 0 if unknown
+     */
+    public ProgressReporter(SolvingAlgorithm alg, double estimatedNodes) {
+        this(alg, estimatedNodes, DEFAULT_PERIOD);
+    }
+
+    /**
+     * Creates a {@link ProgressReporter} and starts reporting.
+     * The progress of the {@link SolvingAlgorithm} is tracked from now on,
+     * so this must be created before it solves.
+     *
+     * @param alg            the {@link SolvingAlgorithm} to report on
+     * @param estimatedNodes the estimated number of search tree nodes, or 0 if unknown
+     * @param period         the time (in milliseconds) between reports
+     */
+    public ProgressReporter(SolvingAlgorithm alg, double estimatedNodes, long period) {
+        this.alg = alg;
+        alg.trackProgress();
+        this.estimatedNodes = estimatedNodes;
+        this.period = period;
+        reporter = new Thread(this::run, "progress-reporter");
+        reporter.setDaemon(true);
+        reporter.start();
+    }
+
+    /** Prints a report every {@link #period} until closed. */
+    private void run() {
+        while (!closing) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(period);
+            } catch (InterruptedException e) {
+                return;
+            }
+            System.out.println(format());
+        }
+    }
+
+    /** Stops the reports. */
+    public void close() {
+        closing = true;
+        reporter.interrupt();
+        try {
+            reporter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Formats the current progress.
+     * The node count is read without synchronisation, so it may be slightly stale.
+     *
+     * @return a line with the progress, the nodes and the projected finish
+     */
+    private String format() {
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        double fraction = alg.getProgress();
+        long nodes = alg.getNumberOfNodes();
+        StringBuilder line = new StringBuilder();
+        line.append(String.format("Progress: %.1f%% after %.0f s, %d", 100 * fraction, elapsed, nodes));
+        if (estimatedNodes > 0) {
+            line.append(String.format(" of ~%.0f", estimatedNodes));
+        }
+        line.append(String.format(" nodes (%.0f nodes/s)", elapsed == 0 ? 0 : nodes / elapsed));
+        if (fraction > 0) {
+            double left = elapsed * (1 - fraction) / fraction;
+            Date finish = new Date(System.currentTimeMillis() + (long) (1000 * left));
+            line.append(String.format(", about %.0f s left, done by %s",
+                    left, new SimpleDateFormat(CLOCK).format(finish)));
+        }
+        return line.toString();
+    }
+
+}
@@ -0,0 +1,100 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Estimates the fraction of a depth first search tree that has been explored,
+ * from the branches taken along the current search path.
+ * The left branch of a node, which assigns a value,
+ * is taken to be 1/k of the subtree of the node
+ * and the right branch, which removes the value, the other (k - 1)/k,
+ * where k is the domain size of the branching variable.
+ * The estimate only grows as the search goes on.
+ * The search thread updates it and any thread may read it.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public final class SearchProgress {
+
+    /** The fraction of the tree explored before the current branch of each node on the path. */
+    private double[] before = new double[64];
+
+    /** The fraction of the tree below the current branch of each node on the path. */
+    private double[] share = new double[64];
+
+    /** The domain size of the branching variable of each node on the path. */
+    private int[] branches = new int[64];
+
+    /** The number of nodes on the search path. */
+    private int pathLength = 0;
+
+    /** The estimated fraction of the tree explored. */
+    private volatile double fraction = 0;
+
+    /** Forgets the search path and the explored fraction. */
+    public void reset() {
+        pathLength = 0;
+        fraction = 0;
+    }
+
+    /** Records that the search reached a node below the current branch. */
+    public void enter() {
+        if (pathLength == before.length) {
+            int length = 2 * pathLength;
+            before = Arrays.copyOf(before, length);
+            share = Arrays.copyOf(share, length);
+            branches = Arrays.copyOf(branches, length);
+        }
+        // The parent has already narrowed its share to the current branch.
+        share[pathLength] = pathLength == 0 ? 1 : share[pathLength - 1];
+        before[pathLength] = fraction;
+        pathLength++;
+    }
+
+    /**
+     * Records that the current node takes its left branch.
+     *
+     * @param domainSize the domain size of the branching variable
+     */
+    public void left(int domainSize) {
+        if (pathLength == 0) {
+            return;
+        }
+        int top = pathLength - 1;
+        branches[top] = Math.max(domainSize, 1);
+        share[top] = share[top] / branches[top];
+    }
+
+    /** Records that the current node takes its right branch, after its left one. */
+    public void right() {
+        if (pathLength == 0) {
+            return;
+        }
+        int top = pathLength - 1;
+        before[top] += share[top];
+        fraction = before[top];
+        share[top] = share[top] * (branches[top] - 1);
+    }
+
+    /** Records that the current node has been explored and the search returns to its parent. */
+    public void leave() {
+        if (pathLength == 0) {
+            return;
+        }
+        pathLength--;
+        fraction = before[pathLength] + share[pathLength];
+    }
+
+    /** Records that the search has explored its whole tree, which a stopped search has not. */
+    public void complete() {
+        pathLength = 0;
+        fraction = 1;
+    }
+
+    /** @return the estimated fraction of the tree explored, from 0 to 1 */
+    public double getFraction() {
+        return fraction;
+    }
+
+}
@@ -0,0 +1,183 @@
+package main;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Represents the cost of every phase of a run, from parsing to the search.
+ * A phase is measured between {@link #begin(String)} and {@link #end()}:
+ * its wall clock time, the CPU time and allocated bytes of the current thread,
+ * as reported by the {@link ThreadMXBean}, and the peak heap usage.
+ * Measuring a phase again adds to its earlier measurement.
+ * Work done on other threads, such as by a parallel reader, is only
+ * visible in the wall clock time.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class SolveReport {
+
+    /** The phase of reading the problem file. */
+    public static final String PARSE = "parse";
+
+    /** The phase of applying the unary constraints of an N-ary problem. */
+    public static final String UNARY = "unary";
+
+    /** The phase of enumerating the valid tuples of the N-ary constraints. */
+    public static final String TABLES = "tables";
+
+    /** The phase of building the dual encoding of an N-ary problem. */
+    public static final String ENCODING = "encoding";
+
+    /** The phase of presolving or enforcing path consistency. */
+    public static final String PREPROCESS = "preprocess";
+
+    /** The phase of making the problem consistent before the search. */
+    public static final String CONSISTENCY = "consistency";
+
+    /** The phase of searching for solutions. */
+    public static final String SEARCH = "search";
+
+    /** The number of bytes in a megabyte. */
+    private static final double MEGABYTE = 1024 * 1024;
+
+    /** The measured phases, in the order they were first measured. */
+    private final LinkedHashMap<String, Phase> phases = new LinkedHashMap<>();
+
+    /** The {@link ThreadMXBean} that measures the CPU time and allocations. */
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    /** The name of the phase being measured, or null if there is none. */
+    private String current;
+
+    /** The start of the current phase, by {@link System#nanoTime()}. */
+    private long wallStart;
+
+    /** The CPU time of the thread at the start of the current phase. */
+    private long cpuStart;
+
+    /** The bytes allocated by the thread at the start of the current phase. */
+    private long allocatedStart;
+
+    /**
+     * Starts measuring the given phase.
+     * A phase that is still being measured is ended first.
+     *
+     * @param name the name of the phase
+     */
+    public void begin(String name) {
+        if (current != null) {
+            end();
+        }
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+        current = name;
+        allocatedStart = allocatedBytes();
+        cpuStart = cpuTime();
+        wallStart = System.nanoTime();
+    }
+
+    /** Ends measuring the current phase and adds it to this report. */
+    public void end() {
+        long wall = System.nanoTime() - wallStart;
+        long cpu = cpuTime();
+        long allocated = allocatedBytes();
+        if (current == null) {
+            return;
+        }
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        Phase phase = new Phase(current, wall,
+                cpu < 0 || cpuStart < 0 ? -1 : cpu - cpuStart,
+                allocated < 0 || allocatedStart < 0 ? -1 : allocated - allocatedStart,
+                peak);
+        Phase earlier = phases.get(current);
+        if (earlier == null) {
+            phases.put(current, phase);
+        } else {
+            earlier.add(phase);
+        }
+        current = null;
+    }
+
+    /** @return the CPU time (in nanoseconds) of the current thread, or -1 if unsupported */
+    private long cpuTime() {
+        return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+    }
+
+    /** @return the bytes allocated by the current thread, or -1 if unsupported */
+    private long allocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean extended = (com.sun.management.ThreadMXBean) threads;
+            if (extended.isThreadAllocatedMemorySupported() && extended.isThreadAllocatedMemoryEnabled()) {
+                return extended.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param name the name of a phase
+     *
+     * @return the measured {@link Phase}, or null if it was not measured
+     */
+    public Phase get(String name) {
+        return phases.get(name);
+    }
+
+    /** @return the measured {@link Phase}s, in the order they were first measured */
+    public Collection<Phase> getPhases() {
+        return phases.values();
+    }
+
+    /**
+     * Sums the measurements of all phases.
+     *
+     * @return a {@link Phase} named "total", or null if no phase was measured
+     */
+    public Phase getTotal() {
+        Phase total = null;
+        for (Phase phase : phases.values()) {
+            if (total == null) {
+                total = new Phase("total", phase.getWallNanos(), phase.getCpuNanos(),
+                        phase.getAllocatedBytes(), phase.getPeakHeapBytes());
+            } else {
+                total.add(phase);
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        String row = "%-12s %10s %10s %10s %13s%n";
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(row, "Phase", "wall_ms", "cpu_ms", "alloc_mb", "peak_heap_mb"));
+        List<Phase> rows = new ArrayList<>(phases.values());
+        if (rows.size() > 1) {
+            rows.add(getTotal());
+        }
+        for (Phase phase : rows) {
+            sb.append(String.format(row, phase.getName(),
+                    String.format("%.3f", phase.getWallNanos() / 1e6),
+                    phase.getCpuNanos() < 0 ? "-" : String.format("%.3f", phase.getCpuNanos() / 1e6),
+                    phase.getAllocatedBytes() < 0 ? "-" : String.format("%.3f", phase.getAllocatedBytes() / MEGABYTE),
+                    String.format("%.1f", phase.getPeakHeapBytes() / MEGABYTE)));
+        }
+        return sb.toString().trim();
+    }
+
+}
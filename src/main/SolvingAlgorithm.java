@@ -1,5 +1,10 @@
 package main;
 
+import events.ConsistencyEvent;
+import events.Events;
+import events.SearchEvent;
+import events.SolutionEvent;
+
 import java.util.LinkedHashSet;
 import java.util.Map;
 
@@ -7,7 +12,7 @@ import java.util.Map;
  * Defines methods that a constraint solving algorithm should provide.
  *
  * @author 150009974
- * @version 2.1
+ * @version 2.8
  */
 public abstract class SolvingAlgorithm {
 
@@ -20,11 +25,77 @@ public abstract class SolvingAlgorithm {
     /** The total number of arc revisions performed. */
     private long revisions;
 
+    /** The total number of pairs of values checked against constraints. */
+    private long constraintChecks;
+
+    /** The estimated progress of the search, or null if nothing reads it. */
+    private SearchProgress progress;
+
+    /** Whether the search has been asked to stop. */
+    private volatile boolean stopped = false;
+
+    /** The {@link SolveReport} that the consistency and search phases are added to. */
+    private SolveReport report = new SolveReport();
+
     /** @return the amount of time (in milliseconds) that the algorithm took */
     public long getSolutionTime() {
         return solutionTime;
     }
 
+    /** @param solveReport the {@link SolveReport} to add the solving phases to */
+    public void setReport(SolveReport solveReport) {
+        report = solveReport;
+    }
+
+    /** @return the {@link SolveReport} with the phases of the solving */
+    public SolveReport getReport() {
+        return report;
+    }
+
+    /**
+     * @return the estimated fraction of the search tree explored, from 0 to 1,
+     * or 0 if the progress is not tracked
+     */
+    public double getProgress() {
+        return progress == null ? 0 : progress.getFraction();
+    }
+
+    /**
+     * Starts estimating the progress of the search, unless it already is,
+     * and returns the estimate. Only searches whose progress is read
+     * pay for estimating it, so this must be called before solving.
+     *
+     * @return the {@link SearchProgress} that the search reports its branches to
+     */
+    public SearchProgress trackProgress() {
+        if (progress == null) {
+            progress = new SearchProgress();
+            attachProgress(progress);
+        }
+        return progress;
+    }
+
+    /**
+     * Makes the search report its branches to the given {@link SearchProgress}.
+     *
+     * @param tracked the {@link SearchProgress} to report to
+     */
+    protected abstract void attachProgress(SearchProgress tracked);
+
+    /**
+     * Asks the search to stop before its next node,
+     * keeping the solutions found so far.
+     * Any thread may call this, for example to enforce a time limit.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /** @return true iff the search has been asked to stop */
+    public boolean isStopped() {
+        return stopped;
+    }
+
     /** @return the number of search tree nodes that the algorithm reached */
     public long getNumberOfNodes() {
         return numberOfNodes;
@@ -35,6 +106,20 @@ public abstract class SolvingAlgorithm {
         return revisions;
     }
 
+    /** @return the number of constraint checks made during the search */
+    public long getConstraintChecks() {
+        return constraintChecks;
+    }
+
+    /**
+     * Adds the given number of constraint checks.
+     *
+     * @param checks the number of checks made by a revision
+     */
+    protected void addConstraintChecks(long checks) {
+        constraintChecks += checks;
+    }
+
     /** Increments the number of revisions made by 1. */
     protected void incrementRevisionCounter() {
         revisions++;
@@ -45,10 +130,34 @@ public abstract class SolvingAlgorithm {
         numberOfNodes++;
     }
 
+    /**
+     * Records that a solution was found, as a JFR event.
+     *
+     * @param index the number of solutions found so far, including this one
+     */
+    protected void solutionFound(int index) {
+        if (!Events.isRecording()) {
+            return;
+        }
+        SolutionEvent event = new SolutionEvent();
+        if (event.shouldCommit()) {
+            event.algorithm = getClass().getSimpleName();
+            event.index = index;
+            event.nodes = numberOfNodes;
+            event.revisions = revisions;
+            event.commit();
+        }
+    }
+
+    /** @return the number of variables assigned on the current search path */
+    public abstract int getDepth();
+
     /**
      * Solves a constraint satisfaction problem,
      * tracking the time taken, the number of search tree nodes created,
      * and the total number of arc revisions.
+     * The consistency and search phases are added to the {@link #report},
+     * and recorded as JFR events while JFR is recording.
      * If it finds the specified amount of solutions, it terminates early.
      *
      * @param solutionCount the amount of solutions to find
@@ -57,18 +166,42 @@ public abstract class SolvingAlgorithm {
      *
      * @return the set of found solutions
      */
-    public LinkedHashSet<? extends Map> solve(int solutionCount, boolean startConsistent) {
+    public LinkedHashSet<? extends Map<?, Integer>> solve(int solutionCount, boolean startConsistent) {
         numberOfNodes = 0;
         revisions = 0;
+        constraintChecks = 0;
+        if (progress != null) {
+            progress.reset();
+        }
         if (solutionCount <= 0) {
             solutionCount = Integer.MAX_VALUE;
         }
         long start = System.currentTimeMillis();
 
         if (startConsistent) {
+            ConsistencyEvent consistency = Events.beginConsistency();
+            report.begin(SolveReport.CONSISTENCY);
             makeConsistent();
+            report.end();
+            Events.endConsistency(consistency, this, revisions, constraintChecks);
+        }
+        long revisionsBefore = revisions;
+        long checksBefore = constraintChecks;
+        SearchEvent search = Events.beginSearch(this);
+        LinkedHashSet<? extends Map<?, Integer>> solutions = null;
+        try {
+            report.begin(SolveReport.SEARCH);
+            solutions = innerSolve(solutionCount);
+            report.end();
+        } finally {
+            Events.endSearch(search, this, solutionCount, solutions == null ? 0 : solutions.size(),
+                    revisions - revisionsBefore, constraintChecks - checksBefore);
+        }
+
+        // A stopped search has not explored the rest of its tree.
+        if (progress != null && !isStopped()) {
+            progress.complete();
         }
-        LinkedHashSet<? extends Map> solutions = innerSolve(solutionCount);
 
         long end = System.currentTimeMillis();
         solutionTime = end - start;
@@ -86,6 +219,6 @@ public abstract class SolvingAlgorithm {
      *
      * @return the set of found solutions
      */
-    protected abstract LinkedHashSet<? extends Map> innerSolve(int amount);
+    protected abstract LinkedHashSet<? extends Map<?, Integer>> innerSolve(int amount);
 
 }
@@ -0,0 +1,91 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Summarises a sample of measurements of one metric.
+ * The percentiles use the nearest rank method.
+ * The confidence interval is a distribution free 95% interval of the median,
+ * taken from the order statistics of the sample.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class Summary {
+
+    /** The normal quantile of a two-sided 95% confidence interval. */
+    private static final double Z_95 = 1.96;
+
+    /** The median of the sample. */
+    private double median;
+
+    /** The 90th percentile of the sample. */
+    private double p90;
+
+    /** The 99th percentile of the sample. */
+    private double p99;
+
+    /** The lower bound of the confidence interval of the median. */
+    private double low;
+
+    /** The upper bound of the confidence interval of the median. */
+    private double high;
+
+    /**
+     * Summarises the given sample.
+     *
+     * @param sample the measured values, at least one
+     */
+    public Summary(double[] sample) {
+        double[] sorted = sample.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        median = n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+        p90 = percentile(sorted, 90);
+        p99 = percentile(sorted, 99);
+        // The ranks of the bounds follow from the binomial(n, 1/2) distribution.
+        int lowRank = (int) Math.max(1, Math.round(n / 2.0 - Z_95 * Math.sqrt(n) / 2));
+        int highRank = n - lowRank + 1;
+        low = sorted[lowRank - 1];
+        high = sorted[highRank - 1];
+    }
+
+    /**
+     * Returns the given percentile of the sorted sample by the nearest rank.
+     *
+     * @param sorted  the sorted sample
+     * @param percent the percentile to return
+     *
+     * @return the smallest value with at least the given percent of the sample at or below it
+     */
+    private static double percentile(double[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    /** @return the median of the sample */
+    public double getMedian() {
+        return median;
+    }
+
+    /** @return the 90th percentile of the sample */
+    public double getP90() {
+        return p90;
+    }
+
+    /** @return the 99th percentile of the sample */
+    public double getP99() {
+        return p99;
+    }
+
+    /** @return the lower bound of the 95% confidence interval of the median */
+    public double getLow() {
+        return low;
+    }
+
+    /** @return the upper bound of the 95% confidence interval of the median */
+    public double getHigh() {
+        return high;
+    }
+
+}
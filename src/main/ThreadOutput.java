@@ -0,0 +1,68 @@
+package main;
+
+import java.io.PrintStream;
+
+/**
+ * Sends what each thread prints to the {@link PrintStream} chosen for it,
+ * or to a default one, so that several runs can print to their own streams
+ * at once when this is installed as {@link System#out}.
+ * Threads started by a redirected thread print where it prints.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class ThreadOutput extends PrintStream {
+
+    /** The {@link PrintStream} of threads that have not been redirected. */
+    private final PrintStream fallback;
+
+    /** The {@link PrintStream} each redirected thread prints to. */
+    private final InheritableThreadLocal<PrintStream> target = new InheritableThreadLocal<>();
+
+    /**
+     * Creates a {@link ThreadOutput} that prints to the given {@link PrintStream}
+     * until a thread is redirected.
+     *
+     * @param fallback the {@link PrintStream} of threads that have not been redirected
+     */
+    public ThreadOutput(PrintStream fallback) {
+        super(fallback, true);
+        this.fallback = fallback;
+    }
+
+    /**
+     * Sends what the current thread, and the threads it starts, print to the given stream.
+     *
+     * @param stream the {@link PrintStream} to print to
+     */
+    public void redirect(PrintStream stream) {
+        target.set(stream);
+    }
+
+    /** Sends what the current thread prints to the default stream again. */
+    public void reset() {
+        target.remove();
+    }
+
+    /** @return the {@link PrintStream} the current thread prints to */
+    private PrintStream current() {
+        PrintStream stream = target.get();
+        return stream == null ? fallback : stream;
+    }
+
+    @Override
+    public void write(int b) {
+        current().write(b);
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) {
+        current().write(buf, off, len);
+    }
+
+    @Override
+    public void flush() {
+        current().flush();
+    }
+
+}
@@ -0,0 +1,139 @@
+package main;
+
+import binary.trace.TraceEvent;
+import binary.trace.TraceReader;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Provides a main method to summarise or replay a search trace.
+ *
+ * @author 150009974
+ * @version 1.0
+ * @see binary.trace.TraceRecorder
+ */
+public class Trace {
+
+    /** The number of variables listed in the summary. */
+    private static final int TOP = 5;
+
+    /**
+     * Summarises or replays the given trace file.
+     * "summary" prints the number of events of each type, the duration,
+     * the deepest node and the variables that were wiped out the most.
+     * "replay" prints the events, optionally from an index and up to a count.
+     *
+     * @param args the command, the trace file and optionally the first index and count
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: java main.Trace summary <trace>");
+            System.out.println("       java main.Trace replay <trace> [<from> [<count>]]");
+            return;
+        }
+        TraceReader trace;
+        try {
+            trace = new TraceReader(args[1]);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        if (args[0].equalsIgnoreCase("summary")) {
+            summarise(trace);
+        } else if (args[0].equalsIgnoreCase("replay")) {
+            int from = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+            int count = args.length > 3 ? Integer.parseInt(args[3]) : trace.getEvents();
+            replay(trace, from, count);
+        } else {
+            System.out.println("Unknown command: " + args[0]);
+        }
+    }
+
+    /**
+     * Prints a summary of the given trace.
+     *
+     * @param trace the trace to summarise
+     */
+    private static void summarise(TraceReader trace) {
+        long[] counts = new long[TraceEvent.typeCount()];
+        long pruned = 0;
+        int deepest = 0;
+        Map<Integer, Integer> wipeouts = new HashMap<>();
+        for (int i = 0; i < trace.getEvents(); i++) {
+            long data = trace.getData(i);
+            int type = TraceEvent.type(data);
+            counts[type < counts.length ? type : 0]++;
+            deepest = Math.max(deepest, TraceEvent.depth(trace.getTime(i)));
+            if (type == TraceEvent.PRUNE) {
+                pruned += TraceEvent.value(data);
+            } else if (type == TraceEvent.WIPEOUT) {
+                wipeouts.merge(TraceEvent.var(data), 1, Integer::sum);
+            }
+        }
+        double millis = trace.getEvents() == 0 ? 0
+                : TraceEvent.nanos(trace.getTime(trace.getEvents() - 1)) / 1e6;
+        System.out.println("Started: " + new Date(trace.getStartMillis()));
+        System.out.printf("Events: %d in %.3f milliseconds, %d dropped%n",
+                trace.getEvents(), millis, trace.getDropped());
+        for (int type = 1; type < counts.length; type++) {
+            System.out.println("  " + TraceEvent.name(type) + ": " + counts[type]);
+        }
+        System.out.println("Values pruned: " + pruned);
+        System.out.println("Deepest node: " + deepest);
+        System.out.print("Most wiped out variables:");
+        wipeouts.entrySet().stream()
+                .sorted((a, b) -> b.getValue() - a.getValue())
+                .limit(TOP)
+                .forEach(e -> System.out.print(" " + e.getKey() + " (" + e.getValue() + ")"));
+        System.out.println();
+    }
+
+    /**
+     * Prints the events of the given trace, indented by depth.
+     *
+     * @param trace the trace to replay
+     * @param from  the index of the first event to print
+     * @param count the number of events to print
+     */
+    private static void replay(TraceReader trace, int from, int count) {
+        int end = (int) Math.min((long) from + count, trace.getEvents());
+        StringBuilder line = new StringBuilder();
+        for (int i = Math.max(from, 0); i < end; i++) {
+            long time = trace.getTime(i);
+            long data = trace.getData(i);
+            int type = TraceEvent.type(data);
+            line.setLength(0);
+            line.append(String.format("%12.3f ms ", TraceEvent.nanos(time) / 1e6));
+            for (int d = 0; d < TraceEvent.depth(time); d++) {
+                line.append(' ');
+            }
+            line.append(TraceEvent.name(type));
+            switch (type) {
+                case TraceEvent.DECISION:
+                    line.append(" var ").append(TraceEvent.var(data)).append(" = ").append(TraceEvent.value(data));
+                    break;
+                case TraceEvent.REFUTATION:
+                    line.append(" var ").append(TraceEvent.var(data)).append(" != ").append(TraceEvent.value(data));
+                    break;
+                case TraceEvent.PRUNE:
+                    line.append(" var ").append(TraceEvent.var(data))
+                            .append(" lost ").append(TraceEvent.value(data)).append(" values");
+                    break;
+                case TraceEvent.WIPEOUT:
+                case TraceEvent.BACKTRACK:
+                    line.append(" var ").append(TraceEvent.var(data));
+                    break;
+                case TraceEvent.SOLUTION:
+                    line.append(" #").append(TraceEvent.value(data));
+                    break;
+                default:
+                    break;
+            }
+            System.out.println(line);
+        }
+    }
+
+}
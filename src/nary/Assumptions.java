@@ -0,0 +1,172 @@
+package nary;
+
+import nary.types.BaseVariable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a set of assumptions about the variables of an {@link ECSProblem},
+ * such as the clues of one puzzle of a model.
+ * Each assumption either restricts the domain of a {@link BaseVariable}
+ * to some values, an equality if there is one value, or removes some values from it.
+ * Assumptions are applied to a prepared problem, or a fork of one,
+ * without rebuilding its tables, and retracted by restoring the problem.
+ *
+ * A set of assumptions is written on one line, in one of two forms.
+ * Assumptions of the form name=v1,v2 or name!=v1,v2 are separated by
+ * whitespace or ';', where a matrix access such as grid[1][2] names its cell.
+ * A line without '=' gives a digit from 1 to 9, or '.' or '0' for no assumption,
+ * for every variable in the order of declaration, as Sudoku puzzles are written.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class Assumptions {
+
+    /** The separators between assumptions of the named form. */
+    private static final String SEPARATORS = "[\\s;]+";
+
+    /** The separator between the values of one assumption. */
+    private static final String VALUES_SEPARATOR = ",";
+
+    /** The characters of the positional form that make no assumption. */
+    private static final String UNCONSTRAINED = ".0";
+
+    /** The names of the assumed {@link BaseVariable}s. */
+    private final String[] names;
+
+    /** The values of each assumption. */
+    private final int[][] values;
+
+    /** Whether each assumption removes its values rather than keeping only them. */
+    private final boolean[] excluded;
+
+    /**
+     * Creates a set of assumptions.
+     *
+     * @param names    the names of the assumed {@link BaseVariable}s
+     * @param values   the values of each assumption
+     * @param excluded whether each assumption removes its values
+     */
+    private Assumptions(String[] names, int[][] values, boolean[] excluded) {
+        this.names = names;
+        this.values = values;
+        this.excluded = excluded;
+    }
+
+    /**
+     * Parses a line of assumptions.
+     *
+     * @param line      the line to parse
+     * @param variables the names of the {@link BaseVariable}s in the order of declaration,
+     *                  for the positional form
+     *
+     * @return the parsed {@link Assumptions}
+     *
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    public static Assumptions parse(String line, List<String> variables) {
+        String trimmed = line.trim();
+        if (trimmed.indexOf('=') < 0) {
+            return parsePositional(trimmed, variables);
+        }
+        String[] items = trimmed.split(SEPARATORS);
+        String[] names = new String[items.length];
+        int[][] values = new int[items.length][];
+        boolean[] excluded = new boolean[items.length];
+        for (int i = 0; i < items.length; i++) {
+            int equals = items[i].indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected name=values or name!=values: " + items[i]);
+            }
+            excluded[i] = items[i].charAt(equals - 1) == '!';
+            String name = items[i].substring(0, excluded[i] ? equals - 1 : equals);
+            // grid[1][2] is declared as grid_1__2_.
+            names[i] = name.replaceAll("\\[(\\d+)]", "_$1_");
+            String[] tokens = items[i].substring(equals + 1).split(VALUES_SEPARATOR);
+            values[i] = new int[tokens.length];
+            for (int j = 0; j < tokens.length; j++) {
+                try {
+                    values[i][j] = Integer.parseInt(tokens[j]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Not a value: " + tokens[j] + " in " + items[i]);
+                }
+            }
+        }
+        return new Assumptions(names, values, excluded);
+    }
+
+    /**
+     * Parses a line of one digit, '.' or '0' per variable.
+     *
+     * @param line      the line to parse
+     * @param variables the names of the {@link BaseVariable}s in the order of declaration
+     *
+     * @return the parsed {@link Assumptions}
+     *
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    private static Assumptions parsePositional(String line, List<String> variables) {
+        if (line.length() != variables.size()) {
+            throw new IllegalArgumentException("Expected " + variables.size()
+                    + " positions but found " + line.length());
+        }
+        List<String> names = new ArrayList<>();
+        List<int[]> values = new ArrayList<>();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (UNCONSTRAINED.indexOf(c) >= 0) {
+                continue;
+            }
+            if (c < '1' || c > '9') {
+                throw new IllegalArgumentException("Not a digit, '.' or '0': " + c + " at position " + (i + 1));
+            }
+            names.add(variables.get(i));
+            values.add(new int[]{c - '0'});
+        }
+        return new Assumptions(names.toArray(new String[0]), values.toArray(new int[0][]),
+                new boolean[names.size()]);
+    }
+
+    /**
+     * Applies these assumptions to the domains of the given {@link ECSProblem}.
+     * They are retracted by {@link ECSProblem#restore()}.
+     *
+     * @param problem the prepared {@link ECSProblem}, or a fork of one
+     *
+     * @throws IllegalArgumentException if an assumed variable is not declared
+     */
+    public void apply(ECSProblem problem) {
+        for (int i = 0; i < names.length; i++) {
+            BaseVariable var = problem.getVariable(names[i]);
+            if (var == null) {
+                throw new IllegalArgumentException("Variable \"" + names[i] + "\" not declared");
+            }
+            int[] assumed = values[i];
+            boolean removes = excluded[i];
+            var.retainValues(value -> contains(assumed, value) != removes);
+        }
+    }
+
+    /**
+     * @param array an array of values
+     * @param value the value to look for
+     *
+     * @return true iff the array contains the value
+     */
+    private static boolean contains(int[] array, int value) {
+        for (int v : array) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** @return the number of assumptions */
+    public int size() {
+        return names.length;
+    }
+
+}
@@ -1,5 +1,7 @@
 package nary;
 
+import events.Events;
+import events.ParseEvent;
 import nary.constraints.AllDiff;
 import nary.constraints.Exists;
 import nary.constraints.ForAll;
@@ -25,7 +27,7 @@ import java.util.regex.Pattern;
  * A reader tailored for the custom formatted ECSP files.
  *
  * @author 150009974
- * @version 2.5
+ * @version 2.7
  */
 public final class ECSPReader {
 
@@ -37,7 +39,12 @@ public final class ECSPReader {
      * @return the created {@link ECSProblem} instance
      */
     public static ECSProblem parse(String filename) {
-        return new ECSPReader(filename).parseProblem();
+        ParseEvent event = Events.beginParse();
+        ECSPReader reader = new ECSPReader(filename);
+        ECSProblem problem = reader.parseProblem();
+        Events.endParse(event, filename, "ecsp", reader.vars.size(),
+                reader.unaryConstraints.size() + reader.naryConstraints.size());
+        return problem;
     }
 
     /** The {@link Scanner} used to read the ecsp file. */
@@ -46,6 +53,12 @@ public final class ECSPReader {
     /** The number of the current line. */
     private int currentLineNumber;
 
+    /**
+     * The number of the line that starts the current declaration,
+     * which may continue on the following lines.
+     */
+    private int declarationLineNumber;
+
     /*
     NOTE: mapping names to Constants and BaseVariables allows
     for checking of duplicates.
@@ -89,6 +102,7 @@ public final class ECSPReader {
         while (scanner.hasNextLine()) {
             try {
                 String line = readNextLine();
+                declarationLineNumber = currentLineNumber;
                 if (!parseLine(line)) {
                     failedToRecognize(line);
                 }
@@ -247,6 +261,7 @@ public final class ECSPReader {
         LinkedList<NaryConstraint> constraints = new AllDiff(vars).parse(line);
         for (NaryConstraint constraint : constraints) {
             constraint.setProblem(problem);
+            constraint.setSourceLine(declarationLineNumber);
             naryConstraints.add(constraint);
         }
     }
@@ -356,6 +371,7 @@ public final class ECSPReader {
         }
         // some validation might be useful
         nary.setProblem(problem);
+        nary.setSourceLine(declarationLineNumber);
         naryConstraints.add(nary);
         return true;
     }
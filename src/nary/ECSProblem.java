@@ -7,6 +7,10 @@ import binary.types.BinaryConstraint;
 import binary.types.BinaryConstraintStorage;
 import binary.types.BinaryTuple;
 import binary.types.Variable;
+import events.DualEncodingEvent;
+import events.Events;
+import events.UnaryEvent;
+import main.SolveReport;
 import nary.constraints.Assignment;
 import nary.constraints.NaryConstraint;
 import nary.constraints.UnaryConstraint;
@@ -22,7 +26,7 @@ import java.util.function.BiConsumer;
  * A constraint satisfaction problem with more abstract constraints.
  *
  * @author 150009974
- * @version 1.7
+ * @version 2.3
  */
 public class ECSProblem {
 
@@ -35,6 +39,9 @@ public class ECSProblem {
     /** The {@link NaryConstraint}s between the variables. */
     private ArrayList<NaryConstraint> nary;
 
+    /** The {@link BinaryCSP} representation, once built. */
+    private BinaryCSP encoding;
+
     /** @param vars a map of names to {@link BaseVariable}s */
     public void setVariables(LinkedHashMap<String, BaseVariable> vars) {
         variables = vars;
@@ -50,6 +57,23 @@ public class ECSProblem {
         nary = naryConstraints;
     }
 
+    /**
+     * Returns the {@link NaryConstraint} at the given index,
+     * which is also the id of its {@link Variable} in {@link #asBinaryCSP()}.
+     *
+     * @param index the index of the {@link NaryConstraint}
+     *
+     * @return the {@link NaryConstraint} at the given index
+     */
+    public NaryConstraint getNaryConstraint(int index) {
+        return nary.get(index);
+    }
+
+    /** @return the number of {@link NaryConstraint}s */
+    public int getNumberOfNaryConstraints() {
+        return nary.size();
+    }
+
     /** @return the {@link BaseVariable} with the specified name */
     public BaseVariable getVariable(String name) {
         return variables.get(name);
@@ -62,15 +86,73 @@ public class ECSProblem {
      * @return a {@link BinaryCSP} representation of this {@link ECSProblem}
      */
     public BinaryCSP asBinaryCSP() {
+        return asBinaryCSP(new SolveReport());
+    }
+
+    /**
+     * Creates and returns a {@link BinaryCSP} representation
+     * of this {@link ECSProblem}, measuring the unary, tables
+     * and encoding phases in the given {@link SolveReport}.
+     * The representation is built once, later calls return the same one.
+     *
+     * @param report the {@link SolveReport} to add the phases to
+     *
+     * @return a {@link BinaryCSP} representation of this {@link ECSProblem}
+     */
+    public BinaryCSP asBinaryCSP(SolveReport report) {
+        if (encoding != null) {
+            return encoding;
+        }
+        report.begin(SolveReport.UNARY);
         applyUnary();
+        report.end();
+        DualEncodingEvent event = null;
+        if (Events.isRecording()) {
+            event = new DualEncodingEvent();
+            event.begin();
+        }
+        report.begin(SolveReport.TABLES);
         int[][] bounds = createBounds();
+        report.end();
+        report.begin(SolveReport.ENCODING);
         BinaryConstraintStorage cs = createBinaryConstraints();
-        return new BinaryCSP(bounds, cs);
+        report.end();
+        if (event != null && event.shouldCommit()) {
+            event.variables = bounds.length;
+            event.constraints = cs.getConstraints().size();
+            for (BinaryConstraint c : cs.getConstraints()) {
+                event.tuples += c.size();
+            }
+            event.commit();
+        }
+        encoding = new BinaryCSP(bounds, cs);
+        return encoding;
     }
 
     /** Applies all {@link UnaryConstraint}s. */
     private void applyUnary() {
+        if (!Events.isRecording()) {
+            unary.forEach(u -> u.apply(this));
+            return;
+        }
+        UnaryEvent event = new UnaryEvent();
+        event.begin();
+        long before = countValues();
         unary.forEach(u -> u.apply(this));
+        if (event.shouldCommit()) {
+            event.constraints = unary.size();
+            event.valuesRemoved = before - countValues();
+            event.commit();
+        }
+    }
+
+    /** @return the total size of the domains of the {@link BaseVariable}s */
+    private long countValues() {
+        long count = 0;
+        for (BaseVariable var : variables.values()) {
+            count += var.getDomainSize();
+        }
+        return count;
     }
 
     /**
@@ -141,7 +223,20 @@ public class ECSProblem {
 
     /** Prepares this {@link ECSProblem} for N-ary solving. */
     public void prepare() {
+        prepare(new SolveReport());
+    }
+
+    /**
+     * Prepares this {@link ECSProblem} for N-ary solving,
+     * measuring the unary and tables phases in the given {@link SolveReport}.
+     *
+     * @param report the {@link SolveReport} to add the phases to
+     */
+    public void prepare(SolveReport report) {
+        report.begin(SolveReport.UNARY);
         applyUnary();
+        report.end();
+        report.begin(SolveReport.TABLES);
         for (NaryConstraint n : nary) {
             n.storeValidAssignments();
             String[] varNames = n.getVarNames();
@@ -150,7 +245,40 @@ public class ECSProblem {
                 var.addRelevant(n);
             }
         }
+        variables.values().forEach(BaseVariable::saveDomain);
+        report.end();
+    }
+
+    /**
+     * Gives back the domains the {@link BaseVariable}s had when prepared,
+     * and restores the {@link BinaryCSP} representation, if built,
+     * so this {@link ECSProblem} can be solved again.
+     */
+    public void restore() {
+        variables.values().forEach(BaseVariable::restoreDomain);
+        if (encoding != null) {
+            encoding.restore();
+        }
+    }
 
+    /**
+     * Creates an {@link ECSProblem} to be solved independently of this prepared one.
+     * It shares the {@link NaryConstraint}s and their tables,
+     * and forks the {@link BinaryCSP} representation, if built,
+     * but has its own copies of the domains of the {@link BaseVariable}s.
+     * This {@link ECSProblem} must be prepared, or encoded, before it is forked,
+     * as preparing a fork would change the shared tables.
+     *
+     * @return the fork of this {@link ECSProblem}
+     */
+    public ECSProblem fork() {
+        ECSProblem fork = new ECSProblem();
+        fork.variables = new LinkedHashMap<>();
+        variables.forEach((name, var) -> fork.variables.put(name, var.copy()));
+        fork.unary = unary;
+        fork.nary = nary;
+        fork.encoding = encoding == null ? null : encoding.fork();
+        return fork;
     }
 
     @Override
@@ -3,6 +3,7 @@ package nary.algorithms;
 import nary.constraints.Assignment;
 import nary.constraints.NaryConstraint;
 import nary.types.BaseVariable;
+import profile.ConstraintProfiler;
 
 import java.util.LinkedHashSet;
 import java.util.Objects;
@@ -11,7 +12,7 @@ import java.util.Objects;
  * Represents an arc from one {@link BaseVariable} to another.
  *
  * @author 150009974
- * @version 1.2
+ * @version 1.4
  */
 public class BaseVarArc {
 
@@ -40,6 +41,20 @@ public class BaseVarArc {
         return supporter;
     }
 
+    /**
+     * Returns the number of constraint checks that revising this {@link BaseVarArc}
+     * makes, that is, the number of valid assignments of the common constraints.
+     *
+     * @return the number of assignments checked by {@link #prune(Assignment)}
+     */
+    public long countChecks() {
+        long checks = 0;
+        for (NaryConstraint constraint : common) {
+            checks += constraint.getDomainSize();
+        }
+        return checks;
+    }
+
     /**
      * Prunes and returns values from the {@link #dependent}'s domain
      * based on the {@link #supporter}'s domain.
@@ -52,6 +67,25 @@ public class BaseVarArc {
      * @see NaryConstraint#getSupported(Assignment, String)
      */
     public BaseVarPrune prune(Assignment current) {
+        return prune(current, null);
+    }
+
+    /**
+     * Prunes and returns values from the {@link #dependent}'s domain
+     * based on the {@link #supporter}'s domain,
+     * recording the revision of each common {@link NaryConstraint}
+     * in the given {@link ConstraintProfiler}.
+     *
+     * @param current  the current {@link Assignment} of values,
+     *                 that is passed to the constraints
+     * @param profiler the {@link ConstraintProfiler} to record in, or null
+     *
+     * @return the performed {@link BaseVarPrune} on the dependent {@link BaseVariable}
+     */
+    public BaseVarPrune prune(Assignment current, ConstraintProfiler profiler) {
+        if (profiler != null) {
+            return profiledPrune(current, profiler);
+        }
         LinkedHashSet<Integer> supported;
         LinkedHashSet<Integer> allRemoved = new LinkedHashSet<>();
         LinkedHashSet<Integer> removed;
@@ -64,6 +98,29 @@ public class BaseVarArc {
         return new BaseVarPrune(dependent, allRemoved);
     }
 
+    /**
+     * Prunes like {@link #prune(Assignment)}, timing every common {@link NaryConstraint}.
+     * A wipeout is attributed to the constraint that emptied the domain.
+     *
+     * @param current  the current {@link Assignment} of values
+     * @param profiler the {@link ConstraintProfiler} to record in
+     *
+     * @return the performed {@link BaseVarPrune} on the dependent {@link BaseVariable}
+     */
+    private BaseVarPrune profiledPrune(Assignment current, ConstraintProfiler profiler) {
+        LinkedHashSet<Integer> allRemoved = new LinkedHashSet<>();
+        for (NaryConstraint constraint : common) {
+            long start = System.nanoTime();
+            LinkedHashSet<Integer> supported = constraint.getSupported(current, dependent.getName());
+            LinkedHashSet<Integer> removed = dependent.retainValues(supported::contains);
+            long nanos = System.nanoTime() - start;
+            allRemoved.addAll(removed);
+            boolean wipeout = !removed.isEmpty() && !dependent.isConsistent();
+            profiler.record(constraint, constraint.getDomainSize(), removed.size(), nanos, wipeout);
+        }
+        return new BaseVarPrune(dependent, allRemoved);
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(dependent, supporter);
@@ -11,7 +11,7 @@ import java.util.LinkedHashSet;
  * specifically for {@link ECSProblem}s.
  *
  * @author 150009974
- * @version 1.2
+ * @version 1.3
  */
 public class NaryForwardChecking extends NarySolving {
 
@@ -35,7 +35,8 @@ public class NaryForwardChecking extends NarySolving {
             }
             BaseVarArc a = new BaseVarArc(f, var, common);
             incrementRevisionCounter();
-            BaseVarPrune entry = a.prune(getPast());
+            addConstraintChecks(a.countChecks());
+            BaseVarPrune entry = a.prune(getPast(), getProfiler());
             prunes.add(entry);
             if (!f.isConsistent()) {
                 return false;
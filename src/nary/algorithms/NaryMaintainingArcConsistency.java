@@ -11,7 +11,7 @@ import java.util.LinkedHashSet;
  * constraint solving algorithm, specifically for {@link nary.ECSProblem}s.
  *
  * @author 150009974
- * @version 1.2
+ * @version 1.3
  */
 public class NaryMaintainingArcConsistency extends NarySolving {
 
@@ -32,7 +32,8 @@ public class NaryMaintainingArcConsistency extends NarySolving {
             BaseVarArc a = queue.iterator().next();
             queue.remove(a);
             incrementRevisionCounter();
-            BaseVarPrune entry = a.prune(getPast());
+            addConstraintChecks(a.countChecks());
+            BaseVarPrune entry = a.prune(getPast(), getProfiler());
             prunes.add(entry);
 
             BaseVariable dep = a.getDependent();
@@ -1,9 +1,11 @@
 package nary.algorithms;
 
+import main.SearchProgress;
 import main.SolvingAlgorithm;
 import nary.ECSProblem;
 import nary.constraints.Assignment;
 import nary.types.BaseVariable;
+import profile.ConstraintProfiler;
 
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -12,7 +14,7 @@ import java.util.LinkedHashSet;
  * Represents a Constraint Solving algorithm for {@link ECSProblem}s.
  *
  * @author 150009974
- * @version 2.1
+ * @version 2.8
  */
 public abstract class NarySolving extends SolvingAlgorithm {
 
@@ -31,6 +33,12 @@ public abstract class NarySolving extends SolvingAlgorithm {
     /** The set of solutions found so far. */
     private LinkedHashSet<Assignment> solutions = new LinkedHashSet<>();
 
+    /** The {@link ConstraintProfiler} measuring the revisions, or null if not profiling. */
+    private ConstraintProfiler profiler;
+
+    /** The {@link SearchProgress} the branches are reported to, or null if it is not tracked. */
+    private SearchProgress progress;
+
     /**
      * Creates a {@link NarySolving} instance
      * to solve the given {@link ECSProblem}.
@@ -42,6 +50,22 @@ public abstract class NarySolving extends SolvingAlgorithm {
         problem.forEachVariable((name, var) -> future.add(name));
     }
 
+    /**
+     * Solves the {@link ECSProblem} as {@link SolvingAlgorithm#solve(int, boolean)} does.
+     *
+     * @param amount          the amount of {@link Assignment}s to find
+     * @param startConsistent whether the {@link ECSProblem}
+     *                        should be made consistent before solving
+     *
+     * @return the set of found {@link Assignment}s
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public LinkedHashSet<Assignment> solve(int amount, boolean startConsistent) {
+        // The solutions are the ones returned by innerSolve.
+        return (LinkedHashSet<Assignment>) super.solve(amount, startConsistent);
+    }
+
     @Override
     public LinkedHashSet<Assignment> innerSolve(int amount) {
         solutionCount = amount;
@@ -49,6 +73,11 @@ public abstract class NarySolving extends SolvingAlgorithm {
         return solutions;
     }
 
+    @Override
+    protected void attachProgress(SearchProgress tracked) {
+        progress = tracked;
+    }
+
     @Override
     protected void makeConsistent() {
         LinkedHashSet<BaseVarPrune> prunes = new LinkedHashSet<>();
@@ -60,20 +89,40 @@ public abstract class NarySolving extends SolvingAlgorithm {
 
     /**
      * Finds solutions to the {@link #problem}.
-     * Stops when the specified amount of solutions is found.
+     * Stops when the specified amount of solutions is found
+     * or the search is asked to stop.
      *
      * @see #solutionCount
      */
     private void solve() {
+        if (isStopped()) {
+            return;
+        }
         incrementNumberOfNodes();
+        if (progress != null) {
+            progress.enter();
+        }
         BaseVariable var = getSmallestDomainVariable();
+        // Assumptions or the initial revision may have wiped out a domain.
+        if (!var.isConsistent()) {
+            return;
+        }
         int val = var.getNextValue();
+        if (progress != null) {
+            progress.left(var.getDomainSize());
+        }
         leftBranch(var, val);
         // No need to search for more solutions.
-        if (solutions.size() >= solutionCount) {
+        if (solutions.size() >= solutionCount || isStopped()) {
             return;
         }
+        if (progress != null) {
+            progress.right();
+        }
         rightBranch(var, val);
+        if (progress != null) {
+            progress.leave();
+        }
     }
 
     /**
@@ -106,6 +155,11 @@ public abstract class NarySolving extends SolvingAlgorithm {
         var.addToDomain(val);
     }
 
+    @Override
+    public int getDepth() {
+        return past.size();
+    }
+
     /**
      * Checks if a the current assignment is complete.
      * In that case saves a copy of it as a solution and returns true.
@@ -115,6 +169,7 @@ public abstract class NarySolving extends SolvingAlgorithm {
     private boolean checkState() {
         if (areAllVariablesAssigned()) {
             solutions.add(past.deepCopy());
+            solutionFound(solutions.size());
             return true;
         }
         return false;
@@ -214,4 +269,14 @@ public abstract class NarySolving extends SolvingAlgorithm {
         return future;
     }
 
+    /** @param constraintProfiler the {@link ConstraintProfiler} to measure the revisions with */
+    public void setProfiler(ConstraintProfiler constraintProfiler) {
+        profiler = constraintProfiler;
+    }
+
+    /** @return the {@link ConstraintProfiler} measuring the revisions, or null if not profiling */
+    protected ConstraintProfiler getProfiler() {
+        return profiler;
+    }
+
 }
@@ -3,6 +3,8 @@ package nary.constraints;
 
 import binary.types.BinaryConstraint;
 import binary.types.BinaryTuple;
+import events.Events;
+import events.TableEvent;
 import nary.ECSProblem;
 import nary.types.BaseVariable;
 import org.mariuszgromada.math.mxparser.Expression;
@@ -17,7 +19,7 @@ import java.util.Objects;
  * Represents a constraint between multiple variables..
  *
  * @author 150009974
- * @version 1.5
+ * @version 1.7
  */
 public class NaryConstraint {
 
@@ -50,6 +52,9 @@ public class NaryConstraint {
     /** Stores the valid {@link Assignment}s of {@link BaseVariable}s. */
     private ArrayList<Assignment> domain = new ArrayList<>();
 
+    /** The line of the ecsp file that declared this constraint, or 0 if unknown. */
+    private int sourceLine = 0;
+
     /**
      * Creates a {@link NaryConstraint} for the given {@link Expression}.
      *
@@ -64,6 +69,27 @@ public class NaryConstraint {
         this.problem = problem;
     }
 
+    /** @param line the line of the ecsp file that declared this constraint */
+    public void setSourceLine(int line) {
+        sourceLine = line;
+    }
+
+    /** @return the line of the ecsp file that declared this constraint, or 0 if unknown */
+    public int getSourceLine() {
+        return sourceLine;
+    }
+
+    /**
+     * Creates and returns a short description of this {@link NaryConstraint},
+     * with the line that declared it, if known.
+     *
+     * @return the source line and expression of this {@link NaryConstraint}
+     */
+    public String describe() {
+        String expression = constraint.getExpressionString();
+        return sourceLine == 0 ? expression : "line " + sourceLine + ": " + expression;
+    }
+
     /**
      * Recursively generates all possible assignments of
      * the {@link BaseVariable}s of this {@link NaryConstraint}.
@@ -83,7 +109,24 @@ public class NaryConstraint {
         for (String arg : args) {
             constraint.defineArgument(arg, 0);
         }
+        if (!Events.isRecording()) {
+            storeValidAssignments(new Assignment(), unassigned);
+            return;
+        }
+        TableEvent event = new TableEvent();
+        event.begin();
+        int before = domain.size();
         storeValidAssignments(new Assignment(), unassigned);
+        if (event.shouldCommit()) {
+            event.constraint = constraint.getExpressionString();
+            event.arity = args.size();
+            event.candidates = 1;
+            for (String arg : args) {
+                event.candidates *= problem.getVariable(arg).getDomainSize();
+            }
+            event.tuples = domain.size() - before;
+            event.commit();
+        }
     }
 
     /**
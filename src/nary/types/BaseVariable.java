@@ -13,7 +13,7 @@ import java.util.function.Function;
  * Represents a variable in the high-level constraint satisfaction problem.
  *
  * @author 150009974
- * @version 1.6
+ * @version 1.8
  */
 public class BaseVariable {
 
@@ -43,6 +43,9 @@ public class BaseVariable {
     /** The domain of allowed values. */
     private HashSet<Integer> domain = new HashSet<>();
 
+    /** The domain stored by {@link #saveDomain()}, or null if none was stored. */
+    private HashSet<Integer> saved;
+
     private Integer value = null;
 
     private LinkedHashSet<NaryConstraint> relevant = new LinkedHashSet<>();
@@ -62,6 +65,29 @@ public class BaseVariable {
         }
     }
 
+    /**
+     * Creates a copy of the given {@link BaseVariable},
+     * with its own domain and the same relevant constraints.
+     *
+     * @param other the {@link BaseVariable} to copy
+     */
+    private BaseVariable(BaseVariable other) {
+        name = other.name;
+        domain = new HashSet<>(other.domain);
+        saved = other.saved;
+        relevant = other.relevant;
+    }
+
+    /**
+     * Creates an unassigned {@link BaseVariable} with the same name and relevant constraints
+     * and a copy of the current domain, so that the two can be pruned independently.
+     *
+     * @return the copy of this {@link BaseVariable}
+     */
+    public BaseVariable copy() {
+        return new BaseVariable(this);
+    }
+
     /** @return the name of this {@link BaseVariable} */
     public String getName() {
         return name;
@@ -115,6 +141,18 @@ public class BaseVariable {
         domain.add(val);
     }
 
+    /** Stores the current domain, to be given back by {@link #restoreDomain()}. */
+    public void saveDomain() {
+        saved = new HashSet<>(domain);
+    }
+
+    /** Replaces the domain with the one stored by {@link #saveDomain()}, if any. */
+    public void restoreDomain() {
+        if (saved != null) {
+            domain = new HashSet<>(saved);
+        }
+    }
+
     /**
      * Checks if this {@link BaseVariable} is consistent.
      * That is, it has at least one value in its domain.
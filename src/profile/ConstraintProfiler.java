@@ -0,0 +1,172 @@
+package profile;
+
+import binary.BinaryCSP;
+import binary.algorithms.Arc;
+import binary.algorithms.Prune;
+import binary.algorithms.SearchListener;
+import binary.types.BinaryConstraint;
+import binary.types.Variable;
+import nary.constraints.NaryConstraint;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Measures the revisions, checks, pruned values, wipeouts and time
+ * of every constraint during a search, and ranks the constraints by time.
+ * A {@link binary.algorithms.BinarySolving} search reports to it
+ * as a {@link SearchListener}; the time of a revision is the time between
+ * its {@link #revision(Arc, BinaryCSP)} and {@link #prune(Prune)} events.
+ * A {@link nary.algorithms.NarySolving} search reports every
+ * {@link NaryConstraint} it revises through {@link #record}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class ConstraintProfiler implements SearchListener {
+
+    /** The number of constraints in a report by default. */
+    public static final int DEFAULT_TOP = 20;
+
+    /** The statistics of each constraint, by identity. */
+    private final Map<Object, ConstraintStats> stats = new IdentityHashMap<>();
+
+    /** Describes the {@link BinaryConstraint}s. */
+    private final Function<BinaryConstraint, String> binaryLabels;
+
+    /** The statistics of the {@link BinaryConstraint} being revised. */
+    private ConstraintStats current;
+
+    /** The number of checks of the revision in progress. */
+    private long currentChecks;
+
+    /** The start of the revision in progress, by {@link System#nanoTime()}. */
+    private long currentStart;
+
+    /** Creates a {@link ConstraintProfiler} that describes constraints by their scopes. */
+    public ConstraintProfiler() {
+        this(c -> "c(" + c.getVar1() + ", " + c.getVar2() + ")");
+    }
+
+    /**
+     * Creates a {@link ConstraintProfiler} with the given descriptions
+     * of {@link BinaryConstraint}s, for example to map the constraints
+     * of a dual encoding back to the constraints they came from.
+     *
+     * @param binaryLabels describes a {@link BinaryConstraint}
+     */
+    public ConstraintProfiler(Function<BinaryConstraint, String> binaryLabels) {
+        this.binaryLabels = binaryLabels;
+    }
+
+    /**
+     * Returns the statistics of the given constraint, creating them if needed.
+     *
+     * @param constraint a {@link BinaryConstraint} or {@link NaryConstraint}
+     *
+     * @return the {@link ConstraintStats} of the constraint
+     */
+    private ConstraintStats statsOf(Object constraint) {
+        ConstraintStats s = stats.get(constraint);
+        if (s == null) {
+            String label = constraint instanceof NaryConstraint
+                    ? ((NaryConstraint) constraint).describe()
+                    : binaryLabels.apply((BinaryConstraint) constraint);
+            s = new ConstraintStats(label);
+            stats.put(constraint, s);
+        }
+        return s;
+    }
+
+    /**
+     * Records one revision of an {@link NaryConstraint}.
+     *
+     * @param constraint the revised {@link NaryConstraint}
+     * @param checks     the number of tuples checked
+     * @param pruned     the number of values pruned
+     * @param nanos      the time (in nanoseconds) the revision took
+     * @param wipeout    whether the revision emptied a domain
+     */
+    public void record(NaryConstraint constraint, long checks, int pruned, long nanos, boolean wipeout) {
+        ConstraintStats s = statsOf(constraint);
+        s.addRevision(checks, pruned, nanos);
+        if (wipeout) {
+            s.addWipeout();
+        }
+    }
+
+    @Override
+    public void revision(Arc arc, BinaryCSP csp) {
+        current = statsOf(arc.getConstraint(csp));
+        currentChecks = arc.countChecks();
+        currentStart = System.nanoTime();
+    }
+
+    @Override
+    public void prune(Prune prune) {
+        long nanos = System.nanoTime() - currentStart;
+        if (current != null) {
+            current.addRevision(currentChecks, prune.size(), nanos);
+        }
+    }
+
+    @Override
+    public void wipeout(Variable var) {
+        // The initial consistency may wipe out a domain before any revision.
+        if (current != null) {
+            current.addWipeout();
+        }
+    }
+
+    /** @return the statistics of every revised constraint, the most expensive first */
+    public List<ConstraintStats> getRanking() {
+        List<ConstraintStats> ranking = new ArrayList<>(stats.values());
+        ranking.sort(Comparator.comparingLong(ConstraintStats::getNanos).reversed()
+                .thenComparing(Comparator.comparingLong(ConstraintStats::getChecks).reversed()));
+        return ranking;
+    }
+
+    /**
+     * Creates and returns a table of the most expensive constraints.
+     *
+     * @param top the number of constraints to include
+     *
+     * @return the ranked table, with the totals of all constraints
+     */
+    public String report(int top) {
+        List<ConstraintStats> ranking = getRanking();
+        long totalNanos = 0;
+        long totalRevisions = 0;
+        long totalChecks = 0;
+        long totalPruned = 0;
+        long totalWipeouts = 0;
+        for (ConstraintStats s : ranking) {
+            totalNanos += s.getNanos();
+            totalRevisions += s.getRevisions();
+            totalChecks += s.getChecks();
+            totalPruned += s.getPruned();
+            totalWipeouts += s.getWipeouts();
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Constraint profile: %d constraints revised, top %d by time%n",
+                ranking.size(), Math.min(top, ranking.size())));
+        String row = "%4s %10s %6s %10s %14s %10s %9s  %s%n";
+        sb.append(String.format(row, "rank", "time_ms", "time%", "revisions",
+                "checks", "pruned", "wipeouts", "constraint"));
+        for (int i = 0; i < top && i < ranking.size(); i++) {
+            ConstraintStats s = ranking.get(i);
+            sb.append(String.format(row, i + 1,
+                    String.format("%.2f", s.getNanos() / 1e6),
+                    String.format("%.1f", totalNanos == 0 ? 0 : 100.0 * s.getNanos() / totalNanos),
+                    s.getRevisions(), s.getChecks(), s.getPruned(), s.getWipeouts(), s.getLabel()));
+        }
+        sb.append(String.format(row, "", String.format("%.2f", totalNanos / 1e6), "100.0",
+                totalRevisions, totalChecks, totalPruned, totalWipeouts, "total"));
+        return sb.toString().trim();
+    }
+
+}
@@ -0,0 +1,88 @@
+package profile;
+
+/**
+ * Represents the cost of one constraint during a search,
+ * as measured by a {@link ConstraintProfiler}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class ConstraintStats {
+
+    /** The description of the constraint. */
+    private final String label;
+
+    /** The number of times the constraint was revised. */
+    private long revisions;
+
+    /** The number of values or tuples checked against the constraint. */
+    private long checks;
+
+    /** The number of values the constraint pruned. */
+    private long pruned;
+
+    /** The number of domains the constraint emptied. */
+    private long wipeouts;
+
+    /** The time (in nanoseconds) spent revising the constraint. */
+    private long nanos;
+
+    /**
+     * Creates empty {@link ConstraintStats}.
+     *
+     * @param label the description of the constraint
+     */
+    ConstraintStats(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Adds one revision of the constraint.
+     *
+     * @param checks  the number of values or tuples checked
+     * @param pruned  the number of values pruned
+     * @param nanos   the time (in nanoseconds) the revision took
+     */
+    void addRevision(long checks, int pruned, long nanos) {
+        revisions++;
+        this.checks += checks;
+        this.pruned += pruned;
+        this.nanos += nanos;
+    }
+
+    /** Adds one domain wipeout caused by the constraint. */
+    void addWipeout() {
+        wipeouts++;
+    }
+
+    /** @return the description of the constraint */
+    public String getLabel() {
+        return label;
+    }
+
+    /** @return the number of times the constraint was revised */
+    public long getRevisions() {
+        return revisions;
+    }
+
+    /** @return the number of values or tuples checked against the constraint */
+    public long getChecks() {
+        return checks;
+    }
+
+    /** @return the number of values the constraint pruned */
+    public long getPruned() {
+        return pruned;
+    }
+
+    /** @return the number of domains the constraint emptied */
+    public long getWipeouts() {
+        return wipeouts;
+    }
+
+    /** @return the time (in nanoseconds) spent revising the constraint */
+    public long getNanos() {
+        return nanos;
+    }
+
+}